@@ -125,6 +125,15 @@ public class Benchmark implements Serializable {
       return files;
    }
 
+   /**
+    * @param files Files that should be used in the copy.
+    * @return Copy of this benchmark with different set of files.
+    */
+   public Benchmark withFiles(Map<String, byte[]> files) {
+      return new Benchmark(name, version, source, params, files, agents, defaultThreads, plugins, phases, tags,
+            statisticsCollectionPeriod, triggerUrl, preHooks, postHooks, failurePolicy);
+   }
+
    public int defaultThreads() {
       return defaultThreads;
    }
@@ -2,6 +2,7 @@ package io.hyperfoil.api.config;
 
 import java.io.File;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.Map;
 
@@ -24,6 +25,21 @@ public interface BenchmarkData {
 
    InputStream readFile(String file);
 
+   /**
+    * Resolves a file that is not loaded with the benchmark but accessed directly on the agents, e.g. a dataset
+    * that is memory-mapped. The file is not sent to the agents so the path must be valid there.
+    *
+    * @param file Path as used in the benchmark.
+    * @return Absolute path.
+    */
+   default Path localFile(String file) {
+      Path path = Path.of(file);
+      if (!path.isAbsolute()) {
+         throw new BenchmarkDefinitionException("File " + file + " is accessed directly on the agents, use absolute path.");
+      }
+      return path;
+   }
+
    Map<String, byte[]> files();
 
    class MissingFileException extends RuntimeException {
@@ -30,6 +30,7 @@ import java.util.stream.Stream;
 
 import io.hyperfoil.api.session.AccessVisitor;
 import io.hyperfoil.api.session.ReadAccess;
+import io.hyperfoil.api.session.ResourceKeyVisitor;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.WriteAccess;
 
@@ -42,6 +43,7 @@ public class Scenario implements Serializable {
    private final int sumConcurrency;
    private final WriteAccess[] writes;
    private final int uniqueVars;
+   private final int resourceSlots;
 
    public Scenario(Sequence[] initialSequences, Sequence[] sequences, int maxRequests, int maxSequences) {
       this.initialSequences = initialSequences;
@@ -72,6 +74,17 @@ public class Scenario implements Serializable {
             access.setIndex(keyIndexMap.get(access.key()));
          }
       }
+      ResourceKeyVisitor resourceKeyVisitor = new ResourceKeyVisitor();
+      resourceKeyVisitor.visit(sequences);
+      int slots = 0;
+      for (Session.ResourceKey<?> key : resourceKeyVisitor.keys()) {
+         // keys that do not store the index are looked up by hash
+         key.setIndex(slots);
+         if (key.index() == slots) {
+            ++slots;
+         }
+      }
+      resourceSlots = slots;
    }
 
    public Sequence[] initialSequences() {
@@ -102,6 +115,13 @@ public class Scenario implements Serializable {
       return sequence;
    }
 
+   /**
+    * @return Number of resource key indices assigned to keys within this scenario.
+    */
+   public int resourceSlots() {
+      return resourceSlots;
+   }
+
    public Session.Var[] createVars(Session session) {
       Session.Var[] vars = new Session.Var[uniqueVars];
       for (WriteAccess access : writes) {
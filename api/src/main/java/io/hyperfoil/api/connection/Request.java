@@ -10,6 +10,7 @@ import io.hyperfoil.api.jfr.RecordResponseEvent;
 import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.statistics.Statistics;
+import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GenericFutureListener;
 import io.netty.util.concurrent.ScheduledFuture;
@@ -29,6 +30,12 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
    private SequenceInstance completionSequence;
    private Statistics statistics;
    private ScheduledFuture<?> timeoutFuture;
+   // intrusive node in TimeoutWheel
+   TimeoutWheel timeoutWheel;
+   Request timeoutPrev;
+   Request timeoutNext;
+   long timeoutTick;
+   long timeoutId;
    private Connection connection;
    private Status status = Status.IDLE;
    private Result result = Result.VALID;
@@ -108,6 +115,11 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
          timeoutFuture.cancel(false);
          timeoutFuture = null;
       }
+      if (timeoutWheel != null) {
+         timeoutWheel.cancel(this);
+      }
+      // prevents the timeout if it is just expiring
+      timeoutId = 0;
       connection = null;
       sequence = null;
       // handleEnd may indirectly call handleThrowable which calls setCompleted first
@@ -146,7 +158,13 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
    }
 
    public void setTimeout(long timeout, TimeUnit timeUnit) {
-      timeoutFuture = session.executor().schedule(this, timeout, timeUnit);
+      EventExecutor executor = session.executor();
+      TimeoutWheel wheel = TimeoutWheel.get(executor);
+      if (wheel != null) {
+         wheel.add(this, System.nanoTime(), timeUnit.toNanos(timeout));
+         return;
+      }
+      timeoutFuture = executor.schedule(this, timeout, timeUnit);
       timeoutFuture.addListener(FAILURE_LISTENER);
    }
 
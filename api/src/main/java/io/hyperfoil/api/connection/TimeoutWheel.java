@@ -0,0 +1,170 @@
+package io.hyperfoil.api.connection;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.hyperfoil.internal.Properties;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * Hashed timing wheel for request timeouts, one per event loop. Requests are linked directly into the slots
+ * so that arming and cancelling the timeout is O(1) and does not allocate; the executor is woken up once
+ * per tick only while there are some timeouts pending. A timeout fires up to one tick later than requested.
+ * <p>
+ * All methods must be called from the executor's thread.
+ */
+final class TimeoutWheel implements Runnable {
+   private static final Logger log = LogManager.getLogger(TimeoutWheel.class);
+   private static final long TICK_NANOS = TimeUnit.MILLISECONDS
+         .toNanos(Properties.getLong(Properties.REQUEST_TIMEOUT_TICK_MS, 10));
+   private static final int SLOTS = 512;
+   private static final FastThreadLocal<TimeoutWheel> WHEELS = new FastThreadLocal<>();
+
+   private final EventExecutor executor;
+   private final long tickNanos;
+   private final long originNanos;
+   private final Request[] slots;
+   private final int mask;
+   // all ticks up to this one (inclusive) have been expired
+   private long processedTick;
+   private int size;
+   private long lastId;
+   private boolean scheduled;
+   private Request[] expired = new Request[16];
+   private long[] expiredIds = new long[16];
+
+   TimeoutWheel(EventExecutor executor, long tickNanos, int slots, long originNanos) {
+      if (Integer.bitCount(slots) != 1) {
+         throw new IllegalArgumentException("Number of slots must be a power of 2: " + slots);
+      }
+      this.executor = executor;
+      this.tickNanos = tickNanos;
+      this.originNanos = originNanos;
+      this.slots = new Request[slots];
+      this.mask = slots - 1;
+   }
+
+   /**
+    * @return Wheel for the current thread or <code>null</code> if the timeouts should be scheduled
+    *         on the executor directly.
+    */
+   static TimeoutWheel get(EventExecutor executor) {
+      if (TICK_NANOS <= 0 || !executor.inEventLoop()) {
+         return null;
+      }
+      TimeoutWheel wheel = WHEELS.getIfExists();
+      if (wheel == null) {
+         wheel = new TimeoutWheel(executor, TICK_NANOS, SLOTS, System.nanoTime());
+         WHEELS.set(wheel);
+      } else if (wheel.executor != executor) {
+         // e.g. ImmediateEventExecutor in tests
+         return null;
+      }
+      return wheel;
+   }
+
+   void add(Request request, long nowNanos, long timeoutNanos) {
+      assert request.timeoutWheel == null;
+      long deadline = nowNanos + timeoutNanos - originNanos;
+      long tick = Math.max(processedTick + 1, (deadline + tickNanos - 1) / tickNanos);
+      int slot = (int) (tick & mask);
+      Request head = slots[slot];
+      request.timeoutWheel = this;
+      request.timeoutTick = tick;
+      request.timeoutId = ++lastId;
+      request.timeoutPrev = null;
+      request.timeoutNext = head;
+      if (head != null) {
+         head.timeoutPrev = request;
+      }
+      slots[slot] = request;
+      ++size;
+      if (!scheduled && executor != null) {
+         scheduled = true;
+         executor.schedule(this, tickNanos, TimeUnit.NANOSECONDS);
+      }
+   }
+
+   void cancel(Request request) {
+      assert request.timeoutWheel == this;
+      unlink(request);
+      request.timeoutId = 0;
+   }
+
+   private void unlink(Request request) {
+      Request prev = request.timeoutPrev;
+      Request next = request.timeoutNext;
+      if (prev == null) {
+         slots[(int) (request.timeoutTick & mask)] = next;
+      } else {
+         prev.timeoutNext = next;
+      }
+      if (next != null) {
+         next.timeoutPrev = prev;
+      }
+      request.timeoutWheel = null;
+      request.timeoutPrev = null;
+      request.timeoutNext = null;
+      --size;
+   }
+
+   int size() {
+      return size;
+   }
+
+   @Override
+   public void run() {
+      scheduled = false;
+      expire(System.nanoTime());
+      if (size > 0) {
+         scheduled = true;
+         executor.schedule(this, tickNanos, TimeUnit.NANOSECONDS);
+      }
+   }
+
+   void expire(long nowNanos) {
+      long currentTick = (nowNanos - originNanos) / tickNanos;
+      if (currentTick <= processedTick) {
+         return;
+      }
+      // After a long pause we need to visit each slot only once
+      long firstTick = Math.max(processedTick + 1, currentTick - mask);
+      int count = 0;
+      for (long tick = firstTick; tick <= currentTick; ++tick) {
+         Request request = slots[(int) (tick & mask)];
+         while (request != null) {
+            Request next = request.timeoutNext;
+            if (request.timeoutTick <= currentTick) {
+               if (count == expired.length) {
+                  expired = Arrays.copyOf(expired, count * 2);
+                  expiredIds = Arrays.copyOf(expiredIds, count * 2);
+               }
+               expired[count] = request;
+               expiredIds[count] = request.timeoutId;
+               ++count;
+               unlink(request);
+            }
+            request = next;
+         }
+      }
+      processedTick = currentTick;
+      // Handling a timeout can complete (and even restart) other expired requests,
+      // so we fire only those that were not touched in the meantime.
+      for (int i = 0; i < count; ++i) {
+         Request request = expired[i];
+         expired[i] = null;
+         if (request.timeoutId == expiredIds[i]) {
+            request.timeoutId = 0;
+            try {
+               request.call();
+            } catch (Throwable t) {
+               log.error("Timeout task failed", t);
+            }
+         }
+      }
+   }
+}
@@ -0,0 +1,25 @@
+package io.hyperfoil.api.session;
+
+import java.util.ArrayList;
+
+import io.hyperfoil.impl.CollectingVisitor;
+
+@SuppressWarnings("rawtypes")
+public class ResourceKeyVisitor extends CollectingVisitor<Session.ResourceKey> {
+   private final ArrayList<Session.ResourceKey<?>> keys = new ArrayList<>();
+
+   public ResourceKeyVisitor() {
+      super(Session.ResourceKey.class);
+   }
+
+   @Override
+   protected boolean process(Session.ResourceKey value) {
+      keys.add(value);
+      // handlers used as keys can contain other keys
+      return true;
+   }
+
+   public Session.ResourceKey<?>[] keys() {
+      return keys.toArray(new Session.ResourceKey[0]);
+   }
+}
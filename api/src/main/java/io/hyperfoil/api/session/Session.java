@@ -1,10 +1,12 @@
 package io.hyperfoil.api.session;
 
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.config.Visitor;
 import io.hyperfoil.api.connection.Request;
 import io.hyperfoil.api.statistics.SessionStatistics;
 import io.hyperfoil.api.statistics.Statistics;
@@ -143,7 +145,50 @@ public interface Session {
       }
    }
 
+   /**
+    * Identifies a resource in the session. Keys that can store an index get it assigned when the
+    * {@link Scenario} is built, and the session resolves these through an array instead of a hash lookup.
+    * The default implementation does not store the index.
+    */
    interface ResourceKey<R extends Resource> extends Serializable {
+      default int index() {
+         return -1;
+      }
+
+      default void setIndex(int index) {
+      }
+   }
+
+   /**
+    * Resource key that stores its index. Keys are compared by identity.
+    */
+   class IndexedResourceKey<R extends Resource> implements ResourceKey<R> {
+      @Visitor.Ignore
+      private int index = -1;
+
+      @Override
+      public int index() {
+         return index;
+      }
+
+      @Override
+      public void setIndex(int index) {
+         this.index = index;
+      }
+   }
+
+   /**
+    * Key held in a static field and shared by all scenarios. The index is assigned once, on construction,
+    * so that the session never has to write to a key that other threads can read.
+    */
+   class ConstantResourceKey<R extends Resource> implements ResourceKey<R> {
+      private static final AtomicInteger COUNTER = new AtomicInteger();
+
+      private final int constantIndex = COUNTER.getAndIncrement();
+
+      public int constantIndex() {
+         return constantIndex;
+      }
    }
 
    /**
@@ -18,9 +18,19 @@ public class SessionStatistics {
    private int[] stepIds;
    private Map<String, Statistics>[] maps;
    private int size;
+   private final boolean singleWriter;
 
-   @SuppressWarnings("unchecked")
    public SessionStatistics() {
+      this(false);
+   }
+
+   /**
+    * @param singleWriter Create {@link Statistics} in single-writer mode; the executor must then invoke
+    *        {@link #handOver()} periodically.
+    */
+   @SuppressWarnings("unchecked")
+   public SessionStatistics(boolean singleWriter) {
+      this.singleWriter = singleWriter;
       phases = new Phase[4];
       stepIds = new int[4];
       maps = new Map[4];
@@ -31,7 +41,7 @@ public class SessionStatistics {
          if (stepIds[i] == stepId && phases[i] == phase) {
             Statistics s = maps[i].get(name);
             if (s == null) {
-               s = new Statistics(startTime);
+               s = new Statistics(startTime, singleWriter);
                maps[i].put(name, s);
             }
             return s;
@@ -45,7 +55,7 @@ public class SessionStatistics {
 
       phases[size] = phase;
       stepIds[size] = stepId;
-      Statistics s = new Statistics(startTime);
+      Statistics s = new Statistics(startTime, singleWriter);
       HashMap<String, Statistics> map = new HashMap<>();
       map.put(name, s);
       maps[size] = map;
@@ -69,6 +79,21 @@ public class SessionStatistics {
       return maps[index];
    }
 
+   public boolean isSingleWriter() {
+      return singleWriter;
+   }
+
+   /**
+    * Must be invoked from the executor that records the statistics.
+    */
+   public void handOver() {
+      for (int i = 0; i < size; ++i) {
+         for (Statistics statistics : maps[i].values()) {
+            statistics.handOver();
+         }
+      }
+   }
+
    public void prune(Phase phase) {
       int lastGood = size - 1;
       while (lastGood >= 0 && phases[lastGood] == phase) {
@@ -1,5 +1,8 @@
 package io.hyperfoil.api.statistics;
 
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceArray;
@@ -14,6 +17,11 @@ import org.apache.logging.log4j.Logger;
 /**
  * This is a copy/subset of {@link SingleWriterRecorder} but uses {@link StatisticsSnapshot} instead of only
  * the histogram.
+ * <p>
+ * In the single-writer mode all recording must happen on one thread (the executor that drives the sessions)
+ * and the recording does not use any atomic operations. Instead the writer thread periodically {@link #handOver()
+ * hands over} the snapshots to the reader through a queue; {@link #visitSnapshots(Consumer)} then publishes
+ * only the snapshots that were handed over.
  */
 public class Statistics {
    private static final Logger log = LogManager.getLogger(Statistics.class);
@@ -45,8 +53,29 @@ public class Statistics {
    private long endTimestamp = Long.MAX_VALUE;
    private int lastLowestIndex;
 
+   private final boolean singleWriter;
+   // Snapshots owned by the writer thread in single-writer mode; non-null only in range lowestOwned..highestOwned
+   private StatisticsSnapshot[] owned;
+   private int lowestOwned = Integer.MAX_VALUE;
+   private int highestOwned = -1;
+   private final Queue<StatisticsSnapshot> handedOver;
+   private final Queue<StatisticsSnapshot> recycled;
+
    public Statistics(long startTimestamp) {
+      this(startTimestamp, false);
+   }
+
+   public Statistics(long startTimestamp, boolean singleWriter) {
       this.startTimestamp = startTimestamp;
+      this.singleWriter = singleWriter;
+      if (singleWriter) {
+         owned = new StatisticsSnapshot[16];
+         handedOver = new ConcurrentLinkedQueue<>();
+         recycled = new ConcurrentLinkedQueue<>();
+      } else {
+         handedOver = null;
+         recycled = null;
+      }
       active = new AtomicReferenceArray<>(16);
       inactive = new AtomicReferenceArray<>(16);
       StatisticsSnapshot first = new StatisticsSnapshot();
@@ -76,69 +105,92 @@ public class Statistics {
          log.warn("Response time {} is negative.", responseTime);
          responseTime = 0;
       }
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
+      long criticalValueAtEnter = writerEnter();
       try {
          StatisticsSnapshot active = active(startTimestamp);
          active.histogram.recordValue(responseTime);
          active.responseCount++;
       } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+         writerExit(criticalValueAtEnter);
       }
    }
 
    public void incrementRequests(long timestamp) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
+      long criticalValueAtEnter = writerEnter();
       try {
          StatisticsSnapshot active = active(timestamp);
          active.requestCount++;
       } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+         writerExit(criticalValueAtEnter);
       }
    }
 
    public void incrementTimeouts(long timestamp) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
+      long criticalValueAtEnter = writerEnter();
       try {
          StatisticsSnapshot active = active(timestamp);
          active.requestTimeouts++;
       } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+         writerExit(criticalValueAtEnter);
       }
    }
 
    public void incrementConnectionErrors(long timestamp) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
+      long criticalValueAtEnter = writerEnter();
       try {
          StatisticsSnapshot active = active(timestamp);
          active.connectionErrors++;
       } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+         writerExit(criticalValueAtEnter);
       }
    }
 
    public void incrementInternalErrors(long timestamp) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
+      long criticalValueAtEnter = writerEnter();
       try {
          StatisticsSnapshot active = active(timestamp);
          active.internalErrors++;
       } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+         writerExit(criticalValueAtEnter);
       }
    }
 
    public void incrementBlockedTime(long timestamp, long blockedTime) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
+      long criticalValueAtEnter = writerEnter();
       try {
          StatisticsSnapshot active = active(timestamp);
          active.blockedTime += blockedTime;
       } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+         writerExit(criticalValueAtEnter);
+      }
+   }
+
+   public <C extends StatsExtension> void update(StatsExtensionSlot<C> slot, long timestamp, LongUpdater<C> updater,
+         long value) {
+      long criticalValueAtEnter = writerEnter();
+      try {
+         updater.update(active(timestamp).extension(slot), value);
+      } finally {
+         writerExit(criticalValueAtEnter);
       }
    }
 
+   public <C extends StatsExtension> void update(StatsExtensionSlot<C> slot, long timestamp, ObjectUpdater<C> updater,
+         Object value) {
+      long criticalValueAtEnter = writerEnter();
+      try {
+         updater.update(active(timestamp).extension(slot), value);
+      } finally {
+         writerExit(criticalValueAtEnter);
+      }
+   }
+
+   /**
+    * Prefer {@link #update(StatsExtensionSlot, long, LongUpdater, long)} when the key is known in advance.
+    */
    public <C extends StatsExtension> void update(String key, long timestamp, Supplier<C> creator, LongUpdater<C> updater,
          long value) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
+      long criticalValueAtEnter = writerEnter();
       try {
          StatisticsSnapshot active = active(timestamp);
          StatsExtension custom = active.extensions.get(key);
@@ -149,13 +201,13 @@ public class Statistics {
          //noinspection unchecked
          updater.update((C) custom, value);
       } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+         writerExit(criticalValueAtEnter);
       }
    }
 
    public <C extends StatsExtension> void update(String key, long timestamp, Supplier<C> creator, ObjectUpdater<C> updater,
          Object value) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
+      long criticalValueAtEnter = writerEnter();
       try {
          StatisticsSnapshot active = active(timestamp);
          StatsExtension custom = active.extensions.get(key);
@@ -166,21 +218,30 @@ public class Statistics {
          //noinspection unchecked
          updater.update((C) custom, value);
       } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+         writerExit(criticalValueAtEnter);
       }
    }
 
    public void addInvalid(long timestamp) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
+      long criticalValueAtEnter = writerEnter();
       try {
          StatisticsSnapshot active = active(timestamp);
          active.invalid++;
       } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+         writerExit(criticalValueAtEnter);
       }
    }
 
    public void visitSnapshots(Consumer<StatisticsSnapshot> consumer) {
+      if (singleWriter) {
+         StatisticsSnapshot snapshot;
+         while ((snapshot = handedOver.poll()) != null) {
+            consumer.accept(snapshot);
+            snapshot.reset();
+            recycled.offer(snapshot);
+         }
+         return;
+      }
       try {
          recordingPhaser.readerLock();
 
@@ -243,7 +304,42 @@ public class Statistics {
       }
    }
 
+   /**
+    * Passes all snapshots recorded so far to the reader. In single-writer mode this must be invoked
+    * by the writer thread; in the default mode this is a no-op.
+    */
+   public void handOver() {
+      if (!singleWriter) {
+         return;
+      }
+      for (int i = lowestOwned; i <= highestOwned; ++i) {
+         StatisticsSnapshot snapshot = owned[i];
+         if (snapshot == null) {
+            continue;
+         }
+         owned[i] = null;
+         if (snapshot.isEmpty()) {
+            recycled.offer(snapshot);
+         } else {
+            snapshot.histogram.setStartTimeStamp(startTimestamp + i * SAMPLING_PERIOD_MILLIS);
+            snapshot.histogram.setEndTimeStamp(Math.min(endTimestamp, startTimestamp + (i + 1) * SAMPLING_PERIOD_MILLIS));
+            handedOver.offer(snapshot);
+         }
+      }
+      lowestOwned = Integer.MAX_VALUE;
+      highestOwned = -1;
+   }
+
+   public boolean isSingleWriter() {
+      return singleWriter;
+   }
+
    public void start(long now) {
+      if (singleWriter) {
+         startTimestamp = now;
+         endTimestamp = Long.MAX_VALUE;
+         return;
+      }
       recordingPhaser.readerLock();
       try {
          startTimestamp = now;
@@ -254,6 +350,11 @@ public class Statistics {
    }
 
    public void end(long now) {
+      if (singleWriter) {
+         endTimestamp = now;
+         handOver();
+         return;
+      }
       recordingPhaser.readerLock();
       try {
          endTimestamp = now;
@@ -262,7 +363,42 @@ public class Statistics {
       }
    }
 
+   private long writerEnter() {
+      return singleWriter ? 0 : recordingPhaser.writerCriticalSectionEnter();
+   }
+
+   private void writerExit(long criticalValueAtEnter) {
+      if (!singleWriter) {
+         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+      }
+   }
+
+   private StatisticsSnapshot owned(long timestamp) {
+      int index = (int) ((timestamp - startTimestamp) / SAMPLING_PERIOD_MILLIS);
+      if (index >= owned.length) {
+         owned = Arrays.copyOf(owned, Math.max(owned.length * 2, index + 1));
+      } else if (index < 0) {
+         log.error("Record start timestamp {} predates statistics start {}", timestamp, startTimestamp);
+         index = 0;
+      }
+      StatisticsSnapshot snapshot = owned[index];
+      if (snapshot == null) {
+         snapshot = recycled.poll();
+         if (snapshot == null) {
+            snapshot = new StatisticsSnapshot();
+         }
+         snapshot.sequenceId = index;
+         owned[index] = snapshot;
+         lowestOwned = Math.min(lowestOwned, index);
+         highestOwned = Math.max(highestOwned, index);
+      }
+      return snapshot;
+   }
+
    private StatisticsSnapshot active(long timestamp) {
+      if (singleWriter) {
+         return owned(timestamp);
+      }
       int index = (int) ((timestamp - startTimestamp) / SAMPLING_PERIOD_MILLIS);
       AtomicReferenceArray<StatisticsSnapshot> active = this.active;
       if (index >= active.length()) {
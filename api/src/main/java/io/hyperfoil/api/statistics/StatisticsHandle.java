@@ -0,0 +1,66 @@
+package io.hyperfoil.api.statistics;
+
+import io.hyperfoil.api.session.PhaseInstance;
+import io.hyperfoil.api.session.Session;
+
+/**
+ * Statistics of a single step, resolved once per session and phase. Steps declare this as a singleton resource
+ * with {@link Key} (the session finds it through an array slot) and call {@link #get(Session, String)}
+ * instead of {@link Session#statistics(int, String)}.
+ * <p>
+ * The metric names are compared by identity: fixed metrics and metric selectors return the same instance
+ * for the same metric, so the common case does not hash the name. A few recently used metrics are kept;
+ * other names are resolved through {@link Session#statistics(int, String)}.
+ */
+public class StatisticsHandle implements Session.Resource {
+   private static final int SIZE = 8;
+
+   private final int stepId;
+   private final String[] names = new String[SIZE];
+   private final Statistics[] statistics = new Statistics[SIZE];
+   private PhaseInstance phase;
+   private int next;
+
+   public StatisticsHandle(int stepId) {
+      this.stepId = stepId;
+   }
+
+   public Statistics get(Session session, String name) {
+      PhaseInstance phase = session.phase();
+      if (phase != this.phase) {
+         // statistics are created for each phase
+         clear();
+         this.phase = phase;
+      }
+      for (int i = 0; i < SIZE; ++i) {
+         String n = names[i];
+         if (n == null) {
+            break;
+         } else if (n == name) {
+            return statistics[i];
+         }
+      }
+      Statistics s = session.statistics(stepId, name);
+      names[next] = name;
+      statistics[next] = s;
+      next = (next + 1) % SIZE;
+      return s;
+   }
+
+   private void clear() {
+      for (int i = 0; i < SIZE; ++i) {
+         names[i] = null;
+         statistics[i] = null;
+      }
+      next = 0;
+   }
+
+   @Override
+   public void destroy() {
+      clear();
+      phase = null;
+   }
+
+   public static final class Key extends Session.IndexedResourceKey<StatisticsHandle> {
+   }
+}
@@ -1,6 +1,7 @@
 package io.hyperfoil.api.statistics;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeMap;
@@ -13,8 +14,11 @@ import org.HdrHistogram.Histogram;
  * Non-thread safe mutable set of values.
  */
 public class StatisticsSnapshot implements Serializable {
+   public static final long HIGHEST_TRACKABLE_VALUE = TimeUnit.MINUTES.toNanos(1);
+   public static final int SIGNIFICANT_DIGITS = 2;
+
    public int sequenceId = -1;
-   public final Histogram histogram = new Histogram(TimeUnit.MINUTES.toNanos(1), 2);
+   public final Histogram histogram;
    public int requestCount;
    public int responseCount;
    public int invalid;
@@ -23,6 +27,42 @@ public class StatisticsSnapshot implements Serializable {
    public int internalErrors;
    public long blockedTime;
    public final Map<String, StatsExtension> extensions = new HashMap<>();
+   // Cache of extensions indexed by StatsExtensionSlot; the values in the map must not be replaced.
+   private transient StatsExtension[] slots;
+
+   public StatisticsSnapshot() {
+      this(new Histogram(HIGHEST_TRACKABLE_VALUE, SIGNIFICANT_DIGITS));
+   }
+
+   /**
+    * Used when the histogram was already decoded, e.g. when receiving the snapshot from the wire.
+    */
+   public StatisticsSnapshot(Histogram histogram) {
+      this.histogram = histogram;
+   }
+
+   /**
+    * Array-indexed equivalent of <code>extensions.computeIfAbsent(slot.key(), ...)</code>.
+    */
+   @SuppressWarnings("unchecked")
+   public <C extends StatsExtension> C extension(StatsExtensionSlot<C> slot) {
+      StatsExtension[] slots = this.slots;
+      int index = slot.index();
+      if (slots == null || index >= slots.length) {
+         int length = Math.max(StatsExtensionSlot.registeredSlots(), index + 1);
+         slots = this.slots = slots == null ? new StatsExtension[length] : Arrays.copyOf(slots, length);
+      }
+      StatsExtension extension = slots[index];
+      if (extension == null) {
+         extension = extensions.get(slot.key());
+         if (extension == null) {
+            extension = slot.create();
+            extensions.put(slot.key(), extension);
+         }
+         slots[index] = extension;
+      }
+      return (C) extension;
+   }
 
    public boolean isEmpty() {
       return requestCount + responseCount + invalid + connectionErrors + requestTimeouts + internalErrors == 0 &&
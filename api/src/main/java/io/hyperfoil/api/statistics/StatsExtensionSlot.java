@@ -0,0 +1,61 @@
+package io.hyperfoil.api.statistics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Resolves the key of a {@link StatsExtension} to an integer slot. Recording through the slot
+ * ({@link Statistics#update(StatsExtensionSlot, long, Statistics.LongUpdater, long)}) uses an array lookup
+ * in the {@link StatisticsSnapshot} instead of hashing the key on each update.
+ * <p>
+ * Slots are registered once per JVM, typically into a static final field of the class that records
+ * the extension; the indices are never sent over the wire, snapshots are still keyed by name.
+ *
+ * @param <C> Type of the extension.
+ */
+public final class StatsExtensionSlot<C extends StatsExtension> {
+   private static final Map<String, StatsExtensionSlot<?>> SLOTS = new ConcurrentHashMap<>();
+   private static final AtomicInteger COUNTER = new AtomicInteger();
+
+   private final String key;
+   private final int index;
+   private final Supplier<C> creator;
+
+   private StatsExtensionSlot(String key, int index, Supplier<C> creator) {
+      this.key = key;
+      this.index = index;
+      this.creator = creator;
+   }
+
+   /**
+    * Registering the same key multiple times returns the same slot; the creator from first registration is used.
+    */
+   @SuppressWarnings("unchecked")
+   public static <C extends StatsExtension> StatsExtensionSlot<C> register(String key, Supplier<C> creator) {
+      return (StatsExtensionSlot<C>) SLOTS.computeIfAbsent(key,
+            k -> new StatsExtensionSlot<>(k, COUNTER.getAndIncrement(), creator));
+   }
+
+   static int registeredSlots() {
+      return COUNTER.get();
+   }
+
+   public String key() {
+      return key;
+   }
+
+   int index() {
+      return index;
+   }
+
+   C create() {
+      return creator.get();
+   }
+
+   @Override
+   public String toString() {
+      return "StatsExtensionSlot{key='" + key + "', index=" + index + '}';
+   }
+}
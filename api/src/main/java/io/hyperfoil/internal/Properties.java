@@ -27,13 +27,21 @@ public interface Properties {
    String DEPLOYER = "io.hyperfoil.deployer";
    String DEPLOY_TIMEOUT = "io.hyperfoil.deploy.timeout";
    String DIST_DIR = "io.hyperfoil.distdir";
+   String FILE_CACHE_DIR = "io.hyperfoil.filecachedir";
+   String JSON_LEGACY_PARSER = "io.hyperfoil.json.legacy.parser";
    String JITTER_WATCHDOG_PERIOD = "io.hyperfoil.jitter.watchdog.period";
    String JITTER_WATCHDOG_THRESHOLD = "io.hyperfoil.jitter.watchdog.threshold";
    String LOG4J2_CONFIGURATION_FILE = "log4j.configurationFile";
    String LOAD_DIR = "io.hyperfoil.loaddir";
    String MAX_IN_MEMORY_RUNS = "io.hyperfoil.max.in.memory.runs";
    String NETTY_TRANSPORT = "io.hyperfoil.netty.transport";
+   String RATE_GENERATOR_HORIZON_NS = "io.hyperfoil.rate.generator.horizon.ns";
+   String RATE_GENERATOR_SHARDED = "io.hyperfoil.rate.generator.sharded";
+   String REQUEST_TIMEOUT_TICK_MS = "io.hyperfoil.request.timeout.tick.ms";
    String ROOT_DIR = "io.hyperfoil.rootdir";
+   String STATS_FRAMES = "io.hyperfoil.stats.frames";
+   String STATS_SINGLE_WRITER = "io.hyperfoil.stats.single.writer";
+   String STATS_SERIES_IN_MEMORY = "io.hyperfoil.stats.series.inmemory";
    String RUN_DIR = "io.hyperfoil.rundir";
    String RUN_ID = "io.hyperfoil.runid";
    String TRIGGER_URL = "io.hyperfoil.trigger.url";
@@ -41,6 +49,7 @@ public interface Properties {
    String GC_CHECK = "io.hyperfoil.gc.check.enabled";
    String CLUSTER_JGROUPS_STACK = "io.hyperfoil.cluster.jgroups_stack";
    String REPORT_TEMPLATE = "io.hyperfoil.report.template";
+   String REPORT_MAX_POINTS = "io.hyperfoil.report.maxpoints";
 
    static String get(String property, String def) {
       return get(property, Function.identity(), def);
@@ -0,0 +1,75 @@
+package io.hyperfoil.api.connection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class TimeoutWheelTest {
+   private static final long TICK = TimeUnit.MILLISECONDS.toNanos(10);
+
+   private final List<TestRequest> timedOut = new ArrayList<>();
+
+   @Test
+   public void testExpireAndCancel() {
+      TimeoutWheel wheel = new TimeoutWheel(null, TICK, 8, 0);
+      TestRequest a = new TestRequest(), b = new TestRequest(), c = new TestRequest();
+      wheel.add(a, 0, 25 * 1_000_000);
+      wheel.add(b, 0, 25 * 1_000_000);
+      // more than one round of the wheel
+      wheel.add(c, 0, 205 * 1_000_000);
+      assertEquals(3, wheel.size());
+
+      wheel.expire(29 * 1_000_000);
+      assertEquals(List.of(), timedOut);
+      b.setCompleted();
+      assertEquals(2, wheel.size());
+
+      wheel.expire(30 * 1_000_000);
+      assertEquals(List.of(a), timedOut);
+      wheel.expire(200 * 1_000_000);
+      assertEquals(List.of(a), timedOut);
+      // skipping several rounds at once
+      wheel.expire(1_000 * 1_000_000);
+      assertEquals(List.of(a, c), timedOut);
+      assertEquals(0, wheel.size());
+   }
+
+   @Test
+   public void testTimeoutCompletesAnotherExpired() {
+      TimeoutWheel wheel = new TimeoutWheel(null, TICK, 8, 0);
+      TestRequest a = new TestRequest(), b = new TestRequest();
+      // e.g. closing a connection fails all requests on that connection
+      a.onTimeout = b::setCompleted;
+      b.onTimeout = a::setCompleted;
+      wheel.add(a, 0, TICK);
+      wheel.add(b, 0, TICK);
+      wheel.expire(TICK);
+      assertEquals(1, timedOut.size());
+      assertEquals(0, wheel.size());
+   }
+
+   private class TestRequest extends Request {
+      Runnable onTimeout;
+
+      TestRequest() {
+         super(null);
+      }
+
+      @Override
+      public Void call() {
+         timedOut.add(this);
+         if (onTimeout != null) {
+            onTimeout.run();
+         }
+         return null;
+      }
+
+      @Override
+      public void release() {
+      }
+   }
+}
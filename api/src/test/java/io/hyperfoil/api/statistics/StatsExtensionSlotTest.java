@@ -0,0 +1,40 @@
+package io.hyperfoil.api.statistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+public class StatsExtensionSlotTest {
+   private static final StatsExtensionSlot<Counters> FOO = StatsExtensionSlot.register("foo", Counters::new);
+
+   @Test
+   public void testSlotAndKeyUpdates() {
+      assertSame(FOO, StatsExtensionSlot.register("foo", Counters::new));
+      Statistics statistics = new Statistics(0);
+      statistics.update(FOO, 100, Counters::increment, "a");
+      statistics.update("foo", 200, Counters::new, Counters::increment, "a");
+      statistics.update(FOO, 300, Counters::increment, "b");
+      statistics.end(1000);
+      StatisticsSnapshot sum = new StatisticsSnapshot();
+      statistics.visitSnapshots(sum::add);
+      Counters counters = (Counters) sum.extensions.get("foo");
+      assertEquals("2", counters.byHeader("a"));
+      assertEquals("1", counters.byHeader("b"));
+   }
+
+   @Test
+   public void testSlotSeesExtensionAddedByKey() {
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      StatisticsSnapshot other = new StatisticsSnapshot();
+      other.extension(FOO).increment("x");
+      snapshot.add(other);
+      Counters counters = snapshot.extension(FOO);
+      assertSame(snapshot.extensions.get("foo"), counters);
+      assertEquals("1", counters.byHeader("x"));
+      // reset keeps the instance so the cached slot stays valid
+      snapshot.reset();
+      snapshot.extension(FOO).increment("x");
+      assertEquals("1", ((Counters) snapshot.extensions.get("foo")).byHeader("x"));
+   }
+}
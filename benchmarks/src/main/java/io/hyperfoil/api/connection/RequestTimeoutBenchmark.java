@@ -0,0 +1,115 @@
+package io.hyperfoil.api.connection;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.netty.channel.DefaultEventLoop;
+import io.netty.channel.EventLoop;
+import io.netty.util.concurrent.ScheduledFuture;
+
+/**
+ * Keeps <code>inFlight</code> requests with a timeout armed on an event loop; one operation completes the oldest
+ * request (cancelling its timeout) and arms the timeout for a new one. <code>scheduled</code> uses the executor's
+ * scheduled task queue as <code>Request</code> did before, <code>wheel</code> uses {@link TimeoutWheel}.
+ * The operations are executed on the event loop in batches to match the real usage.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class RequestTimeoutBenchmark {
+   private static final int BATCH = 10_000;
+   private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+   @Param({ "1000", "100000" })
+   private int inFlight;
+
+   private EventLoop eventLoop;
+   private TimeoutWheel wheel;
+   private NoopRequest[] requests;
+   private ScheduledFuture<?>[] futures;
+   private int oldest;
+   private final Runnable scheduledBatch = this::scheduledBatch;
+   private final Runnable wheelBatch = this::wheelBatch;
+
+   @Setup(Level.Iteration)
+   public void setup() throws Exception {
+      eventLoop = new DefaultEventLoop();
+      wheel = new TimeoutWheel(eventLoop, TimeUnit.MILLISECONDS.toNanos(10), 512, System.nanoTime());
+      requests = new NoopRequest[inFlight];
+      futures = new ScheduledFuture[inFlight];
+      oldest = 0;
+      eventLoop.submit(() -> {
+         for (int i = 0; i < inFlight; ++i) {
+            requests[i] = new NoopRequest();
+            futures[i] = eventLoop.schedule(requests[i], TIMEOUT_NANOS, TimeUnit.NANOSECONDS);
+            wheel.add(requests[i], System.nanoTime(), TIMEOUT_NANOS);
+         }
+      }).sync();
+   }
+
+   @TearDown(Level.Iteration)
+   public void tearDown() throws InterruptedException {
+      eventLoop.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(BATCH)
+   public void scheduled() throws InterruptedException {
+      eventLoop.submit(scheduledBatch).sync();
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(BATCH)
+   public void wheel() throws InterruptedException {
+      eventLoop.submit(wheelBatch).sync();
+   }
+
+   private void scheduledBatch() {
+      for (int i = 0; i < BATCH; ++i) {
+         futures[oldest].cancel(false);
+         futures[oldest] = eventLoop.schedule(requests[oldest], TIMEOUT_NANOS, TimeUnit.NANOSECONDS);
+         oldest = (oldest + 1) % inFlight;
+      }
+   }
+
+   private void wheelBatch() {
+      for (int i = 0; i < BATCH; ++i) {
+         NoopRequest request = requests[oldest];
+         wheel.cancel(request);
+         wheel.add(request, System.nanoTime(), TIMEOUT_NANOS);
+         oldest = (oldest + 1) % inFlight;
+      }
+   }
+
+   private static class NoopRequest extends Request {
+      NoopRequest() {
+         super(null);
+      }
+
+      @Override
+      public Void call() {
+         return null;
+      }
+
+      @Override
+      public void release() {
+      }
+   }
+}
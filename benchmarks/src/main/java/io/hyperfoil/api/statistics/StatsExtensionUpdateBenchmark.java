@@ -0,0 +1,58 @@
+package io.hyperfoil.api.statistics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.http.statistics.HttpStats;
+
+/**
+ * Cost of recording a custom statistic on the response path: looking up the extension by its key
+ * in the snapshot map vs. through a {@link StatsExtensionSlot}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class StatsExtensionUpdateBenchmark {
+   private static final StatsExtensionSlot<HttpStats> SLOT = StatsExtensionSlot.register(HttpStats.HTTP, HttpStats::new);
+   private static final Statistics.LongUpdater<HttpStats> INCREMENT = (s, value) -> s.status_2xx++;
+
+   // Number of other extensions present in the snapshot
+   @Param({ "0", "8" })
+   private int otherExtensions;
+
+   private Statistics statistics;
+   private long timestamp;
+
+   @Setup
+   public void setup() {
+      timestamp = System.currentTimeMillis();
+      statistics = new Statistics(timestamp);
+      for (int i = 0; i < otherExtensions; ++i) {
+         statistics.update("other" + i, timestamp, Counters::new, Counters::increment, "foo");
+      }
+   }
+
+   @Benchmark
+   public void byKey() {
+      statistics.update(HttpStats.HTTP, timestamp, HttpStats::new, INCREMENT, 1);
+   }
+
+   @Benchmark
+   public void bySlot() {
+      statistics.update(SLOT, timestamp, INCREMENT, 1);
+   }
+}
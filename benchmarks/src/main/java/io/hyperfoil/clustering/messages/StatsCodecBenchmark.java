@@ -0,0 +1,86 @@
+package io.hyperfoil.clustering.messages;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.http.statistics.HttpStats;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+
+/**
+ * Compares Java serialization through {@link ObjectCodec} with the hand-written {@link BinaryCodec}
+ * for the most frequent agent-to-controller message.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class StatsCodecBenchmark {
+
+   @Param({ "object", "binary" })
+   private String codec;
+   @Param({ "10", "1000", "100000" })
+   private int responses;
+   @Param({ "true" })
+   private boolean httpStats;
+
+   private MessageCodec<RequestStatsMessage, RequestStatsMessage> messageCodec;
+   private RequestStatsMessage message;
+   private Buffer encoded;
+
+   @Setup
+   public void setup() {
+      messageCodec = switch (codec) {
+         case "object" -> new ObjectCodec<>();
+         case "binary" -> new RequestStatsMessage.Codec();
+         default -> throw new IllegalArgumentException(codec);
+      };
+      Random random = new Random(42);
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      snapshot.sequenceId = 123;
+      snapshot.requestCount = responses;
+      snapshot.responseCount = responses;
+      for (int i = 0; i < responses; ++i) {
+         // log-normal distribution around 1 ms
+         long value = (long) (Math.exp(random.nextGaussian() * 0.5) * 1_000_000);
+         snapshot.histogram.recordValue(Math.min(value, StatisticsSnapshot.HIGHEST_TRACKABLE_VALUE));
+      }
+      snapshot.histogram.setStartTimeStamp(System.currentTimeMillis());
+      snapshot.histogram.setEndTimeStamp(snapshot.histogram.getStartTimeStamp() + 1000);
+      if (httpStats) {
+         HttpStats stats = new HttpStats();
+         stats.status_2xx = responses;
+         snapshot.extensions.put(HttpStats.HTTP, stats);
+      }
+      message = new RequestStatsMessage("agent-address", "0001", 1, 2, "my-metric", snapshot);
+      encoded = Buffer.buffer();
+      messageCodec.encodeToWire(encoded, message);
+   }
+
+   @Benchmark
+   public Buffer encode() {
+      Buffer buffer = Buffer.buffer();
+      messageCodec.encodeToWire(buffer, message);
+      return buffer;
+   }
+
+   @Benchmark
+   public RequestStatsMessage decode() {
+      return messageCodec.decodeFromWire(0, encoded);
+   }
+}
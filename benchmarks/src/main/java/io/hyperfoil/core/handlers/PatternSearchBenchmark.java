@@ -0,0 +1,175 @@
+package io.hyperfoil.core.handlers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Counts occurrences of <code>patterns</code> markers in a JSON-like body delivered in 16 kB chunks.
+ * <ul>
+ * <li><code>rabinKarp</code>: rolling hash reading byte by byte, as the search handlers did before,
+ * one pass per pattern.</li>
+ * <li><code>scalar</code>: {@link MultiPatternSearch} with the SWAR kernel (default).</li>
+ * <li><code>vector</code>: {@link MultiPatternSearch} with the Vector API kernel.</li>
+ * </ul>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class PatternSearchBenchmark {
+   private static final int CHUNK_SIZE = 16384;
+
+   @Param({ "10240", "102400", "1048576" })
+   private int bodySize;
+
+   @Param({ "direct", "heap" })
+   private String buffer;
+
+   @Param({ "1", "2" })
+   private int patterns;
+
+   private ByteBuf body;
+   private byte[][] texts;
+   private MultiPatternSearch search;
+   private MultiPatternSearch.State state;
+   private int matches;
+   private final MultiPatternSearch.Listener counter = (pattern, endIndex) -> {
+      matches++;
+      return true;
+   };
+
+   @Setup(Level.Trial)
+   public void setup() {
+      texts = new byte[patterns][];
+      texts[0] = "\"status\":\"error\"".getBytes(StandardCharsets.UTF_8);
+      if (patterns > 1) {
+         texts[1] = "\"code\":".getBytes(StandardCharsets.UTF_8);
+      }
+      search = new MultiPatternSearch(texts);
+      state = search.newState();
+
+      Random random = new Random(42);
+      StringBuilder sb = new StringBuilder("[");
+      while (sb.length() < bodySize) {
+         sb.append("{\"id\":").append(random.nextInt()).append(",\"name\":\"item").append(random.nextInt(1000))
+               .append("\",\"status\":\"").append(random.nextInt(100) == 0 ? "error" : "ok")
+               .append("\",\"code\":").append(random.nextInt(600)).append("},");
+      }
+      byte[] bytes = sb.substring(0, bodySize).getBytes(StandardCharsets.UTF_8);
+      body = "direct".equals(buffer) ? Unpooled.directBuffer(bodySize) : Unpooled.buffer(bodySize);
+      body.writeBytes(bytes);
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown() {
+      body.release();
+   }
+
+   @Benchmark
+   public int rabinKarp() {
+      int matches = 0;
+      for (byte[] text : texts) {
+         RabinKarp rabinKarp = new RabinKarp(text);
+         for (int offset = 0; offset < bodySize; offset += CHUNK_SIZE) {
+            rabinKarp.process(body, offset, Math.min(CHUNK_SIZE, bodySize - offset));
+         }
+         matches += rabinKarp.matches;
+      }
+      return matches;
+   }
+
+   @Benchmark
+   public int scalar() {
+      return search(SearchKernel.SCALAR);
+   }
+
+   @Benchmark
+   @Fork(value = 2, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+   public int vector() {
+      return search(SearchKernel.INSTANCE);
+   }
+
+   private int search(SearchKernel expected) {
+      if (SearchKernel.INSTANCE != expected) {
+         throw new IllegalStateException("Running with " + SearchKernel.INSTANCE);
+      }
+      matches = 0;
+      state.reset();
+      for (int offset = 0; offset < bodySize; offset += CHUNK_SIZE) {
+         search.search(state, body, offset, Math.min(CHUNK_SIZE, bodySize - offset), counter);
+      }
+      return matches;
+   }
+
+   /**
+    * The original algorithm, simplified to a single buffer.
+    */
+   private static class RabinKarp {
+      private final byte[] text;
+      private final int hash;
+      private final int coef;
+      private int currentHash;
+      private int hashedBytes;
+      private int matches;
+
+      RabinKarp(byte[] text) {
+         this.text = text;
+         int hash = 0;
+         int coef = 1;
+         for (byte b : text) {
+            hash = 31 * hash + b;
+            coef *= 31;
+         }
+         this.hash = hash;
+         this.coef = coef;
+      }
+
+      void process(ByteBuf data, int offset, int length) {
+         int endIndex = offset + length;
+         int index = offset;
+         while (index < endIndex) {
+            byte c = data.getByte(index++);
+            if (hashedBytes < text.length) {
+               currentHash = 31 * currentHash + c;
+               ++hashedBytes;
+            } else {
+               currentHash = 31 * currentHash + c - coef * data.getByte(index - text.length - 1);
+            }
+            if (hashedBytes == text.length && currentHash == hash && test(data, index)) {
+               matches++;
+               currentHash = 0;
+               hashedBytes = 0;
+            }
+         }
+      }
+
+      private boolean test(ByteBuf data, int index) {
+         for (int i = 0; i < text.length; ++i) {
+            if (text[i] != data.getByte(index - text.length + i)) {
+               return false;
+            }
+         }
+         return true;
+      }
+   }
+}
@@ -0,0 +1,118 @@
+package io.hyperfoil.core.handlers.json;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.session.SessionFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Selects a few fields from a JSON array of objects delivered in 16 kB direct buffers.
+ * <code>jsonHandler</code> runs one {@link JsonHandler} per query, <code>extractor</code> compiles all queries
+ * into a single {@link JsonExtractor}. The processors only consume the selected values.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class JsonExtractionBenchmark {
+   private static final int CHUNK_SIZE = 16384;
+   private static final String[] QUERIES = { ".items[].id", ".items[].owner.name", ".total", ".items[0].tags" };
+
+   @Param({ "102400", "4194304" })
+   private int bodySize;
+
+   @Param({ "1", "4" })
+   private int queries;
+
+   private ByteBuf body;
+   private int length;
+   private Session handlerSession;
+   private JsonHandler[] handlers;
+   private Session extractorSession;
+   private JsonExtractor extractor;
+
+   @Setup(Level.Trial)
+   public void setup(Blackhole blackhole) {
+      Random random = new Random(42);
+      StringBuilder sb = new StringBuilder("{\"items\":[");
+      for (int i = 0; sb.length() < bodySize; ++i) {
+         if (i > 0) {
+            sb.append(',');
+         }
+         sb.append("{\"id\":").append(i)
+               .append(",\"name\":\"item ").append(random.nextInt()).append('"')
+               .append(",\"description\":\"").append("Lorem ipsum \\\"dolor\\\" sit amet. ".repeat(1 + random.nextInt(4)))
+               .append("\",\"tags\":[\"a\",\"b\",{\"nested\":[1,2,3]}]")
+               .append(",\"owner\":{\"id\":").append(random.nextInt(1000)).append(",\"name\":\"owner")
+               .append(random.nextInt(1000)).append("\"}")
+               .append(",\"price\":").append(random.nextDouble()).append('}');
+      }
+      sb.append("],\"total\":").append(sb.length()).append('}');
+      byte[] bytes = sb.toString().getBytes();
+      length = bytes.length;
+      body = Unpooled.directBuffer(length).writeBytes(bytes);
+
+      String[] queries = Arrays.copyOf(QUERIES, this.queries);
+      Processor consumer = (session, data, offset, length, isLastPart) -> blackhole.consume(length);
+      handlers = new JsonHandler[queries.length];
+      handlerSession = SessionFactory.forTesting();
+      for (int i = 0; i < queries.length; ++i) {
+         handlers[i] = new JsonHandler(queries[i], false, null, consumer);
+         ResourceUtilizer.reserveForTesting(handlerSession, handlers[i]);
+      }
+      Processor[] processors = new Processor[queries.length];
+      Arrays.fill(processors, consumer);
+      extractor = new JsonExtractor(queries, processors);
+      extractorSession = SessionFactory.forTesting();
+      ResourceUtilizer.reserveForTesting(extractorSession, extractor);
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown() {
+      body.release();
+   }
+
+   @Benchmark
+   public void jsonHandler() {
+      for (JsonHandler handler : handlers) {
+         run(handler, handlerSession);
+      }
+   }
+
+   @Benchmark
+   public void extractor() {
+      run(extractor, extractorSession);
+   }
+
+   private void run(Processor processor, Session session) {
+      processor.before(session);
+      for (int offset = 0; offset < length; offset += CHUNK_SIZE) {
+         int chunk = Math.min(CHUNK_SIZE, length - offset);
+         processor.process(session, body, offset, chunk, offset + chunk == length);
+      }
+      processor.after(session);
+   }
+}
@@ -0,0 +1,165 @@
+package io.hyperfoil.core.impl;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+
+/**
+ * Round-trips of small messages over many loopback connections, with the client side using the transport
+ * from {@link EventLoopFactory}; the server always uses epoll, so that only the load driver side changes.
+ * One operation is a single request-response exchange on one connection.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class TransportBenchmark {
+   private static final int MESSAGE_SIZE = 64;
+   private static final int ROUND_TRIPS = 100;
+   private static final int CONNECTIONS = 256;
+
+   @Param({ "epoll", "io_uring" })
+   private String transport;
+
+   @Param({ "2" })
+   private int threads;
+
+   private EventLoopGroup serverGroup;
+   private EventLoopGroup clientGroup;
+   private Channel serverChannel;
+   private PingPongHandler[] clients;
+
+   @Setup(Level.Trial)
+   public void setup() throws Exception {
+      serverGroup = new EpollEventLoopGroup(threads);
+      serverChannel = new ServerBootstrap()
+            .group(serverGroup)
+            .channel(EpollServerSocketChannel.class)
+            .childHandler(new ChannelInitializer<SocketChannel>() {
+               @Override
+               protected void initChannel(SocketChannel ch) {
+                  ch.pipeline().addLast(new EchoHandler());
+               }
+            })
+            .bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+
+      EventLoopFactory factory = EventLoopFactory.forTransport(transport);
+      clientGroup = factory.create(threads);
+      Bootstrap bootstrap = new Bootstrap()
+            .group(clientGroup)
+            .channel(factory.socketChannel())
+            .option(ChannelOption.TCP_NODELAY, true)
+            .handler(new ChannelInitializer<SocketChannel>() {
+               @Override
+               protected void initChannel(SocketChannel ch) {
+                  ch.pipeline().addLast(new PingPongHandler());
+               }
+            });
+      clients = new PingPongHandler[CONNECTIONS];
+      for (int i = 0; i < CONNECTIONS; ++i) {
+         Channel channel = bootstrap.connect(serverChannel.localAddress()).sync().channel();
+         clients[i] = channel.pipeline().get(PingPongHandler.class);
+      }
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown() throws InterruptedException {
+      clientGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+      serverChannel.close().sync();
+      serverGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(CONNECTIONS * ROUND_TRIPS)
+   public void roundTrips() throws InterruptedException {
+      CountDownLatch latch = new CountDownLatch(CONNECTIONS);
+      for (PingPongHandler client : clients) {
+         client.start(latch);
+      }
+      if (!latch.await(10, TimeUnit.SECONDS)) {
+         throw new IllegalStateException("Round trips did not complete");
+      }
+   }
+
+   @ChannelHandler.Sharable
+   private static class EchoHandler extends ChannelInboundHandlerAdapter {
+      @Override
+      public void channelRead(ChannelHandlerContext ctx, Object msg) {
+         ctx.writeAndFlush(msg);
+      }
+   }
+
+   private static class PingPongHandler extends ChannelInboundHandlerAdapter {
+      private ChannelHandlerContext ctx;
+      private CountDownLatch latch;
+      private int remaining;
+      private int received;
+
+      @Override
+      public void handlerAdded(ChannelHandlerContext ctx) {
+         this.ctx = ctx;
+      }
+
+      void start(CountDownLatch latch) {
+         ctx.executor().execute(() -> {
+            this.latch = latch;
+            this.remaining = ROUND_TRIPS;
+            send();
+         });
+      }
+
+      private void send() {
+         received = 0;
+         ByteBuf buf = ctx.alloc().directBuffer(MESSAGE_SIZE);
+         buf.writerIndex(MESSAGE_SIZE);
+         ctx.writeAndFlush(buf);
+      }
+
+      @Override
+      public void channelRead(ChannelHandlerContext ctx, Object msg) {
+         ByteBuf buf = (ByteBuf) msg;
+         // the echo can be split into several reads
+         received += buf.readableBytes();
+         buf.release();
+         if (received < MESSAGE_SIZE) {
+            return;
+         }
+         if (--remaining > 0) {
+            send();
+         } else {
+            latch.countDown();
+         }
+      }
+   }
+}
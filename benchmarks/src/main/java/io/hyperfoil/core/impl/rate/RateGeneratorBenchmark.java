@@ -0,0 +1,170 @@
+package io.hyperfoil.core.impl.rate;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Drives the generators the same way as <code>OpenModelPhase</code> does, waking up exactly at the returned
+ * fire time, without the timers. With a non-zero <code>horizonNs</code> the users due within the horizon
+ * are dispatched in one batch.
+ * <ul>
+ * <li><code>dispatch</code>: throughput of the generator; <code>users / wakeups</code> is the average batch size,
+ * i.e. how many timer reschedules were saved.</li>
+ * <li><code>precision</code>: additionally replays the same generator one fire time at a time to find out how early
+ * were the batched users started; <code>earlyNs / users</code> is the mean error in nanoseconds.</li>
+ * </ul>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class RateGeneratorBenchmark {
+   private static final long SEED = 42;
+
+   @Param({ "constant", "poissonConstant", "ramp" })
+   private String generator;
+
+   @Param({ "0", "100000" })
+   private long horizonNs;
+
+   @Param({ "100000" })
+   private double usersPerSec;
+
+   private RateGenerator rateGenerator;
+   private long wakeupNs;
+
+   @Setup(Level.Iteration)
+   public void setup() {
+      rateGenerator = create();
+      wakeupNs = rateGenerator.lastComputedFireTimeNs();
+   }
+
+   private RateGenerator create() {
+      switch (generator) {
+         case "constant":
+            return RateGenerator.constantRate(usersPerSec);
+         case "poissonConstant":
+            return RateGenerator.poissonConstantRate(new Random(SEED), usersPerSec);
+         case "ramp":
+            return RateGenerator.rampRate(usersPerSec / 2, usersPerSec * 2, TimeUnit.HOURS.toNanos(1));
+         default:
+            throw new IllegalArgumentException(generator);
+      }
+   }
+
+   @Benchmark
+   public long dispatch(Dispatch dispatch) {
+      wakeupNs = nextWakeup(rateGenerator.computeNextFireTime(wakeupNs, horizonNs, dispatch));
+      dispatch.wakeups++;
+      return wakeupNs;
+   }
+
+   @Benchmark
+   public long precision(Precision precision) {
+      precision.wakeupNs = wakeupNs;
+      wakeupNs = nextWakeup(rateGenerator.computeNextFireTime(wakeupNs, horizonNs, precision));
+      precision.wakeups++;
+      return wakeupNs;
+   }
+
+   private long nextWakeup(long nextFireTimeNs) {
+      // Rounding can return the current time without firing; in real run the clock would move on.
+      return Math.max(nextFireTimeNs, wakeupNs + 1);
+   }
+
+   @State(Scope.Thread)
+   @AuxCounters(AuxCounters.Type.EVENTS)
+   public static class Dispatch implements FireTimeListener {
+      public long users;
+      public long wakeups;
+
+      @Setup(Level.Iteration)
+      public void reset() {
+         users = 0;
+         wakeups = 0;
+      }
+
+      @Override
+      public void onFireTime() {
+         users++;
+      }
+
+      @Override
+      public void onFireTimes(long count) {
+         users += count;
+      }
+   }
+
+   @State(Scope.Thread)
+   @AuxCounters(AuxCounters.Type.EVENTS)
+   public static class Precision implements FireTimeListener {
+      public long users;
+      public long wakeups;
+      public long earlyNs;
+
+      private RateGenerator reference;
+      private long referenceFireTimeNs;
+      private long referenceWakeupNs;
+      // Number of users the reference generator fired at referenceFireTimeNs and were not matched yet
+      private long referencePending;
+      private final FireTimeListener referenceListener = new FireTimeListener() {
+         @Override
+         public void onFireTime() {
+            referencePending++;
+         }
+
+         @Override
+         public void onFireTimes(long count) {
+            referencePending += count;
+         }
+      };
+      private long wakeupNs;
+
+      @Setup(Level.Iteration)
+      public void reset(RateGeneratorBenchmark benchmark) {
+         users = 0;
+         wakeups = 0;
+         earlyNs = 0;
+         // Must be in sync with the benchmark's generator; JMH runs this before the benchmark's setup but
+         // the generators are deterministic.
+         reference = benchmark.create();
+         referenceWakeupNs = reference.lastComputedFireTimeNs();
+         referencePending = 0;
+      }
+
+      @Override
+      public void onFireTime() {
+         onFireTimes(1);
+      }
+
+      @Override
+      public void onFireTimes(long count) {
+         for (long i = 0; i < count; ++i) {
+            while (referencePending == 0) {
+               referenceFireTimeNs = referenceWakeupNs;
+               referenceWakeupNs = Math.max(reference.computeNextFireTime(referenceFireTimeNs, referenceListener),
+                     referenceFireTimeNs + 1);
+            }
+            --referencePending;
+            earlyNs += Math.max(0, referenceFireTimeNs - wakeupNs);
+         }
+         users += count;
+      }
+   }
+}
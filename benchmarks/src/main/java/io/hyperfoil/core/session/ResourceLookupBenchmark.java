@@ -0,0 +1,154 @@
+package io.hyperfoil.core.session;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.config.Sequence;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.ResourceKeyVisitor;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.SequenceInstance;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.handlers.DefragProcessor;
+import io.hyperfoil.core.handlers.SearchHandler;
+import io.hyperfoil.core.handlers.SearchValidator;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Response body processed in chunks by a chain of handlers that look up their context in the session
+ * on each chunk. With <code>keys=hashed</code> the handlers are not reachable from the scenario, so their keys
+ * do not get an index and the session falls back to the hash lookup as before.
+ * <ul>
+ * <li><code>chain</code>: one operation is one response passing through the whole chain.</li>
+ * <li><code>lookup</code>: only the {@link Session#getResource(Session.ResourceKey)} calls the chain makes per chunk.</li>
+ * </ul>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class ResourceLookupBenchmark {
+   private static final int SEARCH_HANDLERS = 4;
+
+   @Param({ "indexed", "hashed" })
+   private String keys;
+
+   @Param({ "0", "16" })
+   private int concurrency;
+
+   @Param({ "4096" })
+   private int bodySize;
+
+   @Param({ "256" })
+   private int chunkSize;
+
+   private Session session;
+   private Processor[] processors;
+   private Session.ResourceKey<?>[] resourceKeys;
+   private ByteBuf body;
+
+   @Setup(Level.Trial)
+   public void setup() {
+      boolean indexed = "indexed".equals(keys);
+      processors = new Processor[SEARCH_HANDLERS + 2];
+      for (int i = 0; i < SEARCH_HANDLERS; ++i) {
+         processors[i] = new SearchHandler("\"field" + i + "\":\"", "\"", new NoopProcessor());
+      }
+      processors[SEARCH_HANDLERS] = new SearchValidator("\"status\":\"ok\"", matches -> matches == 1);
+      processors[SEARCH_HANDLERS + 1] = new DefragProcessor(new NoopProcessor());
+      ResourceKeyVisitor visitor = new ResourceKeyVisitor();
+      visitor.visit(processors);
+      resourceKeys = visitor.keys();
+
+      Processor[] scenarioProcessors = indexed ? processors : new Processor[0];
+      Sequence sequence = new Sequence("test", 0, concurrency, 0, new Step[] { new ProcessorsStep(scenarioProcessors) });
+      Scenario scenario = new Scenario(new Sequence[] { sequence }, new Sequence[] { sequence }, 16, 16);
+      session = SessionFactory.create(scenario, 0, 0);
+      session.reserve(scenario);
+      // the last instance of the sequence
+      session.currentSequence(new SequenceInstance().reset(sequence, Math.max(0, concurrency - 1), null, null));
+      if (!indexed) {
+         for (Processor processor : processors) {
+            ((ResourceUtilizer) processor).reserve(session);
+         }
+      }
+
+      StringBuilder sb = new StringBuilder("{\"status\":\"ok\",\"items\":[");
+      for (int i = 0; sb.length() < bodySize; ++i) {
+         sb.append("{\"field").append(i % (SEARCH_HANDLERS * 2)).append("\":\"value").append(i).append("\"},");
+      }
+      body = Unpooled.directBuffer(bodySize).writeBytes(sb.substring(0, bodySize).getBytes(StandardCharsets.UTF_8));
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown() {
+      body.release();
+   }
+
+   @Benchmark
+   public void chain() {
+      Processor[] processors = this.processors;
+      for (Processor processor : processors) {
+         processor.before(session);
+      }
+      for (int offset = 0; offset < bodySize; offset += chunkSize) {
+         int length = Math.min(chunkSize, bodySize - offset);
+         boolean isLast = offset + length == bodySize;
+         for (Processor processor : processors) {
+            processor.process(session, body, offset, length, isLast);
+         }
+      }
+      for (Processor processor : processors) {
+         processor.after(session);
+      }
+   }
+
+   @Benchmark
+   public void lookup(Blackhole blackhole) {
+      Session.ResourceKey<?>[] resourceKeys = this.resourceKeys;
+      for (int offset = 0; offset < bodySize; offset += chunkSize) {
+         for (Session.ResourceKey<?> key : resourceKeys) {
+            blackhole.consume(session.getResource(key));
+         }
+      }
+   }
+
+   private static class NoopProcessor implements Processor {
+      @Override
+      public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
+      }
+   }
+
+   private static class ProcessorsStep implements Step {
+      private final Processor[] processors;
+
+      ProcessorsStep(Processor[] processors) {
+         this.processors = processors;
+      }
+
+      @Override
+      public boolean invoke(Session session) {
+         return true;
+      }
+   }
+}
@@ -0,0 +1,110 @@
+package io.hyperfoil.http.connection;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http2.DefaultHttp2Headers;
+import io.netty.handler.codec.http2.DefaultHttp2HeadersEncoder;
+import io.netty.handler.codec.http2.Http2Exception;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.util.AsciiString;
+
+/**
+ * Builds and HPACK-encodes request headers the way <code>Http2Connection</code> does: <code>perRequest</code>
+ * mirrors the former code creating new {@link DefaultHttp2Headers} and content-length string for each request,
+ * <code>reused</code> fills the connection's {@link FlatHttp2Headers} with pre-converted static headers.
+ * Run with <code>-prof gc</code> to see the allocation rate per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class Http2HeadersBenchmark {
+   private static final String SCHEME = "http";
+   private static final String AUTHORITY = "localhost:8080";
+   private static final String PATH = "/api/items?page=1";
+   private static final int CONTENT_LENGTH = 1234;
+   private static final String[] STATIC_HEADERS = {
+         "Accept", "application/json",
+         "User-Agent", "Hyperfoil",
+         "X-Tenant", "benchmark",
+   };
+
+   private final AsciiString[] staticHeaders = new AsciiString[STATIC_HEADERS.length];
+   private final FlatHttp2Headers headers = new FlatHttp2Headers();
+   private DefaultHttp2HeadersEncoder encoder;
+   private ByteBuf buf;
+   private int lastContentLength = -1;
+   private AsciiString lastContentLengthValue;
+
+   @Setup(Level.Trial)
+   public void setup() {
+      for (int i = 0; i < STATIC_HEADERS.length; i += 2) {
+         staticHeaders[i] = AsciiString.of(STATIC_HEADERS[i]).toLowerCase();
+         staticHeaders[i + 1] = AsciiString.of(STATIC_HEADERS[i + 1]);
+      }
+      // same encoder is used for all requests on the connection and keeps the HPACK dynamic table
+      encoder = new DefaultHttp2HeadersEncoder();
+      buf = PooledByteBufAllocator.DEFAULT.directBuffer(1024);
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown() {
+      buf.release();
+   }
+
+   @Benchmark
+   public int perRequest() throws Http2Exception {
+      Http2Headers headers = new DefaultHttp2Headers().method(HttpMethod.POST.name()).scheme(SCHEME)
+            .path(PATH).authority(AUTHORITY);
+      headers.add(HttpHeaderNames.CONTENT_LENGTH, String.valueOf(CONTENT_LENGTH));
+      for (int i = 0; i < STATIC_HEADERS.length; i += 2) {
+         headers.add(STATIC_HEADERS[i].toLowerCase(), STATIC_HEADERS[i + 1]);
+      }
+      return encode(headers);
+   }
+
+   @Benchmark
+   public int reused() throws Http2Exception {
+      FlatHttp2Headers headers = this.headers;
+      headers.clear();
+      headers.method(HttpMethod.POST.asciiName()).scheme(SCHEME).path(PATH).authority(AUTHORITY);
+      headers.add(HttpHeaderNames.CONTENT_LENGTH, contentLength(CONTENT_LENGTH));
+      for (int i = 0; i < staticHeaders.length; i += 2) {
+         headers.add(staticHeaders[i], staticHeaders[i + 1]);
+      }
+      return encode(headers);
+   }
+
+   private CharSequence contentLength(int length) {
+      if (length != lastContentLength) {
+         lastContentLength = length;
+         lastContentLengthValue = AsciiString.of(Integer.toString(length));
+      }
+      return lastContentLengthValue;
+   }
+
+   private int encode(Http2Headers headers) throws Http2Exception {
+      buf.clear();
+      encoder.encodeHeaders(1, headers, buf);
+      return buf.writerIndex();
+   }
+}
@@ -71,37 +71,45 @@ public class Stats extends BaseRunIdCommand {
       Client.RunRef runRef = getRunRef(invocation);
       boolean terminated = false;
       int prevLines = -2;
-      for (;;) {
-         RequestStatisticsResponse stats;
-         try {
-            stats = total ? runRef.statsTotal() : runRef.statsRecent();
-         } catch (RestClientException e) {
-            if (e.getCause() instanceof InterruptedException) {
-               clearLines(invocation, 1);
-               invocation.println("");
+      // Recent stats are pushed by the server, we just display the latest update
+      Client.RecentStatsStream recentStream = total ? null : runRef.statsRecentStream();
+      try {
+         for (;;) {
+            RequestStatisticsResponse stats;
+            try {
+               stats = total ? runRef.statsTotal() : recentStream.latest();
+            } catch (RestClientException e) {
+               if (e.getCause() instanceof InterruptedException) {
+                  clearLines(invocation, 1);
+                  invocation.println("");
+                  break;
+               }
+               invocation.error(e);
+               throw new CommandException("Cannot fetch stats for run " + runRef.id(), e);
+            }
+            if ("TERMINATED".equals(stats.status)) {
+               // There are no (recent) stats, the run has probably terminated
+               stats = runRef.statsTotal();
+               terminated = true;
+            }
+            clearLines(invocation, prevLines + 2);
+            if (total || terminated) {
+               invocation.println("Total stats from run " + runRef.id());
+            } else {
+               invocation.println("Recent stats from run " + runRef.id());
+            }
+            if (extensions == null || extensions.isEmpty()) {
+               prevLines = showGeneralStats(invocation, stats);
+            } else {
+               prevLines = showExtensions(invocation, stats);
+            }
+            if (terminated || interruptibleDelay(invocation)) {
                break;
             }
-            invocation.error(e);
-            throw new CommandException("Cannot fetch stats for run " + runRef.id(), e);
-         }
-         if ("TERMINATED".equals(stats.status)) {
-            // There are no (recent) stats, the run has probably terminated
-            stats = runRef.statsTotal();
-            terminated = true;
-         }
-         clearLines(invocation, prevLines + 2);
-         if (total || terminated) {
-            invocation.println("Total stats from run " + runRef.id());
-         } else {
-            invocation.println("Recent stats from run " + runRef.id());
-         }
-         if (extensions == null || extensions.isEmpty()) {
-            prevLines = showGeneralStats(invocation, stats);
-         } else {
-            prevLines = showExtensions(invocation, stats);
          }
-         if (terminated || interruptibleDelay(invocation)) {
-            break;
+      } finally {
+         if (recentStream != null) {
+            recentStream.close();
          }
       }
       return CommandResult.SUCCESS;
@@ -216,8 +216,15 @@ public abstract class WrkAbstract extends BaseStandaloneCommand {
       }
 
       private boolean awaitBenchmarkResult(Client.RunRef run, HyperfoilCommandInvocation invocation) {
+         try (Client.RecentStatsStream stream = run.statsRecentStream()) {
+            return awaitBenchmarkResult(run, stream, invocation);
+         }
+      }
+
+      private boolean awaitBenchmarkResult(Client.RunRef run, Client.RecentStatsStream stream,
+            HyperfoilCommandInvocation invocation) {
          while (true) {
-            RequestStatisticsResponse recent = run.statsRecent();
+            RequestStatisticsResponse recent = stream.latest();
             if ("TERMINATED".equals(recent.status)) {
                break;
             } else if ("INITIALIZING".equals(recent.status) && !initialized) {
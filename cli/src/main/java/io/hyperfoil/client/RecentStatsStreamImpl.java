@@ -0,0 +1,108 @@
+package io.hyperfoil.client;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.hyperfoil.controller.Client;
+import io.hyperfoil.controller.model.RequestStatisticsResponse;
+import io.hyperfoil.internal.Properties;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.Json;
+import io.vertx.core.parsetools.RecordParser;
+
+/**
+ * Consumes server-sent events with recent statistics. When the controller does not support the stream
+ * or the connection breaks we fall back to polling.
+ */
+class RecentStatsStreamImpl implements Client.RecentStatsStream {
+   private static final Logger log = LogManager.getLogger(RecentStatsStreamImpl.class);
+   private static final long REQUEST_TIMEOUT = Properties.getLong(Properties.CLI_REQUEST_TIMEOUT, 30000);
+   private static final String DATA = "data:";
+
+   private final RestClient client;
+   private final RunRefImpl runRef;
+   private final CountDownLatch firstUpdate = new CountDownLatch(1);
+   private volatile RequestStatisticsResponse latest;
+   private volatile boolean ended;
+   private volatile boolean closed;
+   private HttpClientResponse response;
+
+   RecentStatsStreamImpl(RestClient client, RunRefImpl runRef) {
+      this.client = client;
+      this.runRef = runRef;
+      client.vertx.runOnContext(nil -> client.streamingRequest(HttpMethod.GET, "/run/" + runRef.id() + "/stats/recent/stream")
+            .compose(request -> request.putHeader(HttpHeaders.ACCEPT, "text/event-stream").send())
+            .onSuccess(response -> {
+               if (response.statusCode() != 200) {
+                  log.debug("Statistics stream for run {} is not available ({}), falling back to polling",
+                        runRef.id(), response.statusCode());
+                  end();
+                  return;
+               }
+               if (closed) {
+                  response.request().reset();
+                  end();
+                  return;
+               }
+               this.response = response;
+               response.handler(RecordParser.newDelimited("\n\n", this::handleEvent));
+               response.endHandler(v -> end());
+               response.exceptionHandler(t -> end());
+            }).onFailure(t -> {
+               log.debug("Statistics stream for run {} failed, falling back to polling", runRef.id(), t);
+               end();
+            }));
+   }
+
+   private void end() {
+      ended = true;
+      firstUpdate.countDown();
+   }
+
+   private void handleEvent(Buffer event) {
+      for (String line : event.toString().split("\n")) {
+         if (line.startsWith(DATA)) {
+            try {
+               latest = Json.decodeValue(line.substring(DATA.length()).trim(), RequestStatisticsResponse.class);
+            } catch (RuntimeException e) {
+               log.error("Cannot decode statistics", e);
+            }
+            firstUpdate.countDown();
+         }
+      }
+   }
+
+   @Override
+   public RequestStatisticsResponse latest() {
+      try {
+         if (!firstUpdate.await(REQUEST_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            throw new RestClientException("No statistics received within " + REQUEST_TIMEOUT + " ms");
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new RestClientException(e);
+      }
+      RequestStatisticsResponse latest = this.latest;
+      if (ended && (latest == null || !"TERMINATED".equals(latest.status))) {
+         return runRef.statsRecent();
+      }
+      return latest;
+   }
+
+   @Override
+   public void close() {
+      closed = true;
+      client.vertx.runOnContext(nil -> {
+         if (response != null && !ended) {
+            // the stream would end only after the run terminates
+            response.request().reset();
+         }
+      });
+   }
+}
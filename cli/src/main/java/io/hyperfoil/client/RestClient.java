@@ -26,9 +26,12 @@ import io.hyperfoil.controller.model.Version;
 import io.hyperfoil.impl.Util;
 import io.hyperfoil.internal.Properties;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientRequest;
 import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.http.RequestOptions;
@@ -45,6 +48,7 @@ public class RestClient implements Client, Closeable {
 
    final Vertx vertx;
    final WebClientOptions options;
+   private final HttpClient httpClient;
    private final WebClient client;
    private String authorization;
 
@@ -62,7 +66,9 @@ public class RestClient implements Client, Closeable {
       if (insecure) {
          options.setTrustAll(true).setVerifyHost(false);
       }
-      client = WebClient.create(this.vertx, options.setFollowRedirects(false));
+      options.setFollowRedirects(false);
+      httpClient = vertx.createHttpClient(options);
+      client = WebClient.wrap(httpClient, options);
       setPassword(password);
    }
 
@@ -110,6 +116,16 @@ public class RestClient implements Client, Closeable {
       return request;
    }
 
+   // Web client does not support streaming responses
+   Future<HttpClientRequest> streamingRequest(HttpMethod method, String path) {
+      return httpClient.request(method, path).map(request -> {
+         if (authorization != null) {
+            request.putHeader(HttpHeaders.AUTHORIZATION, authorization);
+         }
+         return request;
+      });
+   }
+
    HttpRequest<Buffer> request(HttpMethod method, boolean ssl, String host, int port, String path) {
       return client.request(method, new RequestOptions().setSsl(ssl).setHost(host).setPort(port).setURI(path));
    }
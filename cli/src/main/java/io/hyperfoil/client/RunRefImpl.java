@@ -130,6 +130,11 @@ public class RunRefImpl implements Client.RunRef {
             response -> Json.decodeValue(response.body(), RequestStatisticsResponse.class));
    }
 
+   @Override
+   public Client.RecentStatsStream statsRecentStream() {
+      return new RecentStatsStreamImpl(client, this);
+   }
+
    @Override
    public RequestStatisticsResponse statsTotal() {
       return client.sync(
@@ -177,10 +182,18 @@ public class RunRefImpl implements Client.RunRef {
 
    @Override
    public List<StatisticsSummary> series(String phase, int stepId, String metric) {
+      return series(phase, stepId, metric, 0, 0, 0);
+   }
+
+   @Override
+   public List<StatisticsSummary> series(String phase, int stepId, String metric, long from, long to, int maxPoints) {
       return client.sync(handler -> client.request(HttpMethod.GET, "/run/" + id + "/stats/series")
             .addQueryParam("phase", phase)
             .addQueryParam("stepId", String.valueOf(stepId))
             .addQueryParam("metric", metric)
+            .addQueryParam("from", String.valueOf(from))
+            .addQueryParam("to", String.valueOf(to))
+            .addQueryParam("maxPoints", String.valueOf(maxPoints))
             .putHeader(HttpHeaders.ACCEPT.toString(), "application/json").send(handler), 200,
             response -> JacksonCodec.decodeValue(response.body(), new TypeReference<>() {
             }));
@@ -14,8 +14,10 @@ import io.hyperfoil.clustering.messages.AgentControlMessage;
 import io.hyperfoil.clustering.messages.AgentHello;
 import io.hyperfoil.clustering.messages.AgentReadyMessage;
 import io.hyperfoil.clustering.messages.ErrorMessage;
+import io.hyperfoil.clustering.messages.FileManifest;
 import io.hyperfoil.clustering.messages.PhaseChangeMessage;
 import io.hyperfoil.clustering.messages.PhaseControlMessage;
+import io.hyperfoil.clustering.util.CachedBenchmarkData;
 import io.hyperfoil.core.impl.SimulationRunner;
 import io.hyperfoil.core.util.CountDown;
 import io.hyperfoil.impl.Util;
@@ -113,13 +115,25 @@ public class AgentVerticle extends AbstractVerticle {
       switch (controlMessage.command()) {
          case INITIALIZE:
             log.info("Initializing agent");
-            try {
-               initBenchmark(controlMessage.benchmark(), controlMessage.agentId());
-               message.reply("OK");
-            } catch (Throwable e) {
-               log.error("Failed to initialize agent", e);
-               message.fail(1, Util.explainCauses(e));
-            }
+            FileManifest files = controlMessage.files() == null ? FileManifest.EMPTY : controlMessage.files();
+            CachedBenchmarkData.fetch(vertx, runId, files).onComplete(result -> {
+               if (result.failed()) {
+                  log.error("Failed to fetch benchmark files", result.cause());
+                  message.fail(1, Util.explainCauses(result.cause()));
+                  return;
+               }
+               try {
+                  Benchmark benchmark = controlMessage.benchmark();
+                  if (controlMessage.files() != null) {
+                     benchmark = benchmark.withFiles(result.result().files());
+                  }
+                  initBenchmark(benchmark, controlMessage.agentId());
+                  message.reply("OK");
+               } catch (Throwable e) {
+                  log.error("Failed to initialize agent", e);
+                  message.fail(1, Util.explainCauses(e));
+               }
+            });
             break;
          case STOP:
             // collect stats one last time before acknowledging termination
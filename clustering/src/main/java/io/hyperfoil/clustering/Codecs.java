@@ -9,12 +9,14 @@ import io.hyperfoil.clustering.messages.AuxiliaryHello;
 import io.hyperfoil.clustering.messages.ConnectionStatsMessage;
 import io.hyperfoil.clustering.messages.DelayStatsCompletionMessage;
 import io.hyperfoil.clustering.messages.ErrorMessage;
+import io.hyperfoil.clustering.messages.FileManifest;
 import io.hyperfoil.clustering.messages.ObjectCodec;
 import io.hyperfoil.clustering.messages.PhaseChangeMessage;
 import io.hyperfoil.clustering.messages.PhaseControlMessage;
 import io.hyperfoil.clustering.messages.PhaseStatsCompleteMessage;
 import io.hyperfoil.clustering.messages.RequestStatsMessage;
 import io.hyperfoil.clustering.messages.SessionStatsMessage;
+import io.hyperfoil.clustering.messages.StatsFrameMessage;
 import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.EventBus;
 
@@ -33,10 +35,12 @@ public final class Codecs {
       eb.registerDefaultCodec(ConnectionStatsMessage.class, new ConnectionStatsMessage.Codec());
       eb.registerDefaultCodec(DelayStatsCompletionMessage.class, new DelayStatsCompletionMessage.Codec());
       eb.registerDefaultCodec(ErrorMessage.class, new ErrorMessage.Codec());
+      eb.registerDefaultCodec(FileManifest.ChunkRequest.class, new FileManifest.ChunkRequest.Codec());
       eb.registerDefaultCodec(PhaseChangeMessage.class, new PhaseChangeMessage.Codec());
       eb.registerDefaultCodec(PhaseControlMessage.class, new PhaseControlMessage.Codec());
       eb.registerDefaultCodec(PhaseStatsCompleteMessage.class, new PhaseStatsCompleteMessage.Codec());
       eb.registerDefaultCodec(RequestStatsMessage.class, new RequestStatsMessage.Codec());
       eb.registerDefaultCodec(SessionStatsMessage.class, new SessionStatsMessage.Codec());
+      eb.registerDefaultCodec(StatsFrameMessage.class, new StatsFrameMessage.Codec());
    }
 }
@@ -1,11 +1,9 @@
 package io.hyperfoil.clustering;
 
-import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
 import java.net.InetAddress;
@@ -38,7 +36,6 @@ import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.infinispan.commons.util.FileLookupFactory;
 
 import io.hyperfoil.api.Version;
 import io.hyperfoil.api.config.Benchmark;
@@ -110,7 +107,7 @@ class ControllerServer implements ApiService {
    private static final Comparator<ControllerPhase> PHASE_COMPARATOR = Comparator
          .<ControllerPhase, Long> comparing(ControllerPhase::absoluteStartTime).thenComparing(p -> p.definition().name);
    private static final BinaryOperator<Run> LAST_RUN_OPERATOR = (r1, r2) -> r1.id.compareTo(r2.id) > 0 ? r1 : r2;
-   private static final String DATAKEY = "[/**DATAKEY**/]";
+   private static final int REPORT_MAX_POINTS = Properties.getInt(Properties.REPORT_MAX_POINTS, 2000);
 
    static {
       byte[] token = new byte[48];
@@ -793,44 +790,8 @@ class ControllerServer implements ApiService {
    }
 
    @Override
-   public void createReport(RoutingContext ctx, String runId, String source) {
+   public void createReport(RoutingContext ctx, String runId, String source, int maxPoints) {
       withRun(ctx, runId, run -> {
-         StringBuilder template = new StringBuilder();
-         String providedTemplatePath = Properties.get(Properties.REPORT_TEMPLATE, "");
-
-         if (providedTemplatePath.isBlank()) {
-            // use the embedded template html
-            try (InputStream stream = FileLookupFactory.newInstance().lookupFile("report-template.html",
-                  Thread.currentThread().getContextClassLoader());
-                  BufferedReader reader = new BufferedReader(new InputStreamReader(stream))) {
-               String line;
-               while ((line = reader.readLine()) != null) {
-                  template.append(line).append("\n");
-               }
-            } catch (IOException e) {
-               log.error("Cannot read report template: ", e);
-               ctx.response().setStatusCode(500).end();
-               return;
-            }
-         } else {
-            // use the provided template
-            log.info("Using the provided report template at {}", providedTemplatePath);
-            File templateFile = Path.of(providedTemplatePath).toFile();
-            if (templateFile.exists() && templateFile.isFile()) {
-               try {
-                  template.append(Files.readString(templateFile.toPath(), StandardCharsets.UTF_8));
-               } catch (IOException e) {
-                  log.error("Cannot read report template: ", e);
-                  ctx.response().setStatusCode(500).end();
-                  return;
-               }
-            } else {
-               log.error("Template file is not available.");
-               ctx.response().setStatusCode(500).end();
-               return;
-            }
-         }
-
          String sourceFile = source != null ? source : ControllerVerticle.DEFAULT_STATS_JSON;
          Path runDir = controller.getRunDir(run).toAbsolutePath();
          Path filePath = runDir.resolve(sourceFile).toAbsolutePath();
@@ -839,19 +800,20 @@ class ControllerServer implements ApiService {
          } else if (!filePath.toFile().exists()) {
             ctx.response().setStatusCode(404).end("Requested file was not found");
          } else {
-            try {
-               String json = Files.readString(filePath);
-               int placeholderIndex = template.indexOf(DATAKEY);
-               HttpServerResponse response = ctx.response()
-                     .putHeader(HttpHeaders.CONTENT_TYPE, "text/html").setChunked(true);
-               response.write(template.substring(0, placeholderIndex));
-               response.write(json);
-               response.write(template.substring(placeholderIndex + DATAKEY.length()));
-               response.end();
-            } catch (IOException e) {
-               log.error("Cannot read file {}", filePath);
-               ctx.response().setStatusCode(500).end("Cannot fetch file " + sourceFile);
-            }
+            String acceptEncoding = ctx.request().getHeader(HttpHeaders.ACCEPT_ENCODING);
+            ReportWriter writer = new ReportWriter(controller.getVertx(), ctx.response(),
+                  acceptEncoding != null && acceptEncoding.contains("gzip"));
+            int points = maxPoints < 0 ? REPORT_MAX_POINTS : maxPoints;
+            // Exact rollups are available only for the statistics of the run, other sources are sent as-is
+            StatisticsStore store = source == null && points > 0 ? run.statisticsStore() : null;
+            Future<Void> report = store == null ? writer.write(filePath)
+                  : writer.write(store, runDir.resolve("info.json"), points);
+            report.onFailure(t -> {
+               if (!ctx.response().headWritten()) {
+                  log.error("Cannot create report from {}", filePath, t);
+                  ctx.response().setStatusCode(500).end("Cannot create report from " + sourceFile);
+               }
+            });
          }
       });
    }
@@ -990,11 +952,25 @@ class ControllerServer implements ApiService {
    @Override
    public void getRecentStats(RoutingContext ctx, String runId) {
       withStats(ctx, runId, run -> {
-         List<RequestStats> stats = run.statisticsStore().recentSummary(System.currentTimeMillis() - 5000);
+         List<RequestStats> stats = run.statisticsStore().recentSummary();
          respondWithJson(ctx, false, statsToJson(run, stats));
       });
    }
 
+   @Override
+   public void streamRecentStats(RoutingContext ctx, String runId) {
+      withStats(ctx, runId, run -> {
+         ctx.response()
+               .putHeader(HttpHeaders.CONTENT_TYPE, "text/event-stream")
+               .putHeader(HttpHeaders.CACHE_CONTROL, "no-cache")
+               .setChunked(true);
+         if (run.recentStatsPublisher == null) {
+            run.recentStatsPublisher = new RecentStatsPublisher(run);
+         }
+         run.recentStatsPublisher.subscribe(ctx.response());
+      });
+   }
+
    @Override
    public void getTotalStats(RoutingContext ctx, String runId) {
       withStats(ctx, runId, run -> {
@@ -1012,10 +988,16 @@ class ControllerServer implements ApiService {
    }
 
    @Override
-   public void getSeries(RoutingContext ctx, String runId, String phase, int stepId, String metric) {
+   public void getSeries(RoutingContext ctx, String runId, String phase, int stepId, String metric, long from, long to,
+         int maxPoints) {
       withStats(ctx, runId, run -> {
-         List<StatisticsSummary> series = run.statisticsStore().series(phase, stepId, metric);
-         respondWithJson(ctx, false, series);
+         try {
+            List<StatisticsSummary> series = run.statisticsStore().series(phase, stepId, metric, from, to, maxPoints);
+            respondWithJson(ctx, false, series);
+         } catch (IOException e) {
+            log.error("Cannot read series of {}/{}/{}", phase, stepId, metric, e);
+            ctx.response().setStatusCode(HttpResponseStatus.INTERNAL_SERVER_ERROR.code()).end(Util.explainCauses(e));
+         }
       });
    }
 
@@ -1044,7 +1026,7 @@ class ControllerServer implements ApiService {
       });
    }
 
-   private io.hyperfoil.controller.model.RequestStatisticsResponse statsToJson(Run run, List<RequestStats> stats) {
+   static io.hyperfoil.controller.model.RequestStatisticsResponse statsToJson(Run run, List<RequestStats> stats) {
       String status;
       if (run.terminateTime.future().isComplete()) {
          status = "TERMINATED";
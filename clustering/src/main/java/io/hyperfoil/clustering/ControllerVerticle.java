@@ -41,6 +41,7 @@ import io.hyperfoil.api.deployment.DeployedAgent;
 import io.hyperfoil.api.deployment.Deployer;
 import io.hyperfoil.api.session.GlobalData;
 import io.hyperfoil.api.session.PhaseInstance;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
 import io.hyperfoil.clustering.messages.AgentControlMessage;
 import io.hyperfoil.clustering.messages.AgentHello;
 import io.hyperfoil.clustering.messages.AgentReadyMessage;
@@ -49,16 +50,19 @@ import io.hyperfoil.clustering.messages.AuxiliaryHello;
 import io.hyperfoil.clustering.messages.ConnectionStatsMessage;
 import io.hyperfoil.clustering.messages.DelayStatsCompletionMessage;
 import io.hyperfoil.clustering.messages.ErrorMessage;
+import io.hyperfoil.clustering.messages.FileManifest;
 import io.hyperfoil.clustering.messages.PhaseChangeMessage;
 import io.hyperfoil.clustering.messages.PhaseControlMessage;
 import io.hyperfoil.clustering.messages.PhaseStatsCompleteMessage;
 import io.hyperfoil.clustering.messages.RequestStatsMessage;
 import io.hyperfoil.clustering.messages.SessionStatsMessage;
+import io.hyperfoil.clustering.messages.StatsFrameMessage;
 import io.hyperfoil.clustering.messages.StatsMessage;
 import io.hyperfoil.clustering.util.PersistenceUtil;
 import io.hyperfoil.controller.CsvWriter;
 import io.hyperfoil.controller.JsonLoader;
 import io.hyperfoil.controller.JsonWriter;
+import io.hyperfoil.controller.RunStore;
 import io.hyperfoil.controller.StatisticsStore;
 import io.hyperfoil.core.hooks.ExecRunHook;
 import io.hyperfoil.core.parser.BenchmarkParser;
@@ -73,6 +77,8 @@ import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.EventBus;
 import io.vertx.core.eventbus.Message;
 import io.vertx.core.eventbus.ReplyException;
@@ -157,6 +163,8 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
          } else if (msg instanceof AgentReadyMessage) {
             agent.status = AgentInfo.Status.READY;
             if (run.agents.stream().allMatch(a -> a.status == AgentInfo.Status.READY)) {
+               // all agents have the files now
+               run.files = null;
                startSimulation(run);
             }
          } else {
@@ -164,6 +172,17 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
          }
       });
 
+      eb.consumer(Feeds.FILES, message -> {
+         FileManifest.ChunkRequest request = (FileManifest.ChunkRequest) message.body();
+         Run run = runs.get(request.runId);
+         Buffer chunk = run == null || run.files == null ? null : run.files.chunk(request.hash);
+         if (chunk == null) {
+            message.fail(1, "No chunk " + request.hash + " in run " + request.runId);
+         } else {
+            message.reply(chunk);
+         }
+      });
+
       eb.consumer(Feeds.STATS, message -> {
          if (!(message.body() instanceof StatsMessage)) {
             log.error("Unknown message type: {}", message.body());
@@ -175,24 +194,16 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
             String agentName = run.agents.stream()
                   .filter(ai -> ai.deploymentId.equals(statsMessage.address))
                   .map(ai -> ai.name).findFirst().orElse("<unknown>");
-            if (statsMessage instanceof RequestStatsMessage) {
+            if (statsMessage instanceof StatsFrameMessage) {
+               StatsFrameMessage frame = (StatsFrameMessage) statsMessage;
+               for (StatsFrameMessage.Entry entry : frame.entries) {
+                  recordRequestStats(run, agentName, frame.address, entry.phaseId, entry.stepId, entry.metric,
+                        entry.statistics);
+               }
+            } else if (statsMessage instanceof RequestStatsMessage) {
                RequestStatsMessage rsm = (RequestStatsMessage) statsMessage;
-               String phase = run.phase(rsm.phaseId);
                if (rsm.statistics != null) {
-                  boolean added = run.statisticsStore().record(agentName, rsm.phaseId, rsm.stepId, rsm.metric, rsm.statistics);
-                  if (log.isDebugEnabled()) {
-                     log.debug("Run {}: Received stats from {}({}): {}/{}/{}:{} ({} requests) - added:{}",
-                           rsm.runId, agentName, rsm.address, phase, rsm.stepId, rsm.metric,
-                           rsm.statistics.sequenceId, rsm.statistics.requestCount, added);
-                  }
-                  if (!added) {
-                     // warning already logged
-                     String errorMessage = String.format(
-                           "Received statistics for %s/%d/%s:%d with %d requests but the statistics are already completed; these statistics won't be reported.",
-                           phase, rsm.stepId, rsm.metric, rsm.statistics.sequenceId, rsm.statistics.requestCount);
-                     log.error(errorMessage);
-                     run.errors.add(new Run.Error(null, new BenchmarkExecutionException(errorMessage)));
-                  }
+                  recordRequestStats(run, agentName, rsm.address, rsm.phaseId, rsm.stepId, rsm.metric, rsm.statistics);
                }
             } else if (statsMessage instanceof PhaseStatsCompleteMessage) {
                PhaseStatsCompleteMessage pscm = (PhaseStatsCompleteMessage) statsMessage;
@@ -270,6 +281,24 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       startCountDown.countDown();
    }
 
+   private void recordRequestStats(Run run, String agentName, String address, int phaseId, int stepId, String metric,
+         StatisticsSnapshot statistics) {
+      String phase = run.phase(phaseId);
+      boolean added = run.statisticsStore().record(agentName, phaseId, stepId, metric, statistics);
+      if (log.isDebugEnabled()) {
+         log.debug("Run {}: Received stats from {}({}): {}/{}/{}:{} ({} requests) - added:{}",
+               run.id, agentName, address, phase, stepId, metric, statistics.sequenceId, statistics.requestCount, added);
+      }
+      if (!added) {
+         // warning already logged
+         String errorMessage = String.format(
+               "Received statistics for %s/%d/%s:%d with %d requests but the statistics are already completed; these statistics won't be reported.",
+               phase, stepId, metric, statistics.sequenceId, statistics.requestCount);
+         log.error(errorMessage);
+         run.errors.add(new Run.Error(null, new BenchmarkExecutionException(errorMessage)));
+      }
+   }
+
    private void tryCompletePhase(Run run, String phase, ControllerPhase controllerPhase) {
       long delay = controllerPhase.delayStatsCompletionUntil() == null ? -1
             : controllerPhase.delayStatsCompletionUntil() - System.currentTimeMillis();
@@ -409,7 +438,7 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
                   .collect(Collectors.toMap(Map.Entry::getKey, entry -> String.valueOf(entry.getValue())));
       Benchmark benchmark = Benchmark.empty(name, templateParams);
       Run run = new Run(runId, runDir, benchmark);
-      run.statsSupplier = () -> loadStats(runDir.resolve(DEFAULT_STATS_JSON), benchmark);
+      run.statsSupplier = () -> loadStats(runDir, benchmark);
       run.completed = true;
       run.startTime = info.getLong("startTime", 0L);
       run.terminateTime.complete(info.getLong("terminateTime", 0L));
@@ -425,7 +454,17 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       runs.put(runId, run);
    }
 
-   private StatisticsStore loadStats(Path jsonPath, Benchmark benchmark) {
+   private StatisticsStore loadStats(Path runDir, Benchmark benchmark) {
+      if (RunStore.exists(runDir)) {
+         log.info("Loading stats from {}", runDir.resolve(RunStore.DIR));
+         try {
+            return RunStore.load(runDir, benchmark);
+         } catch (Exception e) {
+            log.error("Cannot load stats from {}, trying {}", runDir.resolve(RunStore.DIR), DEFAULT_STATS_JSON, e);
+         }
+      }
+      // runs persisted before the binary store was introduced, or when that failed
+      Path jsonPath = runDir.resolve(DEFAULT_STATS_JSON);
       File statsJson = jsonPath.toFile();
       if (!statsJson.exists() || !statsJson.isFile() || !statsJson.canRead()) {
          log.error("Cannot load stats from {}", jsonPath);
@@ -503,7 +542,7 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       runDir.toFile().mkdirs();
       Run run = new Run(runId, runDir, benchmark);
       run.initStore(new StatisticsStore(benchmark, failure -> log.warn("Failed verify SLA(s) for {}/{}: {}",
-            failure.phase(), failure.metric(), failure.message())));
+            failure.phase(), failure.metric(), failure.message()), new RunStore(runDir)));
       run.description = description;
       runs.put(run.id, run);
       if (run.benchmark.source() != null) {
@@ -519,10 +558,7 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
          loadedRuns.stream().limit(loadedRuns.size() + 1 - MAX_IN_MEMORY_RUNS).forEach(r -> {
             log.info("Unloading run {}", r.id);
             r.unload();
-            r.statsSupplier = () -> {
-               Path statsPath = Controller.RUN_DIR.resolve(r.id).resolve(DEFAULT_STATS_JSON);
-               return loadStats(statsPath, r.benchmark);
-            };
+            r.statsSupplier = () -> loadStats(Controller.RUN_DIR.resolve(r.id), r.benchmark);
          });
       }
    }
@@ -602,13 +638,31 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
 
       log.info("Starting benchmark {} - run {}", run.benchmark.name(), run.id);
 
+      // Hashing large files could block the event loop
+      vertx.executeBlocking(() -> FileManifest.create(run.benchmark.files()), false).onComplete(result -> {
+         if (result.failed()) {
+            log.error("{} Cannot prepare benchmark files", run.id, result.cause());
+            run.errors.add(new Run.Error(null, new BenchmarkExecutionException("Cannot prepare files", result.cause())));
+            stopSimulation(run);
+         } else if (!run.completed) {
+            run.files = result.result();
+            initializeAgents(run);
+         }
+      });
+   }
+
+   private void initializeAgents(Run run) {
+      // The files are fetched by agents separately
+      Benchmark benchmark = run.benchmark.withFiles(Collections.emptyMap());
       for (AgentInfo agent : run.agents) {
          if (agent.status != AgentInfo.Status.REGISTERED) {
             log.error("{} Agent {}({}) already initializing, status is {}!", run.id, agent.name, agent.deploymentId,
                   agent.status);
          } else {
             eb.request(agent.deploymentId,
-                  new AgentControlMessage(AgentControlMessage.Command.INITIALIZE, agent.id, run.benchmark), reply -> {
+                  new AgentControlMessage(AgentControlMessage.Command.INITIALIZE, agent.id, benchmark, run.files),
+                  // fetching the files may take a while
+                  new DeliveryOptions().setSendTimeout(Controller.DEPLOY_TIMEOUT), reply -> {
                      Throwable cause;
                      if (reply.failed()) {
                         cause = reply.cause();
@@ -739,6 +793,7 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       }
       run.terminateTime.complete(System.currentTimeMillis());
       run.completed = true;
+      run.files = null;
       for (AgentInfo agent : run.agents) {
          if (agent.deploymentId == null) {
             assert agent.status == AgentInfo.Status.STARTING;
@@ -796,6 +851,15 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
             future.fail(e);
          }
 
+         RunStore runStore = run.statisticsStore().runStore();
+         if (runStore != null) {
+            try {
+               runStore.writeIndex(run.statisticsStore());
+            } catch (IOException e) {
+               log.error("Failed to write statistics index, {} will be used when the run is reloaded.", DEFAULT_STATS_JSON, e);
+            }
+         }
+
          JsonObject info = new JsonObject()
                .put("id", run.id)
                .put("benchmark", run.benchmark.name())
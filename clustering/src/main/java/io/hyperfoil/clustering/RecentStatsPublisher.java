@@ -0,0 +1,67 @@
+package io.hyperfoil.clustering;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.hyperfoil.controller.StatisticsStore;
+import io.hyperfoil.controller.model.RequestStats;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.Json;
+
+/**
+ * Pushes recent statistics of a run to subscribers as server-sent events. The store notifies us when
+ * a collection period completes and the summary is encoded once, regardless of the number of subscribers.
+ */
+class RecentStatsPublisher {
+   private static final Logger log = LogManager.getLogger(RecentStatsPublisher.class);
+
+   private final Run run;
+   private final List<HttpServerResponse> subscribers = new ArrayList<>();
+
+   RecentStatsPublisher(Run run) {
+      this.run = run;
+      StatisticsStore store = run.statisticsStore();
+      store.recentSummaryListener(this::publish);
+      run.terminateTime.future().onComplete(nil -> publish(store.recentSummary()));
+   }
+
+   void subscribe(HttpServerResponse response) {
+      subscribers.add(response);
+      response.closeHandler(nil -> subscribers.remove(response));
+      // Don't let the new subscriber wait for the next period
+      Buffer event = event(run.statisticsStore().recentSummary());
+      if (run.terminateTime.future().isComplete()) {
+         subscribers.remove(response);
+         response.end(event);
+      } else {
+         response.write(event);
+      }
+   }
+
+   private Buffer event(List<RequestStats> stats) {
+      return Buffer.buffer("data: ").appendString(Json.encode(ControllerServer.statsToJson(run, stats))).appendString("\n\n");
+   }
+
+   private void publish(List<RequestStats> stats) {
+      if (subscribers.isEmpty()) {
+         return;
+      }
+      Buffer event = event(stats);
+      boolean terminated = run.terminateTime.future().isComplete();
+      for (HttpServerResponse response : new ArrayList<>(subscribers)) {
+         if (terminated) {
+            subscribers.remove(response);
+            response.end(event);
+         } else if (response.writeQueueFull()) {
+            // Slow subscriber, it will receive next update
+            log.debug("Skipping stats update for {}", response);
+         } else {
+            response.write(event);
+         }
+      }
+   }
+}
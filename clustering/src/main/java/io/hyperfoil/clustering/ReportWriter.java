@@ -0,0 +1,149 @@
+package io.hyperfoil.clustering;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.infinispan.commons.util.FileLookupFactory;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.hyperfoil.controller.JsonWriter;
+import io.hyperfoil.controller.StatisticsStore;
+import io.hyperfoil.internal.Properties;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Writes HTML report without loading the statistics into memory: the report is composed in a temporary file
+ * on a worker thread, gzipped if the client accepts that, and then sent with {@link HttpServerResponse#sendFile(String)}
+ * which respects the flow control of the connection.
+ */
+class ReportWriter {
+   private static final Logger log = LogManager.getLogger(ReportWriter.class);
+   private static final String DATAKEY = "[/**DATAKEY**/]";
+   private static final int BUFFER_SIZE = 64 * 1024;
+   private static final ObjectMapper MAPPER = new ObjectMapper();
+
+   private static Template embeddedTemplate;
+   private static Template providedTemplate;
+
+   private final Vertx vertx;
+   private final HttpServerResponse response;
+   private final boolean gzip;
+
+   ReportWriter(Vertx vertx, HttpServerResponse response, boolean gzip) {
+      this.vertx = vertx;
+      this.response = response;
+      this.gzip = gzip;
+   }
+
+   /**
+    * @param statsFile JSON file with statistics, embedded as-is.
+    * @return Future completed when the response ends.
+    */
+   Future<Void> write(Path statsFile) {
+      return write(output -> Files.copy(statsFile, output));
+   }
+
+   /**
+    * @param store Statistics of the run.
+    * @param infoFile JSON file with run info.
+    * @param maxPoints Series are replaced with the finest rollup with at most this many points.
+    * @return Future completed when the response ends.
+    */
+   Future<Void> write(StatisticsStore store, Path infoFile, int maxPoints) {
+      return write(output -> {
+         JsonObject info = Files.exists(infoFile) ? new JsonObject(Files.readString(infoFile)) : null;
+         JsonGenerator generator = MAPPER.getFactory().createGenerator(output)
+               .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+         JsonWriter.writeArrayJsons(store, generator, info, maxPoints);
+         generator.close();
+      });
+   }
+
+   private Future<Void> write(DataWriter data) {
+      return vertx.executeBlocking(() -> {
+         Template template = template();
+         Path report = Files.createTempFile("report-", gzip ? ".html.gz" : ".html");
+         try (OutputStream file = Files.newOutputStream(report);
+               OutputStream output = gzip ? new GZIPOutputStream(file, BUFFER_SIZE)
+                     : new BufferedOutputStream(file, BUFFER_SIZE)) {
+            output.write(template.prefix);
+            data.write(output);
+            output.write(template.suffix);
+         } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(report);
+            throw e;
+         }
+         return report;
+      }, false).compose(report -> {
+         response.putHeader(HttpHeaders.CONTENT_TYPE, "text/html");
+         if (gzip) {
+            response.putHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+         }
+         return response.sendFile(report.toString()).eventually(nil -> vertx.fileSystem().delete(report.toString()))
+               .onFailure(t -> log.error("Failed to send report {}", report, t));
+      });
+   }
+
+   private static synchronized Template template() throws IOException {
+      String providedTemplatePath = Properties.get(Properties.REPORT_TEMPLATE, "");
+      if (providedTemplatePath.isBlank()) {
+         if (embeddedTemplate == null) {
+            // use the embedded template html
+            try (InputStream stream = FileLookupFactory.newInstance().lookupFile("report-template.html",
+                  Thread.currentThread().getContextClassLoader())) {
+               if (stream == null) {
+                  throw new IOException("Embedded report template is not available.");
+               }
+               embeddedTemplate = Template.parse(new String(stream.readAllBytes(), StandardCharsets.UTF_8), null, null);
+            }
+         }
+         return embeddedTemplate;
+      } else {
+         // use the provided template, reloading it when it changes
+         Path templatePath = Path.of(providedTemplatePath);
+         if (!Files.isRegularFile(templatePath)) {
+            throw new IOException("Template file " + templatePath + " is not available.");
+         }
+         FileTime lastModified = Files.getLastModifiedTime(templatePath);
+         if (providedTemplate == null || !templatePath.equals(providedTemplate.path)
+               || !lastModified.equals(providedTemplate.lastModified)) {
+            log.info("Using the provided report template at {}", providedTemplatePath);
+            providedTemplate = Template.parse(Files.readString(templatePath, StandardCharsets.UTF_8), templatePath,
+                  lastModified);
+         }
+         return providedTemplate;
+      }
+   }
+
+   private record Template(byte[] prefix, byte[] suffix, Path path, FileTime lastModified) {
+      static Template parse(String template, Path path, FileTime lastModified) throws IOException {
+         int placeholderIndex = template.indexOf(DATAKEY);
+         if (placeholderIndex < 0) {
+            throw new IOException("Report template does not contain placeholder " + DATAKEY);
+         }
+         return new Template(template.substring(0, placeholderIndex).getBytes(StandardCharsets.UTF_8),
+               template.substring(placeholderIndex + DATAKEY.length()).getBytes(StandardCharsets.UTF_8), path,
+               lastModified);
+      }
+   }
+
+   @FunctionalInterface
+   private interface DataWriter {
+      void write(OutputStream output) throws IOException;
+   }
+}
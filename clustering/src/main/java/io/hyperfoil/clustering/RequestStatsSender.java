@@ -1,5 +1,8 @@
 package io.hyperfoil.clustering;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -8,8 +11,10 @@ import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
 import io.hyperfoil.clustering.messages.PhaseStatsCompleteMessage;
 import io.hyperfoil.clustering.messages.RequestStatsMessage;
+import io.hyperfoil.clustering.messages.StatsFrameMessage;
 import io.hyperfoil.core.impl.statistics.StatisticsCollector;
 import io.hyperfoil.core.util.CountDown;
+import io.hyperfoil.internal.Properties;
 import io.vertx.core.eventbus.EventBus;
 
 public class RequestStatsSender extends StatisticsCollector {
@@ -18,7 +23,10 @@ public class RequestStatsSender extends StatisticsCollector {
    private final String address;
    private final String runId;
    private final EventBus eb;
+   private final boolean frames = Properties.get(Properties.STATS_FRAMES, Boolean::valueOf, true);
    private final StatisticsConsumer sendStats = this::sendStats;
+   private final StatisticsConsumer addToFrame = this::addToFrame;
+   private List<StatsFrameMessage.Entry> frame = new ArrayList<>();
 
    public RequestStatsSender(Benchmark benchmark, EventBus eb, String address, String runId) {
       super(benchmark);
@@ -28,7 +36,26 @@ public class RequestStatsSender extends StatisticsCollector {
    }
 
    public void send(CountDown completion) {
-      visitStatistics(sendStats, completion);
+      if (frames) {
+         visitStatistics(addToFrame, completion);
+         if (!frame.isEmpty()) {
+            log.debug("Sending stats frame with {} entries", frame.size());
+            completion.increment();
+            eb.request(Feeds.STATS, new StatsFrameMessage(address, runId, frame), reply -> completion.countDown());
+            // the message is encoded asynchronously so we cannot reuse the list
+            frame = new ArrayList<>();
+         }
+      } else {
+         visitStatistics(sendStats, completion);
+      }
+   }
+
+   private void addToFrame(Phase phase, int stepId, String metric, StatisticsSnapshot statistics, CountDown countDown) {
+      if (statistics.histogram.getEndTimeStamp() >= statistics.histogram.getStartTimeStamp()) {
+         log.trace("Adding stats for {} {}/{}, id {}: {} requests, {} responses", phase.name(), stepId, metric,
+               statistics.sequenceId, statistics.requestCount, statistics.responseCount);
+         frame.add(new StatsFrameMessage.Entry(phase.id(), stepId, metric, statistics.clone()));
+      }
    }
 
    private void sendStats(Phase phase, int stepId, String metric, StatisticsSnapshot statistics, CountDown countDown) {
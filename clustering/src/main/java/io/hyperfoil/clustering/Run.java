@@ -10,6 +10,7 @@ import java.util.function.Supplier;
 import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.session.GlobalData;
+import io.hyperfoil.clustering.messages.FileManifest;
 import io.hyperfoil.controller.StatisticsStore;
 import io.hyperfoil.impl.Util;
 import io.vertx.core.Promise;
@@ -18,6 +19,8 @@ class Run {
    final String id;
    final Path dir;
    Benchmark benchmark;
+   // Chunks of benchmark files, available until the agents are initialized
+   FileManifest files;
    final Map<String, ControllerPhase> phases = new HashMap<>();
    final List<AgentInfo> agents = new ArrayList<>();
    final Phase[] phasesById;
@@ -35,6 +38,7 @@ class Run {
    Supplier<StatisticsStore> statsSupplier;
    private StatisticsStore statisticsStore;
    Map<String, GlobalData.Element> newGlobalData = new HashMap<>();
+   RecentStatsPublisher recentStatsPublisher;
 
    Run(String id, Path dir, Benchmark benchmark) {
       this.id = id;
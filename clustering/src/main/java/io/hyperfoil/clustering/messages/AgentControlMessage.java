@@ -8,11 +8,17 @@ public class AgentControlMessage implements Serializable {
    private Command command;
    private int agentId;
    private Object param;
+   private FileManifest files;
 
    public AgentControlMessage(Command command, int agentId, Object param) {
+      this(command, agentId, param, null);
+   }
+
+   public AgentControlMessage(Command command, int agentId, Object param, FileManifest files) {
       this.command = command;
       this.agentId = agentId;
       this.param = param;
+      this.files = files;
    }
 
    public Command command() {
@@ -23,6 +29,10 @@ public class AgentControlMessage implements Serializable {
       return (Benchmark) param;
    }
 
+   public FileManifest files() {
+      return files;
+   }
+
    public boolean includeInactive() {
       return (Boolean) param;
    }
@@ -0,0 +1,283 @@
+package io.hyperfoil.clustering.messages;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.api.statistics.StatsExtension;
+import io.hyperfoil.core.util.LowHigh;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+
+/**
+ * Hand-written wire format for the messages sent periodically from agents to controller.
+ * <p>
+ * As opposed to {@link ObjectCodec} this does not use Java serialization for the message itself;
+ * {@link StatisticsSnapshot} is written as primitive fields followed by the histogram in HdrHistogram's own
+ * (zig-zag LEB128, run-length compacted) encoding. The only part that falls back to Java serialization
+ * are the {@link StatsExtension stats extensions}, as these are pluggable.
+ * <p>
+ * Every message starts with a version byte; when controller and agent use different versions the decoding fails fast.
+ */
+public abstract class BinaryCodec<T> implements MessageCodec<T, T> {
+   public static final byte VERSION = 1;
+
+   private static final ThreadLocal<ByteBuffer> HISTOGRAM_BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocate(1024));
+
+   @Override
+   public void encodeToWire(Buffer buffer, T object) {
+      buffer.appendByte(VERSION);
+      encode(buffer, object);
+   }
+
+   @Override
+   public T decodeFromWire(int position, Buffer buffer) {
+      byte version = buffer.getByte(position);
+      if (version != VERSION) {
+         throw new IllegalStateException(
+               "Cannot decode " + name() + ": unsupported wire format version " + version + ", expected " + VERSION);
+      }
+      return decode(new Reader(buffer, position + 1));
+   }
+
+   protected abstract void encode(Buffer buffer, T object);
+
+   protected abstract T decode(Reader reader);
+
+   @Override
+   public T transform(T object) {
+      // Same as in ObjectCodec, the senders must not mutate the message after sending it.
+      return object;
+   }
+
+   @Override
+   public String name() {
+      return this.getClass().getName();
+   }
+
+   @Override
+   public byte systemCodecID() {
+      return -1;
+   }
+
+   public static void writeString(Buffer buffer, String str) {
+      if (str == null) {
+         buffer.appendInt(-1);
+      } else {
+         byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+         buffer.appendInt(bytes.length);
+         buffer.appendBytes(bytes);
+      }
+   }
+
+   public static void writeSnapshot(Buffer buffer, StatisticsSnapshot snapshot) {
+      if (snapshot == null) {
+         buffer.appendByte((byte) 0);
+         return;
+      }
+      buffer.appendByte((byte) 1);
+      writeHistogram(buffer, snapshot.histogram);
+      writeCounters(buffer, snapshot);
+      writeExtensions(buffer, snapshot.extensions);
+   }
+
+   protected static void writeCounters(Buffer buffer, StatisticsSnapshot snapshot) {
+      buffer.appendInt(snapshot.sequenceId);
+      buffer.appendInt(snapshot.requestCount);
+      buffer.appendInt(snapshot.responseCount);
+      buffer.appendInt(snapshot.invalid);
+      buffer.appendInt(snapshot.connectionErrors);
+      buffer.appendInt(snapshot.requestTimeouts);
+      buffer.appendInt(snapshot.internalErrors);
+      buffer.appendLong(snapshot.blockedTime);
+   }
+
+   public static void writeHistogram(Buffer buffer, Histogram histogram) {
+      buffer.appendLong(histogram.getStartTimeStamp());
+      buffer.appendLong(histogram.getEndTimeStamp());
+      ByteBuffer bb = HISTOGRAM_BUFFER.get();
+      int capacity = histogram.getNeededByteBufferCapacity();
+      if (bb.capacity() < capacity) {
+         bb = ByteBuffer.allocate(capacity);
+         HISTOGRAM_BUFFER.set(bb);
+      }
+      bb.clear();
+      int length = histogram.encodeIntoByteBuffer(bb);
+      buffer.appendInt(length);
+      buffer.appendBytes(bb.array(), 0, length);
+   }
+
+   protected static void writeExtensions(Buffer buffer, Map<String, StatsExtension> extensions) {
+      if (extensions.isEmpty()) {
+         buffer.appendInt(0);
+         return;
+      }
+      int lengthIndex = buffer.length();
+      buffer.appendInt(0);
+      try (ObjectOutputStream out = new ObjectOutputStream(new BufferOutputStream(buffer))) {
+         out.writeObject(new HashMap<>(extensions));
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+      buffer.setInt(lengthIndex, buffer.length() - lengthIndex - Integer.BYTES);
+   }
+
+   /**
+    * Unsigned LEB128 encoding; small non-negative values take a single byte.
+    */
+   public static void writeVarLong(Buffer buffer, long value) {
+      while ((value & ~0x7FL) != 0) {
+         buffer.appendByte((byte) ((value & 0x7F) | 0x80));
+         value >>>= 7;
+      }
+      buffer.appendByte((byte) value);
+   }
+
+   public static void writeLowHighMap(Buffer buffer, Map<String, LowHigh> map) {
+      buffer.appendInt(map.size());
+      for (Map.Entry<String, LowHigh> entry : map.entrySet()) {
+         writeString(buffer, entry.getKey());
+         buffer.appendInt(entry.getValue().low);
+         buffer.appendInt(entry.getValue().high);
+      }
+   }
+
+   public static class Reader {
+      private final Buffer buffer;
+      private int position;
+
+      public Reader(Buffer buffer, int position) {
+         this.buffer = buffer;
+         this.position = position;
+      }
+
+      public byte readByte() {
+         return buffer.getByte(position++);
+      }
+
+      public int readInt() {
+         int value = buffer.getInt(position);
+         position += Integer.BYTES;
+         return value;
+      }
+
+      public long readLong() {
+         long value = buffer.getLong(position);
+         position += Long.BYTES;
+         return value;
+      }
+
+      public long readVarLong() {
+         long value = 0;
+         for (int shift = 0;; shift += 7) {
+            byte b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+               return value;
+            }
+         }
+      }
+
+      public String readString() {
+         int length = readInt();
+         if (length < 0) {
+            return null;
+         }
+         String str = buffer.getString(position, position + length, StandardCharsets.UTF_8.name());
+         position += length;
+         return str;
+      }
+
+      public StatisticsSnapshot readSnapshot() {
+         if (readByte() == 0) {
+            return null;
+         }
+         StatisticsSnapshot snapshot = new StatisticsSnapshot(readHistogram());
+         readCounters(snapshot);
+         readExtensions(snapshot.extensions);
+         return snapshot;
+      }
+
+      protected void readCounters(StatisticsSnapshot snapshot) {
+         snapshot.sequenceId = readInt();
+         snapshot.requestCount = readInt();
+         snapshot.responseCount = readInt();
+         snapshot.invalid = readInt();
+         snapshot.connectionErrors = readInt();
+         snapshot.requestTimeouts = readInt();
+         snapshot.internalErrors = readInt();
+         snapshot.blockedTime = readLong();
+      }
+
+      public Histogram readHistogram() {
+         long startTimestamp = readLong();
+         long endTimestamp = readLong();
+         int length = readInt();
+         Histogram histogram = Histogram.decodeFromByteBuffer(buffer.getByteBuf().nioBuffer(position, length),
+               StatisticsSnapshot.HIGHEST_TRACKABLE_VALUE);
+         position += length;
+         histogram.setStartTimeStamp(startTimestamp);
+         histogram.setEndTimeStamp(endTimestamp);
+         return histogram;
+      }
+
+      protected void readExtensions(Map<String, StatsExtension> extensions) {
+         int length = readInt();
+         if (length == 0) {
+            return;
+         }
+         ByteBuf slice = buffer.getByteBuf().slice(position, length);
+         position += length;
+         try (ObjectInputStream in = new ObjectInputStream(new ByteBufInputStream(slice))) {
+            @SuppressWarnings("unchecked")
+            Map<String, StatsExtension> map = (Map<String, StatsExtension>) in.readObject();
+            extensions.putAll(map);
+         } catch (IOException e) {
+            throw new UncheckedIOException(e);
+         } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+         }
+      }
+
+      public Map<String, LowHigh> readLowHighMap() {
+         int size = readInt();
+         Map<String, LowHigh> map = new HashMap<>(size * 2);
+         for (int i = 0; i < size; ++i) {
+            String key = readString();
+            int low = readInt();
+            int high = readInt();
+            map.put(key, new LowHigh(low, high));
+         }
+         return map;
+      }
+   }
+
+   private static class BufferOutputStream extends OutputStream {
+      private final Buffer buffer;
+
+      private BufferOutputStream(Buffer buffer) {
+         this.buffer = buffer;
+      }
+
+      @Override
+      public void write(int b) {
+         buffer.appendByte((byte) b);
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) {
+         buffer.appendBytes(b, off, len);
+      }
+   }
+}
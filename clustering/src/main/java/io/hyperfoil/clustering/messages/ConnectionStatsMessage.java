@@ -1,8 +1,10 @@
 package io.hyperfoil.clustering.messages;
 
+import java.util.HashMap;
 import java.util.Map;
 
 import io.hyperfoil.core.util.LowHigh;
+import io.vertx.core.buffer.Buffer;
 
 public class ConnectionStatsMessage extends StatsMessage {
    public final long timestamp;
@@ -14,6 +16,31 @@ public class ConnectionStatsMessage extends StatsMessage {
       this.stats = stats;
    }
 
-   public static class Codec extends ObjectCodec<ConnectionStatsMessage> {
+   public static class Codec extends BinaryCodec<ConnectionStatsMessage> {
+      @Override
+      protected void encode(Buffer buffer, ConnectionStatsMessage msg) {
+         writeString(buffer, msg.address);
+         writeString(buffer, msg.runId);
+         buffer.appendLong(msg.timestamp);
+         buffer.appendInt(msg.stats.size());
+         for (Map.Entry<String, Map<String, LowHigh>> entry : msg.stats.entrySet()) {
+            writeString(buffer, entry.getKey());
+            writeLowHighMap(buffer, entry.getValue());
+         }
+      }
+
+      @Override
+      protected ConnectionStatsMessage decode(Reader reader) {
+         String address = reader.readString();
+         String runId = reader.readString();
+         long timestamp = reader.readLong();
+         int size = reader.readInt();
+         Map<String, Map<String, LowHigh>> stats = new HashMap<>(size * 2);
+         for (int i = 0; i < size; ++i) {
+            String authority = reader.readString();
+            stats.put(authority, reader.readLowHighMap());
+         }
+         return new ConnectionStatsMessage(address, runId, timestamp, stats);
+      }
    }
 }
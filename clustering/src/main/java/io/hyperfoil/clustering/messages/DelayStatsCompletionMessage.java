@@ -1,5 +1,7 @@
 package io.hyperfoil.clustering.messages;
 
+import io.vertx.core.buffer.Buffer;
+
 public class DelayStatsCompletionMessage extends StatsMessage {
    public final int phaseId;
    public final long delay;
@@ -10,6 +12,21 @@ public class DelayStatsCompletionMessage extends StatsMessage {
       this.delay = delay;
    }
 
-   public static class Codec extends ObjectCodec<DelayStatsCompletionMessage> {
+   public static class Codec extends BinaryCodec<DelayStatsCompletionMessage> {
+      @Override
+      protected void encode(Buffer buffer, DelayStatsCompletionMessage msg) {
+         writeString(buffer, msg.address);
+         writeString(buffer, msg.runId);
+         buffer.appendInt(msg.phaseId);
+         buffer.appendLong(msg.delay);
+      }
+
+      @Override
+      protected DelayStatsCompletionMessage decode(Reader reader) {
+         String address = reader.readString();
+         String runId = reader.readString();
+         int phaseId = reader.readInt();
+         return new DelayStatsCompletionMessage(address, runId, phaseId, reader.readLong());
+      }
    }
 }
@@ -0,0 +1,92 @@
+package io.hyperfoil.clustering.messages;
+
+import java.io.Serializable;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Describes benchmark files as sequences of content-addressed chunks. Agents receive only this manifest
+ * with the benchmark and fetch the chunks they don't have cached from the controller.
+ */
+public class FileManifest implements Serializable {
+   public static final FileManifest EMPTY = new FileManifest(Collections.emptyMap(), Collections.emptyMap());
+   public static final int CHUNK_SIZE = 1024 * 1024;
+
+   private final Map<String, String[]> files;
+   // Available only on the controller
+   private final transient Map<String, Chunk> chunks;
+
+   private FileManifest(Map<String, String[]> files, Map<String, Chunk> chunks) {
+      this.files = files;
+      this.chunks = chunks;
+   }
+
+   public static FileManifest create(Map<String, byte[]> files) {
+      if (files.isEmpty()) {
+         return EMPTY;
+      }
+      MessageDigest digest = digest();
+      Map<String, String[]> manifest = new HashMap<>();
+      Map<String, Chunk> chunks = new HashMap<>();
+      for (var entry : files.entrySet()) {
+         byte[] bytes = entry.getValue();
+         String[] hashes = new String[(bytes.length + CHUNK_SIZE - 1) / CHUNK_SIZE];
+         for (int i = 0; i < hashes.length; ++i) {
+            int offset = i * CHUNK_SIZE;
+            int length = Math.min(CHUNK_SIZE, bytes.length - offset);
+            digest.update(bytes, offset, length);
+            hashes[i] = HexFormat.of().formatHex(digest.digest());
+            chunks.putIfAbsent(hashes[i], new Chunk(bytes, offset, length));
+         }
+         manifest.put(entry.getKey(), hashes);
+      }
+      return new FileManifest(manifest, chunks);
+   }
+
+   public static MessageDigest digest() {
+      try {
+         return MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+         throw new IllegalStateException(e);
+      }
+   }
+
+   public Map<String, String[]> files() {
+      return files;
+   }
+
+   /**
+    * @param hash Hash of the chunk.
+    * @return Chunk contents or <code>null</code> if this manifest does not contain the chunk.
+    */
+   public Buffer chunk(String hash) {
+      Chunk chunk = chunks == null ? null : chunks.get(hash);
+      if (chunk == null) {
+         return null;
+      }
+      return Buffer.buffer(Unpooled.wrappedBuffer(chunk.bytes, chunk.offset, chunk.length));
+   }
+
+   private record Chunk(byte[] bytes, int offset, int length) {
+   }
+
+   public static class ChunkRequest implements Serializable {
+      public final String runId;
+      public final String hash;
+
+      public ChunkRequest(String runId, String hash) {
+         this.runId = runId;
+         this.hash = hash;
+      }
+
+      public static class Codec extends ObjectCodec<ChunkRequest> {
+      }
+   }
+}
@@ -2,6 +2,8 @@ package io.hyperfoil.clustering.messages;
 
 import java.util.Objects;
 
+import io.vertx.core.buffer.Buffer;
+
 public class PhaseStatsCompleteMessage extends StatsMessage {
    public final String phase;
 
@@ -10,6 +12,19 @@ public class PhaseStatsCompleteMessage extends StatsMessage {
       this.phase = Objects.requireNonNull(phase);
    }
 
-   public static class Codec extends ObjectCodec<PhaseStatsCompleteMessage> {
+   public static class Codec extends BinaryCodec<PhaseStatsCompleteMessage> {
+      @Override
+      protected void encode(Buffer buffer, PhaseStatsCompleteMessage msg) {
+         writeString(buffer, msg.address);
+         writeString(buffer, msg.runId);
+         writeString(buffer, msg.phase);
+      }
+
+      @Override
+      protected PhaseStatsCompleteMessage decode(Reader reader) {
+         String address = reader.readString();
+         String runId = reader.readString();
+         return new PhaseStatsCompleteMessage(address, runId, reader.readString());
+      }
    }
 }
@@ -1,6 +1,7 @@
 package io.hyperfoil.clustering.messages;
 
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.vertx.core.buffer.Buffer;
 
 public class RequestStatsMessage extends StatsMessage {
    public final int phaseId;
@@ -17,6 +18,26 @@ public class RequestStatsMessage extends StatsMessage {
       this.statistics = statistics;
    }
 
-   public static class Codec extends ObjectCodec<RequestStatsMessage> {
+   public static class Codec extends BinaryCodec<RequestStatsMessage> {
+      @Override
+      protected void encode(Buffer buffer, RequestStatsMessage msg) {
+         writeString(buffer, msg.address);
+         writeString(buffer, msg.runId);
+         buffer.appendInt(msg.phaseId);
+         buffer.appendInt(msg.stepId);
+         writeString(buffer, msg.metric);
+         writeSnapshot(buffer, msg.statistics);
+      }
+
+      @Override
+      protected RequestStatsMessage decode(Reader reader) {
+         String address = reader.readString();
+         String runId = reader.readString();
+         int phaseId = reader.readInt();
+         int stepId = reader.readInt();
+         String metric = reader.readString();
+         StatisticsSnapshot statistics = reader.readSnapshot();
+         return new RequestStatsMessage(address, runId, phaseId, stepId, metric, statistics);
+      }
    }
 }
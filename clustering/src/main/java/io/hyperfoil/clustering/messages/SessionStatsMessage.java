@@ -3,6 +3,7 @@ package io.hyperfoil.clustering.messages;
 import java.util.Map;
 
 import io.hyperfoil.core.util.LowHigh;
+import io.vertx.core.buffer.Buffer;
 
 public class SessionStatsMessage extends StatsMessage {
    public final long timestamp;
@@ -14,6 +15,21 @@ public class SessionStatsMessage extends StatsMessage {
       this.sessionStats = sessionStats;
    }
 
-   public static class Codec extends ObjectCodec<SessionStatsMessage> {
+   public static class Codec extends BinaryCodec<SessionStatsMessage> {
+      @Override
+      protected void encode(Buffer buffer, SessionStatsMessage msg) {
+         writeString(buffer, msg.address);
+         writeString(buffer, msg.runId);
+         buffer.appendLong(msg.timestamp);
+         writeLowHighMap(buffer, msg.sessionStats);
+      }
+
+      @Override
+      protected SessionStatsMessage decode(Reader reader) {
+         String address = reader.readString();
+         String runId = reader.readString();
+         long timestamp = reader.readLong();
+         return new SessionStatsMessage(address, runId, timestamp, reader.readLowHighMap());
+      }
    }
 }
@@ -0,0 +1,119 @@
+package io.hyperfoil.clustering.messages;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * All non-empty request statistics collected by an agent in one collection period, sent as a single message
+ * instead of one {@link RequestStatsMessage} per phase/step/metric.
+ */
+public class StatsFrameMessage extends StatsMessage {
+   public final List<Entry> entries;
+
+   public StatsFrameMessage(String address, String runId, List<Entry> entries) {
+      super(address, runId);
+      this.entries = entries;
+   }
+
+   public static class Entry {
+      public final int phaseId;
+      public final int stepId;
+      public final String metric;
+      public final StatisticsSnapshot statistics;
+
+      public Entry(int phaseId, int stepId, String metric, StatisticsSnapshot statistics) {
+         this.phaseId = phaseId;
+         this.stepId = stepId;
+         this.metric = metric;
+         this.statistics = statistics;
+      }
+   }
+
+   /**
+    * All histograms in the frame share the bucket layout of {@link StatisticsSnapshot}; this is written once
+    * in the frame header and each histogram is encoded only as the sequence of non-empty buckets: the distance
+    * from previous non-empty bucket and its count, both as variable-length integers.
+    */
+   public static class Codec extends BinaryCodec<StatsFrameMessage> {
+      @Override
+      protected void encode(Buffer buffer, StatsFrameMessage msg) {
+         writeString(buffer, msg.address);
+         writeString(buffer, msg.runId);
+         buffer.appendLong(StatisticsSnapshot.HIGHEST_TRACKABLE_VALUE);
+         buffer.appendInt(StatisticsSnapshot.SIGNIFICANT_DIGITS);
+         buffer.appendInt(msg.entries.size());
+         for (Entry entry : msg.entries) {
+            buffer.appendInt(entry.phaseId);
+            buffer.appendInt(entry.stepId);
+            writeString(buffer, entry.metric);
+            writeHistogramDelta(buffer, entry.statistics.histogram);
+            writeCounters(buffer, entry.statistics);
+            writeExtensions(buffer, entry.statistics.extensions);
+         }
+      }
+
+      private static void writeHistogramDelta(Buffer buffer, Histogram histogram) {
+         buffer.appendLong(histogram.getStartTimeStamp());
+         buffer.appendLong(histogram.getEndTimeStamp());
+         // we need to know the number of buckets upfront; reserve space and fill it in later
+         int bucketsIndex = buffer.length();
+         buffer.appendInt(0);
+         int buckets = 0;
+         long lastValue = 0;
+         for (HistogramIterationValue value : histogram.recordedValues()) {
+            long bucketValue = histogram.lowestEquivalentValue(value.getValueIteratedTo());
+            writeVarLong(buffer, bucketValue - lastValue);
+            writeVarLong(buffer, value.getCountAtValueIteratedTo());
+            lastValue = bucketValue;
+            ++buckets;
+         }
+         buffer.setInt(bucketsIndex, buckets);
+      }
+
+      @Override
+      protected StatsFrameMessage decode(Reader reader) {
+         String address = reader.readString();
+         String runId = reader.readString();
+         long highestTrackableValue = reader.readLong();
+         int significantDigits = reader.readInt();
+         if (highestTrackableValue != StatisticsSnapshot.HIGHEST_TRACKABLE_VALUE
+               || significantDigits != StatisticsSnapshot.SIGNIFICANT_DIGITS) {
+            throw new IllegalStateException("Histogram layout " + highestTrackableValue + "/" + significantDigits
+                  + " in frame does not match local layout " + StatisticsSnapshot.HIGHEST_TRACKABLE_VALUE + "/"
+                  + StatisticsSnapshot.SIGNIFICANT_DIGITS);
+         }
+         int size = reader.readInt();
+         List<Entry> entries = new ArrayList<>(size);
+         for (int i = 0; i < size; ++i) {
+            int phaseId = reader.readInt();
+            int stepId = reader.readInt();
+            String metric = reader.readString();
+            StatisticsSnapshot snapshot = new StatisticsSnapshot();
+            readHistogramDelta(reader, snapshot.histogram);
+            reader.readCounters(snapshot);
+            reader.readExtensions(snapshot.extensions);
+            entries.add(new Entry(phaseId, stepId, metric, snapshot));
+         }
+         return new StatsFrameMessage(address, runId, entries);
+      }
+
+      private static void readHistogramDelta(Reader reader, Histogram histogram) {
+         long startTimestamp = reader.readLong();
+         long endTimestamp = reader.readLong();
+         int buckets = reader.readInt();
+         long value = 0;
+         for (int i = 0; i < buckets; ++i) {
+            value += reader.readVarLong();
+            histogram.recordValueWithCount(value, reader.readVarLong());
+         }
+         histogram.setStartTimeStamp(startTimestamp);
+         histogram.setEndTimeStamp(endTimestamp);
+      }
+   }
+}
@@ -0,0 +1,188 @@
+package io.hyperfoil.clustering.util;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.hyperfoil.api.config.BenchmarkData;
+import io.hyperfoil.clustering.Feeds;
+import io.hyperfoil.clustering.messages.FileManifest;
+import io.hyperfoil.internal.Controller;
+import io.hyperfoil.internal.Properties;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Benchmark files on the agent, stored as content-addressed chunks in a local cache directory.
+ * The cache is shared by all runs so the chunks are transferred from the controller only once.
+ */
+public class CachedBenchmarkData implements BenchmarkData {
+   private static final Logger log = LogManager.getLogger(CachedBenchmarkData.class);
+   public static final Path CACHE_DIR = Properties.get(Properties.FILE_CACHE_DIR, Paths::get,
+         Controller.ROOT_DIR.resolve("filecache"));
+   private static final int PARALLEL_REQUESTS = 4;
+
+   private final Path dir;
+   private final FileManifest manifest;
+   private final Map<String, byte[]> files = new AbstractMap<>() {
+      @Override
+      public Set<Entry<String, byte[]>> entrySet() {
+         // This loads all the files, use get() when possible
+         return manifest.files().keySet().stream()
+               .map(file -> new SimpleImmutableEntry<>(file, get(file)))
+               .collect(Collectors.toSet());
+      }
+
+      @Override
+      public byte[] get(Object key) {
+         if (!(key instanceof String) || !manifest.files().containsKey(key)) {
+            return null;
+         }
+         try (InputStream stream = readFile((String) key)) {
+            return stream.readAllBytes();
+         } catch (IOException e) {
+            throw new UncheckedIOException(e);
+         }
+      }
+
+      @Override
+      public boolean containsKey(Object key) {
+         return manifest.files().containsKey(key);
+      }
+
+      @Override
+      public Set<String> keySet() {
+         return manifest.files().keySet();
+      }
+
+      @Override
+      public int size() {
+         return manifest.files().size();
+      }
+   };
+
+   public CachedBenchmarkData(Path dir, FileManifest manifest) {
+      this.dir = dir;
+      this.manifest = manifest;
+   }
+
+   /**
+    * Downloads chunks missing in the cache from the controller.
+    *
+    * @param vertx Vert.x instance.
+    * @param runId Run ID used to lookup the files on controller.
+    * @param manifest Files that should be present.
+    * @return Data backed by the cache.
+    */
+   public static Future<BenchmarkData> fetch(Vertx vertx, String runId, FileManifest manifest) {
+      return fetch(vertx, CACHE_DIR, runId, manifest);
+   }
+
+   // Visible for testing
+   static Future<BenchmarkData> fetch(Vertx vertx, Path dir, String runId, FileManifest manifest) {
+      if (manifest.files().isEmpty()) {
+         return Future.succeededFuture(BenchmarkData.EMPTY);
+      }
+      return vertx.executeBlocking(() -> {
+         Files.createDirectories(dir);
+         Set<String> missing = new LinkedHashSet<>();
+         for (String[] hashes : manifest.files().values()) {
+            for (String hash : hashes) {
+               if (!Files.exists(dir.resolve(hash))) {
+                  missing.add(hash);
+               }
+            }
+         }
+         return new ArrayList<>(missing);
+      }, false).compose(missing -> {
+         log.info("Fetching {} chunks out of {} files to {}", missing.size(), manifest.files().size(), dir);
+         List<Future<Void>> lanes = new ArrayList<>();
+         for (int i = 0; i < Math.min(PARALLEL_REQUESTS, missing.size()); ++i) {
+            lanes.add(fetchChunks(vertx, runId, dir, missing, i));
+         }
+         return Future.all(lanes);
+      }).map(nil -> new CachedBenchmarkData(dir, manifest));
+   }
+
+   private static Future<Void> fetchChunks(Vertx vertx, String runId, Path dir, List<String> missing, int index) {
+      if (index >= missing.size()) {
+         return Future.succeededFuture();
+      }
+      String hash = missing.get(index);
+      return vertx.eventBus().<Buffer> request(Feeds.FILES, new FileManifest.ChunkRequest(runId, hash))
+            .compose(reply -> vertx.<Void> executeBlocking(() -> {
+               store(dir, hash, reply.body().getBytes());
+               return null;
+            }, false))
+            .compose(nil -> fetchChunks(vertx, runId, dir, missing, index + PARALLEL_REQUESTS));
+   }
+
+   private static void store(Path dir, String hash, byte[] bytes) throws IOException {
+      String actual = HexFormat.of().formatHex(FileManifest.digest().digest(bytes));
+      if (!actual.equals(hash)) {
+         throw new IOException("Chunk " + hash + " is corrupted, received data with hash " + actual);
+      }
+      // Other agents on the same host might share the cache; make the chunk appear atomically
+      Path temp = Files.createTempFile(dir, hash, ".tmp");
+      try {
+         Files.write(temp, bytes);
+         Files.move(temp, dir.resolve(hash), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } finally {
+         Files.deleteIfExists(temp);
+      }
+   }
+
+   @Override
+   public InputStream readFile(String file) {
+      String[] hashes = manifest.files().get(file);
+      if (hashes == null) {
+         throw new MissingFileException(file, "Cannot load file " + file + " (not part of the benchmark)", null);
+      }
+      return new SequenceInputStream(new Enumeration<>() {
+         int next;
+
+         @Override
+         public boolean hasMoreElements() {
+            return next < hashes.length;
+         }
+
+         @Override
+         public InputStream nextElement() {
+            if (next >= hashes.length) {
+               throw new NoSuchElementException();
+            }
+            Path chunk = dir.resolve(hashes[next++]);
+            try {
+               return new FileInputStream(chunk.toFile());
+            } catch (IOException e) {
+               throw new MissingFileException(file, "Cannot load chunk " + chunk + " of file " + file, e);
+            }
+         }
+      });
+   }
+
+   @Override
+   public Map<String, byte[]> files() {
+      return files;
+   }
+}
@@ -69,7 +69,7 @@ public class CsvWriter {
       }
       for (Data data : sorted) {
          String filePrefix = dir + File.separator + sanitize(data.phase) + "." + sanitize(data.metric) + "." + data.stepId;
-         writeHistogramAndSeries(filePrefix, data.total, data.series);
+         writeHistogramAndSeries(filePrefix, data.total, data.series());
       }
       String[] agents = store.data.values().stream()
             .flatMap(m -> m.values().stream())
@@ -116,7 +116,7 @@ public class CsvWriter {
          for (Data data : sorted) {
             String filePrefix = dir + File.separator + sanitize(data.phase) + "." + sanitize(data.metric) + "." + data.stepId
                   + ".agent." + agent;
-            writeHistogramAndSeries(filePrefix, data.perAgent.get(agent), data.agentSeries.get(agent));
+            writeHistogramAndSeries(filePrefix, data.perAgent.get(agent), data.agentSeries().get(agent));
          }
       }
       try (PrintWriter writer = new PrintWriter(dir + File.separator + "failures.csv")) {
@@ -1,5 +1,8 @@
 package io.hyperfoil.controller;
 
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -32,11 +35,24 @@ final class Data {
    final Map<String, IntObjectMap<StatisticsSnapshot>> lastStats = new HashMap<>();
    final List<StatisticsSummary> series = new ArrayList<>();
    final Map<String, List<StatisticsSummary>> agentSeries = new HashMap<>();
+   final SeriesRollup rollup = new SeriesRollup();
+   final Map<String, SeriesRollup> agentRollups = new HashMap<>();
    // floating statistics for SLAs
    private final Map<SLA, StatisticsStore.Window> windowSlas;
    private final SLA[] totalSlas;
    private int highestSequenceId = 0;
    private boolean completed;
+   // when loaded from RunStore the series are read only when needed
+   private Path seriesFile;
+   // in spill mode only the most recent points stay in memory, the rest is read from RunStore when needed
+   private boolean spilled;
+   private long spilledRequests;
+   private long spilledAgentRequests;
+   // number of points that are not in memory
+   private int spilledPoints;
+   private final Map<String, Integer> spilledAgentPoints = new HashMap<>();
+   // points already dropped from memory, read from RunStore once
+   private SoftReference<SpilledSeries> spilledSeries;
 
    Data(StatisticsStore statisticsStore, String phase, boolean isWarmup, int stepId, String metric,
          Map<SLA, StatisticsStore.Window> periodSlas, SLA[] totalSlas) {
@@ -75,16 +91,25 @@ final class Data {
 
    private void mergeSnapshots(int sequenceId) {
       StatisticsSnapshot sum = new StatisticsSnapshot();
+      sum.sequenceId = sequenceId;
       for (Map.Entry<String, IntObjectMap<StatisticsSnapshot>> entry : lastStats.entrySet()) {
          StatisticsSnapshot snapshot = entry.getValue().remove(sequenceId);
          if (snapshot != null) {
             sum.add(snapshot);
             agentSeries.computeIfAbsent(entry.getKey(), a -> new ArrayList<>())
                   .add(snapshot.summary(StatisticsStore.PERCENTILES));
+            agentRollups.computeIfAbsent(entry.getKey(), a -> new SeriesRollup()).add(sequenceId, snapshot);
+            statisticsStore.appendSeries(this, entry.getKey(), snapshot);
          }
       }
       if (!sum.isEmpty()) {
          series.add(sum.summary(StatisticsStore.PERCENTILES));
+         rollup.add(sequenceId, sum);
+         statisticsStore.appendSeries(this, null, sum);
+      }
+      int maxInMemory = statisticsStore.maxSeriesInMemory();
+      if (maxInMemory > 0) {
+         spill(maxInMemory);
       }
       for (Map.Entry<SLA, StatisticsStore.Window> entry : windowSlas.entrySet()) {
          SLA sla = entry.getKey();
@@ -105,10 +130,11 @@ final class Data {
          mergeSnapshots(i);
       }
       // Just sanity checks
-      if (series.stream().mapToLong(ss -> ss.requestCount).sum() != total.requestCount) {
+      if (spilledRequests + series.stream().mapToLong(ss -> ss.requestCount).sum() != total.requestCount) {
          log.error("We lost some data (series) in phase {} metric {}", phase, metric);
       }
-      if (agentSeries.values().stream().flatMap(List::stream).mapToLong(ss -> ss.requestCount).sum() != total.requestCount) {
+      if (spilledAgentRequests + agentSeries.values().stream().flatMap(List::stream).mapToLong(ss -> ss.requestCount)
+            .sum() != total.requestCount) {
          log.error("We lost some data (agent series) in phase {} metric {}", phase, metric);
       }
       if (perAgent.values().stream().mapToLong(ss -> ss.requestCount).sum() != total.requestCount) {
@@ -122,9 +148,172 @@ final class Data {
          }
       }
       completed = true;
+      rollup.complete();
+      agentRollups.values().forEach(SeriesRollup::complete);
+      statisticsStore.completeSeries(this);
    }
 
    boolean isCompleted() {
       return completed;
    }
+
+   void loadSeriesLazily(Path seriesFile) {
+      this.seriesFile = seriesFile;
+   }
+
+   private synchronized void spill(int maxInMemory) {
+      // drop points in batches to amortize the cost of shifting the list
+      SpilledSeries cached = spilledSeries == null ? null : spilledSeries.get();
+      if (series.size() >= 2 * maxInMemory) {
+         List<StatisticsSummary> dropped = series.subList(0, series.size() - maxInMemory);
+         spilledRequests += dropped.stream().mapToLong(ss -> ss.requestCount).sum();
+         spilledPoints += dropped.size();
+         if (cached != null) {
+            cached.series.addAll(dropped);
+         }
+         dropped.clear();
+         spilled = true;
+      }
+      for (Map.Entry<String, List<StatisticsSummary>> entry : agentSeries.entrySet()) {
+         List<StatisticsSummary> list = entry.getValue();
+         if (list.size() >= 2 * maxInMemory) {
+            List<StatisticsSummary> dropped = list.subList(0, list.size() - maxInMemory);
+            spilledAgentRequests += dropped.stream().mapToLong(ss -> ss.requestCount).sum();
+            spilledAgentPoints.merge(entry.getKey(), dropped.size(), Integer::sum);
+            if (cached != null) {
+               cached.agentSeries.computeIfAbsent(entry.getKey(), a -> new ArrayList<>()).addAll(dropped);
+            }
+            dropped.clear();
+            spilled = true;
+         }
+      }
+   }
+
+   List<StatisticsSummary> series() throws IOException {
+      return series(0, 0);
+   }
+
+   private List<StatisticsSummary> series(long from, long to) throws IOException {
+      ensureSeriesLoaded();
+      // don't read spilled points if the range is covered by those in memory
+      if (!spilled || !series.isEmpty() && from >= series.get(0).startTime) {
+         return inRange(series, from, to);
+      }
+      List<StatisticsSummary> spilledSeries = spilledSeries().series;
+      List<StatisticsSummary> selected = new ArrayList<>(spilledSeries.size() + series.size());
+      addInRange(selected, spilledSeries, from, to);
+      addInRange(selected, series, from, to);
+      return selected;
+   }
+
+   /**
+    * @param from Lower bound (epoch millis) of the time range.
+    * @param to Upper bound (epoch millis) of the time range, non-positive value means unbounded.
+    * @param maxPoints Finest resolution with at most this many points is selected; non-positive value selects
+    *        the collection period. When even the coarsest rollup exceeds the limit it is returned anyway.
+    */
+   List<StatisticsSummary> series(long from, long to, int maxPoints) throws IOException {
+      ensureSeriesLoaded();
+      return select(() -> series(from, to), rollup, from, to, maxPoints);
+   }
+
+   /**
+    * Series of one agent with at most <code>maxPoints</code> points, see {@link #series(long, long, int)}.
+    */
+   List<StatisticsSummary> agentSeries(String agent, int maxPoints) throws IOException {
+      ensureSeriesLoaded();
+      return select(() -> agentSeries().get(agent), agentRollups.get(agent), 0, 0, maxPoints);
+   }
+
+   /**
+    * The rollups are in memory, so these are tried first; the points of the collection period (possibly spilled
+    * to disk) are read only when the finest rollup could be replaced by them.
+    */
+   private static List<StatisticsSummary> select(SeriesReader series, SeriesRollup rollup, long from, long to,
+         int maxPoints) throws IOException {
+      if (maxPoints > 0 && rollup != null) {
+         List<StatisticsSummary> selected = null;
+         for (int i = 0; i < rollup.resolutions(); ++i) {
+            List<StatisticsSummary> rolledUp = rollup.series(i);
+            if (rolledUp.isEmpty()) {
+               // series loaded from JSON don't have the rollups
+               break;
+            }
+            selected = inRange(rolledUp, from, to);
+            if (i == 0 && (long) selected.size() * SeriesRollup.FACTORS[0] <= maxPoints) {
+               List<StatisticsSummary> points = series.read();
+               return points.size() <= maxPoints ? points : selected;
+            } else if (selected.size() <= maxPoints) {
+               return selected;
+            }
+         }
+         if (selected != null) {
+            // even the coarsest rollup exceeds the limit
+            return selected;
+         }
+      }
+      return series.read();
+   }
+
+   private static List<StatisticsSummary> inRange(List<StatisticsSummary> series, long from, long to) {
+      if (from <= 0 && to <= 0) {
+         return series;
+      }
+      List<StatisticsSummary> selected = new ArrayList<>();
+      addInRange(selected, series, from, to);
+      return selected;
+   }
+
+   private static void addInRange(List<StatisticsSummary> selected, List<StatisticsSummary> series, long from, long to) {
+      for (StatisticsSummary summary : series) {
+         if (summary.endTime > from && (to <= 0 || summary.startTime < to)) {
+            selected.add(summary);
+         }
+      }
+   }
+
+   Map<String, List<StatisticsSummary>> agentSeries() throws IOException {
+      ensureSeriesLoaded();
+      if (!spilled) {
+         return agentSeries;
+      }
+      Map<String, List<StatisticsSummary>> spilledSeries = spilledSeries().agentSeries;
+      Map<String, List<StatisticsSummary>> result = new HashMap<>();
+      for (Map.Entry<String, List<StatisticsSummary>> entry : agentSeries.entrySet()) {
+         List<StatisticsSummary> spilledPoints = spilledSeries.getOrDefault(entry.getKey(), List.of());
+         List<StatisticsSummary> list = new ArrayList<>(spilledPoints.size() + entry.getValue().size());
+         list.addAll(spilledPoints);
+         list.addAll(entry.getValue());
+         result.put(entry.getKey(), list);
+      }
+      return result;
+   }
+
+   private synchronized SpilledSeries spilledSeries() throws IOException {
+      SpilledSeries cached = spilledSeries == null ? null : spilledSeries.get();
+      if (cached == null) {
+         log.debug("Reading spilled series for {}/{}", phase, metric);
+         cached = new SpilledSeries(new ArrayList<>(), new HashMap<>());
+         statisticsStore.runStore().readSeries(this, spilledPoints, spilledAgentPoints, cached.series, cached.agentSeries);
+         // the series can be read again when the memory is needed; new points are added in spill()
+         spilledSeries = new SoftReference<>(cached);
+      }
+      return cached;
+   }
+
+   private synchronized void ensureSeriesLoaded() throws IOException {
+      if (seriesFile != null) {
+         log.info("Loading series for {}/{} from {}", phase, metric, seriesFile);
+         RunStore.readSeries(seriesFile, series, agentSeries, rollup, agentRollups);
+         seriesFile = null;
+      }
+   }
+
+   @FunctionalInterface
+   private interface SeriesReader {
+      List<StatisticsSummary> read() throws IOException;
+   }
+
+   private record SpilledSeries(List<StatisticsSummary> series, Map<String, List<StatisticsSummary>> agentSeries) {
+   }
 }
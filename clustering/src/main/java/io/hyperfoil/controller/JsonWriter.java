@@ -25,6 +25,14 @@ public class JsonWriter {
    static final String RUN_SCHEMA = "http://hyperfoil.io/run-schema/v3.0";
 
    public static void writeArrayJsons(StatisticsStore store, JsonGenerator jGenerator, JsonObject info) throws IOException {
+      writeArrayJsons(store, jGenerator, info, 0);
+   }
+
+   /**
+    * @param maxPoints When positive the series are replaced by the finest rollup with at most this many points.
+    */
+   public static void writeArrayJsons(StatisticsStore store, JsonGenerator jGenerator, JsonObject info, int maxPoints)
+         throws IOException {
       Data[] sorted = store.data.values().stream().flatMap(map -> map.values().stream()).toArray(Data[]::new);
       Arrays.sort(sorted,
             Comparator.comparing((Data data) -> data.phase).thenComparing(d -> d.metric).thenComparingInt(d -> d.stepId));
@@ -86,7 +94,7 @@ public class JsonWriter {
          jGenerator.writeEndObject(); //histogram
 
          jGenerator.writeFieldName("series");
-         seriesArray(jGenerator, data.series);
+         seriesArray(jGenerator, maxPoints > 0 ? data.series(0, 0, maxPoints) : data.series());
 
          jGenerator.writeEndObject(); //entry
       }
@@ -174,7 +182,8 @@ public class JsonWriter {
                jGenerator.writeEndObject(); // histograms
 
                jGenerator.writeFieldName("series");
-               seriesArray(jGenerator, data.agentSeries.get(agent));
+               seriesArray(jGenerator,
+                     maxPoints > 0 ? data.agentSeries(agent, maxPoints) : data.agentSeries().get(agent));
 
                jGenerator.writeEndObject(); // agent stats entry
             }
@@ -0,0 +1,490 @@
+package io.hyperfoil.controller;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+
+import org.HdrHistogram.Histogram;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.SLA;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.api.statistics.StatisticsSummary;
+import io.hyperfoil.api.statistics.StatsExtension;
+
+/**
+ * Binary, segmented on-disk representation of {@link StatisticsStore}.
+ * <p>
+ * Each phase/step/metric gets its own segment file in the <code>store</code> subdirectory of the run dir;
+ * the segment is appended during the run whenever per-second snapshots are merged, and contains all
+ * aggregated and per-agent snapshots with compressed histograms. When the run completes we write an index
+ * with totals, per-agent totals, SLA failures and session/connection pool records. Loading a run then reads
+ * only the index; segments are read when the series for given metric are requested for the first time.
+ * <p>
+ * The <code>all.json</code> file is still produced when the run completes but it is not read back if the index exists.
+ */
+public class RunStore {
+   private static final Logger log = LogManager.getLogger(RunStore.class);
+   public static final String DIR = "store";
+   private static final String INDEX = "index.bin";
+   private static final String SEGMENT_SUFFIX = ".series";
+   private static final int VERSION = 1;
+   private static final byte AGGREGATED = 0;
+   private static final byte AGENT = 1;
+
+   private final Path dir;
+   private final Map<Data, Segment> segments = new IdentityHashMap<>();
+   private boolean failed;
+
+   public RunStore(Path runDir) {
+      this.dir = runDir.resolve(DIR);
+   }
+
+   public static boolean exists(Path runDir) {
+      return Files.isRegularFile(runDir.resolve(DIR).resolve(INDEX));
+   }
+
+   synchronized void append(Data data, String agentName, StatisticsSnapshot snapshot) {
+      if (failed) {
+         return;
+      }
+      try {
+         Segment segment = segments.get(data);
+         if (segment == null) {
+            Files.createDirectories(dir);
+            String file = String.format("%04d%s", segments.size(), SEGMENT_SUFFIX);
+            segment = new Segment(file, new DataOutputStream(
+                  new BufferedOutputStream(Files.newOutputStream(dir.resolve(file)))));
+            segments.put(data, segment);
+         }
+         if (segment.output == null) {
+            throw new IllegalStateException("Segment " + segment.file + " for " + data.phase + "/" + data.metric
+                  + " has been already closed.");
+         }
+         if (agentName == null) {
+            segment.output.writeByte(AGGREGATED);
+         } else {
+            segment.output.writeByte(AGENT);
+            writeString(segment.output, agentName);
+         }
+         writeSnapshot(segment.output, snapshot);
+      } catch (IOException | RuntimeException e) {
+         log.error("Cannot append statistics to {}, disabling the binary store for this run.", dir, e);
+         fail();
+      }
+   }
+
+   synchronized void complete(Data data) {
+      Segment segment = segments.get(data);
+      if (segment != null && segment.output != null) {
+         try {
+            segment.output.close();
+         } catch (IOException e) {
+            log.error("Cannot close segment {}", dir.resolve(segment.file), e);
+            fail();
+         }
+         segment.output = null;
+      }
+   }
+
+   private void fail() {
+      failed = true;
+      for (Segment segment : segments.values()) {
+         if (segment.output != null) {
+            try {
+               segment.output.close();
+            } catch (IOException e) {
+               log.trace("Cannot close segment {}", segment.file, e);
+            }
+            segment.output = null;
+         }
+      }
+   }
+
+   /**
+    * Writes the index; this should be called after all phases are completed.
+    *
+    * @param store Statistics that were appended to this store.
+    * @throws IOException When the index cannot be written, or some segments could not be written during the run.
+    */
+   public synchronized void writeIndex(StatisticsStore store) throws IOException {
+      for (Data data : store.getData()) {
+         complete(data);
+      }
+      if (failed) {
+         throw new IOException("Some statistics could not be written to " + dir + ", the index won't be created.");
+      }
+      Files.createDirectories(dir);
+      Path tmp = dir.resolve(INDEX + ".tmp");
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+         out.writeInt(VERSION);
+         out.writeInt(store.failures.size());
+         for (SLA.Failure failure : store.failures) {
+            writeString(out, failure.phase());
+            writeString(out, failure.metric());
+            writeString(out, failure.message());
+            out.writeLong(failure.statistics().histogram.getStartTimeStamp());
+            out.writeLong(failure.statistics().histogram.getEndTimeStamp());
+         }
+         int dataCount = store.data.values().stream().mapToInt(Map::size).sum();
+         out.writeInt(dataCount);
+         for (var byPhaseStep : store.data.entrySet()) {
+            for (Data data : byPhaseStep.getValue().values()) {
+               out.writeInt(byPhaseStep.getKey());
+               writeString(out, data.phase);
+               out.writeBoolean(data.isWarmup);
+               out.writeInt(data.stepId);
+               writeString(out, data.metric);
+               Segment segment = segments.get(data);
+               writeString(out, segment == null ? null : segment.file);
+               writeSnapshot(out, data.total);
+               out.writeInt(data.perAgent.size());
+               for (var entry : data.perAgent.entrySet()) {
+                  writeString(out, entry.getKey());
+                  writeSnapshot(out, entry.getValue());
+               }
+            }
+         }
+         out.writeInt(store.sessionPoolStats.size());
+         for (var byPhase : store.sessionPoolStats.entrySet()) {
+            writeString(out, byPhase.getKey());
+            out.writeInt(byPhase.getValue().records.size());
+            for (var byAgent : byPhase.getValue().records.entrySet()) {
+               writeString(out, byAgent.getKey());
+               out.writeInt(byAgent.getValue().size());
+               for (StatisticsStore.SessionPoolRecord record : byAgent.getValue()) {
+                  out.writeLong(record.timestamp);
+                  out.writeInt(record.low);
+                  out.writeInt(record.high);
+               }
+            }
+         }
+         out.writeInt(store.connectionPoolStats.size());
+         for (var byAuthority : store.connectionPoolStats.entrySet()) {
+            writeString(out, byAuthority.getKey());
+            out.writeInt(byAuthority.getValue().size());
+            for (var byType : byAuthority.getValue().entrySet()) {
+               writeString(out, byType.getKey());
+               out.writeInt(byType.getValue().size());
+               for (var byAgent : byType.getValue().entrySet()) {
+                  writeString(out, byAgent.getKey());
+                  out.writeInt(byAgent.getValue().size());
+                  for (StatisticsStore.ConnectionPoolStats stats : byAgent.getValue()) {
+                     out.writeLong(stats.timestamp);
+                     out.writeInt(stats.low);
+                     out.writeInt(stats.high);
+                  }
+               }
+            }
+         }
+         out.writeInt(store.cpuUsage.size());
+         for (var byPhase : store.cpuUsage.entrySet()) {
+            writeString(out, byPhase.getKey());
+            out.writeInt(byPhase.getValue().size());
+            for (var byAgent : byPhase.getValue().entrySet()) {
+               writeString(out, byAgent.getKey());
+               writeString(out, byAgent.getValue());
+            }
+         }
+      }
+      Files.move(tmp, dir.resolve(INDEX), StandardCopyOption.REPLACE_EXISTING);
+   }
+
+   /**
+    * Loads statistics from the index; series are read from segments on first access.
+    */
+   public static StatisticsStore load(Path runDir, Benchmark benchmark) throws IOException {
+      Path dir = runDir.resolve(DIR);
+      StatisticsStore store = new StatisticsStore(benchmark, f -> {
+      });
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(dir.resolve(INDEX))))) {
+         int version = in.readInt();
+         if (version != VERSION) {
+            throw new IOException("Unsupported version " + version + " of " + dir.resolve(INDEX));
+         }
+         int failures = in.readInt();
+         for (int i = 0; i < failures; ++i) {
+            String phase = readString(in);
+            String metric = readString(in);
+            String message = readString(in);
+            StatisticsSnapshot snapshot = new StatisticsSnapshot();
+            snapshot.histogram.setStartTimeStamp(in.readLong());
+            snapshot.histogram.setEndTimeStamp(in.readLong());
+            store.addFailure(new SLA.Failure(null, phase, metric, snapshot, message));
+         }
+         int dataCount = in.readInt();
+         for (int i = 0; i < dataCount; ++i) {
+            int id = in.readInt();
+            String phase = readString(in);
+            boolean isWarmup = in.readBoolean();
+            int stepId = in.readInt();
+            String metric = readString(in);
+            String segmentFile = readString(in);
+            Data data = new Data(store, phase, isWarmup, stepId, metric, Collections.emptyMap(), new SLA[0]);
+            data.total.add(readSnapshot(in));
+            int agents = in.readInt();
+            for (int j = 0; j < agents; ++j) {
+               data.perAgent.put(readString(in), readSnapshot(in));
+            }
+            if (segmentFile != null) {
+               data.loadSeriesLazily(dir.resolve(segmentFile));
+            }
+            store.addData(id, metric, data);
+         }
+         int sessionPhases = in.readInt();
+         for (int i = 0; i < sessionPhases; ++i) {
+            StatisticsStore.SessionPoolStats sps = new StatisticsStore.SessionPoolStats();
+            store.sessionPoolStats.put(readString(in), sps);
+            int agents = in.readInt();
+            for (int j = 0; j < agents; ++j) {
+               String agent = readString(in);
+               int records = in.readInt();
+               List<StatisticsStore.SessionPoolRecord> list = new ArrayList<>(records);
+               for (int k = 0; k < records; ++k) {
+                  list.add(new StatisticsStore.SessionPoolRecord(in.readLong(), in.readInt(), in.readInt()));
+               }
+               sps.records.put(agent, list);
+            }
+         }
+         int authorities = in.readInt();
+         for (int i = 0; i < authorities; ++i) {
+            var authorityMap = store.connectionPoolStats.computeIfAbsent(readString(in), a -> new HashMap<>());
+            int types = in.readInt();
+            for (int j = 0; j < types; ++j) {
+               var typeMap = authorityMap.computeIfAbsent(readString(in), t -> new HashMap<>());
+               int agents = in.readInt();
+               for (int k = 0; k < agents; ++k) {
+                  String agent = readString(in);
+                  int records = in.readInt();
+                  List<StatisticsStore.ConnectionPoolStats> list = new ArrayList<>(records);
+                  for (int l = 0; l < records; ++l) {
+                     list.add(new StatisticsStore.ConnectionPoolStats(in.readLong(), in.readInt(), in.readInt()));
+                  }
+                  typeMap.put(agent, list);
+               }
+            }
+         }
+         int cpuPhases = in.readInt();
+         for (int i = 0; i < cpuPhases; ++i) {
+            Map<String, String> phaseData = new HashMap<>();
+            store.cpuUsage.put(readString(in), phaseData);
+            int agents = in.readInt();
+            for (int j = 0; j < agents; ++j) {
+               phaseData.put(readString(in), readString(in));
+            }
+         }
+      }
+      return store;
+   }
+
+   /**
+    * Reads the oldest points of given data while these are still being appended.
+    *
+    * @param points Number of aggregated points to read.
+    * @param agentPoints Number of points to read for each agent.
+    */
+   synchronized void readSeries(Data data, int points, Map<String, Integer> agentPoints, List<StatisticsSummary> series,
+         Map<String, List<StatisticsSummary>> agentSeries) throws IOException {
+      if (failed) {
+         throw new IOException("Statistics in " + dir + " are incomplete.");
+      }
+      Segment segment = segments.get(data);
+      if (segment == null) {
+         return;
+      }
+      if (segment.output != null) {
+         segment.output.flush();
+      }
+      Path file = dir.resolve(segment.file);
+      long remaining = points + agentPoints.values().stream().mapToLong(Integer::longValue).sum();
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+         while (remaining > 0) {
+            byte kind = in.readByte();
+            if (kind == AGGREGATED) {
+               StatisticsSnapshot snapshot = readSnapshot(in);
+               if (series.size() < points) {
+                  series.add(snapshot.summary(StatisticsStore.PERCENTILES));
+                  --remaining;
+               }
+            } else if (kind == AGENT) {
+               String agent = readString(in);
+               StatisticsSnapshot snapshot = readSnapshot(in);
+               List<StatisticsSummary> list = agentSeries.computeIfAbsent(agent, a -> new ArrayList<>());
+               if (list.size() < agentPoints.getOrDefault(agent, 0)) {
+                  list.add(snapshot.summary(StatisticsStore.PERCENTILES));
+                  --remaining;
+               }
+            } else {
+               throw new IOException("Corrupted segment " + file + ": unexpected record type " + kind);
+            }
+         }
+      } catch (EOFException e) {
+         throw new IOException("Segment " + file + " is missing " + remaining + " points", e);
+      }
+   }
+
+   synchronized boolean isFailed() {
+      return failed;
+   }
+
+   static void readSeries(Path file, List<StatisticsSummary> series, Map<String, List<StatisticsSummary>> agentSeries,
+         SeriesRollup rollup, Map<String, SeriesRollup> agentRollups) throws IOException {
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+         for (;;) {
+            byte kind;
+            try {
+               kind = in.readByte();
+            } catch (EOFException e) {
+               break;
+            }
+            if (kind == AGGREGATED) {
+               StatisticsSnapshot snapshot = readSnapshot(in);
+               series.add(snapshot.summary(StatisticsStore.PERCENTILES));
+               if (rollup != null) {
+                  rollup.add(snapshot.sequenceId, snapshot);
+               }
+            } else if (kind == AGENT) {
+               String agent = readString(in);
+               StatisticsSnapshot snapshot = readSnapshot(in);
+               agentSeries.computeIfAbsent(agent, a -> new ArrayList<>())
+                     .add(snapshot.summary(StatisticsStore.PERCENTILES));
+               if (agentRollups != null) {
+                  agentRollups.computeIfAbsent(agent, a -> new SeriesRollup()).add(snapshot.sequenceId, snapshot);
+               }
+            } else {
+               throw new IOException("Corrupted segment " + file + ": unexpected record type " + kind);
+            }
+         }
+      }
+      if (rollup != null) {
+         rollup.complete();
+      }
+      if (agentRollups != null) {
+         agentRollups.values().forEach(SeriesRollup::complete);
+      }
+   }
+
+   private static void writeString(DataOutputStream out, String str) throws IOException {
+      if (str == null) {
+         out.writeInt(-1);
+      } else {
+         byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+         out.writeInt(bytes.length);
+         out.write(bytes);
+      }
+   }
+
+   private static String readString(DataInputStream in) throws IOException {
+      int length = in.readInt();
+      if (length < 0) {
+         return null;
+      }
+      byte[] bytes = new byte[length];
+      in.readFully(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+   }
+
+   private static void writeSnapshot(DataOutputStream out, StatisticsSnapshot snapshot) throws IOException {
+      out.writeInt(snapshot.sequenceId);
+      out.writeInt(snapshot.requestCount);
+      out.writeInt(snapshot.responseCount);
+      out.writeInt(snapshot.invalid);
+      out.writeInt(snapshot.connectionErrors);
+      out.writeInt(snapshot.requestTimeouts);
+      out.writeInt(snapshot.internalErrors);
+      out.writeLong(snapshot.blockedTime);
+      out.writeLong(snapshot.histogram.getStartTimeStamp());
+      out.writeLong(snapshot.histogram.getEndTimeStamp());
+      ByteBuffer buffer = ByteBuffer.allocate(snapshot.histogram.getNeededByteBufferCapacity());
+      int length = snapshot.histogram.encodeIntoCompressedByteBuffer(buffer);
+      out.writeInt(length);
+      out.write(buffer.array(), 0, length);
+      if (snapshot.extensions.isEmpty()) {
+         out.writeInt(0);
+      } else {
+         ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+         try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(new HashMap<>(snapshot.extensions));
+         }
+         out.writeInt(bytes.size());
+         bytes.writeTo(out);
+      }
+   }
+
+   private static StatisticsSnapshot readSnapshot(DataInputStream in) throws IOException {
+      int sequenceId = in.readInt();
+      int requestCount = in.readInt();
+      int responseCount = in.readInt();
+      int invalid = in.readInt();
+      int connectionErrors = in.readInt();
+      int requestTimeouts = in.readInt();
+      int internalErrors = in.readInt();
+      long blockedTime = in.readLong();
+      long startTimestamp = in.readLong();
+      long endTimestamp = in.readLong();
+      byte[] histogramBytes = new byte[in.readInt()];
+      in.readFully(histogramBytes);
+      Histogram histogram;
+      try {
+         histogram = Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(histogramBytes),
+               StatisticsSnapshot.HIGHEST_TRACKABLE_VALUE);
+      } catch (DataFormatException e) {
+         throw new IOException("Cannot decode histogram", e);
+      }
+      histogram.setStartTimeStamp(startTimestamp);
+      histogram.setEndTimeStamp(endTimestamp);
+      StatisticsSnapshot snapshot = new StatisticsSnapshot(histogram);
+      snapshot.sequenceId = sequenceId;
+      snapshot.requestCount = requestCount;
+      snapshot.responseCount = responseCount;
+      snapshot.invalid = invalid;
+      snapshot.connectionErrors = connectionErrors;
+      snapshot.requestTimeouts = requestTimeouts;
+      snapshot.internalErrors = internalErrors;
+      snapshot.blockedTime = blockedTime;
+      int extensionsLength = in.readInt();
+      if (extensionsLength > 0) {
+         byte[] bytes = new byte[extensionsLength];
+         in.readFully(bytes);
+         try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            @SuppressWarnings("unchecked")
+            Map<String, StatsExtension> extensions = (Map<String, StatsExtension>) ois.readObject();
+            snapshot.extensions.putAll(extensions);
+         } catch (ClassNotFoundException e) {
+            throw new IOException("Cannot load stats extensions", e);
+         }
+      }
+      return snapshot;
+   }
+
+   private static class Segment {
+      final String file;
+      DataOutputStream output;
+
+      Segment(String file, DataOutputStream output) {
+         this.file = file;
+         this.output = output;
+      }
+   }
+}
@@ -0,0 +1,88 @@
+package io.hyperfoil.controller;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.api.statistics.StatisticsSummary;
+
+/**
+ * Coarser resolutions of a series: snapshots are merged (including the histograms) into buckets
+ * of 10, 60 and 600 statistics collection periods, aligned to the sequence IDs. Only the summaries
+ * of completed buckets are kept; each resolution holds one snapshot for the bucket in progress,
+ * released when the phase completes.
+ */
+final class SeriesRollup {
+   static final int[] FACTORS = { 10, 60, 600 };
+
+   private final Level[] levels = new Level[FACTORS.length];
+
+   SeriesRollup() {
+      for (int i = 0; i < FACTORS.length; ++i) {
+         levels[i] = new Level(FACTORS[i]);
+      }
+   }
+
+   void add(int sequenceId, StatisticsSnapshot snapshot) {
+      for (Level level : levels) {
+         level.add(sequenceId, snapshot);
+      }
+   }
+
+   void complete() {
+      for (Level level : levels) {
+         level.flush();
+         level.current = null;
+      }
+   }
+
+   int resolutions() {
+      return levels.length;
+   }
+
+   /**
+    * @param index Index into {@link #FACTORS}.
+    * @return Summaries of completed buckets, and the one in progress if the phase is still running.
+    */
+   List<StatisticsSummary> series(int index) {
+      Level level = levels[index];
+      if (level.current == null || level.current.isEmpty()) {
+         return Collections.unmodifiableList(level.summaries);
+      }
+      List<StatisticsSummary> series = new ArrayList<>(level.summaries.size() + 1);
+      series.addAll(level.summaries);
+      series.add(level.current.summary(StatisticsStore.PERCENTILES));
+      return series;
+   }
+
+   private static class Level {
+      final int factor;
+      final List<StatisticsSummary> summaries = new ArrayList<>();
+      StatisticsSnapshot current = new StatisticsSnapshot();
+      int bucket = -1;
+
+      Level(int factor) {
+         this.factor = factor;
+      }
+
+      void add(int sequenceId, StatisticsSnapshot snapshot) {
+         if (current == null) {
+            throw new IllegalStateException("Series are already completed");
+         }
+         int bucket = sequenceId / factor;
+         if (bucket != this.bucket) {
+            flush();
+            this.bucket = bucket;
+         }
+         current.add(snapshot);
+      }
+
+      void flush() {
+         if (current != null && !current.isEmpty()) {
+            summaries.add(current.summary(StatisticsStore.PERCENTILES));
+            current.reset();
+         }
+      }
+   }
+}
@@ -1,5 +1,6 @@
 package io.hyperfoil.controller;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -23,6 +24,7 @@ import io.hyperfoil.api.statistics.StatisticsSummary;
 import io.hyperfoil.controller.model.Histogram;
 import io.hyperfoil.controller.model.RequestStats;
 import io.hyperfoil.core.util.LowHigh;
+import io.hyperfoil.internal.Properties;
 
 public class StatisticsStore {
    static final double[] PERCENTILES = new double[] { 50, 90, 99, 99.9, 99.99 };
@@ -39,10 +41,34 @@ public class StatisticsStore {
    final Map<String, SessionPoolStats> sessionPoolStats = new HashMap<>();
    final Map<String, Map<String, Map<String, List<ConnectionPoolStats>>>> connectionPoolStats = new HashMap<>();
    final Map<String, Map<String, String>> cpuUsage = new HashMap<>();
+   private final RunStore runStore;
+   private final int maxSeriesInMemory;
+   private int highestSequenceId = -1;
+   private List<RequestStats> recentSummary = Collections.emptyList();
+   private Consumer<List<RequestStats>> recentSummaryListener;
 
    public StatisticsStore(Benchmark benchmark, Consumer<SLA.Failure> failureHandler) {
+      this(benchmark, failureHandler, null);
+   }
+
+   /**
+    * @param runStore When not null, the series are also appended to this store as these are merged.
+    */
+   public StatisticsStore(Benchmark benchmark, Consumer<SLA.Failure> failureHandler, RunStore runStore) {
+      this(benchmark, failureHandler, runStore, Properties.getInt(Properties.STATS_SERIES_IN_MEMORY, 0));
+   }
+
+   /**
+    * @param runStore When not null, the series are also appended to this store as these are merged.
+    * @param maxSeriesInMemory When positive (and <code>runStore</code> is set) only this many most recent points
+    *        of each series are kept in memory; older points are read from the <code>runStore</code> on demand.
+    */
+   public StatisticsStore(Benchmark benchmark, Consumer<SLA.Failure> failureHandler, RunStore runStore,
+         int maxSeriesInMemory) {
       this.benchmark = benchmark;
       this.failureHandler = failureHandler;
+      this.runStore = runStore;
+      this.maxSeriesInMemory = runStore == null ? 0 : maxSeriesInMemory;
       this.slaProviders = benchmark.steps()
             .filter(SLA.Provider.class::isInstance).map(SLA.Provider.class::cast)
             .collect(Collectors.toMap(SLA.Provider::id, Function.identity(), (s1, s2) -> {
@@ -72,7 +98,19 @@ public class StatisticsStore {
          SLA[] total = sla == null ? new SLA[0] : Stream.of(sla).filter(s -> s.window() <= 0).toArray(SLA[]::new);
          map.put(metric, data = new Data(this, phase.name, phase.isWarmup, stepId, metric, rings, total));
       }
-      return data.record(agentName, stats);
+      if (!data.record(agentName, stats)) {
+         return false;
+      }
+      if (stats.sequenceId > highestSequenceId) {
+         // The previous collection period is complete now
+         highestSequenceId = stats.sequenceId;
+         recentSummary = Collections.unmodifiableList(recentSummary(highestSequenceId - 1,
+               System.currentTimeMillis() - 5000));
+         if (recentSummaryListener != null) {
+            recentSummaryListener.accept(recentSummary);
+         }
+      }
+      return true;
    }
 
    public void addFailure(String phase, String metric, long startTimestamp, long endTimestamp, String cause) {
@@ -124,6 +162,21 @@ public class StatisticsStore {
       return failures.isEmpty();
    }
 
+   /**
+    * Summary of the last complete collection period. This is built once when the statistics from next period
+    * start arriving and shared between all callers.
+    */
+   public List<RequestStats> recentSummary() {
+      return recentSummary;
+   }
+
+   /**
+    * @param listener Invoked with the new {@link #recentSummary()} whenever a collection period completes.
+    */
+   public void recentSummaryListener(Consumer<List<RequestStats>> listener) {
+      this.recentSummaryListener = listener;
+   }
+
    public List<RequestStats> recentSummary(long minValidTimestamp) {
       ArrayList<RequestStats> result = new ArrayList<>();
       for (Map<String, Data> m : this.data.values()) {
@@ -134,24 +187,37 @@ public class StatisticsStore {
                continue;
             }
             // We'll use one id before the last one since the last one is likely not completed yet
-            int penultimateId = lastSequenceId.getAsInt() - 1;
-            StatisticsSnapshot sum = new StatisticsSnapshot();
-            data.lastStats.values().stream().map(map -> map.get(penultimateId))
-                  .filter(Objects::nonNull).forEach(sum::add);
-            if (sum.isEmpty() || sum.histogram.getStartTimeStamp() < minValidTimestamp) {
-               continue;
-            }
-            List<String> failures = this.failures.stream()
-                  .filter(f -> f.phase().equals(data.phase) && (f.metric() == null || f.metric().equals(data.metric)))
-                  .map(SLA.Failure::message).collect(Collectors.toList());
-            result.add(
-                  new RequestStats(data.phase, data.stepId, data.metric, sum.summary(PERCENTILES), failures, data.isWarmup));
+            addRecentStats(result, data, lastSequenceId.getAsInt() - 1, minValidTimestamp);
+         }
+      }
+      result.sort(REQUEST_STATS_COMPARATOR);
+      return result;
+   }
+
+   private List<RequestStats> recentSummary(int sequenceId, long minValidTimestamp) {
+      ArrayList<RequestStats> result = new ArrayList<>();
+      for (Map<String, Data> m : this.data.values()) {
+         for (Data data : m.values()) {
+            addRecentStats(result, data, sequenceId, minValidTimestamp);
          }
       }
       result.sort(REQUEST_STATS_COMPARATOR);
       return result;
    }
 
+   private void addRecentStats(List<RequestStats> result, Data data, int sequenceId, long minValidTimestamp) {
+      StatisticsSnapshot sum = new StatisticsSnapshot();
+      data.lastStats.values().stream().map(map -> map.get(sequenceId))
+            .filter(Objects::nonNull).forEach(sum::add);
+      if (sum.isEmpty() || sum.histogram.getStartTimeStamp() < minValidTimestamp) {
+         return;
+      }
+      List<String> failures = this.failures.stream()
+            .filter(f -> f.phase().equals(data.phase) && (f.metric() == null || f.metric().equals(data.metric)))
+            .map(SLA.Failure::message).collect(Collectors.toList());
+      result.add(new RequestStats(data.phase, data.stepId, data.metric, sum.summary(PERCENTILES), failures, data.isWarmup));
+   }
+
    public List<RequestStats> totalSummary() {
       ArrayList<RequestStats> result = new ArrayList<>();
       for (Map<String, Data> m : this.data.values()) {
@@ -175,12 +241,22 @@ public class StatisticsStore {
       return HistogramConverter.convert(phase, metric, data.total.histogram);
    }
 
-   public List<StatisticsSummary> series(String phase, int stepId, String metric) {
+   public List<StatisticsSummary> series(String phase, int stepId, String metric)
+         throws IOException {
+      Data data = getData(phase, stepId, metric);
+      if (data == null) {
+         return null;
+      }
+      return data.series();
+   }
+
+   public List<StatisticsSummary> series(String phase, int stepId, String metric, long from, long to, int maxPoints)
+         throws IOException {
       Data data = getData(phase, stepId, metric);
       if (data == null) {
          return null;
       }
-      return data.series;
+      return data.series(from, to, maxPoints);
    }
 
    private Data getData(String phase, int stepId, String metric) {
@@ -323,6 +399,27 @@ public class StatisticsStore {
       }
    }
 
+   void appendSeries(Data data, String agentName, StatisticsSnapshot snapshot) {
+      if (runStore != null) {
+         runStore.append(data, agentName, snapshot);
+      }
+   }
+
+   void completeSeries(Data data) {
+      if (runStore != null) {
+         runStore.complete(data);
+      }
+   }
+
+   int maxSeriesInMemory() {
+      // when the store failed the series might be incomplete; keep everything in memory
+      return maxSeriesInMemory > 0 && !runStore.isFailed() ? maxSeriesInMemory : 0;
+   }
+
+   public RunStore runStore() {
+      return runStore;
+   }
+
    void addFailure(SLA.Failure failure) {
       if (failures.size() < maxFailures) {
          failures.add(failure);
@@ -0,0 +1,153 @@
+package io.hyperfoil.clustering.messages;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+
+import io.hyperfoil.api.statistics.Counters;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.core.util.LowHigh;
+import io.vertx.core.buffer.Buffer;
+
+public class BinaryCodecTest {
+
+   @Test
+   public void testRequestStatsRoundTrip() {
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      snapshot.sequenceId = 42;
+      snapshot.requestCount = 100;
+      snapshot.responseCount = 99;
+      snapshot.invalid = 3;
+      snapshot.connectionErrors = 1;
+      snapshot.requestTimeouts = 2;
+      snapshot.internalErrors = 4;
+      snapshot.blockedTime = 123456789L;
+      for (int i = 1; i <= 99; ++i) {
+         snapshot.histogram.recordValue(i * 1_000_000L);
+      }
+      snapshot.histogram.setStartTimeStamp(1000);
+      snapshot.histogram.setEndTimeStamp(2000);
+      Counters counters = new Counters();
+      counters.increment("foo");
+      counters.increment("foo");
+      snapshot.extensions.put("custom", counters);
+
+      RequestStatsMessage decoded = roundTrip(new RequestStatsMessage.Codec(),
+            new RequestStatsMessage("address", "0001", 1, 2, "metric", snapshot));
+      assertEquals("address", decoded.address);
+      assertEquals("0001", decoded.runId);
+      assertEquals(1, decoded.phaseId);
+      assertEquals(2, decoded.stepId);
+      assertEquals("metric", decoded.metric);
+      StatisticsSnapshot copy = decoded.statistics;
+      assertEquals(42, copy.sequenceId);
+      assertEquals(100, copy.requestCount);
+      assertEquals(99, copy.responseCount);
+      assertEquals(3, copy.invalid);
+      assertEquals(1, copy.connectionErrors);
+      assertEquals(2, copy.requestTimeouts);
+      assertEquals(4, copy.internalErrors);
+      assertEquals(123456789L, copy.blockedTime);
+      assertEquals(snapshot.histogram, copy.histogram);
+      assertEquals(1000, copy.histogram.getStartTimeStamp());
+      assertEquals(2000, copy.histogram.getEndTimeStamp());
+      assertEquals(snapshot.histogram.getHighestTrackableValue(), copy.histogram.getHighestTrackableValue());
+      assertEquals("2", copy.extensions.get("custom").byHeader("foo"));
+
+      // the merged snapshot must be compatible with locally created ones
+      StatisticsSnapshot sum = new StatisticsSnapshot();
+      sum.add(copy);
+      assertEquals(99, sum.histogram.getTotalCount());
+   }
+
+   @Test
+   public void testPhaseCompletion() {
+      RequestStatsMessage decoded = roundTrip(new RequestStatsMessage.Codec(),
+            new RequestStatsMessage("address", "0001", 3, -1, null, null));
+      assertEquals(3, decoded.phaseId);
+      assertEquals(-1, decoded.stepId);
+      assertNull(decoded.metric);
+      assertNull(decoded.statistics);
+   }
+
+   @Test
+   public void testConnectionStats() {
+      Map<String, Map<String, LowHigh>> stats = new HashMap<>();
+      stats.computeIfAbsent("localhost:8080", a -> new HashMap<>()).put("in-flight", new LowHigh(1, 10));
+      stats.computeIfAbsent("localhost:8443", a -> new HashMap<>()).put("used", new LowHigh(0, 5));
+      ConnectionStatsMessage decoded = roundTrip(new ConnectionStatsMessage.Codec(),
+            new ConnectionStatsMessage("address", "0001", 12345, stats));
+      assertEquals(12345, decoded.timestamp);
+      assertEquals(2, decoded.stats.size());
+      assertEquals(10, decoded.stats.get("localhost:8080").get("in-flight").high);
+      assertEquals(5, decoded.stats.get("localhost:8443").get("used").high);
+   }
+
+   @Test
+   public void testStatsFrameRoundTrip() {
+      List<StatsFrameMessage.Entry> entries = new ArrayList<>();
+      for (int i = 0; i < 3; ++i) {
+         StatisticsSnapshot snapshot = new StatisticsSnapshot();
+         snapshot.sequenceId = i;
+         snapshot.requestCount = 10 * i;
+         snapshot.responseCount = 10 * i;
+         for (int j = 0; j < 10 * i; ++j) {
+            snapshot.histogram.recordValue(ThreadLocalRandom.current().nextLong(StatisticsSnapshot.HIGHEST_TRACKABLE_VALUE));
+         }
+         // value exactly at the top of the range
+         snapshot.histogram.recordValue(StatisticsSnapshot.HIGHEST_TRACKABLE_VALUE);
+         snapshot.histogram.setStartTimeStamp(1000 * i);
+         snapshot.histogram.setEndTimeStamp(1000 * (i + 1));
+         entries.add(new StatsFrameMessage.Entry(i, i + 1, "metric" + i, snapshot));
+      }
+      StatsFrameMessage decoded = roundTrip(new StatsFrameMessage.Codec(), new StatsFrameMessage("address", "0001", entries));
+      assertEquals(3, decoded.entries.size());
+      for (int i = 0; i < 3; ++i) {
+         StatsFrameMessage.Entry original = entries.get(i);
+         StatsFrameMessage.Entry entry = decoded.entries.get(i);
+         assertEquals(original.phaseId, entry.phaseId);
+         assertEquals(original.stepId, entry.stepId);
+         assertEquals(original.metric, entry.metric);
+         assertEquals(original.statistics.requestCount, entry.statistics.requestCount);
+         assertEquals(original.statistics.histogram, entry.statistics.histogram);
+         assertEquals(1000 * i, entry.statistics.histogram.getStartTimeStamp());
+      }
+   }
+
+   @Test
+   public void testVarLong() {
+      Buffer buffer = Buffer.buffer();
+      long[] values = { 0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE, Long.MAX_VALUE, -1 };
+      for (long value : values) {
+         BinaryCodec.writeVarLong(buffer, value);
+      }
+      BinaryCodec.Reader reader = new BinaryCodec.Reader(buffer, 0);
+      for (long value : values) {
+         assertEquals(value, reader.readVarLong());
+      }
+   }
+
+   @Test
+   public void testVersionMismatch() {
+      Buffer buffer = Buffer.buffer();
+      new PhaseStatsCompleteMessage.Codec().encodeToWire(buffer, new PhaseStatsCompleteMessage("address", "0001", "foo"));
+      buffer.setByte(0, (byte) (BinaryCodec.VERSION + 1));
+      assertThrows(IllegalStateException.class, () -> new PhaseStatsCompleteMessage.Codec().decodeFromWire(0, buffer));
+   }
+
+   private static <T> T roundTrip(BinaryCodec<T> codec, T message) {
+      Buffer buffer = Buffer.buffer();
+      // simulate some preceding content in the buffer
+      buffer.appendInt(0xCAFE);
+      codec.encodeToWire(buffer, message);
+      return codec.decodeFromWire(Integer.BYTES, buffer);
+   }
+}
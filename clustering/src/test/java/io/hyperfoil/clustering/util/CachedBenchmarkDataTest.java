@@ -0,0 +1,68 @@
+package io.hyperfoil.clustering.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.hyperfoil.api.config.BenchmarkData;
+import io.hyperfoil.clustering.Codecs;
+import io.hyperfoil.clustering.Feeds;
+import io.hyperfoil.clustering.messages.FileManifest;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+
+@ExtendWith(VertxExtension.class)
+public class CachedBenchmarkDataTest {
+   @Test
+   public void testFetch(Vertx vertx, VertxTestContext ctx, @TempDir Path dir) {
+      byte[] large = new byte[FileManifest.CHUNK_SIZE * 2 + 42];
+      ThreadLocalRandom.current().nextBytes(large);
+      // the second file shares first chunk with the first one
+      byte[] prefixed = new byte[FileManifest.CHUNK_SIZE + 1];
+      System.arraycopy(large, 0, prefixed, 0, prefixed.length);
+      Map<String, byte[]> files = Map.of("large", large, "prefixed", prefixed, "empty", new byte[0]);
+      FileManifest manifest = FileManifest.create(files);
+
+      AtomicInteger requests = new AtomicInteger();
+      Codecs.register(vertx);
+      vertx.eventBus().consumer(Feeds.FILES, message -> {
+         requests.incrementAndGet();
+         message.reply(manifest.chunk(((FileManifest.ChunkRequest) message.body()).hash));
+      });
+
+      CachedBenchmarkData.fetch(vertx, dir, "0000", manifest)
+            .onComplete(ctx.succeeding(data -> ctx.verify(() -> {
+               assertEquals(4, requests.get());
+               for (var entry : files.entrySet()) {
+                  try (InputStream stream = data.readFile(entry.getKey())) {
+                     assertArrayEquals(entry.getValue(), stream.readAllBytes());
+                  }
+                  assertArrayEquals(entry.getValue(), data.files().get(entry.getKey()));
+               }
+            })))
+            // second fetch finds everything in the cache
+            .compose(nil -> CachedBenchmarkData.fetch(vertx, dir, "0001", manifest))
+            .onComplete(ctx.succeeding(data -> ctx.verify(() -> {
+               assertEquals(4, requests.get());
+               assertArrayEquals(large, readFile(data, "large"));
+               ctx.completeNow();
+            })));
+   }
+
+   private static byte[] readFile(BenchmarkData data, String file) throws IOException {
+      try (InputStream stream = data.readFile(file)) {
+         return stream.readAllBytes();
+      }
+   }
+}
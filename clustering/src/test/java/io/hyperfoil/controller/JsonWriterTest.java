@@ -12,6 +12,8 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.config.SLA;
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
 import io.vertx.core.json.JsonObject;
@@ -66,4 +68,43 @@ public class JsonWriterTest {
          assertEquals(expectedValue, p.get(percentileName).asDouble(), "Percentile " + percentileName);
       }
    }
+
+   @Test
+   public void testDownsampledSeries() throws Exception {
+      BenchmarkBuilder builder = BenchmarkBuilder.builder();
+      builder.addPhase("test").always(1).duration(1)
+            .scenario().initialSequence("x").step(s -> true).endSequence().endScenario();
+      Benchmark benchmark = builder.build();
+      Phase phase = benchmark.phases().iterator().next();
+      StatisticsStore store = new StatisticsStore(benchmark, f -> {
+      });
+      for (int i = 0; i < 100; ++i) {
+         for (String agent : new String[] { "agent1", "agent2" }) {
+            StatisticsSnapshot snapshot = new StatisticsSnapshot();
+            snapshot.sequenceId = i;
+            snapshot.requestCount = 1;
+            snapshot.responseCount = 1;
+            snapshot.histogram.recordValue(agent.equals("agent1") ? (i + 1) * 1_000_000L : 1_000_000L);
+            snapshot.histogram.setStartTimeStamp(i * 1000L);
+            snapshot.histogram.setEndTimeStamp((i + 1) * 1000L);
+            store.record(agent, phase.id(), 0, "foo", snapshot);
+         }
+      }
+      store.completePhase(phase.name());
+
+      StringWriter writer = new StringWriter();
+      JsonFactory jfactory = new JsonFactory();
+      jfactory.setCodec(new ObjectMapper());
+      try (JsonGenerator jGenerator = jfactory.createGenerator(writer)) {
+         JsonWriter.writeArrayJsons(store, jGenerator, null, 20);
+      }
+      JsonNode root = new ObjectMapper().readTree(writer.toString());
+      JsonNode series = root.path("stats").path(0).path("series");
+      assertEquals(10, series.size());
+      assertEquals(20, series.path(0).path("requestCount").asInt());
+      JsonNode agentSeries = root.path("agents").path(0).path("stats").path(0).path("series");
+      assertEquals(10, agentSeries.size());
+      // percentiles come from merged histograms of 1 - 10 ms
+      assertEquals(5_000_000, agentSeries.path(0).path("percentileResponseTime").path("50.0").asDouble(), 50_000);
+   }
 }
@@ -0,0 +1,208 @@
+package io.hyperfoil.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.api.statistics.StatisticsSummary;
+import io.vertx.core.json.JsonObject;
+
+public class RunStoreTest {
+
+   @Test
+   public void testWriteAndLoad(@TempDir Path runDir) throws Exception {
+      BenchmarkBuilder builder = BenchmarkBuilder.builder();
+      builder.addPhase("test").always(1).duration(1)
+            .scenario().initialSequence("x").step(s -> true).endSequence().endScenario();
+      Benchmark benchmark = builder.build();
+      Phase phase = benchmark.phases().iterator().next();
+
+      StatisticsStore store = new StatisticsStore(benchmark, f -> {
+      }, new RunStore(runDir));
+      for (int i = 0; i < 100; ++i) {
+         for (String agent : new String[] { "agent-a", "agent-b" }) {
+            StatisticsSnapshot snapshot = new StatisticsSnapshot();
+            snapshot.sequenceId = i;
+            snapshot.requestCount = 10;
+            snapshot.responseCount = 10;
+            for (int j = 1; j <= 10; ++j) {
+               snapshot.histogram.recordValue(j * 1_000_000L + i);
+            }
+            snapshot.histogram.setStartTimeStamp(i * 1000L);
+            snapshot.histogram.setEndTimeStamp((i + 1) * 1000L);
+            store.record(agent, phase.id(), 0, "foo", snapshot);
+         }
+      }
+      store.recordSessionStats("agent-a", 1000, phase.name(), 1, 2);
+      store.recordCpuUsage(phase.name(), "agent-a", "42%");
+      store.completePhase(phase.name());
+      store.runStore().writeIndex(store);
+      assertTrue(RunStore.exists(runDir));
+
+      StatisticsStore loaded = RunStore.load(runDir, benchmark);
+      List<Data> original = store.getData();
+      List<Data> copy = loaded.getData();
+      assertEquals(1, copy.size());
+      Data data = copy.get(0);
+      assertEquals(phase.name(), data.phase);
+      assertEquals("foo", data.metric);
+      assertEquals(original.get(0).total.requestCount, data.total.requestCount);
+      assertEquals(original.get(0).total.histogram, data.total.histogram);
+      assertEquals(2, data.perAgent.size());
+
+      List<StatisticsSummary> series = loaded.series(phase.name(), 0, "foo");
+      assertEquals(100, series.size());
+      for (int i = 0; i < series.size(); ++i) {
+         StatisticsSummary expected = original.get(0).series.get(i);
+         assertEquals(expected.requestCount, series.get(i).requestCount);
+         assertEquals(expected.startTime, series.get(i).startTime);
+         assertEquals(expected.percentileResponseTime, series.get(i).percentileResponseTime);
+      }
+      assertEquals(100, data.agentSeries().get("agent-b").size());
+      // rollups are rebuilt from the stored snapshots
+      assertEquals(10, loaded.series(phase.name(), 0, "foo", 0, 0, 50).size());
+      assertFalse(loaded.totalSessionPoolSummary().isEmpty());
+      assertEquals("42%", loaded.cpuUsage().get(phase.name()).get("agent-a"));
+
+      // all.json can be still exported from the loaded store
+      StringWriter writer = new StringWriter();
+      JsonFactory jfactory = new JsonFactory();
+      jfactory.setCodec(new ObjectMapper());
+      try (JsonGenerator jGenerator = jfactory.createGenerator(writer)) {
+         JsonWriter.writeArrayJsons(loaded, jGenerator, new JsonObject());
+      }
+      JsonNode root = new ObjectMapper().readTree(writer.toString());
+      assertEquals(100, root.path("stats").get(0).path("series").size());
+   }
+
+   @Test
+   public void testSpillSeries(@TempDir Path runDir) throws IOException {
+      BenchmarkBuilder builder = BenchmarkBuilder.builder();
+      builder.addPhase("test").always(1).duration(1)
+            .scenario().initialSequence("x").step(s -> true).endSequence().endScenario();
+      Benchmark benchmark = builder.build();
+      Phase phase = benchmark.phases().iterator().next();
+
+      StatisticsStore store = new StatisticsStore(benchmark, f -> {
+      }, new RunStore(runDir), 10);
+      for (int i = 0; i < 200; ++i) {
+         for (String agent : new String[] { "agent-a", "agent-b" }) {
+            StatisticsSnapshot snapshot = new StatisticsSnapshot();
+            snapshot.sequenceId = i;
+            snapshot.requestCount = i + 1;
+            snapshot.histogram.setStartTimeStamp(i * 1000L);
+            snapshot.histogram.setEndTimeStamp((i + 1) * 1000L);
+            store.record(agent, phase.id(), 0, "foo", snapshot);
+         }
+         if (i == 150) {
+            // read while the segment is still being written
+            assertEquals(150 - 60 + 1, store.series(phase.name(), 0, "foo").size());
+         }
+      }
+      store.completePhase(phase.name());
+
+      Data data = store.getData().get(0);
+      assertTrue(data.series.size() < 20);
+      assertTrue(data.agentSeries.get("agent-a").size() < 20);
+      List<StatisticsSummary> series = store.series(phase.name(), 0, "foo");
+      assertEquals(200, series.size());
+      for (int i = 0; i < series.size(); ++i) {
+         assertEquals(2 * (i + 1), series.get(i).requestCount);
+      }
+      assertEquals(200, data.agentSeries().get("agent-b").size());
+      // recent points are served from memory
+      assertEquals(5, store.series(phase.name(), 0, "foo", 195_000, 0, 0).size());
+   }
+
+   @Test
+   public void testDownsampledSeriesFromRollups(@TempDir Path runDir) throws IOException {
+      BenchmarkBuilder builder = BenchmarkBuilder.builder();
+      builder.addPhase("test").always(1).duration(1)
+            .scenario().initialSequence("x").step(s -> true).endSequence().endScenario();
+      Benchmark benchmark = builder.build();
+      Phase phase = benchmark.phases().iterator().next();
+
+      CountingRunStore runStore = new CountingRunStore(runDir);
+      StatisticsStore store = new StatisticsStore(benchmark, f -> {
+      }, runStore, 10);
+      for (int i = 0; i < 200; ++i) {
+         StatisticsSnapshot snapshot = new StatisticsSnapshot();
+         snapshot.sequenceId = i;
+         snapshot.requestCount = 1;
+         snapshot.histogram.setStartTimeStamp(i * 1000L);
+         snapshot.histogram.setEndTimeStamp((i + 1) * 1000L);
+         store.record("agent", phase.id(), 0, "foo", snapshot);
+      }
+      store.completePhase(phase.name());
+
+      assertEquals(20, store.series(phase.name(), 0, "foo", 0, 0, 50).size());
+      assertEquals(4, store.series(phase.name(), 0, "foo", 0, 0, 5).size());
+      assertEquals(0, runStore.reads);
+      // the collection period fits into the limit
+      assertEquals(200, store.series(phase.name(), 0, "foo", 0, 0, 200).size());
+      assertEquals(1, runStore.reads);
+   }
+
+   @Test
+   public void testSpilledSeriesReadOnce(@TempDir Path runDir) throws IOException {
+      BenchmarkBuilder builder = BenchmarkBuilder.builder();
+      builder.addPhase("test").always(1).duration(1)
+            .scenario().initialSequence("x").step(s -> true).endSequence().endScenario();
+      Benchmark benchmark = builder.build();
+      Phase phase = benchmark.phases().iterator().next();
+
+      CountingRunStore runStore = new CountingRunStore(runDir);
+      StatisticsStore store = new StatisticsStore(benchmark, f -> {
+      }, runStore, 10);
+      for (int i = 0; i < 200; ++i) {
+         StatisticsSnapshot snapshot = new StatisticsSnapshot();
+         snapshot.sequenceId = i;
+         snapshot.requestCount = 1;
+         snapshot.histogram.setStartTimeStamp(i * 1000L);
+         snapshot.histogram.setEndTimeStamp((i + 1) * 1000L);
+         store.record("agent", phase.id(), 0, "foo", snapshot);
+         if (i >= 100) {
+            // merged snapshots lag 60 periods behind
+            List<StatisticsSummary> series = store.series(phase.name(), 0, "foo");
+            assertEquals(i - 60 + 1, series.size());
+            assertEquals(0, series.get(0).startTime);
+            assertEquals(10, store.series(phase.name(), 0, "foo", 10_000, 20_000, 0).size());
+         }
+      }
+      // spilled points are added to those read before
+      assertEquals(1, runStore.reads);
+   }
+
+   private static class CountingRunStore extends RunStore {
+      int reads;
+
+      CountingRunStore(Path runDir) {
+         super(runDir);
+      }
+
+      @Override
+      synchronized void readSeries(Data data, int points, Map<String, Integer> agentPoints, List<StatisticsSummary> series,
+            Map<String, List<StatisticsSummary>> agentSeries) throws IOException {
+         ++reads;
+         super.readSeries(data, points, agentPoints, series, agentSeries);
+      }
+   }
+}
@@ -0,0 +1,97 @@
+package io.hyperfoil.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.api.statistics.StatisticsSummary;
+import io.hyperfoil.controller.model.RequestStats;
+
+public class StatisticsStoreTest {
+   @Test
+   public void testSeriesRollups() throws IOException {
+      BenchmarkBuilder builder = BenchmarkBuilder.builder();
+      builder.addPhase("test").always(1).duration(1)
+            .scenario().initialSequence("x").step(s -> true).endSequence().endScenario();
+      Benchmark benchmark = builder.build();
+      Phase phase = benchmark.phases().iterator().next();
+
+      StatisticsStore store = new StatisticsStore(benchmark, f -> {
+      });
+      for (int i = 0; i < 1000; ++i) {
+         StatisticsSnapshot snapshot = new StatisticsSnapshot();
+         snapshot.sequenceId = i;
+         snapshot.requestCount = 1;
+         snapshot.responseCount = 1;
+         snapshot.histogram.recordValue((i + 1) * 1_000_000L);
+         snapshot.histogram.setStartTimeStamp(i * 1000L);
+         snapshot.histogram.setEndTimeStamp((i + 1) * 1000L);
+         store.record("agent", phase.id(), 0, "foo", snapshot);
+      }
+      store.completePhase(phase.name());
+
+      assertEquals(1000, store.series(phase.name(), 0, "foo", 0, 0, 0).size());
+      assertEquals(1000, store.series(phase.name(), 0, "foo", 0, 0, 1000).size());
+
+      List<StatisticsSummary> tenSeconds = store.series(phase.name(), 0, "foo", 0, 0, 500);
+      assertEquals(100, tenSeconds.size());
+      StatisticsSummary bucket = tenSeconds.get(1);
+      assertEquals(10_000, bucket.startTime);
+      assertEquals(20_000, bucket.endTime);
+      assertEquals(10, bucket.requestCount);
+      // merged histograms, not averaged summaries
+      assertEquals(11_000_000, bucket.minResponseTime, 11_000_000 * 0.01);
+      assertEquals(20_000_000, bucket.maxResponseTime, 20_000_000 * 0.01);
+      assertEquals(15_500_000, bucket.meanResponseTime, 15_500_000 * 0.01);
+
+      List<StatisticsSummary> minutes = store.series(phase.name(), 0, "foo", 0, 0, 20);
+      assertEquals(17, minutes.size());
+      assertEquals(1000, minutes.stream().mapToInt(s -> s.requestCount).sum());
+      assertEquals(2, store.series(phase.name(), 0, "foo", 0, 0, 1).size());
+
+      List<StatisticsSummary> range = store.series(phase.name(), 0, "foo", 100_000, 200_000, 0);
+      assertEquals(100, range.size());
+      assertEquals(100_000, range.get(0).startTime);
+      assertEquals(10, store.series(phase.name(), 0, "foo", 100_000, 200_000, 50).size());
+   }
+
+   @Test
+   public void testRecentSummaryPushedOnNewPeriod() {
+      BenchmarkBuilder builder = BenchmarkBuilder.builder();
+      builder.addPhase("test").always(1).duration(1)
+            .scenario().initialSequence("x").step(s -> true).endSequence().endScenario();
+      Benchmark benchmark = builder.build();
+      Phase phase = benchmark.phases().iterator().next();
+
+      StatisticsStore store = new StatisticsStore(benchmark, f -> {
+      });
+      List<List<RequestStats>> pushed = new ArrayList<>();
+      store.recentSummaryListener(pushed::add);
+      long now = System.currentTimeMillis();
+      for (int i = 0; i < 3; ++i) {
+         for (String agent : new String[] { "agent1", "agent2" }) {
+            StatisticsSnapshot snapshot = new StatisticsSnapshot();
+            snapshot.sequenceId = i;
+            snapshot.requestCount = i + 1;
+            snapshot.histogram.setStartTimeStamp(now + i * 1000L);
+            snapshot.histogram.setEndTimeStamp(now + (i + 1) * 1000L);
+            store.record(agent, phase.id(), 0, "foo", snapshot);
+         }
+      }
+      // the second agent doesn't start a new period
+      assertEquals(3, pushed.size());
+      assertEquals(List.of(), pushed.get(0));
+      assertEquals(1, pushed.get(2).size());
+      assertEquals(4, pushed.get(2).get(0).summary.requestCount);
+      assertSame(pushed.get(2), store.recentSummary());
+   }
+}
@@ -115,6 +115,14 @@ public interface Client {
 
       RequestStatisticsResponse statsRecent();
 
+      /**
+       * Subscribes to recent statistics pushed by the controller; use this instead of repeatedly polling
+       * {@link #statsRecent()}.
+       *
+       * @return Stream that should be closed when the statistics are no longer needed.
+       */
+      RecentStatsStream statsRecentStream();
+
       RequestStatisticsResponse statsTotal();
 
       byte[] statsAll(String format);
@@ -123,6 +131,8 @@ public interface Client {
 
       List<StatisticsSummary> series(String phase, int stepId, String metric);
 
+      List<StatisticsSummary> series(String phase, int stepId, String metric, long from, long to, int maxPoints);
+
       byte[] file(String filename);
 
       byte[] report(String source);
@@ -130,6 +140,16 @@ public interface Client {
       Map<String, Map<String, String>> agentCpu();
    }
 
+   interface RecentStatsStream extends AutoCloseable {
+      /**
+       * @return Last statistics received; blocks until the first update arrives.
+       */
+      RequestStatisticsResponse latest();
+
+      @Override
+      void close();
+   }
+
    class MinMax {
       public final int min;
       public final int max;
@@ -0,0 +1,37 @@
+package io.hyperfoil.core.handlers;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Compares a whole vector of positions against first and last byte of each pattern at once.
+ * Loaded only when the <code>jdk.incubator.vector</code> module is present, see {@link SearchKernel#INSTANCE}.
+ */
+final class VectorSearchKernel extends SearchKernel {
+   private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+   @Override
+   int find(byte[] data, int from, int length, byte[] first, byte[] last, int[] lastOffset) {
+      int limit = length - SPECIES.length() - maxOffset(lastOffset);
+      int i = from;
+      for (; i <= limit; i += SPECIES.length()) {
+         ByteVector block = ByteVector.fromArray(SPECIES, data, i);
+         VectorMask<Byte> mask = block.eq(first[0])
+               .and(ByteVector.fromArray(SPECIES, data, i + lastOffset[0]).eq(last[0]));
+         for (int p = 1; p < first.length; ++p) {
+            mask = mask.or(block.eq(first[p])
+                  .and(ByteVector.fromArray(SPECIES, data, i + lastOffset[p]).eq(last[p])));
+         }
+         if (mask.anyTrue()) {
+            return i + mask.firstTrue();
+         }
+      }
+      return findBytes(data, i, length, first, last, lastOffset);
+   }
+
+   @Override
+   public String toString() {
+      return "Vector API search kernel (" + SPECIES + ")";
+   }
+}
@@ -0,0 +1,39 @@
+package io.hyperfoil.core.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.hyperfoil.impl.CollectingVisitor;
+
+/**
+ * Benchmark component that has to do blocking work on the agent before the benchmark starts, e.g. read or index
+ * a file. This is invoked once per agent on a worker thread, after the sessions are reserved and before any phase
+ * is started.
+ */
+public interface BlockingInitializer {
+   void initBlocking();
+
+   /**
+    * Releases resources acquired in {@link #initBlocking()}; invoked once per agent when the run is shut down.
+    */
+   default void shutdown() {
+   }
+
+   class Visitor extends CollectingVisitor<BlockingInitializer> {
+      private final List<BlockingInitializer> initializers = new ArrayList<>();
+
+      public Visitor() {
+         super(BlockingInitializer.class);
+      }
+
+      @Override
+      protected boolean process(BlockingInitializer value) {
+         initializers.add(value);
+         return true;
+      }
+
+      public List<BlockingInitializer> initializers() {
+         return initializers;
+      }
+   }
+}
@@ -0,0 +1,245 @@
+package io.hyperfoil.core.generators;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.config.Visitor;
+import io.hyperfoil.api.session.ObjectAccess;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.api.BlockingInitializer;
+
+/**
+ * CSV file that is memory-mapped on the agent rather than loaded to heap when the benchmark is built.
+ * <p>
+ * The file is mapped and indexed before the benchmark starts; if there is a file with the same name
+ * and <code>.idx</code> suffix it's used as the index instead: this contains big-endian 64-bit offsets
+ * of the records' beginnings. Only the selected columns of the picked record are decoded.
+ */
+class MappedCsvFile implements Serializable, BlockingInitializer {
+   private static final Logger log = LogManager.getLogger(MappedCsvFile.class);
+   private static final int SEGMENT_BITS = 30;
+   private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+   // We keep offset of each 16th record only and parse the others when the record is loaded
+   private static final int BLOCK_BITS = 4;
+   private static final long BLOCK_MASK = (1L << BLOCK_BITS) - 1;
+
+   private final String file;
+   private final char separator;
+   private final boolean skipComments;
+   private final int[] srcIndex;
+
+   @Visitor.Ignore
+   private transient volatile boolean opened;
+   @Visitor.Ignore
+   private transient ByteBuffer[] segments;
+   @Visitor.Ignore
+   private transient long size;
+   @Visitor.Ignore
+   private transient long records;
+   @Visitor.Ignore
+   private transient long[] blockOffsets;
+   @Visitor.Ignore
+   private transient ByteBuffer[] sidecarIndex;
+
+   MappedCsvFile(String file, char separator, boolean skipComments, int[] srcIndex) {
+      if (separator > 0x7F) {
+         throw new BenchmarkDefinitionException("Memory-mapped CSV supports only ASCII separators.");
+      }
+      this.file = file;
+      this.separator = separator;
+      this.skipComments = skipComments;
+      this.srcIndex = srcIndex;
+   }
+
+   @Override
+   public void initBlocking() {
+      if (opened) {
+         return;
+      }
+      synchronized (this) {
+         if (opened) {
+            return;
+         }
+         try (FileChannel channel = FileChannel.open(Path.of(file), StandardOpenOption.READ)) {
+            size = channel.size();
+            segments = map(channel, size);
+            Path sidecar = Path.of(file + ".idx");
+            if (Files.exists(sidecar)) {
+               try (FileChannel indexChannel = FileChannel.open(sidecar, StandardOpenOption.READ)) {
+                  sidecarIndex = map(indexChannel, indexChannel.size());
+                  records = indexChannel.size() / Long.BYTES;
+               }
+               log.info("Mapped {} ({} bytes, {} records indexed in {})", file, size, records, sidecar);
+            } else {
+               long start = System.nanoTime();
+               index();
+               log.info("Mapped {} ({} bytes, {} records indexed in {} ms)", file, size, records,
+                     (System.nanoTime() - start) / 1_000_000);
+            }
+         } catch (IOException e) {
+            throw new BenchmarkDefinitionException("Cannot map file " + file, e);
+         }
+         opened = true;
+      }
+   }
+
+   private static ByteBuffer[] map(FileChannel channel, long size) throws IOException {
+      ByteBuffer[] segments = new ByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS)];
+      for (int i = 0; i < segments.length; ++i) {
+         long position = (long) i << SEGMENT_BITS;
+         segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, 1L << SEGMENT_BITS));
+      }
+      return segments;
+   }
+
+   long records() {
+      if (!opened) {
+         throw new IllegalStateException("File " + file + " was not mapped before the benchmark started.");
+      }
+      return records;
+   }
+
+   private int byteAt(long position) {
+      return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & SEGMENT_MASK));
+   }
+
+   private void index() {
+      blockOffsets = new long[16];
+      long position = firstRecord(0);
+      while (position < size) {
+         if ((records & BLOCK_MASK) == 0) {
+            int block = (int) (records >>> BLOCK_BITS);
+            if (block >= blockOffsets.length) {
+               blockOffsets = Arrays.copyOf(blockOffsets, 2 * blockOffsets.length);
+            }
+            blockOffsets[block] = position;
+         }
+         ++records;
+         position = firstRecord(nextRecord(position));
+      }
+   }
+
+   private long firstRecord(long position) {
+      return skipComments ? skipComment(position) : position;
+   }
+
+   private long skipComment(long position) {
+      for (;;) {
+         long i = position;
+         while (i < size && (byteAt(i) == ' ' || byteAt(i) == '\t')) {
+            ++i;
+         }
+         if (i >= size || byteAt(i) != '#') {
+            return position;
+         }
+         while (i < size && byteAt(i) != '\n') {
+            ++i;
+         }
+         position = i + 1;
+      }
+   }
+
+   private long nextRecord(long position) {
+      boolean quoted = false;
+      for (long i = position; i < size; ++i) {
+         int c = byteAt(i);
+         if (c == '"') {
+            quoted = !quoted;
+         } else if (c == '\n' && !quoted) {
+            return i + 1;
+         }
+      }
+      return size;
+   }
+
+   private long recordOffset(long record) {
+      if (sidecarIndex != null) {
+         long position = record * Long.BYTES;
+         return sidecarIndex[(int) (position >>> SEGMENT_BITS)].getLong((int) (position & SEGMENT_MASK));
+      }
+      long position = blockOffsets[(int) (record >>> BLOCK_BITS)];
+      for (long i = record & BLOCK_MASK; i > 0; --i) {
+         position = firstRecord(nextRecord(position));
+      }
+      return position;
+   }
+
+   /**
+    * Parses the record and stores selected columns to the variables.
+    */
+   void load(long record, Session session, ObjectAccess[] columnVars) {
+      long position = recordOffset(record);
+      int column = 0;
+      int next = 0;
+      while (next < srcIndex.length) {
+         boolean selected = srcIndex[next] == column;
+         long start = position;
+         boolean quoted = position < size && byteAt(position) == '"';
+         if (quoted) {
+            ++start;
+            position = closingQuote(start);
+         } else {
+            while (position < size && byteAt(position) != separator && byteAt(position) != '\n') {
+               ++position;
+            }
+         }
+         if (selected) {
+            columnVars[next++].setObject(session, decode(start, position, quoted));
+         }
+         if (quoted && position < size) {
+            // skip the closing quote
+            ++position;
+         }
+         if (position >= size || byteAt(position) != separator) {
+            break;
+         }
+         ++position;
+         ++column;
+      }
+      // columns missing in this record
+      for (; next < srcIndex.length; ++next) {
+         columnVars[next].setObject(session, null);
+      }
+   }
+
+   private long closingQuote(long position) {
+      while (position < size) {
+         if (byteAt(position) == '"') {
+            if (position + 1 < size && byteAt(position + 1) == '"') {
+               position += 2;
+               continue;
+            }
+            return position;
+         }
+         ++position;
+      }
+      return size;
+   }
+
+   private String decode(long start, long end, boolean quoted) {
+      byte[] bytes = new byte[(int) (end - start)];
+      int length = 0;
+      for (long i = start; i < end; ++i) {
+         int c = byteAt(i);
+         if (c == '\r' && (i + 1 == end || byteAt(i + 1) == '\n')) {
+            continue;
+         } else if (quoted && c == '"') {
+            // quoted quote
+            ++i;
+         }
+         bytes[length++] = (byte) c;
+      }
+      return new String(bytes, 0, length, StandardCharsets.UTF_8);
+   }
+}
@@ -31,13 +31,20 @@ import io.hyperfoil.core.session.SessionFactory;
  */
 public class RandomCsvRowStep implements Step {
    private final String[][] rows;
+   private final MappedCsvFile mappedFile;
    private final ObjectAccess[] columnVars;
 
    // Use just for testing
    private final transient IntUnaryOperator rowSelector;
 
    public RandomCsvRowStep(String[][] rows, ObjectAccess[] columnVars, IntUnaryOperator rowSelector) {
+      this(rows, null, columnVars, rowSelector);
+   }
+
+   private RandomCsvRowStep(String[][] rows, MappedCsvFile mappedFile, ObjectAccess[] columnVars,
+         IntUnaryOperator rowSelector) {
       this.rows = rows;
+      this.mappedFile = mappedFile;
       this.columnVars = columnVars;
       this.rowSelector = rowSelector;
    }
@@ -52,8 +59,16 @@ public class RandomCsvRowStep implements Step {
       return rowSelector;
    }
 
+   // Visible for testing
+   MappedCsvFile mappedFile() {
+      return mappedFile;
+   }
+
    @Override
    public boolean invoke(Session session) {
+      if (mappedFile != null) {
+         return invokeMapped(session);
+      }
       if (rows.length == 0) {
          throw new RuntimeException("No rows available - was the CSV file empty?");
       }
@@ -73,6 +88,21 @@ public class RandomCsvRowStep implements Step {
       return true;
    }
 
+   private boolean invokeMapped(Session session) {
+      long records = mappedFile.records();
+      if (records == 0) {
+         throw new RuntimeException("No rows available - was the CSV file empty?");
+      }
+      final long rndRow;
+      if (rowSelector == null) {
+         rndRow = ThreadLocalRandom.current().nextLong(records);
+      } else {
+         rndRow = rowSelector.applyAsInt((int) Math.min(records, Integer.MAX_VALUE));
+      }
+      mappedFile.load(rndRow, session, columnVars);
+      return true;
+   }
+
    /**
     * Stores random row from a CSV-formatted file to variables.
     */
@@ -81,6 +111,7 @@ public class RandomCsvRowStep implements Step {
    public static class Builder extends BaseStepBuilder<Builder> {
       private String file;
       private boolean skipComments;
+      private boolean memoryMapped;
       private char separator = ',';
       private final List<String> builderColumns = new ArrayList<>();
       private transient IntUnaryOperator customRowSelector = null;
@@ -95,6 +126,16 @@ public class RandomCsvRowStep implements Step {
             }
          }
          assert next == srcIndex.length;
+         ObjectAccess[] columnVars = builderColumns.stream().filter(Objects::nonNull).map(SessionFactory::objectAccess)
+               .toArray(ObjectAccess[]::new);
+         if (memoryMapped) {
+            if (file == null) {
+               throw new BenchmarkDefinitionException("Missing 'file'");
+            }
+            String path = Locator.current().benchmark().data().localFile(file).toString();
+            MappedCsvFile mappedFile = new MappedCsvFile(path, separator, skipComments, srcIndex);
+            return Collections.singletonList(new RandomCsvRowStep(null, mappedFile, columnVars, customRowSelector));
+         }
 
          try (InputStream inputStream = Locator.current().benchmark().data().readFile(file)) {
             BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
@@ -168,9 +209,6 @@ public class RandomCsvRowStep implements Step {
             String[][] rows = records.toArray(new String[0][]);
             // We won't throw an error even if the CSV is empty - this can happen during edit in CLI when we expect
             // to reuse the data on server side.
-
-            ObjectAccess[] columnVars = builderColumns.stream().filter(Objects::nonNull).map(SessionFactory::objectAccess)
-                  .toArray(ObjectAccess[]::new);
             return Collections.singletonList(new RandomCsvRowStep(rows, columnVars, customRowSelector));
          } catch (IOException ioe) {
             throw new BenchmarkDefinitionException("Failed to read file " + file, ioe);
@@ -226,6 +264,21 @@ public class RandomCsvRowStep implements Step {
          return this;
       }
 
+      /**
+       * Memory-map the file on each agent instead of loading it when the benchmark is built; use this for datasets
+       * that would not fit to heap. The file is not sent to the agents: relative path is resolved against
+       * the benchmark location when it is run locally, otherwise the path must be absolute and valid on the agents.
+       * Records are indexed before the benchmark starts; if there is a file with the same name and <code>.idx</code> suffix
+       * containing big-endian 64-bit offsets of the records this is used instead. By default set to false.
+       *
+       * @param memoryMapped Map the file?
+       * @return Self.
+       */
+      public Builder memoryMapped(boolean memoryMapped) {
+         this.memoryMapped = memoryMapped;
+         return this;
+      }
+
       /**
        * Set character used for column separation. By default it is comma (<code>,</code>).
        *
@@ -9,9 +9,9 @@ import io.hyperfoil.api.session.Session;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.CompositeByteBuf;
 
-public class DefragProcessor extends Processor.BaseDelegating
-      implements ResourceUtilizer, Session.ResourceKey<DefragProcessor.Context> {
+public class DefragProcessor extends Processor.BaseDelegating implements ResourceUtilizer {
    private static final Logger log = LogManager.getLogger(DefragProcessor.class);
+   private final Session.ResourceKey<Context> key = new Session.IndexedResourceKey<>();
 
    public static Processor of(Processor delegate, boolean fragmented) {
       return fragmented ? new DefragProcessor(delegate) : delegate;
@@ -23,7 +23,7 @@ public class DefragProcessor extends Processor.BaseDelegating
 
    @Override
    public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
-      Context ctx = session.getResource(this);
+      Context ctx = session.getResource(key);
       if (isLastPart && !ctx.isBuffering()) {
          delegate.process(session, data, offset, length, true);
          return;
@@ -41,7 +41,7 @@ public class DefragProcessor extends Processor.BaseDelegating
       // Note: contrary to the recommended pattern the Context won't reserve all objects ahead, the CompositeByteBuf
       // will be allocated only if needed (and only once). This is necessary since we don't know the type of allocator
       // that is used for the received buffers ahead.
-      session.declareResource(this, Context::new);
+      session.declareResource(key, Context::new);
    }
 
    static class Context implements Session.Resource {
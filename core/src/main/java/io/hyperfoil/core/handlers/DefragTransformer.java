@@ -9,9 +9,9 @@ import io.hyperfoil.api.session.Session;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.CompositeByteBuf;
 
-public class DefragTransformer extends Transformer.BaseDelegating
-      implements ResourceUtilizer, Session.ResourceKey<DefragTransformer.Context> {
+public class DefragTransformer extends Transformer.BaseDelegating implements ResourceUtilizer {
    private static final Logger log = LogManager.getLogger(DefragTransformer.class);
+   private final Session.ResourceKey<Context> key = new Session.IndexedResourceKey<>();
 
    public DefragTransformer(Transformer delegate) {
       super(delegate);
@@ -19,7 +19,7 @@ public class DefragTransformer extends Transformer.BaseDelegating
 
    @Override
    public void transform(Session session, ByteBuf in, int offset, int length, boolean lastFragment, ByteBuf out) {
-      Context ctx = session.getResource(this);
+      Context ctx = session.getResource(key);
       if (lastFragment && !ctx.isBuffering()) {
          delegate.transform(session, in, offset, length, true, out);
          return;
@@ -37,7 +37,7 @@ public class DefragTransformer extends Transformer.BaseDelegating
       // Note: contrary to the recommended pattern the Context won't reserve all objects ahead, the CompositeByteBuf
       // will be allocated only if needed (and only once). This is necessary since we don't know the type of allocator
       // that is used for the received buffers ahead.
-      session.declareResource(this, Context::new);
+      session.declareResource(key, Context::new);
    }
 
    static class Context implements Session.Resource {
@@ -22,12 +22,13 @@ import io.netty.buffer.Unpooled;
 
 // Based on java.util.zip.GZIPInputStream
 public class GzipInflatorProcessor extends MultiProcessor
-      implements ResourceUtilizer, Session.ResourceKey<GzipInflatorProcessor.InflaterResource> {
+      implements ResourceUtilizer {
    private static final Logger log = LogManager.getLogger(GzipInflatorProcessor.class);
    private static final int FHCRC = 2; // Header CRC
    private static final int FEXTRA = 4; // Extra field
    private static final int FNAME = 8; // File name
    private static final int FCOMMENT = 16; // File comment
+   private final Session.ResourceKey<InflaterResource> key = new Session.IndexedResourceKey<>();
 
    private final ReadAccess encodingVar;
 
@@ -39,7 +40,7 @@ public class GzipInflatorProcessor extends MultiProcessor
    @Override
    public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
       Session.Var var = encodingVar.getVar(session);
-      InflaterResource resource = session.getResource(this);
+      InflaterResource resource = session.getResource(key);
       switch (resource.state) {
          case NOT_ENCRYPTED:
             super.process(session, data, offset, length, isLastPart);
@@ -61,7 +62,7 @@ public class GzipInflatorProcessor extends MultiProcessor
 
    @Override
    public void reserve(Session session) {
-      session.declareResource(this, InflaterResource::new);
+      session.declareResource(key, InflaterResource::new);
    }
 
    public class InflaterResource implements Session.Resource {
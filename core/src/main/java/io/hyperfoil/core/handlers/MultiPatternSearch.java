@@ -0,0 +1,176 @@
+package io.hyperfoil.core.handlers;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * Finds occurrences of one or more byte patterns in a body that is delivered in several (possibly tiny) buffers.
+ * <p>
+ * The data are copied in slices to a window prefixed by the last few bytes of previous slice, so that matches
+ * spanning buffers can be verified in one place regardless of whether the buffer is direct or heap-based.
+ * The window is shared by all searches on the same thread; the session {@link State} keeps only the carry-over
+ * of at most {@code maxLength - 1} bytes.
+ * Candidate positions are found by comparing the first and last byte of each pattern in the whole window
+ * using {@link SearchKernel} (SIMD where available) and then verified.
+ * <p>
+ * Matches are reported ordered by position; when the listener accepts a match the search continues after its end,
+ * otherwise other patterns (and overlapping matches) are still tested.
+ */
+final class MultiPatternSearch implements Serializable {
+   static final int SLICE_SIZE = 2048;
+   // The listener may run another search (e.g. a processor that is a search handler itself) before returning,
+   // so each nesting level needs its own window.
+   private static final FastThreadLocal<Windows> WINDOWS = new FastThreadLocal<>() {
+      @Override
+      protected Windows initialValue() {
+         return new Windows();
+      }
+   };
+
+   private final byte[][] patterns;
+   private final byte[] first;
+   private final byte[] last;
+   private final int[] lastOffset;
+   private final int maxLength;
+
+   MultiPatternSearch(byte[]... patterns) {
+      if (patterns.length == 0) {
+         throw new IllegalArgumentException("No patterns");
+      }
+      this.patterns = patterns;
+      this.first = new byte[patterns.length];
+      this.last = new byte[patterns.length];
+      this.lastOffset = new int[patterns.length];
+      int maxLength = 0;
+      for (int i = 0; i < patterns.length; ++i) {
+         byte[] pattern = patterns[i];
+         if (pattern.length == 0) {
+            throw new IllegalArgumentException("Cannot search for an empty string");
+         }
+         first[i] = pattern[0];
+         last[i] = pattern[pattern.length - 1];
+         lastOffset[i] = pattern.length - 1;
+         maxLength = Math.max(maxLength, pattern.length);
+      }
+      this.maxLength = maxLength;
+   }
+
+   State newState() {
+      return new State(maxLength - 1);
+   }
+
+   void search(State state, ByteBuf data, int offset, int length, Listener listener) {
+      Windows windows = WINDOWS.get();
+      byte[] window = windows.acquire(state);
+      try {
+         int end = offset + length;
+         for (int sliceOffset = offset; sliceOffset < end; sliceOffset += SLICE_SIZE) {
+            int sliceLength = Math.min(SLICE_SIZE, end - sliceOffset);
+            data.getBytes(sliceOffset, window, state.tailLength, sliceLength);
+            searchWindow(state, window, sliceOffset, sliceLength, listener);
+         }
+         System.arraycopy(window, 0, state.tail, 0, state.tailLength);
+      } finally {
+         windows.release();
+      }
+   }
+
+   // visible for testing
+   void search(State state, byte[] data, int offset, int length, Listener listener) {
+      Windows windows = WINDOWS.get();
+      byte[] window = windows.acquire(state);
+      try {
+         int end = offset + length;
+         for (int sliceOffset = offset; sliceOffset < end; sliceOffset += SLICE_SIZE) {
+            int sliceLength = Math.min(SLICE_SIZE, end - sliceOffset);
+            System.arraycopy(data, sliceOffset, window, state.tailLength, sliceLength);
+            searchWindow(state, window, sliceOffset, sliceLength, listener);
+         }
+         System.arraycopy(window, 0, state.tail, 0, state.tailLength);
+      } finally {
+         windows.release();
+      }
+   }
+
+   private void searchWindow(State state, byte[] window, int sliceOffset, int sliceLength, Listener listener) {
+      int tailLength = state.tailLength;
+      int windowLength = tailLength + sliceLength;
+      // stream position of window[0]
+      long windowPosition = state.position - tailLength;
+      int position = (int) Math.max(0, state.resumeAt - windowPosition);
+      while ((position = SearchKernel.INSTANCE.find(window, position, windowLength, first, last, lastOffset)) >= 0) {
+         int next = position + 1;
+         for (int i = 0; i < patterns.length; ++i) {
+            byte[] pattern = patterns[i];
+            int matchEnd = position + pattern.length;
+            // Matches that fit into the tail were tested with previous slice
+            if (matchEnd > tailLength && matchEnd <= windowLength
+                  && Arrays.equals(window, position, matchEnd, pattern, 0, pattern.length)
+                  && listener.onMatch(i, sliceOffset + matchEnd - tailLength)) {
+               state.resumeAt = windowPosition + matchEnd;
+               next = matchEnd;
+               break;
+            }
+         }
+         position = next;
+      }
+      state.position += sliceLength;
+      int newTailLength = Math.min(maxLength - 1, windowLength);
+      System.arraycopy(window, windowLength - newTailLength, window, 0, newTailLength);
+      state.tailLength = newTailLength;
+   }
+
+   interface Listener {
+      /**
+       * @param pattern Index of the pattern.
+       * @param endIndex Index in the buffer right after the match; the match can start in a previous buffer.
+       * @return True if the match was accepted, false to ignore it.
+       */
+      boolean onMatch(int pattern, int endIndex);
+   }
+
+   static final class State {
+      // last bytes of the previous buffers, prefix of the window in next search
+      private final byte[] tail;
+      private int tailLength;
+      // number of bytes searched so far
+      private long position;
+      private long resumeAt;
+
+      private State(int tailSize) {
+         this.tail = new byte[tailSize];
+      }
+
+      void reset() {
+         tailLength = 0;
+         position = 0;
+         resumeAt = 0;
+      }
+   }
+
+   private static final class Windows {
+      private byte[][] windows = new byte[2][];
+      private int depth;
+
+      byte[] acquire(State state) {
+         if (depth == windows.length) {
+            windows = Arrays.copyOf(windows, depth * 2);
+         }
+         int size = state.tail.length + SLICE_SIZE;
+         byte[] window = windows[depth];
+         if (window == null || window.length < size) {
+            window = windows[depth] = new byte[size];
+         }
+         ++depth;
+         System.arraycopy(state.tail, 0, window, 0, state.tailLength);
+         return window;
+      }
+
+      void release() {
+         --depth;
+      }
+   }
+}
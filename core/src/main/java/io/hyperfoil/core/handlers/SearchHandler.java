@@ -8,72 +8,53 @@ import io.hyperfoil.api.session.Session;
 import io.netty.buffer.ByteBuf;
 
 /**
- * Simple pattern (no regexp) search based on Rabin-Karp algorithm.
- * Does not handle the intricacies of UTF-8 mapping same strings to different bytes.
+ * Simple pattern (no regexp) search for the part of body between begin and end marker,
+ * see {@link MultiPatternSearch}. Does not handle the intricacies of UTF-8 mapping same strings to different bytes.
  */
-public class SearchHandler implements Processor, ResourceUtilizer, Session.ResourceKey<SearchHandler.Context> {
-   private final byte[] begin, end;
-   private final int beginHash, endHash;
-   private final int beginCoef, endCoef;
+public class SearchHandler implements Processor, ResourceUtilizer {
+   private static final int BEGIN = 0;
+   private static final int END = 1;
+
+   private final int endLength;
+   private final MultiPatternSearch search;
    private Processor processor;
+   private final Session.ResourceKey<Context> key = new Session.IndexedResourceKey<>();
 
    public SearchHandler(String begin, String end, Processor processor) {
-      this.begin = begin.getBytes(StandardCharsets.UTF_8);
-      this.end = end.getBytes(StandardCharsets.UTF_8);
-      this.beginHash = BaseSearchContext.computeHash(this.begin);
-      this.beginCoef = BaseSearchContext.computeCoef(this.begin.length);
-      this.endHash = BaseSearchContext.computeHash(this.end);
-      this.endCoef = BaseSearchContext.computeCoef(this.end.length);
+      byte[] endBytes = end.getBytes(StandardCharsets.UTF_8);
+      this.endLength = endBytes.length;
+      this.search = new MultiPatternSearch(begin.getBytes(StandardCharsets.UTF_8), endBytes);
       this.processor = processor;
    }
 
    @Override
    public void before(Session session) {
-      Context ctx = session.getResource(this);
+      Context ctx = session.getResource(key);
       ctx.reset();
       processor.before(session);
    }
 
    @Override
    public void process(Session session, ByteBuf data, final int offset, int length, boolean isLast) {
-      Context ctx = session.getResource(this);
+      Context ctx = session.getResource(key);
       ctx.add(data, offset, length);
-      int endIndex = offset + length;
-      int index = ctx.initHash(offset, ctx.lookupText.length);
-      while (ctx.test(index)) {
-         if (ctx.lookupText == end) {
-            fireProcessor(ctx, session, index);
-         } else {
-            ctx.mark(index);
-         }
-         ctx.swap();
-         index = ctx.initHash(index, ctx.lookupText.length);
-      }
-      while (index < endIndex) {
-         ctx.advance(data.getByte(index++), ctx.lookupCoef, index, ctx.lookupText.length + 1);
-         while (ctx.test(index)) {
-            if (ctx.lookupText == end) {
-               fireProcessor(ctx, session, index);
-            } else {
-               ctx.mark(index);
-            }
-            ctx.swap();
-            index = ctx.initHash(index, ctx.lookupText.length);
-         }
-      }
+      ctx.session = session;
+      search.search(ctx.state, data, offset, length, ctx);
+      ctx.session = null;
    }
 
    private void fireProcessor(Context ctx, Session session, int index) {
       int endPart = ctx.currentPart;
-      int endPos = index - end.length;
-      while (endPos < 0) {
-         endPart--;
-         if (endPart < 0) {
-            endPart = 0;
-            endPos = 0;
-         } else {
-            endPos += ctx.endIndices[endPart];
+      int endPos = index - endLength;
+      while (endPos < ctx.startIndices[endPart]) {
+         if (endPart == 0) {
+            // we have already released the part where end started
+            endPos = ctx.startIndices[0];
+            break;
          }
+         int missing = ctx.startIndices[endPart] - endPos;
+         endPart--;
+         endPos = ctx.endIndices[endPart] - missing;
       }
       while (ctx.markPart < endPart) {
          ByteBuf data = ctx.parts[ctx.markPart];
@@ -90,7 +71,7 @@ public class SearchHandler implements Processor, ResourceUtilizer, Session.Resou
 
    @Override
    public void after(Session session) {
-      Context ctx = session.getResource(this);
+      Context ctx = session.getResource(key);
       // release buffers
       ctx.reset();
       processor.after(session);
@@ -98,40 +79,32 @@ public class SearchHandler implements Processor, ResourceUtilizer, Session.Resou
 
    @Override
    public void reserve(Session session) {
-      session.declareResource(this, Context::new);
+      session.declareResource(key, Context::new);
    }
 
-   class Context extends BaseSearchContext {
-      byte[] lookupText;
-      int lookupHash;
-      int lookupCoef;
+   class Context extends BaseSearchContext implements MultiPatternSearch.Listener {
+      final MultiPatternSearch.State state = search.newState();
+      Session session;
+      boolean lookingForEnd;
       int markPart = -1;
       int markPos = -1;
 
-      void swap() {
-         currentHash = 0;
-         hashedBytes = 0;
-         if (lookupText == end) {
-            lookupText = begin;
-            lookupHash = beginHash;
-            lookupCoef = beginCoef;
+      @Override
+      public boolean onMatch(int pattern, int endIndex) {
+         if (lookingForEnd) {
+            if (pattern != END) {
+               return false;
+            }
+            fireProcessor(this, session, endIndex);
          } else {
-            lookupText = end;
-            lookupHash = endHash;
-            lookupCoef = endCoef;
-         }
-      }
-
-      boolean test(int index) {
-         if (currentHash == lookupHash) {
-            for (int i = 0; i < lookupText.length; ++i) {
-               if (lookupText[i] != byteRelative(index, lookupText.length - i)) {
-                  return false;
-               }
+            if (pattern != BEGIN) {
+               return false;
             }
-            return true;
+            markPart = currentPart;
+            markPos = endIndex;
          }
-         return false;
+         lookingForEnd = !lookingForEnd;
+         return true;
       }
 
       @Override
@@ -140,23 +113,17 @@ public class SearchHandler implements Processor, ResourceUtilizer, Session.Resou
          --markPart;
          if (markPart < 0) {
             markPart = 0;
-            markPos = 0;
+            markPos = startIndices[0];
          }
       }
 
       @Override
       void reset() {
          super.reset();
-         lookupText = begin;
-         lookupHash = beginHash;
-         lookupCoef = beginCoef;
+         state.reset();
+         lookingForEnd = false;
          markPart = -1;
          markPos = -1;
       }
-
-      void mark(int index) {
-         markPart = currentPart;
-         markPos = index;
-      }
    }
 }
@@ -0,0 +1,101 @@
+package io.hyperfoil.core.handlers;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Finds positions where the first and last byte of any pattern match; these candidates need to be verified.
+ * <p>
+ * The default implementation compares 8 bytes at once in a <code>long</code> (SWAR). When the JVM is started
+ * with <code>--add-modules jdk.incubator.vector</code> we use the Vector API with the widest species available.
+ */
+abstract class SearchKernel {
+   private static final Logger log = LogManager.getLogger(SearchKernel.class);
+   static final SearchKernel SCALAR = new Scalar();
+   static final SearchKernel INSTANCE = create();
+
+   private static SearchKernel create() {
+      if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+         return SCALAR;
+      }
+      try {
+         SearchKernel kernel = (SearchKernel) Class.forName("io.hyperfoil.core.handlers.VectorSearchKernel")
+               .getDeclaredConstructor().newInstance();
+         log.debug("Using {}", kernel);
+         return kernel;
+      } catch (ReflectiveOperationException | LinkageError e) {
+         log.warn("Cannot use Vector API for search, falling back to scalar implementation.", e);
+         return SCALAR;
+      }
+   }
+
+   /**
+    * @param data Searched data.
+    * @param from First position to test.
+    * @param length End of data in the array.
+    * @param first First byte of each pattern.
+    * @param last Last byte of each pattern.
+    * @param lastOffset Offset of the last byte in each pattern.
+    * @return Lowest position <code>&gt;= from</code> where for some pattern both first and last byte match,
+    *         or -1 if there is no such position.
+    */
+   abstract int find(byte[] data, int from, int length, byte[] first, byte[] last, int[] lastOffset);
+
+   static int maxOffset(int[] lastOffset) {
+      int max = 0;
+      for (int offset : lastOffset) {
+         max = Math.max(max, offset);
+      }
+      return max;
+   }
+
+   /**
+    * Tests candidates one by one; used to finish the part that does not fill a whole word/vector.
+    */
+   static int findBytes(byte[] data, int from, int length, byte[] first, byte[] last, int[] lastOffset) {
+      for (int i = from; i < length; ++i) {
+         byte b = data[i];
+         for (int p = 0; p < first.length; ++p) {
+            int lastIndex = i + lastOffset[p];
+            if (b == first[p] && lastIndex < length && data[lastIndex] == last[p]) {
+               return i;
+            }
+         }
+      }
+      return -1;
+   }
+
+   private static final class Scalar extends SearchKernel {
+      private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+      private static final long ONES = 0x0101010101010101L;
+      private static final long HIGH_BITS = 0x8080808080808080L;
+
+      @Override
+      int find(byte[] data, int from, int length, byte[] first, byte[] last, int[] lastOffset) {
+         int limit = length - Long.BYTES - maxOffset(lastOffset);
+         int i = from;
+         for (; i <= limit; i += Long.BYTES) {
+            long mask = 0;
+            for (int p = 0; p < first.length; ++p) {
+               long z = ((long) LONG.get(data, i) ^ (ONES * (first[p] & 0xFF)))
+                     | ((long) LONG.get(data, i + lastOffset[p]) ^ (ONES * (last[p] & 0xFF)));
+               // high bit set in each byte that is zero, i.e. where both bytes matched
+               mask |= (z - ONES) & ~z & HIGH_BITS;
+            }
+            if (mask != 0) {
+               return i + (Long.numberOfTrailingZeros(mask) >>> 3);
+            }
+         }
+         return findBytes(data, i, length, first, last, lastOffset);
+      }
+
+      @Override
+      public String toString() {
+         return "SWAR search kernel";
+      }
+   }
+}
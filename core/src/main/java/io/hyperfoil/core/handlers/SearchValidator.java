@@ -9,13 +9,12 @@ import io.hyperfoil.api.session.Session;
 import io.netty.buffer.ByteBuf;
 
 /**
- * Simple pattern (no regexp) search based on Rabin-Karp algorithm.
+ * Simple pattern (no regexp) search counting non-overlapping occurrences, see {@link MultiPatternSearch}.
  * Does not handle the intricacies of UTF-8 mapping same strings to different bytes.
  */
-public class SearchValidator implements Processor, ResourceUtilizer, Session.ResourceKey<SearchValidator.Context> {
-   private final byte[] text;
-   private final int hash;
-   private final int coef;
+public class SearchValidator implements Processor, ResourceUtilizer {
+   private final Session.ResourceKey<Context> key = new Session.IndexedResourceKey<>();
+   private final MultiPatternSearch search;
    private final IntPredicate match;
 
    /**
@@ -23,49 +22,25 @@ public class SearchValidator implements Processor, ResourceUtilizer, Session.Res
     * @param match Expected number of matches.
     */
    public SearchValidator(String text, IntPredicate match) {
-      this.text = text.getBytes(StandardCharsets.UTF_8);
+      this.search = new MultiPatternSearch(text.getBytes(StandardCharsets.UTF_8));
       this.match = match;
-      this.hash = BaseSearchContext.computeHash(this.text);
-      this.coef = BaseSearchContext.computeCoef(this.text.length);
    }
 
    @Override
    public void process(Session session, ByteBuf data, final int offset, int length, boolean isLastPart) {
-      Context ctx = session.getResource(this);
-      ctx.add(data, offset, length);
-      int endIndex = offset + length;
-      int index = ctx.initHash(offset, text.length);
-      index = test(ctx, index);
-      while (index < endIndex) {
-         ctx.advance(data.getByte(index++), coef, index, text.length + 1);
-         index = test(ctx, index);
-      }
-   }
-
-   private int test(Context ctx, int index) {
-      if (ctx.currentHash == hash) {
-         for (int i = 0; i < text.length; ++i) {
-            if (text[i] != ctx.byteRelative(index, text.length - i)) {
-               return i;
-            }
-         }
-         ctx.matches++;
-         ctx.currentHash = 0;
-         ctx.hashedBytes = 0;
-         return ctx.initHash(index, text.length);
-      }
-      return index;
+      Context ctx = session.getResource(key);
+      search.search(ctx.state, data, offset, length, ctx);
    }
 
    @Override
    public void before(Session session) {
-      Context ctx = session.getResource(this);
+      Context ctx = session.getResource(key);
       ctx.reset();
    }
 
    @Override
    public void after(Session session) {
-      Context ctx = session.getResource(this);
+      Context ctx = session.getResource(key);
       boolean match = this.match.test(ctx.matches);
       ctx.reset();
       if (!match) {
@@ -75,15 +50,25 @@ public class SearchValidator implements Processor, ResourceUtilizer, Session.Res
 
    @Override
    public void reserve(Session session) {
-      session.declareResource(this, Context::new);
+      session.declareResource(key, () -> new Context(search.newState()));
    }
 
-   static class Context extends BaseSearchContext {
+   static class Context implements Session.Resource, MultiPatternSearch.Listener {
+      final MultiPatternSearch.State state;
       int matches;
 
+      Context(MultiPatternSearch.State state) {
+         this.state = state;
+      }
+
       @Override
-      public void reset() {
-         super.reset();
+      public boolean onMatch(int pattern, int endIndex) {
+         matches++;
+         return true;
+      }
+
+      void reset() {
+         state.reset();
          matches = 0;
       }
    }
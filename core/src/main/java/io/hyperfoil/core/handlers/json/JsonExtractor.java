@@ -0,0 +1,501 @@
+package io.hyperfoil.core.handlers.json;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.hyperfoil.api.config.Visitor;
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.internal.Properties;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.ByteProcessor;
+
+/**
+ * Selects values for several queries in a single pass, using {@link JsonQueryAutomaton}.
+ * <p>
+ * Contrary to {@link JsonHandler} this does not support deleting or replacing the values; on the other hand it reads
+ * the buffers directly, without copying or retaining them (except for a scalar value that might continue
+ * in the next buffer) and content that cannot match any query is skipped without tracking keys.
+ */
+public class JsonExtractor implements Processor, ResourceUtilizer {
+   private static final byte OBJECT = 0;
+   private static final byte ARRAY = 1;
+
+   private static final int VALUE = 0;
+   private static final int KEY_OR_END = 1;
+   private static final int KEY = 2;
+   private static final int COLON = 3;
+   private static final int STRING = 4;
+   private static final int SCALAR = 5;
+   private static final int AFTER_VALUE = 6;
+   private static final int SKIP = 7;
+   private static final int DONE = 8;
+
+   private static final ByteProcessor STRING_CONTENT = b -> b != '"' && b != '\\';
+   private static final ByteProcessor NOT_STRUCTURAL = b -> b != '"' && b != '{' && b != '}' && b != '[' && b != ']';
+
+   private final Session.ResourceKey<Context> key = new Session.IndexedResourceKey<>();
+   private final String[] queries;
+   private final Processor[] processors;
+   @Visitor.Ignore
+   private final JsonQueryAutomaton automaton;
+
+   /**
+    * @param queries Queries, the syntax is the same as for {@link JsonHandler}.
+    * @param processors Processor invoked with the values selected by query with the same index.
+    */
+   public JsonExtractor(String[] queries, Processor[] processors) {
+      if (queries.length != processors.length) {
+         throw new IllegalArgumentException("Each query needs a processor");
+      }
+      this.queries = queries;
+      this.processors = processors;
+      this.automaton = new JsonQueryAutomaton(queries);
+   }
+
+   /**
+    * Replaces each run of consecutive {@link JsonHandler.Builder json handlers} that only select values
+    * with a single extractor. Set <code>io.hyperfoil.json.legacy.parser=true</code> to keep the handlers as these are.
+    *
+    * @param builders Body processor builders.
+    * @return Builders with the JSON handlers merged.
+    */
+   public static List<Processor.Builder> merge(List<Processor.Builder> builders) {
+      if (Properties.getBoolean(Properties.JSON_LEGACY_PARSER)) {
+         return builders;
+      }
+      List<Processor.Builder> merged = new ArrayList<>(builders.size());
+      Builder extractor = null;
+      for (Processor.Builder builder : builders) {
+         if (builder instanceof JsonHandler.Builder json && !json.delete && json.replace == null) {
+            if (extractor == null) {
+               extractor = new Builder();
+               merged.add(extractor);
+            }
+            extractor.handlers.add(json);
+         } else {
+            extractor = null;
+            merged.add(builder);
+         }
+      }
+      return merged;
+   }
+
+   @Override
+   public void before(Session session) {
+      for (Processor processor : processors) {
+         processor.before(session);
+      }
+      session.getResource(key).reset();
+   }
+
+   @Override
+   public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
+      Context ctx = session.getResource(key);
+      ctx.parse(session, data, offset, offset + length);
+      if (isLastPart) {
+         ctx.finish(session, data, offset + length);
+      }
+   }
+
+   @Override
+   public void after(Session session) {
+      for (Processor processor : processors) {
+         processor.after(session);
+      }
+      session.getResource(key).reset();
+   }
+
+   @Override
+   public void reserve(Session session) {
+      session.declareResource(key, Context::new);
+   }
+
+   @Override
+   public String toString() {
+      return "JsonExtractor{" +
+            "queries=" + Arrays.toString(queries) +
+            ", processors=" + Arrays.toString(processors) +
+            '}';
+   }
+
+   private void emit(Session session, int state, ByteBuf data, int start, int end, boolean isLast) {
+      for (int query : automaton.emits(state)) {
+         processors[query].process(session, data, start, end - start, isLast);
+      }
+   }
+
+   public class Context implements Session.Resource {
+      // state of containers that are not skipped
+      private byte[] types = new byte[16];
+      private int[] states = new int[16];
+      private int[] items = new int[16];
+      private int[] intervals = new int[16];
+      // state of the container if it is selected, DEAD otherwise
+      private int[] emitStates = new int[16];
+      private int[] emitStarts = new int[16];
+      private int depth;
+      private int mode;
+      private int valueState;
+      // the innermost value that is selected but its content is not parsed (string, scalar or skipped container)
+      private int valueEmit;
+      private int valueStart;
+      private int trie;
+      private boolean escaped;
+      private int skipDepth;
+      private boolean skipInString;
+      // scalar can end exactly at the end of buffer; we don't know if it's the last part until we see next buffer
+      private ByteBuf pendingData;
+      private int pendingOffset;
+      private int pendingLength;
+
+      Context() {
+         reset();
+      }
+
+      void reset() {
+         depth = 0;
+         mode = VALUE;
+         valueState = automaton.initial();
+         valueEmit = JsonQueryAutomaton.DEAD;
+         escaped = false;
+         releasePending();
+      }
+
+      @Override
+      public void destroy() {
+         releasePending();
+      }
+
+      private void releasePending() {
+         if (pendingData != null) {
+            pendingData.release();
+            pendingData = null;
+         }
+      }
+
+      void parse(Session session, ByteBuf data, int offset, int end) {
+         for (int d = 0; d < depth; ++d) {
+            emitStarts[d] = offset;
+         }
+         valueStart = offset;
+         int i = offset;
+         while (i < end) {
+            switch (mode) {
+               case VALUE:
+                  i = value(data, i);
+                  break;
+               case KEY_OR_END:
+                  i = keyOrEnd(session, data, i);
+                  break;
+               case KEY:
+                  i = key(data, i, end);
+                  break;
+               case COLON:
+                  if (data.getByte(i++) == ':') {
+                     mode = VALUE;
+                  }
+                  break;
+               case STRING:
+                  i = string(session, data, i, end);
+                  break;
+               case SCALAR:
+                  i = scalar(session, data, i, end);
+                  break;
+               case AFTER_VALUE:
+                  i = afterValue(session, data, i);
+                  break;
+               case SKIP:
+                  i = skip(session, data, i, end);
+                  break;
+               default:
+                  // ignore anything after the document
+                  i = end;
+            }
+         }
+         for (int d = 0; d < depth; ++d) {
+            if (emitStates[d] != JsonQueryAutomaton.DEAD && end > emitStarts[d]) {
+               emit(session, emitStates[d], data, emitStarts[d], end, false);
+            }
+         }
+         if (valueEmit != JsonQueryAutomaton.DEAD && end > valueStart) {
+            if (pendingData != null) {
+               emit(session, valueEmit, pendingData, pendingOffset, pendingOffset + pendingLength, false);
+               releasePending();
+            }
+            if (mode == SCALAR) {
+               pendingData = data.retain();
+               pendingOffset = valueStart;
+               pendingLength = end - valueStart;
+            } else {
+               emit(session, valueEmit, data, valueStart, end, false);
+            }
+         }
+      }
+
+      void finish(Session session, ByteBuf data, int end) {
+         if (mode == SCALAR) {
+            endScalar(session, data, end);
+         }
+         if (mode != DONE && (mode != VALUE || depth > 0)) {
+            throw new IllegalStateException("End of input while the JSON is not complete.");
+         }
+      }
+
+      private int value(ByteBuf data, int i) {
+         byte b = data.getByte(i);
+         switch (b) {
+            case ' ':
+            case '\n':
+            case '\r':
+            case '\t':
+               return i + 1;
+            case ']':
+               // empty array
+               if (depth > 0 && types[depth - 1] == ARRAY) {
+                  mode = AFTER_VALUE;
+                  return i;
+               }
+         }
+         int state = valueState;
+         valueEmit = automaton.emits(state).length > 0 ? state : JsonQueryAutomaton.DEAD;
+         valueStart = i;
+         switch (b) {
+            case '{':
+            case '[':
+               if (automaton.isLeaf(state)) {
+                  skipDepth = 1;
+                  skipInString = false;
+                  escaped = false;
+                  mode = SKIP;
+               } else {
+                  push(b == '{' ? OBJECT : ARRAY, state, i);
+               }
+               break;
+            case '"':
+               escaped = false;
+               mode = STRING;
+               break;
+            default:
+               mode = SCALAR;
+         }
+         return i + 1;
+      }
+
+      private void push(byte type, int state, int start) {
+         if (depth == types.length) {
+            int capacity = 2 * depth;
+            types = Arrays.copyOf(types, capacity);
+            states = Arrays.copyOf(states, capacity);
+            items = Arrays.copyOf(items, capacity);
+            intervals = Arrays.copyOf(intervals, capacity);
+            emitStates = Arrays.copyOf(emitStates, capacity);
+            emitStarts = Arrays.copyOf(emitStarts, capacity);
+         }
+         types[depth] = type;
+         states[depth] = state;
+         items[depth] = 0;
+         intervals[depth] = 0;
+         emitStates[depth] = valueEmit;
+         emitStarts[depth] = start;
+         valueEmit = JsonQueryAutomaton.DEAD;
+         ++depth;
+         if (type == OBJECT) {
+            mode = KEY_OR_END;
+         } else {
+            valueState = automaton.arrayTarget(state, 0);
+            mode = VALUE;
+         }
+      }
+
+      private void close(Session session, ByteBuf data, int i) {
+         --depth;
+         if (emitStates[depth] != JsonQueryAutomaton.DEAD) {
+            emit(session, emitStates[depth], data, emitStarts[depth], i + 1, true);
+         }
+         endValue();
+      }
+
+      private void endValue() {
+         mode = depth == 0 ? DONE : AFTER_VALUE;
+      }
+
+      private int keyOrEnd(Session session, ByteBuf data, int i) {
+         byte b = data.getByte(i);
+         if (b == '"') {
+            trie = automaton.keyRoot(states[depth - 1]);
+            escaped = false;
+            mode = KEY;
+         } else if (b == '}') {
+            close(session, data, i);
+         }
+         return i + 1;
+      }
+
+      private int key(ByteBuf data, int i, int end) {
+         int trie = this.trie;
+         boolean escaped = this.escaped;
+         for (; i < end; ++i) {
+            byte b = data.getByte(i);
+            if (escaped) {
+               escaped = false;
+            } else if (b == '\\') {
+               escaped = true;
+            } else if (b == '"') {
+               valueState = automaton.keyTarget(trie);
+               mode = COLON;
+               return i + 1;
+            }
+            if (trie >= 0) {
+               trie = automaton.nextKey(trie, b);
+            }
+         }
+         this.trie = trie;
+         this.escaped = escaped;
+         return i;
+      }
+
+      private int string(Session session, ByteBuf data, int i, int end) {
+         i = skipString(data, i, end);
+         if (i < end) {
+            if (valueEmit != JsonQueryAutomaton.DEAD) {
+               emit(session, valueEmit, data, valueStart, i + 1, true);
+               valueEmit = JsonQueryAutomaton.DEAD;
+            }
+            endValue();
+            return i + 1;
+         }
+         return i;
+      }
+
+      /**
+       * @return Index of the closing quote or <code>end</code>.
+       */
+      private int skipString(ByteBuf data, int i, int end) {
+         while (i < end) {
+            if (escaped) {
+               escaped = false;
+               ++i;
+               continue;
+            }
+            int found = data.forEachByte(i, end - i, STRING_CONTENT);
+            if (found < 0) {
+               return end;
+            } else if (data.getByte(found) == '"') {
+               return found;
+            }
+            escaped = true;
+            i = found + 1;
+         }
+         return end;
+      }
+
+      private int scalar(Session session, ByteBuf data, int i, int end) {
+         for (; i < end; ++i) {
+            switch (data.getByte(i)) {
+               case ',':
+               case '}':
+               case ']':
+               case ' ':
+               case '\n':
+               case '\r':
+               case '\t':
+                  endScalar(session, data, i);
+                  return i;
+            }
+         }
+         return i;
+      }
+
+      private void endScalar(Session session, ByteBuf data, int i) {
+         if (valueEmit != JsonQueryAutomaton.DEAD) {
+            if (pendingData != null) {
+               emit(session, valueEmit, pendingData, pendingOffset, pendingOffset + pendingLength, i == valueStart);
+               releasePending();
+            }
+            if (i > valueStart) {
+               emit(session, valueEmit, data, valueStart, i, true);
+            }
+            valueEmit = JsonQueryAutomaton.DEAD;
+         }
+         endValue();
+      }
+
+      private int afterValue(Session session, ByteBuf data, int i) {
+         switch (data.getByte(i)) {
+            case ',':
+               int d = depth - 1;
+               if (types[d] == OBJECT) {
+                  mode = KEY_OR_END;
+               } else {
+                  int item = ++items[d];
+                  int interval = automaton.arrayInterval(states[d], intervals[d], item);
+                  intervals[d] = interval;
+                  valueState = automaton.arrayTarget(states[d], interval);
+                  mode = VALUE;
+               }
+               break;
+            case '}':
+            case ']':
+               close(session, data, i);
+               break;
+         }
+         return i + 1;
+      }
+
+      private int skip(Session session, ByteBuf data, int i, int end) {
+         while (i < end) {
+            if (skipInString) {
+               i = skipString(data, i, end);
+               if (i == end) {
+                  break;
+               }
+               skipInString = false;
+               ++i;
+               continue;
+            }
+            int found = data.forEachByte(i, end - i, NOT_STRUCTURAL);
+            if (found < 0) {
+               break;
+            }
+            byte b = data.getByte(found);
+            i = found + 1;
+            if (b == '"') {
+               skipInString = true;
+            } else if (b == '{' || b == '[') {
+               ++skipDepth;
+            } else if (--skipDepth == 0) {
+               if (valueEmit != JsonQueryAutomaton.DEAD) {
+                  emit(session, valueEmit, data, valueStart, i, true);
+                  valueEmit = JsonQueryAutomaton.DEAD;
+               }
+               endValue();
+               return i;
+            }
+         }
+         return end;
+      }
+   }
+
+   /**
+    * Extractor for the queries from several {@link JsonHandler.Builder json handlers}, created by {@link #merge(List)}.
+    */
+   public static class Builder implements Processor.Builder {
+      private final List<JsonHandler.Builder> handlers = new ArrayList<>();
+
+      @Override
+      public JsonExtractor build(boolean fragmented) {
+         String[] queries = new String[handlers.size()];
+         Processor[] processors = new Processor[handlers.size()];
+         for (int i = 0; i < queries.length; ++i) {
+            JsonHandler.Builder handler = handlers.get(i);
+            queries[i] = handler.query.trim();
+            Processor processor = handler.processors.build(fragmented || handler.unquote);
+            processors[i] = handler.unquote ? new JsonUnquotingTransformer(processor) : processor;
+         }
+         return new JsonExtractor(queries, processors);
+      }
+   }
+}
@@ -10,7 +10,8 @@ import io.hyperfoil.api.session.Session;
 import io.hyperfoil.core.builders.ServiceLoadedBuilderProvider;
 import io.netty.buffer.ByteBuf;
 
-public class JsonHandler extends JsonParser implements Processor, ResourceUtilizer, Session.ResourceKey<JsonHandler.Context> {
+public class JsonHandler extends JsonParser implements Processor, ResourceUtilizer {
+   private final Session.ResourceKey<Context> key = new Session.IndexedResourceKey<>();
 
    public JsonHandler(String query, boolean delete, Transformer replace, Processor processor) {
       super(query.trim(), delete, replace, processor);
@@ -27,7 +28,7 @@ public class JsonHandler extends JsonParser implements Processor, ResourceUtiliz
 
    @Override
    public void process(Session session, ByteBuf data, int offset, int length, boolean isLast) {
-      Context ctx = session.getResource(this);
+      Context ctx = session.getResource(key);
       ctx.parse(ctx.wrap(data, offset, length), session, isLast);
    }
 
@@ -37,7 +38,7 @@ public class JsonHandler extends JsonParser implements Processor, ResourceUtiliz
          replace.after(session);
       }
       processor.after(session);
-      Context ctx = session.getResource(this);
+      Context ctx = session.getResource(key);
       ctx.reset();
    }
 
@@ -51,7 +52,7 @@ public class JsonHandler extends JsonParser implements Processor, ResourceUtiliz
 
    @Override
    public void reserve(Session session) {
-      session.declareResource(this, Context::new);
+      session.declareResource(key, Context::new);
    }
 
    @Override
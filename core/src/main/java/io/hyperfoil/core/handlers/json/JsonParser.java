@@ -42,7 +42,10 @@ public abstract class JsonParser implements Serializable {
       this.delete = delete;
       this.replace = replace;
       this.processor = processor;
+      this.selectors = parseQuery(query);
+   }
 
+   static Selector[] parseQuery(String query) {
       byte[] queryBytes = query.getBytes(StandardCharsets.UTF_8);
       if (queryBytes.length == 0 || queryBytes[0] != '.') {
          throw new BenchmarkDefinitionException("Path should start with '.'");
@@ -65,7 +68,7 @@ public abstract class JsonParser implements Serializable {
             for (; i < queryBytes.length; ++i) {
                if (queryBytes[i] == ']') {
                   if (endIndex < i) {
-                     arraySelector.rangeEnd = bytesToInt(queryBytes, startIndex, i);
+                     arraySelector.rangeEnd = bytesToInt(queryBytes, endIndex, i);
                      if (startIndex == endIndex) {
                         arraySelector.rangeStart = arraySelector.rangeEnd;
                      }
@@ -87,7 +90,7 @@ public abstract class JsonParser implements Serializable {
             ++next;
          selectors.add(new AttribSelector(Arrays.copyOfRange(queryBytes, next, queryBytes.length)));
       }
-      this.selectors = selectors.toArray(new JsonParser.Selector[0]);
+      return selectors.toArray(new JsonParser.Selector[0]);
    }
 
    protected abstract void record(Context context, Session session, ByteStream data, int offset, int length,
@@ -116,7 +119,7 @@ public abstract class JsonParser implements Serializable {
       }
    }
 
-   private static class AttribSelector implements JsonParser.Selector {
+   static class AttribSelector implements JsonParser.Selector {
       byte[] name;
 
       AttribSelector(byte[] name) {
@@ -139,7 +142,7 @@ public abstract class JsonParser implements Serializable {
       }
    }
 
-   private static class ArraySelector implements Selector {
+   static class ArraySelector implements Selector {
       int rangeStart = 0;
       int rangeEnd = Integer.MAX_VALUE;
 
@@ -0,0 +1,235 @@
+package io.hyperfoil.core.handlers.json;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Deterministic automaton built from several queries (see {@link JsonParser} for the syntax).
+ * <p>
+ * Each state represents the set of positions in the queries a JSON value can be at. The transitions are driven
+ * by object keys (through a byte trie so that the key is matched while it is being read) and array item indices
+ * (as a list of intervals). Values in the {@link #DEAD} state can't match any query and their content can be skipped.
+ */
+final class JsonQueryAutomaton implements Serializable {
+   static final int DEAD = 0;
+   private static final int[] NONE = new int[0];
+
+   private final int initial;
+   // indices of queries that select values in given state
+   private final int[][] emits;
+   // trie state matching object keys, -1 if the state has no attribute selectors
+   private final int[] keyRoot;
+   // lower bounds of item index intervals, the first one is always 0; null if there are no array selectors
+   private final int[][] arrayBounds;
+   private final int[][] arrayTargets;
+   private final byte[][] trieBytes;
+   private final int[][] trieNext;
+   private final int[] trieTarget;
+
+   JsonQueryAutomaton(String... queries) {
+      Compiler compiler = new Compiler(queries);
+      initial = compiler.compile();
+      int states = compiler.sets.size();
+      emits = compiler.emits.toArray(new int[states][]);
+      keyRoot = compiler.keyRoot.stream().mapToInt(Integer::intValue).toArray();
+      arrayBounds = compiler.arrayBounds.toArray(new int[states][]);
+      arrayTargets = compiler.arrayTargets.toArray(new int[states][]);
+      trieBytes = compiler.trieBytes.toArray(new byte[0][]);
+      trieNext = compiler.trieNext.toArray(new int[0][]);
+      trieTarget = compiler.trieTarget.stream().mapToInt(Integer::intValue).toArray();
+   }
+
+   int initial() {
+      return initial;
+   }
+
+   int[] emits(int state) {
+      return emits[state];
+   }
+
+   /**
+    * @return True if values in this state cannot contain any matching value.
+    */
+   boolean isLeaf(int state) {
+      return keyRoot[state] < 0 && arrayBounds[state] == null;
+   }
+
+   int keyRoot(int state) {
+      return keyRoot[state];
+   }
+
+   int nextKey(int trieState, byte b) {
+      byte[] bytes = trieBytes[trieState];
+      for (int i = 0; i < bytes.length; ++i) {
+         if (bytes[i] == b) {
+            return trieNext[trieState][i];
+         }
+      }
+      return -1;
+   }
+
+   int keyTarget(int trieState) {
+      return trieState < 0 ? DEAD : trieTarget[trieState];
+   }
+
+   /**
+    * @return Index of the interval for given item, starting the search at <code>interval</code>.
+    */
+   int arrayInterval(int state, int interval, int item) {
+      int[] bounds = arrayBounds[state];
+      if (bounds == null) {
+         return 0;
+      }
+      while (interval + 1 < bounds.length && item >= bounds[interval + 1]) {
+         ++interval;
+      }
+      return interval;
+   }
+
+   int arrayTarget(int state, int interval) {
+      int[] targets = arrayTargets[state];
+      return targets == null ? DEAD : targets[interval];
+   }
+
+   private static final class Compiler {
+      final JsonParser.Selector[][] paths;
+      final Map<List<Long>, Integer> ids = new HashMap<>();
+      final List<long[]> sets = new ArrayList<>();
+      final ArrayDeque<Integer> worklist = new ArrayDeque<>();
+      final List<int[]> emits = new ArrayList<>();
+      final List<Integer> keyRoot = new ArrayList<>();
+      final List<int[]> arrayBounds = new ArrayList<>();
+      final List<int[]> arrayTargets = new ArrayList<>();
+      final List<byte[]> trieBytes = new ArrayList<>();
+      final List<int[]> trieNext = new ArrayList<>();
+      final List<Integer> trieTarget = new ArrayList<>();
+
+      Compiler(String[] queries) {
+         paths = new JsonParser.Selector[queries.length][];
+         for (int i = 0; i < queries.length; ++i) {
+            paths[i] = JsonParser.parseQuery(queries[i]);
+         }
+      }
+
+      int compile() {
+         int dead = state(new TreeSet<>());
+         assert dead == DEAD;
+         TreeSet<Long> initial = new TreeSet<>();
+         for (int q = 0; q < paths.length; ++q) {
+            initial.add(position(q, 0));
+         }
+         int initialState = state(initial);
+         while (!worklist.isEmpty()) {
+            int state = worklist.poll();
+            build(state, sets.get(state));
+         }
+         return initialState;
+      }
+
+      private static long position(int query, int selector) {
+         return ((long) query << 32) | selector;
+      }
+
+      private int state(TreeSet<Long> positions) {
+         List<Long> key = new ArrayList<>(positions);
+         Integer id = ids.get(key);
+         if (id == null) {
+            id = sets.size();
+            ids.put(key, id);
+            sets.add(positions.stream().mapToLong(Long::longValue).toArray());
+            emits.add(NONE);
+            keyRoot.add(-1);
+            arrayBounds.add(null);
+            arrayTargets.add(null);
+            worklist.add(id);
+         }
+         return id;
+      }
+
+      private void build(int state, long[] positions) {
+         List<Integer> emitted = new ArrayList<>();
+         // ISO-8859-1 maps bytes 1:1 to chars
+         Map<String, TreeSet<Long>> keys = new TreeMap<>();
+         TreeSet<Integer> bounds = new TreeSet<>();
+         for (long position : positions) {
+            int q = (int) (position >>> 32);
+            int selector = (int) position;
+            if (selector == paths[q].length) {
+               emitted.add(q);
+            } else if (paths[q][selector] instanceof JsonParser.AttribSelector attrib) {
+               keys.computeIfAbsent(new String(attrib.name, StandardCharsets.ISO_8859_1), k -> new TreeSet<>())
+                     .add(position(q, selector + 1));
+            } else {
+               JsonParser.ArraySelector array = (JsonParser.ArraySelector) paths[q][selector];
+               bounds.add(0);
+               bounds.add(array.rangeStart);
+               if (array.rangeEnd < Integer.MAX_VALUE) {
+                  bounds.add(array.rangeEnd + 1);
+               }
+            }
+         }
+         emits.set(state, emitted.stream().mapToInt(Integer::intValue).toArray());
+         if (!keys.isEmpty()) {
+            int root = trieNode();
+            keyRoot.set(state, root);
+            for (var entry : keys.entrySet()) {
+               int node = root;
+               for (byte b : entry.getKey().getBytes(StandardCharsets.ISO_8859_1)) {
+                  node = trieChild(node, b);
+               }
+               trieTarget.set(node, state(entry.getValue()));
+            }
+         }
+         if (!bounds.isEmpty()) {
+            int[] lowerBounds = bounds.stream().mapToInt(Integer::intValue).toArray();
+            int[] targets = new int[lowerBounds.length];
+            for (int i = 0; i < lowerBounds.length; ++i) {
+               TreeSet<Long> next = new TreeSet<>();
+               for (long position : positions) {
+                  int q = (int) (position >>> 32);
+                  int selector = (int) position;
+                  if (selector < paths[q].length && paths[q][selector] instanceof JsonParser.ArraySelector array
+                        && lowerBounds[i] >= array.rangeStart && lowerBounds[i] <= array.rangeEnd) {
+                     next.add(position(q, selector + 1));
+                  }
+               }
+               targets[i] = state(next);
+            }
+            arrayBounds.set(state, lowerBounds);
+            arrayTargets.set(state, targets);
+         }
+      }
+
+      private int trieNode() {
+         trieBytes.add(new byte[0]);
+         trieNext.add(NONE);
+         trieTarget.add(DEAD);
+         return trieTarget.size() - 1;
+      }
+
+      private int trieChild(int node, byte b) {
+         byte[] bytes = trieBytes.get(node);
+         for (int i = 0; i < bytes.length; ++i) {
+            if (bytes[i] == b) {
+               return trieNext.get(node)[i];
+            }
+         }
+         int child = trieNode();
+         byte[] newBytes = Arrays.copyOf(bytes, bytes.length + 1);
+         newBytes[bytes.length] = b;
+         int[] newNext = Arrays.copyOf(trieNext.get(node), bytes.length + 1);
+         newNext[bytes.length] = child;
+         trieBytes.set(node, newBytes);
+         trieNext.set(node, newNext);
+         return child;
+      }
+   }
+}
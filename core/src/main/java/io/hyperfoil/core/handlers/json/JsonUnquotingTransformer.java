@@ -10,12 +10,13 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 
 public class JsonUnquotingTransformer
-      implements Transformer, Processor, ResourceUtilizer, Session.ResourceKey<JsonUnquotingTransformer.Context> {
+      implements Transformer, Processor, ResourceUtilizer {
    private static final ByteBuf NEWLINE = Unpooled.wrappedBuffer("\n".getBytes(StandardCharsets.UTF_8));
    private static final ByteBuf BACKSPACE = Unpooled.wrappedBuffer("\b".getBytes(StandardCharsets.UTF_8));
    private static final ByteBuf FORMFEED = Unpooled.wrappedBuffer("\f".getBytes(StandardCharsets.UTF_8));
    private static final ByteBuf CR = Unpooled.wrappedBuffer("\r".getBytes(StandardCharsets.UTF_8));
    private static final ByteBuf TAB = Unpooled.wrappedBuffer("\t".getBytes(StandardCharsets.UTF_8));
+   private final Session.ResourceKey<Context> key = new Session.IndexedResourceKey<>();
 
    protected final Transformer delegate;
 
@@ -30,7 +31,7 @@ public class JsonUnquotingTransformer
    @Override
    public void before(Session session) {
       delegate.before(session);
-      Context context = session.getResource(this);
+      Context context = session.getResource(key);
       context.reset();
    }
 
@@ -41,7 +42,7 @@ public class JsonUnquotingTransformer
 
    @Override
    public void transform(Session session, ByteBuf input, int offset, int length, boolean isLastFragment, ByteBuf output) {
-      Context context = session.getResource(this);
+      Context context = session.getResource(key);
       int begin;
       if (context.unicode) {
          begin = offset + processUnicode(session, input, offset, length, isLastFragment, output, context, 0);
@@ -156,7 +157,7 @@ public class JsonUnquotingTransformer
 
    @Override
    public void reserve(Session session) {
-      session.declareResource(this, Context::new);
+      session.declareResource(key, Context::new);
    }
 
    public static class Context implements Session.Resource {
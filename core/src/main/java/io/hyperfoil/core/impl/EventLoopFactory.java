@@ -11,6 +11,9 @@ import io.netty.channel.kqueue.KQueueSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.incubator.channel.uring.IOUring;
+import io.netty.incubator.channel.uring.IOUringEventLoopGroup;
+import io.netty.incubator.channel.uring.IOUringSocketChannel;
 
 public abstract class EventLoopFactory {
    public static final EventLoopFactory INSTANCE;
@@ -18,20 +21,7 @@ public abstract class EventLoopFactory {
    static {
       String transport = Properties.get(Properties.NETTY_TRANSPORT, null);
       if (transport != null) {
-         switch (transport.toLowerCase()) {
-            case "nio":
-               INSTANCE = new NioEventLoopFactory();
-               break;
-            case "epoll":
-               INSTANCE = new EpollEventLoopFactory();
-               break;
-            case "kqueue":
-               INSTANCE = new KqueueEventLoopFactory();
-               break;
-            // TODO: io_uring requires kernel >= 5.9
-            default:
-               throw new IllegalStateException("Unknown transport '" + transport + "', use either 'nio' or 'epoll'.");
-         }
+         INSTANCE = forTransport(transport);
       } else {
          if (Epoll.isAvailable()) {
             INSTANCE = new EpollEventLoopFactory();
@@ -43,16 +33,47 @@ public abstract class EventLoopFactory {
       }
    }
 
+   public static EventLoopFactory forTransport(String transport) {
+      switch (transport.toLowerCase()) {
+         case "nio":
+            return new NioEventLoopFactory();
+         case "epoll":
+            return new EpollEventLoopFactory();
+         case "kqueue":
+            return new KqueueEventLoopFactory();
+         case "io_uring":
+         case "iouring":
+            // io_uring requires kernel >= 5.9 and can be disabled by seccomp, therefore we don't select it by default
+            if (!IOUring.isAvailable()) {
+               throw new IllegalStateException("io_uring transport is not available", IOUring.unavailabilityCause());
+            }
+            return new IoUringEventLoopFactory();
+         default:
+            throw new IllegalStateException(
+                  "Unknown transport '" + transport + "', use one of 'nio', 'epoll', 'kqueue' or 'io_uring'.");
+      }
+   }
+
    public abstract EventLoopGroup create(int threads);
 
    public abstract Class<? extends SocketChannel> socketChannel();
 
+   /**
+    * @return Name of the transport as used in {@link Properties#NETTY_TRANSPORT}.
+    */
+   public abstract String transport();
+
    private static class NioEventLoopFactory extends EventLoopFactory {
       @Override
       public EventLoopGroup create(int threads) {
          return new NioEventLoopGroup(threads);
       }
 
+      @Override
+      public String transport() {
+         return "nio";
+      }
+
       @Override
       public Class<? extends SocketChannel> socketChannel() {
          return NioSocketChannel.class;
@@ -65,6 +86,11 @@ public abstract class EventLoopFactory {
          return new EpollEventLoopGroup(threads);
       }
 
+      @Override
+      public String transport() {
+         return "epoll";
+      }
+
       @Override
       public Class<? extends SocketChannel> socketChannel() {
          return EpollSocketChannel.class;
@@ -77,9 +103,31 @@ public abstract class EventLoopFactory {
          return new KQueueEventLoopGroup(threads);
       }
 
+      @Override
+      public String transport() {
+         return "kqueue";
+      }
+
       @Override
       public Class<? extends SocketChannel> socketChannel() {
          return KQueueSocketChannel.class;
       }
    }
+
+   private static class IoUringEventLoopFactory extends EventLoopFactory {
+      @Override
+      public EventLoopGroup create(int threads) {
+         return new IOUringEventLoopGroup(threads);
+      }
+
+      @Override
+      public Class<? extends SocketChannel> socketChannel() {
+         return IOUringSocketChannel.class;
+      }
+
+      @Override
+      public String transport() {
+         return "io_uring";
+      }
+   }
 }
@@ -10,6 +10,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import io.hyperfoil.api.config.BenchmarkData;
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
 
 public class LocalBenchmarkData implements BenchmarkData {
    protected final Path benchmarkPath;
@@ -40,6 +41,18 @@ public class LocalBenchmarkData implements BenchmarkData {
       return new ByteArrayInputStream(bytes);
    }
 
+   @Override
+   public Path localFile(String file) {
+      Path path = Paths.get(file);
+      if (!path.isAbsolute()) {
+         if (benchmarkPath == null) {
+            throw new BenchmarkDefinitionException("Cannot resolve relative path " + file);
+         }
+         path = benchmarkPath.getParent().resolve(file);
+      }
+      return path.toAbsolutePath();
+   }
+
    @Override
    public Map<String, byte[]> files() {
       return files;
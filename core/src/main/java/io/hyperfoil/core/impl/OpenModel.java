@@ -4,13 +4,19 @@ import io.hyperfoil.api.config.Model;
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.session.PhaseInstance;
 import io.hyperfoil.core.impl.rate.RateGenerator;
+import io.hyperfoil.internal.Properties;
 
 final class OpenModel {
+   private static final boolean SHARDED = Properties.getBoolean(Properties.RATE_GENERATOR_SHARDED);
 
    public static PhaseInstance constantRate(Phase def, String runId, int agentId) {
       var model = (Model.ConstantRate) def.model;
       double usersPerSec = def.benchmark().slice(model.usersPerSec, agentId);
-      if (model.variance) {
+      int shards = shards(def, agentId);
+      if (shards > 1) {
+         return new OpenModelPhase(model.variance ? RateGenerator.poissonConstantRateShards(usersPerSec, shards)
+               : RateGenerator.constantRateShards(usersPerSec, shards), def, runId, agentId);
+      } else if (model.variance) {
          return new OpenModelPhase(RateGenerator.poissonConstantRate(usersPerSec), def, runId, agentId);
       } else {
          return new OpenModelPhase(RateGenerator.constantRate(usersPerSec), def, runId, agentId);
@@ -22,7 +28,13 @@ final class OpenModel {
       double initialUsersPerSec = def.benchmark().slice(model.initialUsersPerSec, agentId);
       double targetUsersPerSec = def.benchmark().slice(model.targetUsersPerSec, agentId);
       long durationNs = def.duration * 1_000_000L;
-      if (model.variance) {
+      int shards = shards(def, agentId);
+      if (shards > 1) {
+         return new OpenModelPhase(model.variance
+               ? RateGenerator.poissonRampRateShards(initialUsersPerSec, targetUsersPerSec, durationNs, shards)
+               : RateGenerator.rampRateShards(initialUsersPerSec, targetUsersPerSec, durationNs, shards),
+               def, runId, agentId);
+      } else if (model.variance) {
          return new OpenModelPhase(RateGenerator.poissonRampRate(initialUsersPerSec, targetUsersPerSec, durationNs), def, runId,
                agentId);
       } else {
@@ -30,4 +42,8 @@ final class OpenModel {
                agentId);
       }
    }
+
+   private static int shards(Phase def, int agentId) {
+      return SHARDED ? def.benchmark().threads(agentId) : 1;
+   }
 }
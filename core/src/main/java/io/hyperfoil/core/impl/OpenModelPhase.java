@@ -8,6 +8,8 @@ import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.core.impl.rate.FireTimeListener;
 import io.hyperfoil.core.impl.rate.RateGenerator;
+import io.hyperfoil.internal.Properties;
+import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.EventExecutorGroup;
 
 /**
@@ -28,17 +30,23 @@ import io.netty.util.concurrent.EventExecutorGroup;
  * when a session finished, instead of when {@link #sessionPool} has available sessions available.
  */
 final class OpenModelPhase extends PhaseInstanceImpl implements FireTimeListener {
+   private static final long HORIZON_NS = Properties.getLong(Properties.RATE_GENERATOR_HORIZON_NS, 0);
 
    private final int maxSessions;
    private final AtomicLong throttledUsers = new AtomicLong(0);
-   private final RateGenerator rateGenerator;
-   private final long relativeFirstFireTimeNs;
+   // When there is more than one generator, each is driven by a different executor
+   private final RateGenerator[] rateGenerators;
+   // Driver of the first generator, used in proceed(EventExecutorGroup)
+   private Driver driver;
 
    OpenModelPhase(RateGenerator rateGenerator, Phase def, String runId, int agentId) {
+      this(new RateGenerator[] { rateGenerator }, def, runId, agentId);
+   }
+
+   OpenModelPhase(RateGenerator[] rateGenerators, Phase def, String runId, int agentId) {
       super(def, runId, agentId);
-      this.rateGenerator = rateGenerator;
+      this.rateGenerators = rateGenerators;
       this.maxSessions = Math.max(1, def.benchmark().slice(((Model.OpenModel) def.model).maxSessions, agentId));
-      this.relativeFirstFireTimeNs = rateGenerator.lastComputedFireTimeNs();
    }
 
    @Override
@@ -51,25 +59,56 @@ final class OpenModelPhase extends PhaseInstanceImpl implements FireTimeListener
 
    @Override
    protected void proceedOnStarted(final EventExecutorGroup executorGroup) {
+      if (rateGenerators.length == 1) {
+         driver = new Driver(executorGroup, rateGenerators[0]);
+         proceedOnStarted(driver);
+         return;
+      }
+      int i = 0;
+      for (EventExecutor executor : executorGroup) {
+         if (i >= rateGenerators.length) {
+            break;
+         }
+         // Each generator is driven only by its own executor
+         Driver driver = new Driver(executor, rateGenerators[i++]);
+         executor.execute(() -> proceedOnStarted(driver));
+      }
+      if (i < rateGenerators.length) {
+         log.warn("{}: Only {} executors available for {} rate generators; the phase will not reach the target rate.",
+               def.name, i, rateGenerators.length);
+      }
+   }
+
+   private void proceedOnStarted(Driver driver) {
       long elapsedNs = System.nanoTime() - nanoTimeStart;
-      long remainingNsToFirstFireTime = relativeFirstFireTimeNs - elapsedNs;
+      long remainingNsToFirstFireTime = driver.rateGenerator.lastComputedFireTimeNs() - elapsedNs;
       if (remainingNsToFirstFireTime > 0) {
-         executorGroup.schedule(() -> proceed(executorGroup), remainingNsToFirstFireTime, TimeUnit.NANOSECONDS);
+         driver.executorGroup.schedule(driver, remainingNsToFirstFireTime, TimeUnit.NANOSECONDS);
       } else {
-         proceed(executorGroup);
+         proceed(driver);
       }
    }
 
    @Override
    public void proceed(final EventExecutorGroup executorGroup) {
+      Driver driver = this.driver;
+      if (driver == null || driver.executorGroup != executorGroup) {
+         driver = new Driver(executorGroup, rateGenerators[0]);
+      }
+      proceed(driver);
+   }
+
+   private void proceed(Driver driver) {
       if (status.isFinished()) {
          return;
       }
+      RateGenerator rateGenerator = driver.rateGenerator;
       long realFireTimeNs = System.nanoTime();
       long elapsedTimeNs = realFireTimeNs - nanoTimeStart;
       // the time should flow forward: we can have some better check here for NTP and maybe rise a warning
       assert elapsedTimeNs >= rateGenerator.lastComputedFireTimeNs();
-      long expectedNextFireTimeNs = rateGenerator.computeNextFireTime(elapsedTimeNs, this);
+      // users due within the horizon are started now, in one batch, rather than scheduling a wakeup for each
+      long expectedNextFireTimeNs = rateGenerator.computeNextFireTime(elapsedTimeNs, HORIZON_NS, this);
       // we need to make sure that the scheduling decisions are made based on the current time
       long rateGenerationDelayNs = System.nanoTime() - realFireTimeNs;
       assert rateGenerationDelayNs >= 0;
@@ -82,9 +121,22 @@ final class OpenModelPhase extends PhaseInstanceImpl implements FireTimeListener
       }
       if (scheduledFireDelayNs <= 0) {
          // we're so late that there's no point in bothering the executor with timers
-         executorGroup.execute(() -> proceed(executorGroup));
+         driver.executorGroup.execute(driver);
       } else {
-         executorGroup.schedule(() -> proceed(executorGroup), scheduledFireDelayNs, TimeUnit.NANOSECONDS);
+         driver.executorGroup.schedule(driver, scheduledFireDelayNs, TimeUnit.NANOSECONDS);
+      }
+   }
+
+   @Override
+   public void onFireTimes(long count) {
+      long throttled = 0;
+      for (long i = 0; i < count; i++) {
+         if (!startNewSession()) {
+            throttled++;
+         }
+      }
+      if (throttled != 0) {
+         throttledUsers.addAndGet(throttled);
       }
    }
 
@@ -115,4 +167,21 @@ final class OpenModelPhase extends PhaseInstanceImpl implements FireTimeListener
       super.notifyFinished(session);
    }
 
+   /**
+    * The task rescheduling itself on one executor; it is created once per generator rather than on each wakeup.
+    */
+   private final class Driver implements Runnable {
+      private final EventExecutorGroup executorGroup;
+      private final RateGenerator rateGenerator;
+
+      private Driver(EventExecutorGroup executorGroup, RateGenerator rateGenerator) {
+         this.executorGroup = executorGroup;
+         this.rateGenerator = rateGenerator;
+      }
+
+      @Override
+      public void run() {
+         proceed(this);
+      }
+   }
 }
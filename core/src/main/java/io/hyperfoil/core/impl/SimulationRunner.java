@@ -38,6 +38,7 @@ import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.ThreadData;
 import io.hyperfoil.api.statistics.SessionStatistics;
 import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.core.api.BlockingInitializer;
 import io.hyperfoil.core.api.Plugin;
 import io.hyperfoil.core.api.PluginRunData;
 import io.hyperfoil.core.session.AgentDataImpl;
@@ -64,6 +65,7 @@ public class SimulationRunner {
    protected static final Logger log = LogManager.getLogger(SimulationRunner.class);
 
    private static final Clock DEFAULT_CLOCK = Clock.systemDefaultZone();
+   private static final boolean SINGLE_WRITER_STATS = Properties.getBoolean(Properties.STATS_SINGLE_WRITER);
 
    protected final Benchmark benchmark;
    protected final int agentId;
@@ -75,6 +77,7 @@ public class SimulationRunner {
    protected final EventLoop[] executors;
    private final Queue<Phase> toPrune;
    private final PluginRunData[] runData;
+   private final List<BlockingInitializer> initializers = new ArrayList<>();
    private ControllerListener controllerListener;
    private final Consumer<Throwable> errorHandler;
    private boolean isDepletedMessageQuietened;
@@ -184,11 +187,22 @@ public class SimulationRunner {
       for (PluginRunData plugin : runData) {
          plugin.openConnections(blockingHandler, futures::add);
       }
+      BlockingInitializer.Visitor visitor = new BlockingInitializer.Visitor();
+      for (Phase def : benchmark.phases()) {
+         visitor.visit(def.scenario);
+      }
+      initializers.addAll(visitor.initializers());
+      for (BlockingInitializer initializer : initializers) {
+         futures.add(blockingHandler.apply(() -> {
+            initializer.initBlocking();
+            return null;
+         }));
+      }
 
       CompositeFuture composite = CompositeFuture.join(futures);
       composite.onComplete(result -> {
          if (result.failed()) {
-            log.error("One of the HTTP client pools failed to start.");
+            log.error("One of the HTTP client pools failed to start or the benchmark could not be initialized.");
          }
          handler.handle(result.mapEmpty());
          jitterWatchdog.start();
@@ -298,7 +312,16 @@ public class SimulationRunner {
       for (PluginRunData plugin : runData) {
          plugin.shutdown();
       }
-      eventLoopGroup.shutdownGracefully(0, 10, TimeUnit.SECONDS);
+      // connections may still read from the initialized resources until the event loops terminate
+      eventLoopGroup.shutdownGracefully(0, 10, TimeUnit.SECONDS).addListener(future -> {
+         for (BlockingInitializer initializer : initializers) {
+            try {
+               initializer.shutdown();
+            } catch (Throwable t) {
+               log.error("Failed to shut down {}", initializer, t);
+            }
+         }
+      });
       for (Session session : sessions) {
          SessionFactory.destroy(session);
       }
@@ -320,8 +343,14 @@ public class SimulationRunner {
             // Phase(s) with these resources have not been started yet
             continue;
          }
-         for (SessionStatistics statistics : sharedResources.statistics) {
+         SessionStatistics[] sessionStatistics = sharedResources.statistics;
+         for (int i = 0; i < sessionStatistics.length; i++) {
+            SessionStatistics statistics = sessionStatistics[i];
             consumer.accept(statistics);
+            if (statistics.isSingleWriter()) {
+               // The snapshots will be published during next visit
+               executors[i].execute(statistics::handOver);
+            }
          }
       }
       Phase phase;
@@ -579,7 +608,10 @@ public class SimulationRunner {
 
       // Warn if sub-millisecond precision is needed but native epoll is not available
       if (requiresSubMillisecondPrecision) {
-         if (Epoll.isAvailable()) {
+         if ("io_uring".equals(EventLoopFactory.INSTANCE.transport())) {
+            // io_uring timeouts are submitted with nanosecond precision on any kernel that supports the transport
+            log.debug("Sub-millisecond rate detected, using io_uring transport.");
+         } else if (Epoll.isAvailable()) {
             try {
                String kernelVersion = Native.KERNEL_VERSION;
                String[] parts = kernelVersion.split("[\\.-]");
@@ -612,7 +644,7 @@ public class SimulationRunner {
       SharedResources(int executorCount) {
          statistics = new SessionStatistics[executorCount];
          for (int executorId = 0; executorId < executorCount; ++executorId) {
-            this.statistics[executorId] = new SessionStatistics();
+            this.statistics[executorId] = new SessionStatistics(SINGLE_WRITER_STATS);
          }
       }
    }
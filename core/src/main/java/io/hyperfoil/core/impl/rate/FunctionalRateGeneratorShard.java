@@ -0,0 +1,38 @@
+package io.hyperfoil.core.impl.rate;
+
+/**
+ * One of <code>shards</code> generators that together produce the same fire times as the wrapped
+ * {@link FunctionalRateGenerator}: the shard <code>s</code> fires for every global fire time <code>k</code>
+ * such that <code>k % shards == s</code>. Therefore the shards are interleaved rather than firing in bursts.
+ * <p>
+ * The wrapped generator is used only to compute the fire times, its state is not modified; each shard should be
+ * driven by a different thread.
+ */
+final class FunctionalRateGeneratorShard extends BaseRateGenerator {
+   private final FunctionalRateGenerator global;
+   private final int shard;
+   private final int shards;
+
+   FunctionalRateGeneratorShard(FunctionalRateGenerator global, int shard, int shards) {
+      this.global = global;
+      this.shard = shard;
+      this.shards = shards;
+      this.fireTimeNs = global.computeFireTimeNs(shard);
+   }
+
+   @Override
+   public long computeNextFireTime(long elapsedTimeNs, FireTimeListener listener) {
+      if (elapsedTimeNs < fireTimeNs) {
+         return (long) Math.ceil(fireTimeNs);
+      }
+      // number of global fire times up to (including) elapsed time
+      long globalFireTimes = global.computeFireTimes(elapsedTimeNs) + 1;
+      long fireTimes = Math.max(0, Math.floorDiv(globalFireTimes - shard + shards - 1, shards));
+      long nextGlobalFireTime = (long) shard + fireTimes * shards;
+      fireTimeNs = global.computeFireTimeNs(nextGlobalFireTime);
+      long missingFireTimes = fireTimes - this.fireTimes;
+      this.fireTimes = fireTimes;
+      listener.onFireTimes(missingFireTimes);
+      return (long) Math.ceil(fireTimeNs);
+   }
+}
@@ -6,6 +6,16 @@ public interface RateGenerator {
 
    long computeNextFireTime(long elapsedNanos, FireTimeListener listener);
 
+   /**
+    * Emits all fire times due up to <code>elapsedNanos + horizonNanos</code> in a single
+    * {@link FireTimeListener#onFireTimes(long)} call and returns the first fire time past the horizon.
+    * This lets the caller handle a burst of closely spaced fire times with one wakeup, at the cost of starting
+    * these users up to <code>horizonNanos</code> early.
+    */
+   default long computeNextFireTime(long elapsedNanos, long horizonNanos, FireTimeListener listener) {
+      return computeNextFireTime(elapsedNanos + horizonNanos, listener);
+   }
+
    long lastComputedFireTimeNs();
 
    long fireTimes();
@@ -40,4 +50,47 @@ public interface RateGenerator {
    static RateGenerator poissonRampRate(double initialFireTimesPerSec, double targetFireTimesPerSec, long durationNs) {
       return poissonRampRate(new Random(), initialFireTimesPerSec, targetFireTimesPerSec, durationNs);
    }
+
+   /**
+    * Splits the constant rate into <code>shards</code> generators that together produce the same fire times.
+    */
+   static RateGenerator[] constantRateShards(double fireTimesPerSec, int shards) {
+      return functionalShards((FunctionalRateGenerator) constantRate(fireTimesPerSec), shards);
+   }
+
+   static RateGenerator[] rampRateShards(double initialFireTimesPerSec, double targetFireTimesPerSec, long durationNs,
+         int shards) {
+      return functionalShards((FunctionalRateGenerator) rampRate(initialFireTimesPerSec, targetFireTimesPerSec, durationNs),
+            shards);
+   }
+
+   private static RateGenerator[] functionalShards(FunctionalRateGenerator global, int shards) {
+      RateGenerator[] generators = new RateGenerator[shards];
+      for (int i = 0; i < shards; ++i) {
+         generators[i] = new FunctionalRateGeneratorShard(global, i, shards);
+      }
+      return generators;
+   }
+
+   /**
+    * Superposition of independent Poisson processes is a Poisson process with the sum of their rates,
+    * therefore each shard uses its own random stream with a fraction of the rate.
+    */
+   static RateGenerator[] poissonConstantRateShards(double usersPerSec, int shards) {
+      RateGenerator[] generators = new RateGenerator[shards];
+      for (int i = 0; i < shards; ++i) {
+         generators[i] = poissonConstantRate(new Random(), usersPerSec / shards);
+      }
+      return generators;
+   }
+
+   static RateGenerator[] poissonRampRateShards(double initialFireTimesPerSec, double targetFireTimesPerSec, long durationNs,
+         int shards) {
+      RateGenerator[] generators = new RateGenerator[shards];
+      for (int i = 0; i < shards; ++i) {
+         generators[i] = poissonRampRate(new Random(), initialFireTimesPerSec / shards, targetFireTimesPerSec / shards,
+               durationNs);
+      }
+      return generators;
+   }
 }
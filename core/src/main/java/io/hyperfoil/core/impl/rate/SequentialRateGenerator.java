@@ -9,12 +9,14 @@ abstract class SequentialRateGenerator extends BaseRateGenerator {
       long fireTimesCount = 0;
       double nextFireTimeNs = fireTimeNs;
       while (elapsedTimeNs >= nextFireTimeNs) {
-         listener.onFireTime();
          fireTimesCount++;
          nextFireTimeNs = nextFireTimeNs(nextFireTimeNs);
       }
       fireTimeNs = nextFireTimeNs;
       this.fireTimes += fireTimesCount;
+      if (fireTimesCount > 0) {
+         listener.onFireTimes(fireTimesCount);
+      }
       return (long) Math.ceil(nextFireTimeNs);
    }
 }
@@ -1,13 +1,17 @@
 package io.hyperfoil.core.metric;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import io.hyperfoil.api.config.ListBuilder;
 import io.hyperfoil.api.config.Visitor;
 import io.hyperfoil.function.SerializableFunction;
+import io.netty.util.concurrent.FastThreadLocal;
 
 /**
  * Allows categorizing request statistics into metrics based on the request path. The expressions are evaluated
@@ -18,8 +22,21 @@ import io.hyperfoil.function.SerializableFunction;
  * <li><code>regexp</code> (don't do any replaces and use the full path), e.g. <code>.*.jpg</code>
  * <li><code>-&gt; name</code> (metric applied if none of the previous expressions match).
  * </ul>
+ * Benchmarks usually request a limited set of paths so the selected metric is cached per thread and selector
+ * (up to {@value #CACHE_SIZE} entries); when the path is found no string is allocated. On a cache miss
+ * the expressions are tried only if the path starts with the literal prefix of the regexp.
  */
 public class PathMetricSelector implements ListBuilder, MetricSelector {
+   static final int CACHE_SIZE = 1024;
+   // A single thread-local shared by all selectors; FastThreadLocal indices are never reclaimed.
+   // The selectors are weakly referenced so that the caches don't outlive the benchmark.
+   private static final FastThreadLocal<Map<PathMetricSelector, Cache>> CACHES = new FastThreadLocal<>() {
+      @Override
+      protected Map<PathMetricSelector, Cache> initialValue() {
+         return new WeakHashMap<>();
+      }
+   };
+
    public List<SerializableFunction<String, String>> tests = new ArrayList<>();
 
    @Override
@@ -41,6 +58,15 @@ public class PathMetricSelector implements ListBuilder, MetricSelector {
 
    @Override
    public String apply(String authority, String path) {
+      Map<PathMetricSelector, Cache> caches = CACHES.get();
+      Cache cache = caches.get(this);
+      if (cache == null) {
+         caches.put(this, cache = new Cache());
+      }
+      return cache.apply(authority, path);
+   }
+
+   private String select(String authority, String path) {
       String combined = authority != null ? authority + path : path;
       for (SerializableFunction<String, String> test : tests) {
          String result = test.apply(combined);
@@ -51,12 +77,76 @@ public class PathMetricSelector implements ListBuilder, MetricSelector {
       return null;
    }
 
+   /**
+    * @return Characters that must start any string matching the pattern (possibly empty).
+    */
+   static String literalPrefix(String regexp) {
+      if (regexp.indexOf('|') >= 0) {
+         return "";
+      }
+      StringBuilder prefix = new StringBuilder();
+      for (int i = 0; i < regexp.length(); ++i) {
+         char c = regexp.charAt(i);
+         if (c == '\\' && i + 1 < regexp.length() && !Character.isLetterOrDigit(regexp.charAt(i + 1))) {
+            c = regexp.charAt(++i);
+         } else if ("^$.?*+()[]{}\\".indexOf(c) >= 0) {
+            break;
+         }
+         if (i + 1 < regexp.length() && "?*{".indexOf(regexp.charAt(i + 1)) >= 0) {
+            // the character is optional or repeated
+            break;
+         }
+         prefix.append(c);
+      }
+      return prefix.toString();
+   }
+
+   private class Cache {
+      private final Map<String, String> withoutAuthority = new HashMap<>();
+      private final Map<String, Map<String, String>> byAuthority = new HashMap<>();
+      // canonical instances of metric names
+      private final Map<String, String> metrics = new HashMap<>();
+      private int size;
+
+      String apply(String authority, String path) {
+         Map<String, String> byPath = authority == null ? withoutAuthority : byAuthority.get(authority);
+         if (byPath != null) {
+            String metric = byPath.get(path);
+            // null result is not cached but that's not used in practice
+            if (metric != null) {
+               return metric;
+            }
+         }
+         String metric = select(authority, path);
+         if (metric == null) {
+            return null;
+         }
+         if (size >= CACHE_SIZE) {
+            withoutAuthority.clear();
+            byAuthority.clear();
+            metrics.clear();
+            size = 0;
+            byPath = null;
+         }
+         if (byPath == null) {
+            byPath = authority == null ? withoutAuthority : byAuthority.computeIfAbsent(authority, a -> new HashMap<>());
+         }
+         metric = metrics.computeIfAbsent(metric, m -> m);
+         byPath.put(path, metric);
+         ++size;
+         return metric;
+      }
+   }
+
    private static class SimpleMatch implements SerializableFunction<String, String> {
       @Visitor.Invoke(method = "pattern")
       private final Pattern pattern;
+      @Visitor.Ignore
+      private final String prefix;
 
       SimpleMatch(Pattern pattern) {
          this.pattern = pattern;
+         this.prefix = literalPrefix(pattern.pattern());
       }
 
       public String pattern() {
@@ -65,7 +155,7 @@ public class PathMetricSelector implements ListBuilder, MetricSelector {
 
       @Override
       public String apply(String path) {
-         return pattern.matcher(path).matches() ? path : null;
+         return path.startsWith(prefix) && pattern.matcher(path).matches() ? path : null;
       }
    }
 
@@ -86,10 +176,13 @@ public class PathMetricSelector implements ListBuilder, MetricSelector {
       @Visitor.Invoke(method = "pattern")
       private final Pattern pattern;
       private final String replacement;
+      @Visitor.Ignore
+      private final String prefix;
 
       ReplaceMatch(Pattern pattern, String replacement) {
          this.pattern = pattern;
          this.replacement = replacement;
+         this.prefix = literalPrefix(pattern.pattern());
       }
 
       public String pattern() {
@@ -98,6 +191,9 @@ public class PathMetricSelector implements ListBuilder, MetricSelector {
 
       @Override
       public String apply(String path) {
+         if (!path.startsWith(prefix)) {
+            return null;
+         }
          Matcher matcher = pattern.matcher(path);
          if (matcher.matches()) {
             return matcher.replaceFirst(replacement);
@@ -1,6 +1,7 @@
 package io.hyperfoil.core.session;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
@@ -35,6 +36,13 @@ class SessionImpl implements Session {
 
    private final Var[] vars;
    private final Map<ResourceKey<?>, Object> resources = new HashMap<>();
+   // Resources for keys with an index; the key is checked as another scenario could have re-indexed it.
+   private final ResourceKey<?>[] slotKeys;
+   private final Resource[] slotResources;
+   private final Resource[][] slotSequenceResources;
+   // Resources for constant keys, which are shared by all scenarios and hold a unique index.
+   private Resource[] constantResources = new Resource[0];
+   private Resource[][] constantSequenceResources = new Resource[0][];
    private final List<Var> allVars = new ArrayList<>();
    private final List<Resource> allResources = new ArrayList<>();
    private final LimitedPool<SequenceInstance> sequencePool;
@@ -68,6 +76,9 @@ class SessionImpl implements Session {
       this.usedSequences = new BitSet(scenario.sumConcurrency());
       this.uniqueId = uniqueId;
       this.vars = scenario.createVars(this);
+      this.slotKeys = new ResourceKey[scenario.resourceSlots()];
+      this.slotResources = new Resource[scenario.resourceSlots()];
+      this.slotSequenceResources = new Resource[scenario.resourceSlots()][];
    }
 
    @Override
@@ -183,9 +194,11 @@ class SessionImpl implements Session {
             allResources.add(resource);
          }
          resources.put(key, array);
+         putSlot(key, null, array);
       } else {
          R resource = resourceSupplier.get();
          resources.put(key, resource);
+         putSlot(key, resource, null);
          allResources.add(resource);
       }
    }
@@ -196,12 +209,47 @@ class SessionImpl implements Session {
          return;
       }
       resources.put(key, resource);
+      putSlot(key, resource, null);
       allResources.add(resource);
    }
 
+   private void putSlot(ResourceKey<?> key, Resource resource, Resource[] sequenceResources) {
+      if (key instanceof ConstantResourceKey) {
+         int index = ((ConstantResourceKey<?>) key).constantIndex();
+         if (index >= constantResources.length) {
+            int length = Math.max(index + 1, 2 * constantResources.length);
+            constantResources = Arrays.copyOf(constantResources, length);
+            constantSequenceResources = Arrays.copyOf(constantSequenceResources, length);
+         }
+         constantResources[index] = resource;
+         constantSequenceResources[index] = sequenceResources;
+         return;
+      }
+      int index = key.index();
+      // Keys not reachable from the scenario have no index and are resolved through the map.
+      if (index >= 0 && index < slotKeys.length && slotKeys[index] == null) {
+         slotKeys[index] = key;
+         slotResources[index] = resource;
+         slotSequenceResources[index] = sequenceResources;
+      }
+   }
+
    @SuppressWarnings("unchecked")
    @Override
    public <R extends Resource> R getResource(ResourceKey<R> key) {
+      int index = key.index();
+      if (index >= 0 && index < slotKeys.length && slotKeys[index] == key) {
+         Resource[] sequenceResources = slotSequenceResources[index];
+         return (R) (sequenceResources == null ? slotResources[index] : sequenceResources[currentSequence.index()]);
+      } else if (key instanceof ConstantResourceKey) {
+         int constantIndex = ((ConstantResourceKey<R>) key).constantIndex();
+         if (constantIndex < constantResources.length) {
+            Resource[] sequenceResources = constantSequenceResources[constantIndex];
+            return (R) (sequenceResources == null ? constantResources[constantIndex]
+                  : sequenceResources[currentSequence.index()]);
+         }
+         return null;
+      }
       Object res = resources.get(key);
       if (res == null) {
          return null;
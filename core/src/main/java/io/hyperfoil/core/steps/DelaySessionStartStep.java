@@ -15,7 +15,7 @@ import io.netty.util.concurrent.ScheduledFuture;
 
 public class DelaySessionStartStep implements Step, ResourceUtilizer {
    private static final Logger log = LogManager.getLogger(DelaySessionStartStep.class);
-   public static final Session.ResourceKey<Holder> KEY = new Session.ResourceKey<>() {
+   public static final Session.ResourceKey<Holder> KEY = new Session.ConstantResourceKey<>() {
    };
 
    private final String[] sequences;
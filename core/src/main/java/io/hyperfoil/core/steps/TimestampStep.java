@@ -55,7 +55,7 @@ public class TimestampStep implements Step, ResourceUtilizer {
       }
    }
 
-   private static final class FormatterKey implements Session.ResourceKey<FormatterResource> {
+   private static final class FormatterKey extends Session.IndexedResourceKey<FormatterResource> {
    }
 
    private static class FormatterResource implements Session.Resource {
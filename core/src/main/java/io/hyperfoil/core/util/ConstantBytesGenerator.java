@@ -1,5 +1,8 @@
 package io.hyperfoil.core.util;
 
+import java.nio.ByteBuffer;
+
+import io.hyperfoil.api.config.Visitor;
 import io.hyperfoil.api.connection.Connection;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.function.SerializableBiFunction;
@@ -8,6 +11,10 @@ import io.netty.buffer.Unpooled;
 
 public class ConstantBytesGenerator implements SerializableBiFunction<Session, Connection, ByteBuf> {
    private final byte[] bytes;
+   // The content is copied off-heap once per agent; requests get a duplicate with independent indices
+   // and as the buffer is unreleasable and read-only the code writing it to socket cannot affect other requests.
+   @Visitor.Ignore
+   private transient volatile ByteBuf buffer;
 
    public ConstantBytesGenerator(byte[] bytes) {
       this.bytes = bytes;
@@ -15,9 +22,13 @@ public class ConstantBytesGenerator implements SerializableBiFunction<Session, C
 
    @Override
    public ByteBuf apply(Session session, Connection connection) {
-      // TODO: implement pooling of wrapping buffers.
-      // We cannot cache this buffer since despite the wrapped array is constant the code
-      // writing the buffer to socket would mutate the ByteBuf (move readerIndex/writerIndex, decrement refCnt...)
-      return Unpooled.wrappedBuffer(bytes);
+      ByteBuf buffer = this.buffer;
+      if (buffer == null) {
+         // Concurrent initialization is harmless, the buffers are equal
+         ByteBuffer nioBuffer = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+         buffer = Unpooled.unreleasableBuffer(Unpooled.wrappedBuffer(nioBuffer).asReadOnly());
+         this.buffer = buffer;
+      }
+      return buffer.duplicate();
    }
 }
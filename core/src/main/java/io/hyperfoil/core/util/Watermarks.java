@@ -12,9 +12,13 @@ public class Watermarks {
    protected volatile int maxUsed;
 
    public void incrementUsed() {
+      incrementUsed(1);
+   }
+
+   public void incrementUsed(int num) {
       assert used >= 0;
       //noinspection NonAtomicOperationOnVolatileField
-      used++;
+      used += num;
       if (used > maxUsed) {
          maxUsed = (int) (long) used;
       }
@@ -11,10 +11,14 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import io.hyperfoil.api.config.Locator;
 import io.hyperfoil.api.config.Step;
@@ -84,6 +88,102 @@ public class RandomCsvRowStepTest {
       }
    }
 
+   @Test
+   public void testMemoryMapped(@TempDir Path dir) throws IOException {
+      Path file = dir.resolve("testdata.csv");
+      Files.copy(Path.of("src/test/resources/data/testdata.csv"), file);
+      runMemoryMapped(file);
+   }
+
+   @Test
+   public void testMemoryMappedWithIndex(@TempDir Path dir) throws IOException {
+      Path file = dir.resolve("testdata.csv");
+      // CRLF line endings should be handled, too
+      String content = "one,\"two two\",\"three, three\",\"four\"\"four\"\r\n" +
+            "     five,six ,,eight\r\n" +
+            "nine,\"\",eleven,\"twelve\n ends here\"";
+      Files.writeString(file, content);
+      ByteBuffer index = ByteBuffer.allocate(3 * Long.BYTES);
+      index.putLong(0).putLong(content.indexOf("     five")).putLong(content.indexOf("nine"));
+      Files.write(dir.resolve("testdata.csv.idx"), index.array());
+      runMemoryMapped(file);
+   }
+
+   @Test
+   public void testMemoryMappedBlocks(@TempDir Path dir) throws IOException {
+      // records are indexed in blocks, make sure that records in the middle of a block are found
+      Path file = dir.resolve("blocks.csv");
+      StringBuilder content = new StringBuilder();
+      for (int i = 0; i < 100; ++i) {
+         if (i % 7 == 0) {
+            content.append("# comment\n");
+         }
+         content.append(i).append(",\"value\n").append(i).append("\"\n");
+      }
+      Files.writeString(file, content);
+      Locator.push(TestUtil.locator());
+      int[] rows = { 0, 15, 16, 17, 42, 99, 1 };
+      var next = new int[1];
+      RandomCsvRowStep.Builder builder = new RandomCsvRowStep.Builder()
+            .skipComments(true)
+            .memoryMapped(true)
+            .customSelector(limit -> {
+               assertThat(limit).isEqualTo(100);
+               return rows[next[0]++];
+            })
+            .file(file.toString());
+      builder.columns().accept("1", "value");
+      var access = SessionFactory.objectAccess("value");
+      var session = SessionFactory.forTesting(access);
+      var csvRowStep = (RandomCsvRowStep) builder.build().get(0);
+      Locator.pop();
+      TestUtil.resolveAccess(session, csvRowStep);
+      csvRowStep.mappedFile().initBlocking();
+      for (int row : rows) {
+         assertTrue(csvRowStep.invoke(session));
+         assertThat(access.getObject(session)).isEqualTo("value\n" + row);
+      }
+   }
+
+   private void runMemoryMapped(Path file) {
+      Locator.push(TestUtil.locator());
+      class MutableInt {
+         int i = 0;
+      }
+      var mutableInt = new MutableInt();
+      RandomCsvRowStep.Builder builder = new RandomCsvRowStep.Builder()
+            .skipComments(true)
+            .memoryMapped(true)
+            .customSelector(limit -> {
+               assertThat(limit).isEqualTo(DATA.length);
+               return mutableInt.i++;
+            })
+            .file(file.toString());
+      var cols = builder.columns();
+      // second column is not selected and the fifth column is missing
+      var vars = new String[] { "0", null, "2", "3", "4" };
+      for (int i = 0; i < vars.length; i++) {
+         if (vars[i] != null) {
+            cols.accept(String.valueOf(i), vars[i]);
+         }
+      }
+      var access = Arrays.stream(vars).map(SessionFactory::objectAccess).toArray(WriteAccess[]::new);
+      var session = SessionFactory.forTesting(access);
+      var csvRowStep = (RandomCsvRowStep) builder.build().get(0);
+      Locator.pop();
+      TestUtil.resolveAccess(session, csvRowStep);
+      csvRowStep.mappedFile().initBlocking();
+      for (String[] row : DATA) {
+         assertTrue(csvRowStep.invoke(session));
+         for (int i = 0; i < row.length; i++) {
+            if (access[i] != null) {
+               assertThat(access[i].getObject(session)).isEqualTo(row[i]);
+            }
+         }
+         assertThat(access[4].getObject(session)).isNull();
+      }
+   }
+
    @Test
    public void testAllColumns() {
       test(new String[] { "first", "second", "third", "fourth" });
@@ -0,0 +1,124 @@
+package io.hyperfoil.core.handlers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.handlers.json.JsonExtractor;
+import io.hyperfoil.core.handlers.json.JsonHandler;
+import io.hyperfoil.core.handlers.json.JsonUnquotingTransformer;
+import io.hyperfoil.core.session.SessionFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+public class JsonExtractorTest {
+   private static final String JSON = "{ \"total\": 3, \"items\" : [\n" +
+         "  { \"id\" : 418, \"product\" : \"Teapots\", \"tags\": [\"a\", \"b\"], \"units\" : 123 },\n" +
+         "  { \"id\" : 420, \"product\" : \"Various \\\"herbs\\\"\", \"tags\": [], \"units\" : 321  },\n" +
+         "  { \"id\" : 450, \"product\" : \"Magazines\", \"meta\": { \"id\": 1, \"x\": [[{}]] }, \"units\": 456 }\n" +
+         "], \"empty\": [], \"id\": null }";
+   private static final String[] QUERIES = { ".total", ".items[].id", ".items[1:2].product", ".items[0].tags[1]",
+         ".items[].meta", ".items[2].meta.id", ".empty[]", ".id", ".missing" };
+
+   @Test
+   public void testSameAsJsonHandler() {
+      List<List<String>> expected = new ArrayList<>();
+      for (String query : QUERIES) {
+         List<String> values = new ArrayList<>();
+         JsonHandler handler = new JsonHandler(query, false, null, new DefragProcessor(collector(values)));
+         run(handler, JSON.length(), JSON.length());
+         expected.add(values);
+      }
+      assertThat(expected.get(2)).containsExactly("\"Various \\\"herbs\\\"\"", "\"Magazines\"");
+
+      for (int chunk : new int[] { 1, 2, 3, 7, 64, JSON.length() }) {
+         for (int split = 1; split < JSON.length(); split += chunk == 1 ? 1 : 13) {
+            List<List<String>> actual = new ArrayList<>();
+            Processor[] processors = new Processor[QUERIES.length];
+            for (int i = 0; i < QUERIES.length; ++i) {
+               List<String> values = new ArrayList<>();
+               actual.add(values);
+               processors[i] = new DefragProcessor(collector(values));
+            }
+            run(new JsonExtractor(QUERIES, processors), split, chunk);
+            assertThat(actual).as("split %d, chunk %d", split, chunk).isEqualTo(expected);
+         }
+      }
+   }
+
+   @Test
+   public void testFragmentBoundaries() {
+      // scalar ending right at the end of buffer is not reported before we know it's complete
+      String json = "[418,420,450]";
+      for (int i = 1; i < json.length(); ++i) {
+         ExpectProcessor expect = new ExpectProcessor();
+         for (String id : new String[] { "418", "420", "450" }) {
+            int start = json.indexOf(id);
+            if (start < i && i < start + id.length()) {
+               expect.expect(-1, i - start, false);
+               expect.expect(-1, start + id.length() - i, true);
+            } else {
+               expect.expect(-1, 3, true);
+            }
+         }
+         run(new JsonExtractor(new String[] { ".[]" }, new Processor[] { expect }), i, json.length(), json);
+         expect.validate();
+      }
+   }
+
+   @Test
+   public void testUnquote() {
+      List<String> values = new ArrayList<>();
+      Processor processor = new JsonUnquotingTransformer(new DefragProcessor(collector(values)));
+      for (int i = 1; i < JSON.length(); ++i) {
+         run(new JsonExtractor(new String[] { ".items[].product" }, new Processor[] { processor }), i, JSON.length());
+         assertThat(values).containsExactly("Teapots", "Various \"herbs\"", "Magazines");
+         values.clear();
+      }
+   }
+
+   @Test
+   public void testIncomplete() {
+      JsonExtractor extractor = new JsonExtractor(new String[] { ".foo" },
+            new Processor[] { (session, data, offset, length, isLastPart) -> {
+            } });
+      assertThatThrownBy(() -> run(extractor, 100, 100, "{ \"foo\": [1, 2"))
+            .isInstanceOf(IllegalStateException.class);
+   }
+
+   private static void run(Processor processor, int split, int chunk) {
+      run(processor, split, chunk, JSON);
+   }
+
+   private static void run(Processor processor, int split, int chunk, String json) {
+      byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+      Session session = SessionFactory.forTesting();
+      ResourceUtilizer.reserveForTesting(session, processor);
+      processor.before(session);
+      int offset = 0;
+      while (offset < bytes.length) {
+         int length = Math.min(offset < split ? split - offset : chunk, bytes.length - offset);
+         // direct buffer with some prefix to make sure we don't use absolute indices
+         ByteBuf data = Unpooled.directBuffer(length + 3).writeBytes(new byte[3]).writeBytes(bytes, offset, length);
+         processor.process(session, data, 3, length, offset + length == bytes.length);
+         data.release();
+         offset += length;
+      }
+      processor.after(session);
+   }
+
+   private static Processor collector(List<String> values) {
+      return (session, data, offset, length, isLastPart) -> {
+         assertThat(isLastPart).isTrue();
+         values.add(data.toString(offset, length, StandardCharsets.UTF_8));
+      };
+   }
+}
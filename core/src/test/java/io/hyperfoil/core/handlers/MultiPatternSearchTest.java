@@ -0,0 +1,121 @@
+package io.hyperfoil.core.handlers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+public class MultiPatternSearchTest {
+   @Test
+   public void testKernels() {
+      // the vector-search-kernel execution runs with jdk.incubator.vector, the default one without it
+      if ("vector".equals(System.getProperty("io.hyperfoil.test.searchkernel"))) {
+         assertTrue(SearchKernel.INSTANCE instanceof VectorSearchKernel);
+      } else {
+         assertSame(SearchKernel.SCALAR, SearchKernel.INSTANCE);
+      }
+      Random random = new Random(42);
+      byte[] data = new byte[1000];
+      for (int i = 0; i < data.length; ++i) {
+         data[i] = (byte) ('a' + random.nextInt(4));
+      }
+      byte[] first = { 'a', 'b', 'x' };
+      byte[] last = { 'c', 'd', 'x' };
+      int[] lastOffset = { 3, 5, 0 };
+      data[997] = 'x';
+      for (int from = 0; from < data.length; ++from) {
+         int expected = SearchKernel.findBytes(data, from, data.length, first, last, lastOffset);
+         assertEquals(expected, SearchKernel.SCALAR.find(data, from, data.length, first, last, lastOffset));
+         assertEquals(expected, SearchKernel.INSTANCE.find(data, from, data.length, first, last, lastOffset));
+      }
+   }
+
+   @Test
+   public void testFragmented() {
+      MultiPatternSearch search = new MultiPatternSearch(bytes("foo"), bytes("barbar"));
+      // split to single bytes, including both direct and heap buffers
+      String text = "xfoobarbarbarfo";
+      List<String> matches = new ArrayList<>();
+      MultiPatternSearch.State state = search.newState();
+      for (int i = 0; i < text.length(); ++i) {
+         ByteBuf buf = i % 2 == 0 ? Unpooled.directBuffer() : Unpooled.buffer();
+         buf.writeBytes(bytes("__" + text.charAt(i) + "__"));
+         int position = i;
+         search.search(state, buf, 2, 1, (pattern, endIndex) -> matches.add(pattern + "@" + (position + endIndex - 2)));
+         buf.release();
+      }
+      assertEquals(List.of("0@4", "1@10"), matches);
+   }
+
+   @Test
+   public void testLongBody() {
+      StringBuilder sb = new StringBuilder();
+      List<String> expected = new ArrayList<>();
+      Random random = new Random(42);
+      while (sb.length() < 100_000) {
+         sb.append("x".repeat(random.nextInt(5000)));
+         String pattern = random.nextBoolean() ? "begin" : "end";
+         sb.append(pattern);
+         expected.add((pattern.equals("begin") ? 0 : 1) + "@" + sb.length());
+      }
+      byte[] data = bytes(sb.toString());
+      MultiPatternSearch search = new MultiPatternSearch(bytes("begin"), bytes("end"));
+      for (int chunk : new int[] { 1, 7, 1000, MultiPatternSearch.SLICE_SIZE + 3, data.length }) {
+         List<String> matches = new ArrayList<>();
+         MultiPatternSearch.State state = search.newState();
+         for (int offset = 0; offset < data.length; offset += chunk) {
+            search.search(state, data, offset, Math.min(chunk, data.length - offset), (pattern, endIndex) -> {
+               matches.add(pattern + "@" + endIndex);
+               return true;
+            });
+         }
+         assertEquals(expected, matches, "Chunk " + chunk);
+      }
+   }
+
+   @Test
+   public void testRejectedMatch() {
+      MultiPatternSearch search = new MultiPatternSearch(bytes("aa"));
+      List<Integer> matches = new ArrayList<>();
+      byte[] data = bytes("aaaa");
+      search.search(search.newState(), data, 0, data.length, (pattern, endIndex) -> {
+         matches.add(endIndex);
+         // accept only every other match
+         return matches.size() % 2 == 0;
+      });
+      assertEquals(List.of(2, 3), matches);
+   }
+
+   @Test
+   public void testNestedSearch() {
+      // the listener searches in the match on the same thread, as a search handler with nested processor would
+      MultiPatternSearch outer = new MultiPatternSearch(bytes("]"));
+      MultiPatternSearch inner = new MultiPatternSearch(bytes("y"));
+      MultiPatternSearch.State outerState = outer.newState();
+      MultiPatternSearch.State innerState = inner.newState();
+      List<String> matches = new ArrayList<>();
+      byte[] data = bytes("xy]xx]yy]");
+      byte[] nested = bytes("yxy".repeat(MultiPatternSearch.SLICE_SIZE));
+      outer.search(outerState, data, 0, data.length, (pattern, endIndex) -> {
+         matches.add("]@" + endIndex);
+         int[] count = new int[1];
+         inner.search(innerState, nested, 0, nested.length, (p, e) -> ++count[0] > 0);
+         matches.add("y*" + count[0]);
+         return true;
+      });
+      assertEquals(List.of("]@3", "y*4096", "]@6", "y*4096", "]@9", "y*4096"), matches);
+   }
+
+   private static byte[] bytes(String text) {
+      return text.getBytes(StandardCharsets.UTF_8);
+   }
+}
@@ -0,0 +1,69 @@
+package io.hyperfoil.core.impl.rate;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+public class RateGeneratorShardsTest {
+   private static final long DURATION_NS = 10_000_000_000L;
+
+   @Test
+   public void testConstantRateShardsInterleave() {
+      assertSameFireTimes(() -> RateGenerator.constantRate(1000), RateGenerator.constantRateShards(1000, 4));
+   }
+
+   @Test
+   public void testRampRateShardsInterleave() {
+      assertSameFireTimes(() -> RateGenerator.rampRate(10, 2000, DURATION_NS),
+            RateGenerator.rampRateShards(10, 2000, DURATION_NS, 3));
+   }
+
+   @Test
+   public void testPoissonShardsTotalRate() {
+      RateGenerator[] shards = RateGenerator.poissonConstantRateShards(1000, 4);
+      long total = 0;
+      for (RateGenerator shard : shards) {
+         FireTimesCounter counter = new FireTimesCounter();
+         shard.computeNextFireTime(DURATION_NS, counter);
+         assertEquals(counter.fireTimes, shard.fireTimes());
+         total += counter.fireTimes;
+      }
+      // 10 000 expected; the standard deviation is 100
+      assertEquals(10_000, total, 500);
+   }
+
+   private static void assertSameFireTimes(Supplier<RateGenerator> global, RateGenerator[] shards) {
+      long[] expected = fireTimes(global.get());
+      long[] merged = new long[0];
+      for (RateGenerator shard : shards) {
+         long[] shardFireTimes = fireTimes(shard);
+         merged = Arrays.copyOf(merged, merged.length + shardFireTimes.length);
+         System.arraycopy(shardFireTimes, 0, merged, merged.length - shardFireTimes.length, shardFireTimes.length);
+      }
+      Arrays.sort(merged);
+      assertArrayEquals(expected, merged);
+   }
+
+   // Drives the generator the same way as OpenModelPhase does and records the scheduled fire times
+   private static long[] fireTimes(RateGenerator generator) {
+      long[] fireTimes = new long[16];
+      int count = 0;
+      long elapsed = generator.lastComputedFireTimeNs();
+      while (elapsed < DURATION_NS) {
+         FireTimesCounter counter = new FireTimesCounter();
+         long next = generator.computeNextFireTime(elapsed, counter);
+         for (long i = 0; i < counter.fireTimes; ++i) {
+            if (count == fireTimes.length) {
+               fireTimes = Arrays.copyOf(fireTimes, count * 2);
+            }
+            fireTimes[count++] = elapsed;
+         }
+         elapsed = next;
+      }
+      return Arrays.copyOf(fireTimes, count);
+   }
+}
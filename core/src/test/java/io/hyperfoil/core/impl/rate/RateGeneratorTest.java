@@ -1,6 +1,7 @@
 package io.hyperfoil.core.impl.rate;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import org.apache.commons.math3.distribution.ExponentialDistribution;
@@ -61,4 +62,34 @@ public abstract class RateGeneratorTest {
       assertEquals(samples(), userGenerator.fireTimes());
       assertSamplesWithoutSkew(fireTimeSamples, userGenerator.fireTimes());
    }
+
+   @Test
+   public void testHorizonBatchesFireTimes() {
+      final var reference = newUserGenerator();
+      final var fireTimesCounter = new FireTimesCounter();
+      for (int i = 0; i < samples(); i++) {
+         reference.computeNextFireTime(reference.lastComputedFireTimeNs(), fireTimesCounter);
+      }
+      final long endNs = reference.lastComputedFireTimeNs();
+      final long horizonNs = endNs / 10;
+      final var batched = newUserGenerator();
+      fireTimesCounter.fireTimes = 0;
+      long wakeupNs = batched.lastComputedFireTimeNs();
+      long lastHorizonEndNs = 0;
+      int wakeups = 0;
+      while (wakeupNs < endNs) {
+         lastHorizonEndNs = wakeupNs + horizonNs;
+         wakeupNs = batched.computeNextFireTime(wakeupNs, horizonNs, fireTimesCounter);
+         assertEquals(wakeupNs, batched.lastComputedFireTimeNs());
+         wakeups++;
+      }
+      assertEquals(batched.fireTimes(), fireTimesCounter.fireTimes);
+      // every wakeup covers at least the horizon
+      assertTrue(wakeups <= 11, "Too many wakeups: " + wakeups);
+      // the batches contain exactly the fire times up to the end of the last horizon
+      final var single = newUserGenerator();
+      single.computeNextFireTime(lastHorizonEndNs, new FireTimesCounter());
+      assertEquals(single.fireTimes(), batched.fireTimes());
+      assertTrue(batched.fireTimes() >= samples());
+   }
 }
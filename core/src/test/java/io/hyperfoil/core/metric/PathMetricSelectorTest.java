@@ -0,0 +1,59 @@
+package io.hyperfoil.core.metric;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class PathMetricSelectorTest {
+   @Test
+   public void testLiteralPrefix() {
+      assertThat(PathMetricSelector.literalPrefix(".*\\.js")).isEmpty();
+      assertThat(PathMetricSelector.literalPrefix("/api/v1/.*")).isEqualTo("/api/v1/");
+      assertThat(PathMetricSelector.literalPrefix("/foo\\.js")).isEqualTo("/foo.js");
+      assertThat(PathMetricSelector.literalPrefix("/foo\\d+")).isEqualTo("/foo");
+      assertThat(PathMetricSelector.literalPrefix("/ab?c")).isEqualTo("/a");
+      assertThat(PathMetricSelector.literalPrefix("/ab+")).isEqualTo("/ab");
+      assertThat(PathMetricSelector.literalPrefix("/a|/b")).isEmpty();
+      assertThat(PathMetricSelector.literalPrefix("(?i)/foo")).isEmpty();
+   }
+
+   @Test
+   public void testSelect() {
+      PathMetricSelector selector = new PathMetricSelector();
+      selector.nextItem("/static/.*\\.js");
+      selector.nextItem("/api/([^?]*)(\\?.*)? -> api-$1");
+      selector.nextItem("localhost:8080/.* -> local");
+      selector.nextItem("-> others");
+
+      assertThat(selector.apply(null, "/static/app.js")).isEqualTo("/static/app.js");
+      assertThat(selector.apply(null, "/api/users?id=1")).isEqualTo("api-users");
+      assertThat(selector.apply(null, "/api/users?id=2")).isEqualTo("api-users");
+      assertThat(selector.apply(null, "/index.html")).isEqualTo("others");
+      assertThat(selector.apply("localhost:8080", "/index.html")).isEqualTo("local");
+      assertThat(selector.apply("example.com", "/index.html")).isEqualTo("others");
+
+      // cached results are the same instances
+      String metric = selector.apply(null, "/api/users?id=1");
+      assertThat(selector.apply(null, new String("/api/users?id=1"))).isSameAs(metric);
+      assertThat(selector.apply(null, "/api/users?id=2")).isSameAs(metric);
+      assertThat(selector.apply("localhost:8080", "/index.html")).isEqualTo("local");
+
+      for (int i = 0; i < 2 * PathMetricSelector.CACHE_SIZE; ++i) {
+         assertThat(selector.apply(null, "/api/items?id=" + i)).isEqualTo("api-items");
+      }
+      assertThat(selector.apply(null, "/static/app.js")).isEqualTo("/static/app.js");
+   }
+
+   @Test
+   public void testSelectorsDoNotShareCache() {
+      PathMetricSelector first = new PathMetricSelector();
+      first.nextItem("-> first");
+      PathMetricSelector second = new PathMetricSelector();
+      second.nextItem("-> second");
+
+      for (int i = 0; i < 2; ++i) {
+         assertThat(first.apply(null, "/index.html")).isEqualTo("first");
+         assertThat(second.apply(null, "/index.html")).isEqualTo("second");
+      }
+   }
+}
@@ -0,0 +1,91 @@
+package io.hyperfoil.core.session;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.config.Sequence;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.SequenceInstance;
+import io.hyperfoil.api.session.Session;
+
+public class ResourceSlotsTest {
+   private static final Session.ResourceKey<Counter> CONSTANT_KEY = new Session.ConstantResourceKey<>();
+
+   @Test
+   public void testKeysSharedByScenarios() {
+      CounterStep first = new CounterStep(), second = new CounterStep();
+      Scenario a = scenario(0, first, second);
+      assertEquals(2, a.resourceSlots());
+      assertEquals(0, first.key.index());
+      assertEquals(1, second.key.index());
+      Session sessionA = session(a);
+
+      // the same key gets another index in this scenario
+      Scenario b = scenario(0, second);
+      assertEquals(0, second.key.index());
+      Session sessionB = session(b);
+
+      sessionA.getResource(first.key).value = 1;
+      sessionA.getResource(second.key).value = 2;
+      sessionA.getResource(CONSTANT_KEY).value = 3;
+      sessionB.getResource(second.key).value = 4;
+      sessionB.getResource(CONSTANT_KEY).value = 5;
+      assertEquals(1, sessionA.getResource(first.key).value);
+      assertEquals(2, sessionA.getResource(second.key).value);
+      assertEquals(3, sessionA.getResource(CONSTANT_KEY).value);
+      assertEquals(4, sessionB.getResource(second.key).value);
+      assertEquals(5, sessionB.getResource(CONSTANT_KEY).value);
+      // sessions must not write to the shared key
+      assertEquals(-1, CONSTANT_KEY.index());
+   }
+
+   @Test
+   public void testConcurrentSequence() {
+      CounterStep step = new CounterStep();
+      Scenario scenario = scenario(2, step);
+      Session session = session(scenario);
+      Sequence sequence = scenario.sequences()[0];
+      session.currentSequence(new SequenceInstance().reset(sequence, 0, null, null));
+      Counter counter0 = session.getResource(step.key);
+      session.currentSequence(new SequenceInstance().reset(sequence, 1, null, null));
+      Counter counter1 = session.getResource(step.key);
+      assertNotSame(counter0, counter1);
+      session.currentSequence(new SequenceInstance().reset(sequence, 0, null, null));
+      assertSame(counter0, session.getResource(step.key));
+   }
+
+   private static Scenario scenario(int concurrency, Step... steps) {
+      Sequence sequence = new Sequence("test", 0, concurrency, 0, steps);
+      return new Scenario(new Sequence[] { sequence }, new Sequence[] { sequence }, 16, 16);
+   }
+
+   private static Session session(Scenario scenario) {
+      Session session = SessionFactory.create(scenario, 0, 0);
+      session.reserve(scenario);
+      return session;
+   }
+
+   private static class Counter implements Session.Resource {
+      int value;
+   }
+
+   private static class CounterStep implements Step, ResourceUtilizer {
+      final Session.ResourceKey<Counter> key = new Session.IndexedResourceKey<>();
+
+      @Override
+      public boolean invoke(Session session) {
+         return true;
+      }
+
+      @Override
+      public void reserve(Session session) {
+         session.declareResource(key, Counter::new);
+         session.declareResource(CONSTANT_KEY, Counter::new, true);
+      }
+   }
+}
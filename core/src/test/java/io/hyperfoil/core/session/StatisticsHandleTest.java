@@ -0,0 +1,93 @@
+package io.hyperfoil.core.session;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.config.Sequence;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.session.PhaseInstance;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.statistics.SessionStatistics;
+import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.statistics.StatisticsHandle;
+import io.hyperfoil.core.impl.PhaseInstanceImpl;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+
+public class StatisticsHandleTest {
+   @Test
+   public void testHandle() {
+      RequestStep step = new RequestStep();
+      Sequence sequence = new Sequence("test", 0, 1, 0, new Step[] { step });
+      Scenario scenario = new Scenario(new Sequence[] { sequence }, new Sequence[] { sequence }, 16, 16);
+      SessionStatistics sessionStatistics = new SessionStatistics();
+      SessionImpl session = (SessionImpl) SessionFactory.create(scenario, 0, 0);
+      session.attach(ImmediateEventExecutor.INSTANCE, null, null, null, sessionStatistics);
+      session.reserve(scenario);
+      session.resetPhase(phase(scenario, "first"));
+
+      StatisticsHandle handle = session.getResource(step.key);
+      String foo = "foo";
+      Statistics fooStats = handle.get(session, foo);
+      assertSame(fooStats, handle.get(session, foo));
+      // a different instance of the name is resolved through the session
+      assertSame(fooStats, handle.get(session, new String(foo)));
+      assertSame(fooStats, session.statistics(7, "foo"));
+      for (int i = 0; i < 20; ++i) {
+         assertSame(session.statistics(7, "bar" + i), handle.get(session, "bar" + i));
+      }
+      assertSame(fooStats, handle.get(session, foo));
+      assertEquals(1, sessionStatistics.size());
+
+      // statistics are created for the next phase
+      session.resetPhase(phase(scenario, "second"));
+      Statistics nextStats = handle.get(session, foo);
+      assertNotSame(fooStats, nextStats);
+      assertSame(nextStats, session.statistics(7, "foo"));
+      assertEquals(2, sessionStatistics.size());
+   }
+
+   private static PhaseInstance phase(Scenario scenario, String name) {
+      Phase phase = new Phase(Benchmark::forTesting, 0, 0, name, scenario, 0,
+            Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), 0, -1, "shared", false, () -> name,
+            Collections.emptyMap(), null);
+      return new PhaseInstanceImpl(phase, name, 0) {
+         @Override
+         public void proceed(EventExecutorGroup executorGroup) {
+         }
+
+         @Override
+         public void reserveSessions() {
+         }
+
+         @Override
+         public Status status() {
+            // allows switching the session to another phase
+            return Status.TERMINATED;
+         }
+      };
+   }
+
+   private static class RequestStep implements Step, ResourceUtilizer {
+      final StatisticsHandle.Key key = new StatisticsHandle.Key();
+
+      @Override
+      public boolean invoke(Session session) {
+         return true;
+      }
+
+      @Override
+      public void reserve(Session session) {
+         session.declareSingletonResource(key, new StatisticsHandle(7));
+      }
+   }
+}
@@ -85,8 +85,36 @@ public class StatisticsAggregationTest {
       runExperiment(requestData);
    }
 
+   @Test
+   public void testSingleWriterHandOver() {
+      Statistics stats = new Statistics(baseTime, true);
+      stats.incrementRequests(baseTime + 100);
+      stats.recordResponse(baseTime + 100, 100_000);
+      Map<Integer, Integer> responses = new HashMap<>();
+      // nothing is published until the writer hands the snapshots over
+      stats.visitSnapshots(snapshot -> responses.merge(snapshot.sequenceId, snapshot.responseCount, Integer::sum));
+      assertEquals(0, responses.size());
+      stats.handOver();
+      stats.visitSnapshots(snapshot -> responses.merge(snapshot.sequenceId, snapshot.responseCount, Integer::sum));
+      assertEquals(Map.of(0, 1), responses);
+      // late response for the same second and a new one
+      stats.recordResponse(baseTime + 200, 100_000);
+      stats.recordResponse(baseTime + 1200, 100_000);
+      stats.end(baseTime + 1500);
+      stats.visitSnapshots(snapshot -> {
+         assertEquals(baseTime + snapshot.sequenceId * millis, snapshot.histogram.getStartTimeStamp());
+         responses.merge(snapshot.sequenceId, snapshot.responseCount, Integer::sum);
+      });
+      assertEquals(Map.of(0, 2, 1, 1), responses);
+   }
+
    private void runExperiment(Map<Long, Integer> requestData) {
-      Statistics stats = new Statistics(baseTime);
+      runExperiment(requestData, false);
+      runExperiment(requestData, true);
+   }
+
+   private void runExperiment(Map<Long, Integer> requestData, boolean singleWriter) {
+      Statistics stats = new Statistics(baseTime, singleWriter);
       long end = 0;
       int totalRecorded = 0;
       for (Map.Entry<Long, Integer> entry : requestData.entrySet()) {
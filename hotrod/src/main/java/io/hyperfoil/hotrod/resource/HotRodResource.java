@@ -28,7 +28,7 @@ public class HotRodResource implements Session.Resource {
       return startTimestampNanos;
    }
 
-   public static class Key implements Session.ResourceKey<HotRodResource> {
+   public static class Key extends Session.IndexedResourceKey<HotRodResource> {
 
    }
 }
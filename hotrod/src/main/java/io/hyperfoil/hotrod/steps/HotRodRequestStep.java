@@ -9,6 +9,7 @@ import io.hyperfoil.api.config.SLA;
 import io.hyperfoil.api.session.ResourceUtilizer;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.statistics.StatisticsHandle;
 import io.hyperfoil.core.metric.MetricSelector;
 import io.hyperfoil.core.steps.StatisticsStep;
 import io.hyperfoil.function.SerializableFunction;
@@ -20,6 +21,7 @@ import io.hyperfoil.hotrod.resource.HotRodResource;
 public class HotRodRequestStep extends StatisticsStep implements ResourceUtilizer, SLA.Provider {
 
    final HotRodResource.Key futureWrapperKey;
+   final StatisticsHandle.Key statisticsKey = new StatisticsHandle.Key();
    final SerializableFunction<Session, HotRodOperation> operation;
    final SerializableFunction<Session, String> cacheName;
    final MetricSelector metricSelector;
@@ -59,7 +61,7 @@ public class HotRodRequestStep extends StatisticsStep implements ResourceUtilize
       HotRodRemoteCachePool pool = HotRodRemoteCachePool.get(session);
       HotRodRemoteCachePoolImpl.RemoteCacheWithoutToString remoteCache = pool.getRemoteCache(cacheName);
       String metric = metricSelector.apply(null, cacheName);
-      Statistics statistics = session.statistics(id(), metric);
+      Statistics statistics = session.getResource(statisticsKey).get(session, metric);
 
       long startTimestampMs = System.currentTimeMillis();
       long startTimestampNanos = System.nanoTime();
@@ -73,11 +75,11 @@ public class HotRodRequestStep extends StatisticsStep implements ResourceUtilize
       }
       statistics.incrementRequests(startTimestampMs);
       future.exceptionally(t -> {
-         trackResponseError(session, metric, t);
+         trackResponseError(session, statistics, t);
          return null;
       });
       future.thenRun(() -> {
-         trackResponseSuccess(session, metric);
+         trackResponseSuccess(session, statistics);
          assert session.executor().inEventLoop();
          session.proceed();
       });
@@ -89,10 +91,10 @@ public class HotRodRequestStep extends StatisticsStep implements ResourceUtilize
    @Override
    public void reserve(Session session) {
       session.declareResource(futureWrapperKey, HotRodResource::new);
+      session.declareSingletonResource(statisticsKey, new StatisticsHandle(id()));
    }
 
-   private void trackResponseError(Session session, String metric, Object ex) {
-      Statistics statistics = session.statistics(id(), metric);
+   private void trackResponseError(Session session, Statistics statistics, Object ex) {
       if (ex instanceof TimeoutException || ex instanceof HotRodTimeoutException) {
          statistics.incrementTimeouts(System.currentTimeMillis());
       } else {
@@ -101,13 +103,12 @@ public class HotRodRequestStep extends StatisticsStep implements ResourceUtilize
       session.stop();
    }
 
-   private void trackResponseSuccess(Session session, String metric) {
+   private void trackResponseSuccess(Session session, Statistics statistics) {
       HotRodResource resource = session.getResource(futureWrapperKey);
       long startTimestampMillis = resource.getStartTimestampMillis();
       long startTimestampNanos = resource.getStartTimestampNanos();
       long endTimestampNanos = System.nanoTime();
 
-      Statistics statistics = session.statistics(id(), metric);
       statistics.recordResponse(startTimestampMillis, endTimestampNanos - startTimestampNanos);
    }
 }
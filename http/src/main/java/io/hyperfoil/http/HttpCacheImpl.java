@@ -2,11 +2,8 @@ package io.hyperfoil.http;
 
 import java.time.Clock;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.function.Function;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -41,15 +38,43 @@ public class HttpCacheImpl implements HttpCache {
    private static final int ONLY_IF_CACHED = 5;
    private static final int MUST_REVALIDATE = 3;
 
+   // Rough estimates of the heap used by cached entries, excluding the characters
+   private static final int ENTRY_OVERHEAD = 160;
+   private static final int RECORD_OVERHEAD = 64;
+   private static final int INITIAL_CAPACITY = 16;
+   // Number of least recently used entries checked for being expired before evicting the eldest one
+   private static final int EVICTION_WINDOW = 8;
+
    private final Clock clock;
-   // TODO: optimize this structure
-   private final Map<CharSequence, Map<CharSequence, List<Record>>> records = new HashMap<>();
+   private final int maxEntries;
+   private final long maxFootprint;
+   private final HttpCacheStats stats;
+   // Hash table of entries keyed by authority and path, collisions are chained through Entry.nextInBucket
+   private Entry[] table = new Entry[INITIAL_CAPACITY];
+   private int entries;
+   // Doubly-linked list of entries, most recently used at head
+   private Entry head;
+   private Entry tail;
+   private int size;
+   private long footprint;
    private final List<Record> freeRecords = new ArrayList<>();
-   private final List<List<Record>> freeLists = new ArrayList<>();
-   private final Function<CharSequence, List<Record>> newList = this::newList;
+   private final List<Entry> freeEntries = new ArrayList<>();
 
    public HttpCacheImpl(Clock clock) {
+      this(clock, Integer.MAX_VALUE, Long.MAX_VALUE, null);
+   }
+
+   /**
+    * @param clock Clock used to check expiration.
+    * @param maxEntries Maximum number of cached resources (authority + path).
+    * @param maxFootprint Estimated number of bytes the cache can occupy.
+    * @param stats Executor-wide stats; can be <code>null</code>.
+    */
+   public HttpCacheImpl(Clock clock, int maxEntries, long maxFootprint, HttpCacheStats stats) {
       this.clock = clock;
+      this.maxEntries = maxEntries;
+      this.maxFootprint = maxFootprint;
+      this.stats = stats;
    }
 
    @Override
@@ -67,14 +92,12 @@ public class HttpCacheImpl implements HttpCache {
             // we never cache other queries
             return;
       }
-      Map<CharSequence, List<Record>> authorityRecords = records.get(request.authority);
-      if (authorityRecords == null) {
-         return;
-      }
-      List<Record> pathRecords = authorityRecords.get(request.path);
-      if (pathRecords == null || pathRecords.isEmpty()) {
+      Entry entry = find(request.authority, request.path);
+      if (entry == null) {
          return;
       }
+      moveToHead(entry);
+      List<Record> pathRecords = entry.records;
       for (int i = 0; i < pathRecords.size(); ++i) {
          request.cacheControl.matchingCached.add(pathRecords.get(i));
       }
@@ -256,16 +279,20 @@ public class HttpCacheImpl implements HttpCache {
 
    @Override
    public boolean isCached(HttpRequest request, HttpRequestWriter writer) {
-      if (!request.cacheControl.ignoreExpires) {
-         long now = clock.millis();
-         for (Iterator<HttpCache.Record> iterator = request.cacheControl.matchingCached.iterator(); iterator.hasNext();) {
-            Record record = (Record) iterator.next();
-            if (record.expires != Long.MIN_VALUE && now > record.expires) {
-               iterator.remove();
-            }
+      List<HttpCache.Record> matchingCached = request.cacheControl.matchingCached;
+      boolean checkExpires = !request.cacheControl.ignoreExpires;
+      long now = checkExpires ? clock.millis() : 0;
+      Record mostRecent = null;
+      // Filter expired records and find the most recent one in single pass
+      for (int i = matchingCached.size() - 1; i >= 0; --i) {
+         Record record = (Record) matchingCached.get(i);
+         if (checkExpires && record.expires != Long.MIN_VALUE && now > record.expires) {
+            matchingCached.remove(i);
+         } else if (mostRecent == null || record.date < mostRecent.date) {
+            mostRecent = record;
          }
       }
-      if (request.cacheControl.matchingCached.isEmpty()) {
+      if (mostRecent == null) {
          if (request.cacheControl.onlyIfCached) {
             request.enter();
             try {
@@ -279,7 +306,6 @@ public class HttpCacheImpl implements HttpCache {
             return request.cacheControl.wasCached = false;
          }
       } else {
-         Record mostRecent = findMostRecent(request);
          if (request.cacheControl.noCache || mostRecent.noCache) {
             addValidationHeaders(mostRecent, writer);
             return request.cacheControl.wasCached = false;
@@ -288,17 +314,6 @@ public class HttpCacheImpl implements HttpCache {
       }
    }
 
-   private Record findMostRecent(HttpRequest request) {
-      Record mostRecent = null;
-      for (HttpCache.Record r : request.cacheControl.matchingCached) {
-         Record record = (Record) r;
-         if (mostRecent == null || record.date < mostRecent.date) {
-            mostRecent = record;
-         }
-      }
-      return mostRecent;
-   }
-
    private void addValidationHeaders(Record record, HttpRequestWriter writer) {
       if (record.etag != null) {
          writer.putHeader(HttpHeaderNames.IF_NONE_MATCH, record.etag);
@@ -322,8 +337,17 @@ public class HttpCacheImpl implements HttpCache {
       if (cc.responseExpires != Long.MIN_VALUE && cc.responseExpires < cc.responseDate) {
          return;
       }
-      Map<CharSequence, List<Record>> authorityRecords = records.computeIfAbsent(request.authority, a -> new HashMap<>());
-      List<Record> pathRecords = authorityRecords.computeIfAbsent(request.path, newList);
+      Entry entry = findOrCreate(request.authority, request.path);
+      store(entry.records, cc);
+      if (entry.records.isEmpty()) {
+         remove(entry);
+      } else {
+         account(entry);
+         evict();
+      }
+   }
+
+   private void store(List<Record> pathRecords, CacheControl cc) {
       if (cc.responseEtag != null) {
          boolean weak = false;
          if (AsciiString.regionMatches(cc.responseEtag, false, 0, "W/", 0, 2)) {
@@ -331,7 +355,7 @@ public class HttpCacheImpl implements HttpCache {
          }
          // Update existing record (with matching etag) or add new
          for (Record record : pathRecords) {
-            if (record.etag.length() == cc.responseEtag.length() - (weak ? 4 : 2) &&
+            if (record.etag != null && record.etag.length() == cc.responseEtag.length() - (weak ? 4 : 2) &&
                   AsciiString.regionMatches(record.etag, false, 0, cc.responseEtag, weak ? 1 : 3, record.etag.length())) {
                record.update(cc);
                return;
@@ -345,14 +369,22 @@ public class HttpCacheImpl implements HttpCache {
             }
          }
          Record record = pathRecords.isEmpty() ? newRecord().set(cc) : pathRecords.get(0).update(cc);
+         for (int i = 1; i < pathRecords.size(); ++i) {
+            free(pathRecords.get(i));
+         }
          pathRecords.clear();
          pathRecords.add(record);
       } else {
          Record record = null;
-         for (Iterator<Record> iterator = pathRecords.iterator(); iterator.hasNext();) {
-            record = iterator.next();
-            if (record.lastModified == Long.MIN_VALUE && record.etag == null) {
-               iterator.remove();
+         for (int i = pathRecords.size() - 1; i >= 0; --i) {
+            Record r = pathRecords.get(i);
+            if (r.lastModified == Long.MIN_VALUE && r.etag == null) {
+               pathRecords.remove(i);
+               if (record == null) {
+                  record = r;
+               } else {
+                  free(r);
+               }
             }
          }
          pathRecords.add(record == null ? newRecord().set(cc) : record.update(cc));
@@ -363,8 +395,172 @@ public class HttpCacheImpl implements HttpCache {
       return freeRecords.isEmpty() ? new Record() : freeRecords.remove(freeRecords.size() - 1);
    }
 
-   private List<Record> newList(CharSequence key) {
-      return freeLists.isEmpty() ? new ArrayList<>() : freeLists.remove(freeLists.size() - 1);
+   private void free(Record record) {
+      record.reset();
+      freeRecords.add(record);
+   }
+
+   private static int hash(CharSequence seq) {
+      if (seq == null) {
+         return 0;
+      } else if (seq instanceof String) {
+         // String caches the hash code
+         return seq.hashCode();
+      }
+      // same as String.hashCode()
+      int hash = 0;
+      for (int i = 0; i < seq.length(); ++i) {
+         hash = 31 * hash + seq.charAt(i);
+      }
+      return hash;
+   }
+
+   private static int hash(CharSequence authority, CharSequence path) {
+      int hash = 31 * hash(authority) + hash(path);
+      return hash ^ (hash >>> 16);
+   }
+
+   private Entry find(CharSequence authority, CharSequence path) {
+      int hash = hash(authority, path);
+      for (Entry entry = table[hash & (table.length - 1)]; entry != null; entry = entry.nextInBucket) {
+         if (entry.hash == hash && AsciiString.contentEquals(entry.path, path)
+               && AsciiString.contentEquals(entry.authority, authority)) {
+            return entry;
+         }
+      }
+      return null;
+   }
+
+   private Entry findOrCreate(String authority, String path) {
+      Entry entry = find(authority, path);
+      if (entry != null) {
+         moveToHead(entry);
+         return entry;
+      }
+      entry = freeEntries.isEmpty() ? new Entry() : freeEntries.remove(freeEntries.size() - 1);
+      entry.authority = authority;
+      entry.path = path;
+      entry.hash = hash(authority, path);
+      if (++entries > table.length - (table.length >> 2)) {
+         resize();
+      }
+      int bucket = entry.hash & (table.length - 1);
+      entry.nextInBucket = table[bucket];
+      table[bucket] = entry;
+      linkHead(entry);
+      return entry;
+   }
+
+   private void resize() {
+      Entry[] newTable = new Entry[table.length * 2];
+      for (Entry entry : table) {
+         while (entry != null) {
+            Entry next = entry.nextInBucket;
+            int bucket = entry.hash & (newTable.length - 1);
+            entry.nextInBucket = newTable[bucket];
+            newTable[bucket] = entry;
+            entry = next;
+         }
+      }
+      table = newTable;
+   }
+
+   private void remove(Entry entry) {
+      int bucket = entry.hash & (table.length - 1);
+      if (table[bucket] == entry) {
+         table[bucket] = entry.nextInBucket;
+      } else {
+         Entry prev = table[bucket];
+         while (prev.nextInBucket != entry) {
+            prev = prev.nextInBucket;
+         }
+         prev.nextInBucket = entry.nextInBucket;
+      }
+      --entries;
+      unlink(entry);
+      for (int i = 0; i < entry.records.size(); ++i) {
+         free(entry.records.get(i));
+      }
+      entry.records.clear();
+      account(entry);
+      entry.reset();
+      freeEntries.add(entry);
+   }
+
+   private void linkHead(Entry entry) {
+      entry.prev = null;
+      entry.next = head;
+      if (head != null) {
+         head.prev = entry;
+      } else {
+         tail = entry;
+      }
+      head = entry;
+   }
+
+   private void unlink(Entry entry) {
+      if (entry.prev != null) {
+         entry.prev.next = entry.next;
+      } else {
+         head = entry.next;
+      }
+      if (entry.next != null) {
+         entry.next.prev = entry.prev;
+      } else {
+         tail = entry.prev;
+      }
+      entry.prev = null;
+      entry.next = null;
+   }
+
+   private void moveToHead(Entry entry) {
+      if (head != entry) {
+         unlink(entry);
+         linkHead(entry);
+      }
+   }
+
+   // Updates the total size and footprint after the records in the entry have changed
+   private void account(Entry entry) {
+      int records = entry.records.size();
+      long entryFootprint = 0;
+      if (records > 0) {
+         entryFootprint = ENTRY_OVERHEAD + length(entry.authority) + length(entry.path);
+         for (int i = 0; i < records; ++i) {
+            entryFootprint += RECORD_OVERHEAD + length(entry.records.get(i).etag);
+         }
+      }
+      int recordsDelta = records - entry.accountedRecords;
+      long footprintDelta = entryFootprint - entry.footprint;
+      entry.accountedRecords = records;
+      entry.footprint = entryFootprint;
+      size += recordsDelta;
+      footprint += footprintDelta;
+      if (stats != null) {
+         stats.update(recordsDelta, footprintDelta);
+      }
+   }
+
+   private static int length(CharSequence seq) {
+      return seq == null ? 0 : seq.length();
+   }
+
+   private void evict() {
+      while ((entries > maxEntries || footprint > maxFootprint) && tail != null) {
+         remove(selectVictim());
+      }
+   }
+
+   // Prefer entries that have expired (these could be used only for validation), otherwise evict the eldest one
+   private Entry selectVictim() {
+      long now = clock.millis();
+      Entry entry = tail;
+      for (int i = 0; i < EVICTION_WINDOW && entry != null; ++i, entry = entry.prev) {
+         if (entry.isExpired(now)) {
+            return entry;
+         }
+      }
+      return tail;
    }
 
    @Override
@@ -380,19 +576,20 @@ public class HttpCacheImpl implements HttpCache {
          }
          path = path.subSequence(HttpUtil.indexOf(path, HttpUtil.HTTPS_PREFIX.length(), '/'), path.length());
       }
-      Map<CharSequence, List<Record>> authorityRecords = records.get(authority);
-      if (authorityRecords == null) {
-         return;
-      }
-      List<Record> pathRecords = authorityRecords.get(path);
-      if (pathRecords != null) {
-         pathRecords.clear();
+      Entry entry = find(authority, path);
+      if (entry != null) {
+         remove(entry);
       }
    }
 
    @Override
    public int size() {
-      return records.values().stream().flatMap(map -> map.values().stream()).mapToInt(List::size).sum();
+      return size;
+   }
+
+   @Override
+   public long footprint() {
+      return footprint;
    }
 
    private static int parseIntSaturated(CharSequence value, int begin, int end) {
@@ -465,18 +662,42 @@ public class HttpCacheImpl implements HttpCache {
 
    @Override
    public void clear() {
-      for (Map<CharSequence, List<Record>> authorityRecords : records.values()) {
-         // We must clean up authority records because paths can be request-specific; we can assume
-         // that authority can be cached for extended periods of time
-         for (List<Record> pathRecords : authorityRecords.values()) {
-            for (Record record : pathRecords) {
-               record.reset();
-               freeRecords.add(record);
+      while (head != null) {
+         remove(head);
+      }
+   }
+
+   @Override
+   public void destroy() {
+      // make sure the executor-wide stats don't include this session
+      clear();
+   }
+
+   private static class Entry {
+      int hash;
+      String authority;
+      String path;
+      final List<Record> records = new ArrayList<>(2);
+      Entry nextInBucket;
+      Entry prev;
+      Entry next;
+      int accountedRecords;
+      long footprint;
+
+      boolean isExpired(long now) {
+         for (int i = 0; i < records.size(); ++i) {
+            long expires = records.get(i).expires;
+            if (expires == Long.MIN_VALUE || now <= expires) {
+               return false;
             }
-            pathRecords.clear();
-            freeLists.add(pathRecords);
          }
-         authorityRecords.clear();
+         return true;
+      }
+
+      void reset() {
+         authority = null;
+         path = null;
+         nextInBucket = null;
       }
    }
 
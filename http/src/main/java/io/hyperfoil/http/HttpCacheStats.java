@@ -0,0 +1,54 @@
+package io.hyperfoil.http;
+
+import io.hyperfoil.core.impl.ConnectionStatsConsumer;
+import io.hyperfoil.core.util.Watermarks;
+
+/**
+ * Aggregated footprint of HTTP caches of all sessions running on one executor.
+ */
+public class HttpCacheStats {
+   private static final String AUTHORITY = "http cache";
+
+   private final Watermarks records = new Watermarks();
+   // Sum of footprints of all sessions can exceed 2 GiB so this can't use int-based Watermarks.
+   // The fields are volatile as these can be read by any thread, but written only by the executor thread.
+   private volatile long bytes;
+   private volatile long minBytes;
+   private volatile long maxBytes;
+
+   void update(int recordsDelta, long bytesDelta) {
+      if (recordsDelta > 0) {
+         records.incrementUsed(recordsDelta);
+      } else if (recordsDelta < 0) {
+         records.decrementUsed(-recordsDelta);
+      }
+      //noinspection NonAtomicOperationOnVolatileField
+      bytes += bytesDelta;
+      assert bytes >= 0;
+      if (bytes > maxBytes) {
+         maxBytes = bytes;
+      } else if (bytes < minBytes) {
+         minBytes = bytes;
+      }
+   }
+
+   public int records() {
+      return records.current();
+   }
+
+   public long bytes() {
+      return bytes;
+   }
+
+   public void visitConnectionStats(ConnectionStatsConsumer consumer) {
+      consumer.accept(AUTHORITY, "cached records", records.minUsed(), records.maxUsed());
+      records.resetStats();
+      consumer.accept(AUTHORITY, "cache footprint (kB)", toKiB(minBytes), toKiB(maxBytes));
+      minBytes = bytes;
+      maxBytes = bytes;
+   }
+
+   private static int toKiB(long bytes) {
+      return (int) Math.min(bytes >> 10, Integer.MAX_VALUE);
+   }
+}
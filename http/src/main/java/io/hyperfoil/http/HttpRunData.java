@@ -39,11 +39,23 @@ public class HttpRunData implements PluginRunData {
    private final Map<String, HttpClientPool> clientPools = new HashMap<>();
    private final boolean hasSessionPools;
    private final boolean hasHttpCacheEnabled;
+   private final int httpCacheMaxEntries;
+   private final int httpCacheMaxSize;
+   private final HttpCacheStats[] httpCacheStats;
 
    public HttpRunData(Benchmark benchmark, EventLoop[] executors, int agentId) {
       plugin = benchmark.plugin(HttpPluginConfig.class);
       // either all http configs disable the cache or keep it enabled
       hasHttpCacheEnabled = plugin.http().values().stream().anyMatch(Http::enableHttpCache);
+      // the cache is shared by all authorities so we use the most generous limits
+      httpCacheMaxEntries = plugin.http().values().stream().filter(Http::enableHttpCache)
+            .mapToInt(Http::httpCacheMaxEntries).max().orElse(0);
+      httpCacheMaxSize = plugin.http().values().stream().filter(Http::enableHttpCache)
+            .mapToInt(Http::httpCacheMaxSize).max().orElse(0);
+      httpCacheStats = new HttpCacheStats[executors.length];
+      for (int executorId = 0; executorId < executors.length; ++executorId) {
+         httpCacheStats[executorId] = new HttpCacheStats();
+      }
       hasSessionPools = plugin.http().values().stream()
             .anyMatch(http -> http.connectionStrategy() != ConnectionStrategy.SHARED_POOL);
       @SuppressWarnings("unchecked")
@@ -113,7 +125,8 @@ public class HttpRunData implements PluginRunData {
       }
       session.declareSingletonResource(HttpDestinationTable.KEY, destinations);
       if (hasHttpCacheEnabled) {
-         session.declareSingletonResource(HttpCache.KEY, new HttpCacheImpl(clock));
+         session.declareSingletonResource(HttpCache.KEY,
+               new HttpCacheImpl(clock, httpCacheMaxEntries, httpCacheMaxSize, httpCacheStats[executorId]));
       }
       session.declareSingletonResource(HttpRequestPool.KEY, new HttpRequestPool(scenario, session, hasHttpCacheEnabled));
    }
@@ -168,6 +181,11 @@ public class HttpRunData implements PluginRunData {
             entry.getValue().visitConnectionStats(consumer);
          }
       }
+      if (hasHttpCacheEnabled) {
+         for (HttpCacheStats stats : httpCacheStats) {
+            stats.visitConnectionStats(consumer);
+         }
+      }
    }
 
    @Override
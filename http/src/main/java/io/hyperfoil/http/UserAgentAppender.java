@@ -10,9 +10,9 @@ import io.hyperfoil.http.api.HttpRequestWriter;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.util.AsciiString;
 
-public class UserAgentAppender implements SerializableBiConsumer<Session, HttpRequestWriter>, ResourceUtilizer,
-      Session.ResourceKey<UserAgentAppender.SessionId> {
+public class UserAgentAppender implements SerializableBiConsumer<Session, HttpRequestWriter>, ResourceUtilizer {
    private static final String HOSTNAME;
+   private final Session.ResourceKey<SessionId> key = new Session.IndexedResourceKey<>();
 
    static {
       String hostname;
@@ -26,13 +26,13 @@ public class UserAgentAppender implements SerializableBiConsumer<Session, HttpRe
 
    @Override
    public void accept(Session session, HttpRequestWriter httpRequestWriter) {
-      httpRequestWriter.putHeader(HttpHeaderNames.USER_AGENT, session.getResource(this).id);
+      httpRequestWriter.putHeader(HttpHeaderNames.USER_AGENT, session.getResource(key).id);
    }
 
    @Override
    public void reserve(Session session) {
       SessionId sessionId = new SessionId(new AsciiString("#" + session.uniqueId() + "@" + HOSTNAME));
-      session.declareResource(this, () -> sessionId);
+      session.declareResource(key, () -> sessionId);
    }
 
    public static final class SessionId implements Session.Resource {
@@ -0,0 +1,211 @@
+package io.hyperfoil.http.api;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.config.Visitor;
+import io.hyperfoil.api.connection.Connection;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.api.BlockingInitializer;
+import io.hyperfoil.function.SerializableBiFunction;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.FileRegion;
+import io.netty.handler.stream.ChunkedInput;
+import io.netty.util.AsciiString;
+
+/**
+ * Request body sent from a file present on the agent; the file is not loaded into memory.
+ * <p>
+ * Connections recognize this generator: plaintext HTTP/1.1 transfers the file using {@link FileRegion}
+ * (<code>sendfile</code> on Linux), TLS and HTTP/2 read it chunk by chunk into pooled buffers, only when
+ * the previous chunk has been written.
+ * The file is opened once per agent before the benchmark starts and shared by all connections; it must not change
+ * during the run. The file is closed when the run is shut down.
+ */
+public class FileBodyGenerator implements SerializableBiFunction<Session, Connection, ByteBuf>, BlockingInitializer {
+   private static final Logger log = LogManager.getLogger(FileBodyGenerator.class);
+   public static final int CHUNK_SIZE = 64 * 1024;
+
+   private final String file;
+
+   @Visitor.Ignore
+   private transient volatile FileChannel channel;
+   @Visitor.Ignore
+   private transient long length;
+   @Visitor.Ignore
+   private transient AsciiString contentLength;
+
+   public FileBodyGenerator(String file) {
+      this.file = file;
+   }
+
+   @Override
+   public void initBlocking() {
+      // Open the file before the sessions start rather than in the event loop
+      open();
+   }
+
+   @Override
+   public synchronized void shutdown() {
+      if (channel == null) {
+         return;
+      }
+      try {
+         channel.close();
+      } catch (IOException e) {
+         log.warn("Failed to close {}", file, e);
+      }
+      channel = null;
+   }
+
+   public void open() {
+      if (channel != null) {
+         return;
+      }
+      synchronized (this) {
+         if (channel != null) {
+            return;
+         }
+         try {
+            FileChannel channel = FileChannel.open(Path.of(file), StandardOpenOption.READ);
+            length = channel.size();
+            contentLength = new AsciiString(String.valueOf(length));
+            log.info("Opened {} ({} bytes) as request body", file, length);
+            this.channel = channel;
+         } catch (IOException e) {
+            throw new BenchmarkDefinitionException("Cannot open file " + file, e);
+         }
+      }
+   }
+
+   public long length() {
+      open();
+      return length;
+   }
+
+   public AsciiString contentLength() {
+      open();
+      return contentLength;
+   }
+
+   /**
+    * @return Region transferring the whole file; releasing the region does not close the shared file.
+    */
+   public FileRegion region() {
+      open();
+      return new SharedFileRegion(channel, length);
+   }
+
+   /**
+    * @return Input reading the file lazily, to be written through {@link io.netty.handler.stream.ChunkedWriteHandler};
+    *         closing the input does not close the shared file.
+    */
+   public ChunkedInput<ByteBuf> chunks() {
+      open();
+      return new Chunks();
+   }
+
+   /**
+    * @param alloc Allocator for the chunk.
+    * @param position Offset in the file.
+    * @return Buffer with up to {@link #CHUNK_SIZE} bytes read from given position.
+    */
+   public ByteBuf readChunk(ByteBufAllocator alloc, long position) {
+      open();
+      int size = (int) Math.min(CHUNK_SIZE, length - position);
+      if (size <= 0) {
+         throw new IllegalArgumentException("Position " + position + " is beyond the end of " + file);
+      }
+      return read(alloc, position, size);
+   }
+
+   /**
+    * Reads the whole file; used only when the connection does not recognize this generator.
+    */
+   @Override
+   public ByteBuf apply(Session session, Connection connection) {
+      open();
+      if (length > Integer.MAX_VALUE) {
+         throw new IllegalStateException("File " + file + " is too big to be sent in a single buffer.");
+      }
+      return read(connection.context().alloc(), 0, (int) length);
+   }
+
+   private ByteBuf read(ByteBufAllocator alloc, long position, int size) {
+      ByteBuf buf = alloc.directBuffer(size);
+      try {
+         while (buf.isWritable()) {
+            // positional reads don't change the position of the shared channel
+            if (buf.writeBytes(channel, position + buf.writerIndex(), buf.writableBytes()) < 0) {
+               throw new EOFException("File " + file + " was truncated.");
+            }
+         }
+         return buf;
+      } catch (IOException e) {
+         buf.release();
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   private class Chunks implements ChunkedInput<ByteBuf> {
+      private long position;
+
+      @Override
+      public boolean isEndOfInput() {
+         return position >= length;
+      }
+
+      @Override
+      public void close() {
+         // the channel is shared by all requests
+      }
+
+      @Deprecated
+      @Override
+      public ByteBuf readChunk(ChannelHandlerContext ctx) {
+         return readChunk(ctx.alloc());
+      }
+
+      @Override
+      public ByteBuf readChunk(ByteBufAllocator allocator) {
+         if (position >= length) {
+            return null;
+         }
+         ByteBuf chunk = FileBodyGenerator.this.readChunk(allocator, position);
+         position += chunk.readableBytes();
+         return chunk;
+      }
+
+      @Override
+      public long length() {
+         return length;
+      }
+
+      @Override
+      public long progress() {
+         return position;
+      }
+   }
+
+   private static class SharedFileRegion extends DefaultFileRegion {
+      SharedFileRegion(FileChannel channel, long count) {
+         super(channel, 0, count);
+      }
+
+      @Override
+      protected void deallocate() {
+         // the channel is shared by all requests
+      }
+   }
+}
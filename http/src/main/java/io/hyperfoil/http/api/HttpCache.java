@@ -3,7 +3,7 @@ package io.hyperfoil.http.api;
 import io.hyperfoil.api.session.Session;
 
 public interface HttpCache extends Session.Resource {
-   Session.ResourceKey<HttpCache> KEY = new Session.ResourceKey<>() {
+   Session.ResourceKey<HttpCache> KEY = new Session.ConstantResourceKey<>() {
    };
 
    void beforeRequestHeaders(HttpRequest request);
@@ -21,6 +21,11 @@ public interface HttpCache extends Session.Resource {
    // mostly for testing
    int size();
 
+   /**
+    * @return Estimated number of bytes occupied by the cached records.
+    */
+   long footprint();
+
    void clear();
 
    interface Record {
@@ -20,6 +20,16 @@ public interface HttpConnection extends Connection {
          boolean injectHostHeader,
          BiFunction<Session, Connection, ByteBuf> bodyGenerator);
 
+   /**
+    * Connections that can't use the static segments of the template fall back to invoking all header appenders.
+    */
+   default void request(HttpRequest request,
+         HttpRequestTemplate template,
+         boolean injectHostHeader,
+         BiFunction<Session, Connection, ByteBuf> bodyGenerator) {
+      request(request, template.headerAppenders(), injectHostHeader, bodyGenerator);
+   }
+
    HttpRequest dispatchedRequest();
 
    HttpRequest peekRequest(int streamId);
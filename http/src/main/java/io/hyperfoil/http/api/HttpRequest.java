@@ -57,6 +57,19 @@ public class HttpRequest extends Request {
          BiConsumer<Session, HttpRequestWriter>[] headerAppenders,
          boolean injectHostHeader,
          BiFunction<Session, Connection, ByteBuf> bodyGenerator) {
+      beforeSend(connection);
+      connection.request(this, headerAppenders, injectHostHeader, bodyGenerator);
+   }
+
+   public void sendTemplate(HttpConnection connection,
+         HttpRequestTemplate template,
+         boolean injectHostHeader,
+         BiFunction<Session, Connection, ByteBuf> bodyGenerator) {
+      beforeSend(connection);
+      connection.request(this, template, injectHostHeader, bodyGenerator);
+   }
+
+   private void beforeSend(HttpConnection connection) {
       if (session.currentRequest() != null) {
          // Refuse to fire request from other request's handler as the other handlers
          // would have messed up current request in session.
@@ -69,7 +82,6 @@ public class HttpRequest extends Request {
 
       attach(connection);
       connection.attach(pool);
-      connection.request(this, headerAppenders, injectHostHeader, bodyGenerator);
    }
 
    @Override
@@ -0,0 +1,173 @@
+package io.hyperfoil.http.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.function.SerializableBiConsumer;
+import io.hyperfoil.impl.Util;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.AsciiString;
+
+/**
+ * Request headers compiled when the benchmark is built. Consecutive headers with a static value are encoded
+ * into a single segment that is shared by all requests; the remaining header appenders are invoked on each
+ * request as usual. Connections may add the static segments to the request without copying them.
+ */
+public class HttpRequestTemplate implements Serializable {
+   private final BiConsumer<Session, HttpRequestWriter>[] headerAppenders;
+   private final Segment[] segments;
+   private final boolean hasStaticSegments;
+
+   public HttpRequestTemplate(SerializableBiConsumer<Session, HttpRequestWriter>[] headerAppenders) {
+      this.headerAppenders = headerAppenders;
+      List<Segment> segments = new ArrayList<>();
+      if (headerAppenders != null) {
+         List<StaticHeader> staticHeaders = new ArrayList<>();
+         for (SerializableBiConsumer<Session, HttpRequestWriter> appender : headerAppenders) {
+            if (appender instanceof StaticHeader) {
+               staticHeaders.add((StaticHeader) appender);
+            } else {
+               if (!staticHeaders.isEmpty()) {
+                  segments.add(new Segment(staticHeaders.toArray(new StaticHeader[0])));
+                  staticHeaders.clear();
+               }
+               segments.add(new Segment(appender));
+            }
+         }
+         if (!staticHeaders.isEmpty()) {
+            segments.add(new Segment(staticHeaders.toArray(new StaticHeader[0])));
+         }
+      }
+      this.segments = segments.toArray(new Segment[0]);
+      this.hasStaticSegments = segments.stream().anyMatch(s -> s.headers != null);
+   }
+
+   /**
+    * @return All header appenders in the original order, including the static ones.
+    */
+   public BiConsumer<Session, HttpRequestWriter>[] headerAppenders() {
+      return headerAppenders;
+   }
+
+   public boolean hasStaticSegments() {
+      return hasStaticSegments;
+   }
+
+   public int segments() {
+      return segments.length;
+   }
+
+   /**
+    * @param index Segment index.
+    * @return Shared read-only buffer with encoded headers or <code>null</code> if this segment is dynamic.
+    *         The buffer must not be modified nor released; use {@link ByteBuf#duplicate()} to get independent indices.
+    */
+   public ByteBuf staticSegment(int index) {
+      return segments[index].buffer();
+   }
+
+   public BiConsumer<Session, HttpRequestWriter> appender(int index) {
+      return segments[index].appender;
+   }
+
+   /**
+    * @param index Segment index.
+    * @return Headers encoded in the static segment.
+    */
+   public StaticHeader[] staticHeaders(int index) {
+      return segments[index].headers;
+   }
+
+   /**
+    * @param index Segment index.
+    * @return Headers in the static segment as alternating name and value, with names in lower case as required
+    *         by HTTP/2, or <code>null</code> if this segment is dynamic. The array must not be modified.
+    */
+   public AsciiString[] http2Headers(int index) {
+      return segments[index].http2Headers();
+   }
+
+   /**
+    * Header appender that always writes the same header and value, regardless of the session.
+    */
+   public interface StaticHeader extends SerializableBiConsumer<Session, HttpRequestWriter> {
+      CharSequence header();
+
+      CharSequence value();
+
+      @Override
+      default void accept(Session session, HttpRequestWriter writer) {
+         writer.putHeader(header(), value());
+      }
+   }
+
+   private static class Segment implements Serializable {
+      private final StaticHeader[] headers;
+      private final byte[] encoded;
+      private final BiConsumer<Session, HttpRequestWriter> appender;
+      // Direct buffers are not serializable; the buffer is created lazily on the agent
+      private transient volatile ByteBuf buffer;
+      private transient volatile AsciiString[] http2Headers;
+
+      Segment(StaticHeader[] headers) {
+         this.headers = headers;
+         this.appender = null;
+         ByteArrayOutputStream stream = new ByteArrayOutputStream();
+         for (StaticHeader header : headers) {
+            // header name must be US-ASCII, value is encoded the same way as in the connection
+            stream.writeBytes(header.header().toString().getBytes(StandardCharsets.ISO_8859_1));
+            stream.write(':');
+            stream.write(' ');
+            String value = header.value().toString();
+            stream.writeBytes(value.getBytes(Util.isLatin(value) ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8));
+            stream.write('\r');
+            stream.write('\n');
+         }
+         this.encoded = stream.toByteArray();
+      }
+
+      Segment(BiConsumer<Session, HttpRequestWriter> appender) {
+         this.headers = null;
+         this.encoded = null;
+         this.appender = appender;
+      }
+
+      ByteBuf buffer() {
+         if (encoded == null) {
+            return null;
+         }
+         ByteBuf buffer = this.buffer;
+         if (buffer == null) {
+            // JDK direct buffer is freed by GC; concurrent initialization just creates a redundant copy
+            ByteBuffer nioBuffer = ByteBuffer.allocateDirect(encoded.length).put(encoded).flip();
+            buffer = Unpooled.unreleasableBuffer(Unpooled.wrappedBuffer(nioBuffer).asReadOnly());
+            this.buffer = buffer;
+         }
+         return buffer;
+      }
+
+      AsciiString[] http2Headers() {
+         if (headers == null) {
+            return null;
+         }
+         AsciiString[] http2Headers = this.http2Headers;
+         if (http2Headers == null) {
+            // AsciiString is not serializable either, and it caches the hash code used by HPACK encoder
+            http2Headers = new AsciiString[headers.length * 2];
+            for (int i = 0; i < headers.length; ++i) {
+               http2Headers[2 * i] = AsciiString.of(headers[i].header()).toLowerCase();
+               http2Headers[2 * i + 1] = AsciiString.of(headers[i].value());
+            }
+            this.http2Headers = http2Headers;
+         }
+         return http2Headers;
+      }
+   }
+}
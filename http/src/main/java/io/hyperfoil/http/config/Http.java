@@ -48,12 +48,14 @@ public class Http implements Serializable {
    private final TrustManager trustManager;
    private final ConnectionStrategy connectionStrategy;
    private final boolean useHttpCache;
+   private final int httpCacheMaxEntries;
+   private final int httpCacheMaxSize;
 
    public Http(String name, boolean isDefault, String originalDestination, Protocol protocol, String host, int port,
          String[] addresses, HttpVersion[] versions, int maxHttp2Streams, int pipeliningLimit,
          ConnectionPoolConfig sharedConnections, boolean directHttp2, long requestTimeout, long sslHandshakeTimeout,
          boolean rawBytesHandlers, KeyManager keyManager, TrustManager trustManager,
-         ConnectionStrategy connectionStrategy, boolean useHttpCache) {
+         ConnectionStrategy connectionStrategy, boolean useHttpCache, int httpCacheMaxEntries, int httpCacheMaxSize) {
       this.name = name;
       this.isDefault = isDefault;
       this.originalDestination = originalDestination;
@@ -73,6 +75,8 @@ public class Http implements Serializable {
       this.trustManager = trustManager;
       this.connectionStrategy = connectionStrategy;
       this.useHttpCache = useHttpCache;
+      this.httpCacheMaxEntries = httpCacheMaxEntries;
+      this.httpCacheMaxSize = httpCacheMaxSize;
    }
 
    public String name() {
@@ -156,6 +160,14 @@ public class Http implements Serializable {
       return useHttpCache;
    }
 
+   public int httpCacheMaxEntries() {
+      return httpCacheMaxEntries;
+   }
+
+   public int httpCacheMaxSize() {
+      return httpCacheMaxSize;
+   }
+
    public static class KeyManager implements Serializable {
       private final String storeType;
       private final byte[] storeBytes;
@@ -60,6 +60,8 @@ public class HttpBuilder implements BuilderBase<HttpBuilder> {
    private TrustManagerBuilder trustManager = new TrustManagerBuilder(this);
    private ConnectionStrategy connectionStrategy = ConnectionStrategy.SHARED_POOL;
    private boolean useHttpCache = true;
+   private int httpCacheMaxEntries = 1024;
+   private int httpCacheMaxSize = 1024 * 1024;
 
    public static HttpBuilder forTesting() {
       return new HttpBuilder(null);
@@ -261,6 +263,16 @@ public class HttpBuilder implements BuilderBase<HttpBuilder> {
       return useHttpCache;
    }
 
+   public HttpBuilder httpCacheMaxEntries(int httpCacheMaxEntries) {
+      this.httpCacheMaxEntries = httpCacheMaxEntries;
+      return this;
+   }
+
+   public HttpBuilder httpCacheMaxSize(int httpCacheMaxSize) {
+      this.httpCacheMaxSize = httpCacheMaxSize;
+      return this;
+   }
+
    public void prepareBuild() {
    }
 
@@ -293,7 +305,8 @@ public class HttpBuilder implements BuilderBase<HttpBuilder> {
       return http = new Http(name, isDefault, originalDestination, protocol, host, protocol.portOrDefault(port),
             addresses.toArray(new String[0]), httpVersions.toArray(new HttpVersion[0]), maxHttp2Streams,
             pipeliningLimit, sharedConnections.build(), directHttp2, requestTimeout, sslHandshakeTimeout,
-            rawBytesHandlers, keyManager.build(), trustManager.build(), connectionStrategy, useHttpCache);
+            rawBytesHandlers, keyManager.build(), trustManager.build(), connectionStrategy, useHttpCache,
+            httpCacheMaxEntries, httpCacheMaxSize);
    }
 
    public static class KeyManagerBuilder implements BuilderBase<KeyManagerBuilder> {
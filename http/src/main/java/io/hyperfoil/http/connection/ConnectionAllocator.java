@@ -2,6 +2,8 @@ package io.hyperfoil.http.connection;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -19,6 +21,9 @@ class ConnectionAllocator extends ConnectionPoolStats implements HttpConnectionP
    private static final Logger log = LogManager.getLogger(ConnectionAllocator.class);
    private final HttpClientPoolImpl clientPool;
    private final EventLoop eventLoop;
+   // Connections counted in used connections; these are removed as soon as we close them,
+   // as the close future could complete after the next connection is opened.
+   private final Set<HttpConnection> openConnections = Collections.newSetFromMap(new IdentityHashMap<>());
 
    ConnectionAllocator(HttpClientPoolImpl clientPool, EventLoop eventLoop) {
       super(clientPool.authority);
@@ -47,13 +52,13 @@ class ConnectionAllocator extends ConnectionPoolStats implements HttpConnectionP
             inFlight.incrementUsed();
             usedConnections.incrementUsed();
             incrementTypeStats(conn);
+            openConnections.add(conn);
             conn.onAcquire();
 
             conn.context().channel().closeFuture().addListener(v -> {
                conn.setClosed();
                log.debug("Closed {} to {}", conn, authority);
-               typeStats.get(tagConnection(conn)).decrementUsed();
-               usedConnections.decrementUsed();
+               decrementUsed(conn);
             });
             consumer.accept(conn);
          }
@@ -89,6 +94,14 @@ class ConnectionAllocator extends ConnectionPoolStats implements HttpConnectionP
          decrementInFlight();
       }
       connection.close();
+      decrementUsed(connection);
+   }
+
+   private void decrementUsed(HttpConnection connection) {
+      if (openConnections.remove(connection)) {
+         typeStats.get(tagConnection(connection)).decrementUsed();
+         usedConnections.decrementUsed();
+      }
    }
 
    @Override
@@ -0,0 +1,314 @@
+package io.hyperfoil.http.connection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import io.netty.handler.codec.EmptyHeaders;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.util.AsciiString;
+
+/**
+ * Array-backed request headers that can be reused for all requests on a connection.
+ * <p>
+ * Unlike {@link io.netty.handler.codec.http2.DefaultHttp2Headers} this does not allocate an entry per header
+ * and iterates through a single reusable entry. This is safe only because the encoder serializes the headers
+ * synchronously in {@link io.netty.handler.codec.http2.Http2ConnectionEncoder#writeHeaders} for a new stream.
+ * The names and values are kept by reference (HPACK dynamic table can keep them, too) and therefore these
+ * must be immutable.
+ * <p>
+ * Only the operations needed to build and encode a request are supported: the request pseudo-header
+ * getters and setters ({@link #method()}, {@link #scheme()}, {@link #authority()}, {@link #path()}),
+ * {@link #add(CharSequence, CharSequence)}, {@link #set(CharSequence, CharSequence)},
+ * {@link #remove(CharSequence)}, {@link #clear()}, {@link #get(CharSequence)}, {@link #getAll(CharSequence)},
+ * {@link #valueIterator(CharSequence)}, the <code>contains</code> methods with {@link CharSequence} arguments,
+ * {@link #size()}, {@link #isEmpty()}, {@link #iterator()} and {@link #status()} (always <code>null</code>).
+ * The other methods are inherited from {@link EmptyHeaders}: their getters do not see any header and their
+ * mutators throw {@link UnsupportedOperationException}, as do {@link #status(CharSequence)} and
+ * {@link Map.Entry#setValue(Object)} on the iterated entries. FlatHttp2HeadersTest checks that the encoder
+ * does not call anything else.
+ */
+class FlatHttp2Headers extends EmptyHeaders<CharSequence, CharSequence, Http2Headers> implements Http2Headers {
+   private static final int PSEUDO_HEADERS = 4;
+   private static final AsciiString[] PSEUDO_HEADER_NAMES = {
+         PseudoHeaderName.METHOD.value(),
+         PseudoHeaderName.SCHEME.value(),
+         PseudoHeaderName.AUTHORITY.value(),
+         PseudoHeaderName.PATH.value(),
+   };
+   private static final int METHOD = 0;
+   private static final int SCHEME = 1;
+   private static final int AUTHORITY = 2;
+   private static final int PATH = 3;
+
+   private final CharSequence[] pseudoHeaders = new CharSequence[PSEUDO_HEADERS];
+   private CharSequence[] names = new CharSequence[16];
+   private CharSequence[] values = new CharSequence[16];
+   private int size;
+   private final EntryIterator iterator = new EntryIterator();
+
+   @Override
+   public Http2Headers add(CharSequence name, CharSequence value) {
+      if (size == names.length) {
+         names = Arrays.copyOf(names, size * 2);
+         values = Arrays.copyOf(values, size * 2);
+      }
+      names[size] = lowerCase(name);
+      values[size] = value;
+      ++size;
+      return this;
+   }
+
+   @Override
+   public Http2Headers set(CharSequence name, CharSequence value) {
+      remove(name);
+      return add(name, value);
+   }
+
+   @Override
+   public boolean remove(CharSequence name) {
+      boolean removed = false;
+      int j = 0;
+      for (int i = 0; i < size; ++i) {
+         if (AsciiString.contentEqualsIgnoreCase(names[i], name)) {
+            removed = true;
+         } else {
+            names[j] = names[i];
+            values[j] = values[i];
+            ++j;
+         }
+      }
+      Arrays.fill(names, j, size, null);
+      Arrays.fill(values, j, size, null);
+      size = j;
+      return removed;
+   }
+
+   @Override
+   public Http2Headers clear() {
+      Arrays.fill(pseudoHeaders, null);
+      Arrays.fill(names, 0, size, null);
+      Arrays.fill(values, 0, size, null);
+      size = 0;
+      return this;
+   }
+
+   @Override
+   public CharSequence get(CharSequence name) {
+      int pseudo = pseudoHeaderIndex(name);
+      if (pseudo >= 0) {
+         return pseudoHeaders[pseudo];
+      }
+      for (int i = 0; i < size; ++i) {
+         if (AsciiString.contentEqualsIgnoreCase(names[i], name)) {
+            return values[i];
+         }
+      }
+      return null;
+   }
+
+   @Override
+   public CharSequence get(CharSequence name, CharSequence defaultValue) {
+      CharSequence value = get(name);
+      return value == null ? defaultValue : value;
+   }
+
+   @Override
+   public List<CharSequence> getAll(CharSequence name) {
+      List<CharSequence> all = new ArrayList<>();
+      int pseudo = pseudoHeaderIndex(name);
+      if (pseudo >= 0) {
+         if (pseudoHeaders[pseudo] != null) {
+            all.add(pseudoHeaders[pseudo]);
+         }
+         return all;
+      }
+      for (int i = 0; i < size; ++i) {
+         if (AsciiString.contentEqualsIgnoreCase(names[i], name)) {
+            all.add(values[i]);
+         }
+      }
+      return all;
+   }
+
+   @Override
+   public Iterator<CharSequence> valueIterator(CharSequence name) {
+      return getAll(name).iterator();
+   }
+
+   @Override
+   public boolean contains(CharSequence name) {
+      return get(name) != null;
+   }
+
+   @Override
+   public boolean contains(CharSequence name, CharSequence value) {
+      return contains(name, value, false);
+   }
+
+   @Override
+   public boolean contains(CharSequence name, CharSequence value, boolean caseInsensitive) {
+      for (CharSequence v : getAll(name)) {
+         if (caseInsensitive ? AsciiString.contentEqualsIgnoreCase(v, value) : AsciiString.contentEquals(v, value)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   @Override
+   public int size() {
+      int pseudo = 0;
+      for (CharSequence value : pseudoHeaders) {
+         if (value != null) {
+            ++pseudo;
+         }
+      }
+      return pseudo + size;
+   }
+
+   @Override
+   public boolean isEmpty() {
+      return size() == 0;
+   }
+
+   @Override
+   public Iterator<Map.Entry<CharSequence, CharSequence>> iterator() {
+      iterator.index = 0;
+      return iterator;
+   }
+
+   @Override
+   public Http2Headers method(CharSequence value) {
+      pseudoHeaders[METHOD] = value;
+      return this;
+   }
+
+   @Override
+   public Http2Headers scheme(CharSequence value) {
+      pseudoHeaders[SCHEME] = value;
+      return this;
+   }
+
+   @Override
+   public Http2Headers authority(CharSequence value) {
+      pseudoHeaders[AUTHORITY] = value;
+      return this;
+   }
+
+   @Override
+   public Http2Headers path(CharSequence value) {
+      pseudoHeaders[PATH] = value;
+      return this;
+   }
+
+   @Override
+   public Http2Headers status(CharSequence value) {
+      throw new UnsupportedOperationException("Only request headers are supported");
+   }
+
+   @Override
+   public CharSequence method() {
+      return pseudoHeaders[METHOD];
+   }
+
+   @Override
+   public CharSequence scheme() {
+      return pseudoHeaders[SCHEME];
+   }
+
+   @Override
+   public CharSequence authority() {
+      return pseudoHeaders[AUTHORITY];
+   }
+
+   @Override
+   public CharSequence path() {
+      return pseudoHeaders[PATH];
+   }
+
+   @Override
+   public CharSequence status() {
+      return null;
+   }
+
+   @Override
+   public String toString() {
+      StringBuilder sb = new StringBuilder("FlatHttp2Headers[");
+      for (int i = 0; i < PSEUDO_HEADERS; ++i) {
+         if (pseudoHeaders[i] != null) {
+            sb.append(PSEUDO_HEADER_NAMES[i]).append(": ").append(pseudoHeaders[i]).append(", ");
+         }
+      }
+      for (int i = 0; i < size; ++i) {
+         sb.append(names[i]).append(": ").append(values[i]).append(", ");
+      }
+      return sb.append(']').toString();
+   }
+
+   private static int pseudoHeaderIndex(CharSequence name) {
+      if (name.length() == 0 || name.charAt(0) != ':') {
+         return -1;
+      }
+      for (int i = 0; i < PSEUDO_HEADERS; ++i) {
+         if (PSEUDO_HEADER_NAMES[i].contentEquals(name)) {
+            return i;
+         }
+      }
+      return -1;
+   }
+
+   /**
+    * HTTP/2 requires lower-case header names; names that are already lower-case are used without conversion.
+    */
+   static CharSequence lowerCase(CharSequence name) {
+      for (int i = 0; i < name.length(); ++i) {
+         if (AsciiString.isUpperCase(name.charAt(i))) {
+            return AsciiString.of(name).toLowerCase();
+         }
+      }
+      return name;
+   }
+
+   private class EntryIterator
+         implements Iterator<Map.Entry<CharSequence, CharSequence>>, Map.Entry<CharSequence, CharSequence> {
+      // indices below PSEUDO_HEADERS point to pseudo headers
+      private int index;
+      private int current;
+
+      @Override
+      public boolean hasNext() {
+         while (index < PSEUDO_HEADERS && pseudoHeaders[index] == null) {
+            ++index;
+         }
+         return index < PSEUDO_HEADERS + size;
+      }
+
+      @Override
+      public Map.Entry<CharSequence, CharSequence> next() {
+         if (!hasNext()) {
+            throw new NoSuchElementException();
+         }
+         current = index++;
+         return this;
+      }
+
+      @Override
+      public CharSequence getKey() {
+         return current < PSEUDO_HEADERS ? PSEUDO_HEADER_NAMES[current] : names[current - PSEUDO_HEADERS];
+      }
+
+      @Override
+      public CharSequence getValue() {
+         return current < PSEUDO_HEADERS ? pseudoHeaders[current] : values[current - PSEUDO_HEADERS];
+      }
+
+      @Override
+      public CharSequence setValue(CharSequence value) {
+         throw new UnsupportedOperationException("Headers cannot be modified through the iterator");
+      }
+   }
+}
@@ -11,20 +11,24 @@ import org.apache.logging.log4j.Logger;
 import io.hyperfoil.api.connection.Connection;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.SessionStopException;
+import io.hyperfoil.http.api.FileBodyGenerator;
 import io.hyperfoil.http.api.HttpCache;
 import io.hyperfoil.http.api.HttpConnection;
 import io.hyperfoil.http.api.HttpConnectionPool;
 import io.hyperfoil.http.api.HttpRequest;
+import io.hyperfoil.http.api.HttpRequestTemplate;
 import io.hyperfoil.http.api.HttpRequestWriter;
 import io.hyperfoil.http.api.HttpVersion;
 import io.hyperfoil.http.config.Http;
 import io.hyperfoil.impl.Util;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.stream.ChunkedWriteHandler;
 import io.netty.util.AsciiString;
 import io.netty.util.CharsetUtil;
 
@@ -39,6 +43,8 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
    private final Deque<HttpRequest> inflights;
    private final BiConsumer<HttpConnection, Throwable> activationHandler;
    private final boolean secure;
+   // File bodies can be sent using FileRegion only when the pipeline does not need ByteBufs
+   private final boolean zeroCopy;
    private final int pipeliningLimit;
 
    private HttpConnectionPool pool;
@@ -47,11 +53,13 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
    private boolean activated;
    private Status status = Status.OPEN;
    private long lastUsed = System.nanoTime();
+   private final HttpRequestWriterImpl writer = new HttpRequestWriterImpl();
 
    Http1xConnection(HttpClientPoolImpl client, BiConsumer<HttpConnection, Throwable> handler) {
       this.activationHandler = handler;
       this.inflights = new ArrayDeque<>(client.config().pipeliningLimit());
       this.secure = client.isSecure();
+      this.zeroCopy = !secure && !client.http.rawBytesHandlers();
       this.pipeliningLimit = client.config().pipeliningLimit();
    }
 
@@ -118,39 +126,47 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
          BiConsumer<Session, HttpRequestWriter>[] headerAppenders,
          boolean injectHostHeader,
          BiFunction<Session, Connection, ByteBuf> bodyGenerator) {
+      request(request, headerAppenders, null, injectHostHeader, bodyGenerator);
+   }
+
+   @Override
+   public void request(HttpRequest request, HttpRequestTemplate template, boolean injectHostHeader,
+         BiFunction<Session, Connection, ByteBuf> bodyGenerator) {
+      if (template.hasStaticSegments()) {
+         request(request, null, template, injectHostHeader, bodyGenerator);
+      } else {
+         request(request, template.headerAppenders(), null, injectHostHeader, bodyGenerator);
+      }
+   }
+
+   private void request(HttpRequest request,
+         BiConsumer<Session, HttpRequestWriter>[] headerAppenders,
+         HttpRequestTemplate template,
+         boolean injectHostHeader,
+         BiFunction<Session, Connection, ByteBuf> bodyGenerator) {
       assert aboutToSend > 0;
       aboutToSend--;
       ByteBuf buf = ctx.alloc().buffer();
       buf.writeBytes(request.method.netty.asciiName().array());
       buf.writeByte(' ');
-      boolean beforeQuestion = true;
-      for (int i = 0; i < request.path.length(); ++i) {
-         if (request.path.charAt(i) == ' ') {
-            if (beforeQuestion) {
-               buf.writeByte(0xFF & '%');
-               buf.writeByte(0xFF & '2');
-               buf.writeByte(0xFF & '0');
-            } else {
-               buf.writeByte(0xFF & '+');
-            }
-         } else {
-            if (request.path.charAt(i) == '?') {
-               beforeQuestion = false;
-            }
-            buf.writeByte(0xFF & request.path.charAt(i));
-         }
-      }
+      writePath(buf, request.path);
       buf.writeBytes(HTTP1_1);
 
       if (injectHostHeader) {
          writeHeader(buf, HttpHeaderNames.HOST.array(), pool.clientPool().originalDestinationBytes());
       }
-      // TODO: adjust interface - we can't send static buffers anyway
-      ByteBuf body = bodyGenerator != null ? bodyGenerator.apply(request.session, request.connection()) : null;
+      FileBodyGenerator fileBody = bodyGenerator instanceof FileBodyGenerator ? (FileBodyGenerator) bodyGenerator : null;
+      ByteBuf body = bodyGenerator != null && fileBody == null ? bodyGenerator.apply(request.session, request.connection())
+            : null;
       if (body == null) {
          body = Unpooled.EMPTY_BUFFER;
       }
-      if (body.readableBytes() > 0) {
+      if (fileBody != null && fileBody.length() > 0) {
+         AsciiString contentLength = fileBody.contentLength();
+         buf.writeBytes(HttpHeaderNames.CONTENT_LENGTH.array()).writeByte(':').writeByte(' ');
+         buf.writeBytes(contentLength.array(), contentLength.arrayOffset(), contentLength.length());
+         buf.writeByte('\r').writeByte('\n');
+      } else if (body.readableBytes() > 0) {
          if (trace) {
             log.trace("Sending HTTP request body: {}\n", Util.toString(body, body.readerIndex(), body.readableBytes()));
          }
@@ -166,17 +182,45 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
       }
 
       // TODO: if headers are strings, UTF-8 conversion creates a lot of trash
-      HttpRequestWriterImpl writer = new HttpRequestWriterImpl(request, buf);
-      if (headerAppenders != null) {
-         // TODO: allocation, if it's not eliminated we could store a reusable object
+      HttpRequestWriterImpl writer = this.writer;
+      writer.reset(request, buf);
+      CompositeByteBuf composite = null;
+      if (template != null) {
+         // Static segments are shared by all requests; the dynamic parts are written between them
+         composite = ctx.alloc().compositeDirectBuffer(2 * template.segments() + 2);
+         for (int i = 0; i < template.segments(); ++i) {
+            ByteBuf segment = template.staticSegment(i);
+            if (segment == null) {
+               template.appender(i).accept(request.session, writer);
+            } else {
+               composite.addComponent(true, writer.buf);
+               composite.addComponent(true, segment.duplicate());
+               if (httpCache != null) {
+                  for (HttpRequestTemplate.StaticHeader header : template.staticHeaders(i)) {
+                     httpCache.requestHeader(request, header.header(), header.value());
+                  }
+               }
+               writer.buf = ctx.alloc().buffer();
+            }
+         }
+      } else if (headerAppenders != null) {
          for (BiConsumer<Session, HttpRequestWriter> headerAppender : headerAppenders) {
             headerAppender.accept(request.session, writer);
          }
       }
-      buf.writeByte('\r').writeByte('\n');
       assert ctx.executor().inEventLoop();
       // here the httpCache is guaranteed to be not null if request.hasCacheControl is true
-      if (httpCache != null && httpCache.isCached(request, writer)) {
+      // (this can add validation headers, too)
+      boolean cached = httpCache != null && httpCache.isCached(request, writer);
+      writer.buf.writeByte('\r').writeByte('\n');
+      ByteBuf headers = writer.buf;
+      if (composite != null) {
+         headers = composite.addComponent(true, writer.buf);
+      }
+      writer.reset(null, null);
+      if (cached) {
+         headers.release();
+         body.release();
          if (trace) {
             log.trace("#{} Request is completed from cache", request.session.uniqueId());
          }
@@ -191,15 +235,57 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
       inflights.add(request);
       ChannelPromise writePromise = ctx.newPromise();
       writePromise.addListener(request);
-      if (body.isReadable()) {
-         ctx.write(buf);
+      if (fileBody != null && fileBody.length() > 0) {
+         ctx.write(headers);
+         writeFile(fileBody, writePromise);
+      } else if (body.isReadable()) {
+         ctx.write(headers);
          ctx.writeAndFlush(body, writePromise);
       } else {
-         ctx.writeAndFlush(buf, writePromise);
+         ctx.writeAndFlush(headers, writePromise);
       }
       pool.afterRequestSent(this);
    }
 
+   private void writeFile(FileBodyGenerator fileBody, ChannelPromise writePromise) {
+      if (zeroCopy) {
+         ctx.writeAndFlush(fileBody.region(), writePromise);
+         return;
+      }
+      // SslHandler and raw bytes handlers need buffers; ChunkedWriteHandler reads the next chunk only after
+      // the previous one was written and keeps the order of writes from other pipelined requests.
+      if (ctx.pipeline().get(ChunkedWriteHandler.class) == null) {
+         ctx.pipeline().addBefore(ctx.name(), null, new ChunkedWriteHandler());
+      }
+      ctx.writeAndFlush(fileBody.chunks(), writePromise);
+   }
+
+   private static void writePath(ByteBuf buf, String path) {
+      int space = path.indexOf(' ');
+      if (space < 0) {
+         buf.writeCharSequence(path, CharsetUtil.ISO_8859_1);
+         return;
+      }
+      buf.writeCharSequence(path.subSequence(0, space), CharsetUtil.ISO_8859_1);
+      boolean beforeQuestion = path.lastIndexOf('?', space) < 0;
+      for (int i = space; i < path.length(); ++i) {
+         if (path.charAt(i) == ' ') {
+            if (beforeQuestion) {
+               buf.writeByte(0xFF & '%');
+               buf.writeByte(0xFF & '2');
+               buf.writeByte(0xFF & '0');
+            } else {
+               buf.writeByte(0xFF & '+');
+            }
+         } else {
+            if (path.charAt(i) == '?') {
+               beforeQuestion = false;
+            }
+            buf.writeByte(0xFF & path.charAt(i));
+         }
+      }
+   }
+
    private void writeHeader(ByteBuf buf, byte[] name, byte[] value) {
       buf.writeBytes(name).writeByte(':').writeByte(' ').writeBytes(value).writeByte('\r').writeByte('\n');
    }
@@ -325,11 +411,14 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
             ", size=" + inflights.size() + "+" + aboutToSend + ":" + inflights + '}';
    }
 
+   /**
+    * Reused for all requests on this connection.
+    */
    private class HttpRequestWriterImpl implements HttpRequestWriter {
-      private final HttpRequest request;
-      private final ByteBuf buf;
+      private HttpRequest request;
+      private ByteBuf buf;
 
-      HttpRequestWriterImpl(HttpRequest request, ByteBuf buf) {
+      void reset(HttpRequest request, ByteBuf buf) {
          this.request = request;
          this.buf = buf;
       }
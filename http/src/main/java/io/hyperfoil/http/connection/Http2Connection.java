@@ -12,11 +12,13 @@ import org.apache.logging.log4j.Logger;
 import io.hyperfoil.api.connection.Connection;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.SessionStopException;
+import io.hyperfoil.http.api.FileBodyGenerator;
 import io.hyperfoil.http.api.HttpCache;
 import io.hyperfoil.http.api.HttpClientPool;
 import io.hyperfoil.http.api.HttpConnection;
 import io.hyperfoil.http.api.HttpConnectionPool;
 import io.hyperfoil.http.api.HttpRequest;
+import io.hyperfoil.http.api.HttpRequestTemplate;
 import io.hyperfoil.http.api.HttpRequestWriter;
 import io.hyperfoil.http.api.HttpResponseHandlers;
 import io.hyperfoil.http.api.HttpVersion;
@@ -24,19 +26,21 @@ import io.hyperfoil.http.config.Http;
 import io.hyperfoil.impl.Util;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.http.HttpHeaderNames;
-import io.netty.handler.codec.http2.DefaultHttp2Headers;
 import io.netty.handler.codec.http2.Http2ConnectionDecoder;
 import io.netty.handler.codec.http2.Http2ConnectionEncoder;
+import io.netty.handler.codec.http2.Http2Error;
 import io.netty.handler.codec.http2.Http2EventAdapter;
 import io.netty.handler.codec.http2.Http2Exception;
 import io.netty.handler.codec.http2.Http2Headers;
 import io.netty.handler.codec.http2.Http2Settings;
+import io.netty.util.AsciiString;
 import io.netty.util.collection.IntObjectHashMap;
 import io.netty.util.collection.IntObjectMap;
-import io.netty.util.internal.AppendableCharSequence;
 
 /**
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
@@ -58,6 +62,11 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
    private Status status = Status.OPEN;
    private HttpRequest dispatchedRequest;
    private long lastUsed = System.nanoTime();
+   private final FlatHttp2Headers headers = new FlatHttp2Headers();
+   private final HttpRequestWriterImpl writer = new HttpRequestWriterImpl();
+   private final StringBuilder pathBuilder = new StringBuilder();
+   private int lastContentLength = -1;
+   private AsciiString lastContentLengthValue;
 
    Http2Connection(ChannelHandlerContext context,
          io.netty.handler.codec.http2.Http2Connection connection,
@@ -125,40 +134,48 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
       this.pool = pool;
    }
 
+   @Override
    public void request(HttpRequest request,
          BiConsumer<Session, HttpRequestWriter>[] headerAppenders,
          boolean injectHostHeader,
          BiFunction<Session, Connection, ByteBuf> bodyGenerator) {
+      request(request, headerAppenders, null, injectHostHeader, bodyGenerator);
+   }
+
+   @Override
+   public void request(HttpRequest request, HttpRequestTemplate template, boolean injectHostHeader,
+         BiFunction<Session, Connection, ByteBuf> bodyGenerator) {
+      if (template.hasStaticSegments()) {
+         request(request, null, template, injectHostHeader, bodyGenerator);
+      } else {
+         request(request, template.headerAppenders(), null, injectHostHeader, bodyGenerator);
+      }
+   }
+
+   private void request(HttpRequest request,
+         BiConsumer<Session, HttpRequestWriter>[] headerAppenders,
+         HttpRequestTemplate template,
+         boolean injectHostHeader,
+         BiFunction<Session, Connection, ByteBuf> bodyGenerator) {
       assert aboutToSend > 0;
       aboutToSend--;
       HttpClientPool httpClientPool = pool.clientPool();
 
-      ByteBuf buf = bodyGenerator != null ? bodyGenerator.apply(request.session, this) : null;
-
-      if (request.path.contains(" ")) {
-         int length = request.path.length();
-         AppendableCharSequence temp = new AppendableCharSequence(length);
-         boolean beforeQuestion = true;
-         for (int i = 0; i < length; ++i) {
-            if (request.path.charAt(i) == ' ') {
-               if (beforeQuestion) {
-                  temp.append('%');
-                  temp.append('2');
-                  temp.append('0');
-               } else {
-                  temp.append('+');
-               }
-            } else {
-               if (request.path.charAt(i) == '?') {
-                  beforeQuestion = false;
-               }
-               temp.append(request.path.charAt(i));
-            }
-         }
-         request.path = temp.toString();
+      FileBodyGenerator fileBody = bodyGenerator instanceof FileBodyGenerator ? (FileBodyGenerator) bodyGenerator : null;
+      if (fileBody != null && fileBody.length() == 0) {
+         fileBody = null;
+      }
+      ByteBuf buf = bodyGenerator != null && fileBody == null ? bodyGenerator.apply(request.session, this) : null;
+
+      if (request.path.indexOf(' ') >= 0) {
+         request.path = escapeSpaces(request.path);
       }
 
-      Http2Headers headers = new DefaultHttp2Headers().method(request.method.name()).scheme(httpClientPool.scheme())
+      // The headers are reused for all requests on this connection: encoder.writeHeaders serializes them
+      // synchronously as we never buffer streams (see FlatHttp2Headers)
+      FlatHttp2Headers headers = this.headers;
+      headers.clear();
+      headers.method(request.method.netty.asciiName()).scheme(httpClientPool.scheme())
             .path(request.path).authority(httpClientPool.authority());
       // HTTPS selects host via SNI headers, duplicate Host header could confuse the server/proxy
       if (injectHostHeader && !pool.clientPool().config().protocol().secure()) {
@@ -167,31 +184,55 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
          // from the ":authority" pseudo-header field.
          headers.add(HttpHeaderNames.HOST, httpClientPool.authority());
       }
-      if (buf != null && buf.readableBytes() > 0) {
-         headers.add(HttpHeaderNames.CONTENT_LENGTH, String.valueOf(buf.readableBytes()));
+      if (fileBody != null) {
+         headers.add(HttpHeaderNames.CONTENT_LENGTH, fileBody.contentLength());
+      } else if (buf != null && buf.readableBytes() > 0) {
+         headers.add(HttpHeaderNames.CONTENT_LENGTH, contentLength(buf.readableBytes()));
+      }
+
+      if (request.hasCacheControl()) {
+         HttpCache.get(request.session).beforeRequestHeaders(request);
       }
 
-      HttpRequestWriterImpl writer = new HttpRequestWriterImpl(request, headers);
-      if (headerAppenders != null) {
+      HttpRequestWriterImpl writer = this.writer;
+      writer.request = request;
+      if (template != null) {
+         for (int i = 0; i < template.segments(); ++i) {
+            AsciiString[] staticHeaders = template.http2Headers(i);
+            if (staticHeaders == null) {
+               template.appender(i).accept(request.session, writer);
+            } else {
+               for (int j = 0; j < staticHeaders.length; j += 2) {
+                  headers.add(staticHeaders[j], staticHeaders[j + 1]);
+               }
+               if (request.hasCacheControl()) {
+                  HttpCache httpCache = HttpCache.get(request.session);
+                  for (HttpRequestTemplate.StaticHeader header : template.staticHeaders(i)) {
+                     httpCache.requestHeader(request, header.header(), header.value());
+                  }
+               }
+            }
+         }
+      } else if (headerAppenders != null) {
          for (BiConsumer<Session, HttpRequestWriter> headerAppender : headerAppenders) {
             headerAppender.accept(request.session, writer);
          }
       }
+      // The cache can add validation headers through the writer so we must not clear the request before
+      boolean cached = request.hasCacheControl() && HttpCache.get(request.session).isCached(request, writer);
+      writer.request = null;
 
-      if (request.hasCacheControl()) {
-         HttpCache httpCache = HttpCache.get(request.session);
-         if (httpCache.isCached(request, writer)) {
-            if (trace) {
-               log.trace("#{} Request is completed from cache", request.session.uniqueId());
-            }
-            // prevent adding to available list twice
-            if (streams.size() != maxStreams - 1) {
-               pool.afterRequestSent(this);
-            }
-            request.handleCached();
-            tryReleaseToPool();
-            return;
+      if (cached) {
+         if (trace) {
+            log.trace("#{} Request is completed from cache", request.session.uniqueId());
          }
+         // prevent adding to available list twice
+         if (streams.size() != maxStreams - 1) {
+            pool.afterRequestSent(this);
+         }
+         request.handleCached();
+         tryReleaseToPool();
+         return;
       }
 
       assert context.executor().inEventLoop();
@@ -199,8 +240,10 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
       streams.put(id, request);
       dispatchedRequest = request;
       ChannelPromise writePromise = context.newPromise();
-      encoder.writeHeaders(context, id, headers, 0, buf == null, writePromise);
-      if (buf != null) {
+      encoder.writeHeaders(context, id, headers, 0, buf == null && fileBody == null, writePromise);
+      if (fileBody != null) {
+         writePromise = writeFile(id, fileBody);
+      } else if (buf != null) {
          if (trace) {
             log.trace("Sending HTTP request body: {}\n", Util.toString(buf, buf.readerIndex(), buf.readableBytes()));
          }
@@ -215,6 +258,45 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
       pool.afterRequestSent(this);
    }
 
+   private ChannelPromise writeFile(int id, FileBodyGenerator fileBody) {
+      ChannelPromise promise = context.newPromise();
+      new FileBodyWriter(id, fileBody, promise).writeNext();
+      return promise;
+   }
+
+   private String escapeSpaces(String path) {
+      StringBuilder escaped = pathBuilder;
+      escaped.setLength(0);
+      int length = path.length();
+      boolean beforeQuestion = true;
+      for (int i = 0; i < length; ++i) {
+         char c = path.charAt(i);
+         if (c == ' ') {
+            if (beforeQuestion) {
+               escaped.append("%20");
+            } else {
+               escaped.append('+');
+            }
+         } else {
+            if (c == '?') {
+               beforeQuestion = false;
+            }
+            escaped.append(c);
+         }
+      }
+      return escaped.toString();
+   }
+
+   private CharSequence contentLength(int length) {
+      // HPACK encoder may keep the value in its dynamic table so we cannot mutate it; bodies of the same
+      // request usually have the same length, though.
+      if (length != lastContentLength) {
+         lastContentLength = length;
+         lastContentLengthValue = AsciiString.of(Integer.toString(length));
+      }
+      return lastContentLengthValue;
+   }
+
    @Override
    public HttpRequest dispatchedRequest() {
       return dispatchedRequest;
@@ -419,14 +501,55 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
       }
    }
 
-   private class HttpRequestWriterImpl implements HttpRequestWriter {
-      private final HttpRequest request;
-      private final Http2Headers headers;
+   /**
+    * Reads next chunk of the file only when the previous one was written: the encoder would otherwise keep
+    * all the data frames until flow control permits sending them.
+    */
+   private class FileBodyWriter implements ChannelFutureListener {
+      private final int streamId;
+      private final FileBodyGenerator fileBody;
+      private final ChannelPromise promise;
+      private long position;
+
+      FileBodyWriter(int streamId, FileBodyGenerator fileBody, ChannelPromise promise) {
+         this.streamId = streamId;
+         this.fileBody = fileBody;
+         this.promise = promise;
+      }
+
+      void writeNext() {
+         ByteBuf chunk;
+         try {
+            // readChunk fails rather than returning empty buffer when the file was truncated
+            chunk = fileBody.readChunk(context.alloc(), position);
+         } catch (RuntimeException e) {
+            encoder.writeRstStream(context, streamId, Http2Error.INTERNAL_ERROR.code(), context.newPromise());
+            context.channel().flush();
+            promise.tryFailure(e);
+            return;
+         }
+         position += chunk.readableBytes();
+         boolean endStream = position >= fileBody.length();
+         ChannelPromise chunkPromise = context.newPromise();
+         encoder.writeData(context, streamId, chunk, 0, endStream, chunkPromise);
+         chunkPromise.addListener(this);
+         context.channel().flush();
+      }
 
-      HttpRequestWriterImpl(HttpRequest request, Http2Headers headers) {
-         this.request = request;
-         this.headers = headers;
+      @Override
+      public void operationComplete(ChannelFuture future) {
+         if (!future.isSuccess()) {
+            promise.tryFailure(future.cause());
+         } else if (position >= fileBody.length()) {
+            promise.trySuccess();
+         } else {
+            writeNext();
+         }
       }
+   }
+
+   private class HttpRequestWriterImpl implements HttpRequestWriter {
+      private HttpRequest request;
 
       @Override
       public HttpConnection connection() {
@@ -1,5 +1,7 @@
 package io.hyperfoil.http.cookie;
 
+import java.nio.charset.StandardCharsets;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -10,16 +12,33 @@ import io.hyperfoil.impl.Util;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.util.AsciiString;
 
+/**
+ * Cookies are parsed from the bytes of <code>Set-Cookie</code> header into preallocated slots with reusable arrays.
+ * All cookies matching the request are sent in a single <code>Cookie</code> header; its value is joined
+ * only when the jar or the set of matching cookies changes. Each join allocates a new array: header values
+ * can be retained after the request is sent (e.g. in the HPACK dynamic table), so these must not be modified.
+ */
 class CookieStore implements Session.Resource {
    private static final Logger log = LogManager.getLogger(CookieRecorder.class);
 
    // We need only single object for all cookies
-   public static final Session.ResourceKey<CookieStore> COOKIES = new Session.ResourceKey<CookieStore>() {
+   public static final Session.ResourceKey<CookieStore> COOKIES = new Session.ConstantResourceKey<CookieStore>() {
    };
 
    private static final Attribute[] ATTRIBUTES = Attribute.values();
+   // The matching cookies are tracked in an int bitmask
    private static final int MAX_SITES = 16;
+   private static final int INITIAL_CAPACITY = 64;
    private final Cookie[] cookies = new Cookie[MAX_SITES];
+   // Cookie being parsed; swapped with the slot where it's stored
+   private Cookie pending = new Cookie();
+   // Number of slots that have ever been used
+   private int size;
+   private int version;
+
+   private AsciiString joined;
+   private int joinedMask;
+   private int joinedVersion = -1;
 
    CookieStore() {
       for (int i = 0; i < cookies.length; ++i) {
@@ -29,52 +48,63 @@ class CookieStore implements Session.Resource {
 
    @Override
    public void onSessionReset(Session session) {
-      for (int i = 0; i < cookies.length; ++i) {
-         cookies[i].clear();
+      for (int i = 0; i < size; ++i) {
+         cookies[i].valid = false;
       }
+      size = 0;
+      ++version;
    }
 
    public void setCookie(CharSequence requestOrigin, CharSequence requestPath, CharSequence seq) {
-      int nameEnd = HttpUtil.indexOf(seq, 0, '=');
+      // Ascii values are already backed by byte array; other values are rare
+      AsciiString value = seq instanceof AsciiString ? (AsciiString) seq : new AsciiString(seq);
+      int nameEnd = value.indexOf('=', 0);
       if (nameEnd < 0) {
          log.warn("Invalid cookie value (no name): {}", seq);
          return;
       }
-      CharSequence name = seq.subSequence(0, nameEnd);
-      int valueEnd = HttpUtil.indexOf(seq, nameEnd + 1, ';');
-      CharSequence nameValue = seq.subSequence(0, valueEnd);
-      CharSequence domain = null;
-      CharSequence path = null;
-      boolean secure = false;
+      Cookie cookie = pending;
+      int valueEnd = HttpUtil.indexOf(value, nameEnd + 1, ';');
+      cookie.nameLength = nameEnd;
+      cookie.nameValue = copy(cookie.nameValue, value, 0, valueEnd);
+      cookie.nameValueLength = valueEnd;
+      boolean hasDomain = false;
+      boolean hasPath = false;
+      cookie.secure = false;
       long maxAge = Long.MAX_VALUE;
       long expires = Long.MAX_VALUE;
       ++valueEnd;
-      while (valueEnd < seq.length()) {
-         for (; valueEnd < seq.length() && seq.charAt(valueEnd) == ' '; ++valueEnd)
+      while (valueEnd < value.length()) {
+         for (; valueEnd < value.length() && value.byteAt(valueEnd) == ' '; ++valueEnd)
             ;
-         int semIndex = HttpUtil.indexOf(seq, valueEnd, ';');
+         int semIndex = HttpUtil.indexOf(value, valueEnd, ';');
          for (int a = 0; a < ATTRIBUTES.length; ++a) {
             Attribute attribute = ATTRIBUTES[a];
-            if (matchPrefix(attribute.text, seq, valueEnd)) {
+            if (matchPrefix(attribute.text, value, valueEnd)) {
+               int attributeStart = valueEnd + attribute.text.length;
                switch (attribute) {
                   case EXPIRES:
-                     expires = HttpUtil.parseDate(seq, valueEnd + attribute.text.length(), semIndex);
+                     expires = HttpUtil.parseDate(value, attributeStart, semIndex);
                      break;
                   case MAX_AGE:
-                     maxAge = Util.parseLong(seq, valueEnd + attribute.text.length(), semIndex, Long.MAX_VALUE);
+                     maxAge = Util.parseLong(value, attributeStart, semIndex, Long.MAX_VALUE);
                      break;
                   case DOMAIN:
                      // ignore leading dot
-                     if (valueEnd < seq.length() && seq.charAt(valueEnd) == '.') {
-                        ++valueEnd;
+                     if (attributeStart < semIndex && value.byteAt(attributeStart) == '.') {
+                        ++attributeStart;
                      }
-                     domain = seq.subSequence(valueEnd + attribute.text.length(), semIndex);
+                     cookie.domain = copy(cookie.domain, value, attributeStart, semIndex);
+                     cookie.domainLength = semIndex - attributeStart;
+                     hasDomain = true;
                      break;
                   case PATH:
-                     path = seq.subSequence(valueEnd + attribute.text.length(), semIndex);
+                     cookie.path = copy(cookie.path, value, attributeStart, semIndex);
+                     cookie.pathLength = semIndex - attributeStart;
+                     hasPath = true;
                      break;
                   case SECURE:
-                     secure = true;
+                     cookie.secure = true;
                      break;
                   case HTTPONLY:
                   case EXTENSION:
@@ -88,69 +118,123 @@ class CookieStore implements Session.Resource {
          valueEnd = semIndex + 1;
       }
       // omitted Domain attribute means that the cookie should be returned only to origin
-      boolean exactDomain = false;
       // We can set cookie for domain or superdomain of request origin
-      if (domain == null) {
-         domain = requestOrigin;
-         exactDomain = true;
-      } else if (!isSubdomain(requestOrigin, domain)) {
-         log.trace("Refusing to store cookie for domain {}, origin is {}", domain, requestOrigin);
+      if (!hasDomain) {
+         cookie.domain = copy(cookie.domain, requestOrigin, 0, requestOrigin.length());
+         cookie.domainLength = requestOrigin.length();
+         cookie.exactDomain = true;
+      } else if (!isSubdomain(requestOrigin, cookie.domain, cookie.domainLength)) {
+         if (log.isTraceEnabled()) {
+            log.trace("Refusing to store cookie for domain {}, origin is {}",
+                  new AsciiString(cookie.domain, 0, cookie.domainLength, false), requestOrigin);
+         }
          return;
+      } else {
+         cookie.exactDomain = false;
       }
       int requestPathLastSlashIndex = HttpUtil.lastIndexOf(requestPath, requestPath.length(), '/');
-      if (path == null) {
-         path = requestPath.subSequence(0, requestPathLastSlashIndex + 1);
-      } else if (!isSubpath(requestPath, requestPathLastSlashIndex + 1, path, path.length())) {
-         log.trace("Refusing to store cookie for path {}, origin is {}", path, requestPath);
+      if (!hasPath) {
+         cookie.path = copy(cookie.path, requestPath, 0, requestPathLastSlashIndex + 1);
+         cookie.pathLength = requestPathLastSlashIndex + 1;
+      } else if (!isSubpath(requestPath, requestPathLastSlashIndex + 1, cookie.path, cookie.pathLength)) {
+         if (log.isTraceEnabled()) {
+            log.trace("Refusing to store cookie for path {}, origin is {}",
+                  new AsciiString(cookie.path, 0, cookie.pathLength, false), requestPath);
+         }
          return;
       }
       long now = System.currentTimeMillis();
       if (maxAge != Long.MAX_VALUE) {
          expires = now + maxAge * 1000;
       }
-      for (int i = 0; i < cookies.length; ++i) {
-         if (cookies[i].name == null || cookies[i].name.length() == 0 || (AsciiString.contentEquals(cookies[i].name, name) &&
-               AsciiString.contentEquals(cookies[i].domain, domain) &&
-               AsciiString.contentEquals(cookies[i].path, path))) {
-            if (nameValue.length() == valueEnd + 1 || expires <= now) {
-               cookies[i].name = ""; // invalidate this entry as it's expired
+      cookie.expires = expires;
+      boolean expired = expires <= now;
+      int free = -1;
+      for (int i = 0; i < size; ++i) {
+         Cookie c = cookies[i];
+         if (!c.valid) {
+            if (free < 0) {
+               free = i;
+            }
+         } else if (c.sameCookie(cookie)) {
+            if (expired) {
+               c.valid = false;
             } else {
-               cookies[i].name = name;
-               cookies[i].nameValue = nameValue;
-               cookies[i].domain = domain;
-               cookies[i].exactDomain = exactDomain;
-               cookies[i].path = path;
-               cookies[i].secure = secure;
-               cookies[i].expires = expires;
+               store(i);
             }
+            ++version;
             return;
          }
       }
-      log.error("Exceeded number of cookies, dropping: {}", seq);
+      if (expired) {
+         return;
+      }
+      if (free < 0 && size < cookies.length) {
+         free = size++;
+      }
+      if (free < 0) {
+         log.error("Exceeded number of cookies, dropping: {}", seq);
+         return;
+      }
+      store(free);
+      ++version;
+   }
+
+   private void store(int index) {
+      Cookie previous = cookies[index];
+      pending.valid = true;
+      cookies[index] = pending;
+      previous.valid = false;
+      pending = previous;
+   }
+
+   private static byte[] copy(byte[] target, CharSequence source, int begin, int end) {
+      int length = end - begin;
+      if (target == null || target.length < length) {
+         target = new byte[Math.max(length, INITIAL_CAPACITY)];
+      }
+      if (source instanceof AsciiString) {
+         AsciiString ascii = (AsciiString) source;
+         System.arraycopy(ascii.array(), ascii.arrayOffset() + begin, target, 0, length);
+      } else {
+         for (int i = 0; i < length; ++i) {
+            target[i] = (byte) source.charAt(begin + i);
+         }
+      }
+      return target;
+   }
+
+   private static boolean regionMatches(CharSequence seq, int offset, byte[] bytes, int length) {
+      for (int i = 0; i < length; ++i) {
+         if (seq.charAt(offset + i) != (char) (bytes[i] & 0xFF)) {
+            return false;
+         }
+      }
+      return true;
    }
 
-   private static boolean isSubpath(CharSequence subpath, int subpathLength, CharSequence path, int pathLength) {
+   private static boolean isSubpath(CharSequence subpath, int subpathLength, byte[] path, int pathLength) {
       // example: subpath = /foo/bar, path = /foo -> true
       if (pathLength > subpathLength) {
          return false;
       }
-      return AsciiString.regionMatches(subpath, false, 0, path, 0, pathLength);
+      return regionMatches(subpath, 0, path, pathLength);
    }
 
-   private static boolean isSubdomain(CharSequence subdomain, CharSequence domain) {
-      if (subdomain.length() < domain.length()) {
+   private static boolean isSubdomain(CharSequence subdomain, byte[] domain, int domainLength) {
+      if (subdomain.length() < domainLength) {
          return false;
       }
-      return AsciiString.regionMatches(subdomain, false, subdomain.length() - domain.length(), domain, 0, domain.length());
+      return regionMatches(subdomain, subdomain.length() - domainLength, domain, domainLength);
    }
 
-   private static boolean matchPrefix(CharSequence prefix, CharSequence seq, int begin) {
-      int maxLength = prefix.length();
+   private static boolean matchPrefix(byte[] prefix, AsciiString seq, int begin) {
+      int maxLength = prefix.length;
       if (maxLength > seq.length() - begin) {
          return false;
       }
       for (int i = 0; i < maxLength; ++i) {
-         if (prefix.charAt(i) != Character.toLowerCase(seq.charAt(begin + i))) {
+         if (prefix[i] != AsciiString.toLowerCase((char) (seq.byteAt(begin + i) & 0xFF))) {
             return false;
          }
       }
@@ -161,41 +245,87 @@ class CookieStore implements Session.Resource {
       CharSequence domain = requestWriter.connection().host();
       CharSequence path = requestWriter.request().path;
       long now = System.currentTimeMillis();
-      for (int i = 0; i < cookies.length; ++i) {
+      int mask = 0;
+      for (int i = 0; i < size; ++i) {
          Cookie c = cookies[i];
-         if (c.name == null) {
-            break;
-         } else if (c.name.length() == 0) {
-            // continue
-         } else if (((!c.exactDomain && isSubdomain(domain, c.domain)) || AsciiString.contentEquals(domain, c.domain)) &&
-               isSubpath(path, path.length(), c.path, c.path.length()) &&
-               (!c.secure || requestWriter.connection().isSecure())) {
+         if (!c.valid) {
+            continue;
+         }
+         boolean domainMatches = c.exactDomain
+               ? domain.length() == c.domainLength && regionMatches(domain, 0, c.domain, c.domainLength)
+               : isSubdomain(domain, c.domain, c.domainLength);
+         if (domainMatches && isSubpath(path, path.length(), c.path, c.pathLength)
+               && (!c.secure || requestWriter.connection().isSecure())) {
             if (now >= c.expires) {
-               c.name = "";
+               c.valid = false;
+               ++version;
             } else {
-               requestWriter.putHeader(HttpHeaderNames.COOKIE, c.nameValue);
+               mask |= 1 << i;
             }
          }
       }
+      if (mask == 0) {
+         return;
+      }
+      if (mask != joinedMask || version != joinedVersion) {
+         join(mask);
+      }
+      requestWriter.putHeader(HttpHeaderNames.COOKIE, joined);
+   }
+
+   private void join(int mask) {
+      int length = 0;
+      for (int i = 0; i < size; ++i) {
+         if ((mask & (1 << i)) != 0) {
+            length += (length == 0 ? 0 : 2) + cookies[i].nameValueLength;
+         }
+      }
+      byte[] joinedBytes = new byte[length];
+      int position = 0;
+      for (int i = 0; i < size; ++i) {
+         if ((mask & (1 << i)) != 0) {
+            if (position > 0) {
+               joinedBytes[position++] = ';';
+               joinedBytes[position++] = ' ';
+            }
+            Cookie c = cookies[i];
+            System.arraycopy(c.nameValue, 0, joinedBytes, position, c.nameValueLength);
+            position += c.nameValueLength;
+         }
+      }
+      joined = new AsciiString(joinedBytes, false);
+      joinedMask = mask;
+      joinedVersion = version;
    }
 
    static class Cookie {
-      CharSequence name;
-      CharSequence nameValue;
-      CharSequence domain;
+      boolean valid;
+      // name is the prefix of nameValue
+      byte[] nameValue;
+      int nameLength;
+      int nameValueLength;
+      byte[] domain;
+      int domainLength;
       boolean exactDomain;
-      CharSequence path;
+      byte[] path;
+      int pathLength;
       long expires;
       boolean secure;
 
-      public void clear() {
-         name = null;
-         nameValue = null;
-         domain = null;
-         exactDomain = false;
-         path = null;
-         expires = 0;
-         secure = false;
+      boolean sameCookie(Cookie other) {
+         return nameLength == other.nameLength && domainLength == other.domainLength && pathLength == other.pathLength
+               && equals(nameValue, other.nameValue, nameLength)
+               && equals(domain, other.domain, domainLength)
+               && equals(path, other.path, pathLength);
+      }
+
+      private static boolean equals(byte[] a, byte[] b, int length) {
+         for (int i = 0; i < length; ++i) {
+            if (a[i] != b[i]) {
+               return false;
+            }
+         }
+         return true;
       }
    }
 
@@ -208,10 +338,10 @@ class CookieStore implements Session.Resource {
       HTTPONLY("httponly"),
       EXTENSION("");
 
-      final CharSequence text;
+      final byte[] text;
 
-      Attribute(CharSequence text) {
-         this.text = text;
+      Attribute(String text) {
+         this.text = text.getBytes(StandardCharsets.US_ASCII);
       }
    }
 }
@@ -4,14 +4,17 @@ import org.kohsuke.MetaInfServices;
 
 import io.hyperfoil.api.config.Name;
 import io.hyperfoil.api.statistics.Counters;
+import io.hyperfoil.api.statistics.StatsExtensionSlot;
 import io.hyperfoil.http.api.HeaderHandler;
 import io.hyperfoil.http.api.HttpRequest;
 
 public class CountHeadersHandler implements HeaderHandler {
+   private static final StatsExtensionSlot<Counters> COUNT_HEADERS = StatsExtensionSlot.register("countHeaders",
+         Counters::new);
+
    @Override
    public void handleHeader(HttpRequest request, CharSequence header, CharSequence value) {
-      request.statistics().update("countHeaders", request.startTimestampMillis(),
-            Counters::new, Counters::increment, header);
+      request.statistics().update(COUNT_HEADERS, request.startTimestampMillis(), Counters::increment, header);
    }
 
    /**
@@ -4,6 +4,7 @@ import org.kohsuke.MetaInfServices;
 
 import io.hyperfoil.api.config.Name;
 import io.hyperfoil.api.statistics.Counters;
+import io.hyperfoil.api.statistics.StatsExtensionSlot;
 import io.hyperfoil.http.api.HttpRequest;
 import io.hyperfoil.http.api.StatusHandler;
 
@@ -11,6 +12,7 @@ public class StatusToStatsHandler implements StatusHandler {
    private static final int FIRST_STATUS = 100;
    private static final int LAST_STATUS = 599;
    private static final String[] statusStrings;
+   private static final StatsExtensionSlot<Counters> EXACT_STATUS = StatsExtensionSlot.register("exact_status", Counters::new);
 
    static {
       statusStrings = new String[LAST_STATUS - FIRST_STATUS + 1];
@@ -27,8 +29,7 @@ public class StatusToStatsHandler implements StatusHandler {
       } else {
          statusString = "status_" + status;
       }
-      request.statistics().update("exact_status", request.startTimestampMillis(), Counters::new, Counters::increment,
-            statusString);
+      request.statistics().update(EXACT_STATUS, request.startTimestampMillis(), Counters::increment, statusString);
    }
 
    /**
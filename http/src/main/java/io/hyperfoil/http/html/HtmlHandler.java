@@ -23,10 +23,11 @@ import io.hyperfoil.impl.Util;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 
-public class HtmlHandler implements Processor, ResourceUtilizer, Session.ResourceKey<HtmlHandler.Context> {
+public class HtmlHandler implements Processor, ResourceUtilizer {
    private static final Logger log = LogManager.getLogger(HtmlHandler.class);
    private static final boolean trace = log.isTraceEnabled();
    private static final byte[] SCRIPT = "script".getBytes(StandardCharsets.UTF_8);
+   private final Session.ResourceKey<Context> key = new Session.IndexedResourceKey<>();
 
    private final TagHandler[] handlers;
 
@@ -50,7 +51,7 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
 
    @Override
    public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
-      Context ctx = session.getResource(this);
+      Context ctx = session.getResource(key);
       switch (ctx.tagStatus) {
          case PARSING_TAG:
             ctx.tagStart = offset;
@@ -198,7 +199,7 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
 
    @Override
    public void reserve(Session session) {
-      session.declareResource(this, Context::new);
+      session.declareResource(key, Context::new);
    }
 
    public interface TagHandlerBuilder<S extends TagHandlerBuilder<S>> extends BuilderBase<S> {
@@ -37,6 +37,8 @@ public class HttpParser extends AbstractParser<BenchmarkBuilder, HttpBuilder> {
       register("trustManager", new ReflectionParser<>(HttpBuilder::trustManager));
       register("connectionStrategy", new PropertyParser.Enum<>(ConnectionStrategy.values(), HttpBuilder::connectionStrategy));
       register("useHttpCache", new PropertyParser.Boolean<>(HttpBuilder::useHttpCache));
+      register("httpCacheMaxEntries", new PropertyParser.Int<>(HttpBuilder::httpCacheMaxEntries));
+      register("httpCacheMaxSize", new PropertyParser.Int<>(HttpBuilder::httpCacheMaxSize));
    }
 
    @Override
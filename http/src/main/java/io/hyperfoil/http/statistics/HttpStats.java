@@ -8,11 +8,13 @@ import io.hyperfoil.api.statistics.Statistics;
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
 import io.hyperfoil.api.statistics.StatisticsSummary;
 import io.hyperfoil.api.statistics.StatsExtension;
+import io.hyperfoil.api.statistics.StatsExtensionSlot;
 
 @MetaInfServices(StatsExtension.class)
 @JsonTypeName("http")
 public class HttpStats implements StatsExtension {
    public static final String HTTP = "http";
+   private static final StatsExtensionSlot<HttpStats> SLOT = StatsExtensionSlot.register(HTTP, HttpStats::new);
 
    private static final Statistics.LongUpdater<HttpStats> ADD_STATUS = (s, value) -> {
       switch ((int) value / 100) {
@@ -43,11 +45,11 @@ public class HttpStats implements StatsExtension {
    public int cacheHits;
 
    public static void addStatus(Statistics statistics, long timestamp, int status) {
-      statistics.update(HTTP, timestamp, HttpStats::new, HttpStats.ADD_STATUS, status);
+      statistics.update(SLOT, timestamp, HttpStats.ADD_STATUS, status);
    }
 
    public static void addCacheHit(Statistics statistics, long timestamp) {
-      statistics.update(HTTP, timestamp, HttpStats::new, HttpStats.ADD_CACHE_HIT, 1);
+      statistics.update(SLOT, timestamp, HttpStats.ADD_CACHE_HIT, 1);
    }
 
    public static HttpStats get(StatisticsSnapshot snapshot) {
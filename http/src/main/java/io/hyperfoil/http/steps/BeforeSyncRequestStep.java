@@ -5,17 +5,23 @@ import io.hyperfoil.api.session.ResourceUtilizer;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.core.util.BitSetResource;
 
-class BeforeSyncRequestStep implements Step, ResourceUtilizer, Session.ResourceKey<BitSetResource> {
+class BeforeSyncRequestStep implements Step, ResourceUtilizer {
+   private final Session.ResourceKey<BitSetResource> key = new Session.IndexedResourceKey<>();
+
    @Override
    public boolean invoke(Session s) {
-      BitSetResource resource = s.getResource(this);
+      BitSetResource resource = s.getResource(key);
       resource.clear(s.currentSequence().index());
       return true;
    }
 
+   Session.ResourceKey<BitSetResource> key() {
+      return key;
+   }
+
    @Override
    public void reserve(Session session) {
       int concurrency = session.currentSequence().definition().concurrency();
-      session.declareResource(this, () -> BitSetResource.with(concurrency), true);
+      session.declareResource(key, () -> BitSetResource.with(concurrency), true);
    }
 }
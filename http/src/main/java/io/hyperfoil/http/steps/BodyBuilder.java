@@ -11,6 +11,7 @@ import io.hyperfoil.core.generators.Pattern;
 import io.hyperfoil.core.session.SessionFactory;
 import io.hyperfoil.core.util.ConstantBytesGenerator;
 import io.hyperfoil.core.util.FromVarBytesGenerator;
+import io.hyperfoil.http.api.FileBodyGenerator;
 import io.hyperfoil.impl.Util;
 
 /**
@@ -94,6 +95,19 @@ public class BodyBuilder {
       return this;
    }
 
+   /**
+    * Send contents of the file present on the agent at given path, without loading it into memory.
+    * Plaintext HTTP/1.1 connections use zero-copy transfer (<code>sendfile</code>), TLS and HTTP/2 read the file
+    * in chunks. Note that this method does NOT set content-type automatically.
+    *
+    * @param path Path to the file on the agent.
+    * @return Self.
+    */
+   public BodyBuilder sendFile(String path) {
+      parent.body(new FileBodyGenerator(path));
+      return this;
+   }
+
    public HttpRequestStepBuilder endBody() {
       return parent;
    }
@@ -14,7 +14,7 @@ import io.hyperfoil.core.generators.Pattern;
 import io.hyperfoil.core.session.SessionFactory;
 import io.hyperfoil.function.SerializableBiConsumer;
 import io.hyperfoil.function.SerializableBiFunction;
-import io.hyperfoil.http.api.HttpRequestWriter;
+import io.hyperfoil.http.api.HttpRequestTemplate;
 import io.hyperfoil.impl.Util;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
@@ -215,10 +215,15 @@ public class FormGenerator implements SerializableBiFunction<Session, Connection
       }
    }
 
-   public static class ContentTypeWriter implements SerializableBiConsumer<Session, HttpRequestWriter> {
+   public static class ContentTypeWriter implements HttpRequestTemplate.StaticHeader {
       @Override
-      public void accept(Session session, HttpRequestWriter writer) {
-         writer.putHeader(HttpHeaderNames.CONTENT_TYPE, APPLICATION_X_WWW_FORM_URLENCODED);
+      public CharSequence header() {
+         return HttpHeaderNames.CONTENT_TYPE;
+      }
+
+      @Override
+      public CharSequence value() {
+         return APPLICATION_X_WWW_FORM_URLENCODED;
       }
    }
 }
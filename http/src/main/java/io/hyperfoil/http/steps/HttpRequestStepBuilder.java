@@ -52,6 +52,7 @@ import io.hyperfoil.function.SerializableFunction;
 import io.hyperfoil.http.UserAgentAppender;
 import io.hyperfoil.http.api.HttpMethod;
 import io.hyperfoil.http.api.HttpRequest;
+import io.hyperfoil.http.api.HttpRequestTemplate;
 import io.hyperfoil.http.api.HttpRequestWriter;
 import io.hyperfoil.http.config.ConnectionStrategy;
 import io.hyperfoil.http.config.HttpBuilder;
@@ -577,7 +578,7 @@ public class HttpRequestStepBuilder extends BaseStepBuilder<HttpRequestStepBuild
       // that this is added immediately after the SendHttpRequestStep, in case some of the handlers
       // insert their own steps after current step. (We could do this in the build() method, too).
       if (sync) {
-         locator.sequence().insertAfter(locator).step(new AfterSyncRequestStep(beforeSyncRequestStep));
+         locator.sequence().insertAfter(locator).step(new AfterSyncRequestStep(beforeSyncRequestStep.key()));
       }
    }
 
@@ -692,7 +693,7 @@ public class HttpRequestStepBuilder extends BaseStepBuilder<HttpRequestStepBuild
 
       @Override
       public void run(Session s) {
-         s.getResource(beforeSyncRequestStep).set(s.currentSequence().index());
+         s.getResource(beforeSyncRequestStep.key()).set(s.currentSequence().index());
       }
    }
 
@@ -740,7 +741,7 @@ public class HttpRequestStepBuilder extends BaseStepBuilder<HttpRequestStepBuild
       }
    }
 
-   private static class StaticHeaderWriter implements SerializableBiConsumer<Session, HttpRequestWriter> {
+   private static class StaticHeaderWriter implements HttpRequestTemplate.StaticHeader {
       private final CharSequence header;
       private final CharSequence value;
 
@@ -750,8 +751,13 @@ public class HttpRequestStepBuilder extends BaseStepBuilder<HttpRequestStepBuild
       }
 
       @Override
-      public void accept(Session session, HttpRequestWriter writer) {
-         writer.putHeader(header, value);
+      public CharSequence header() {
+         return header;
+      }
+
+      @Override
+      public CharSequence value() {
+         return value;
       }
    }
 
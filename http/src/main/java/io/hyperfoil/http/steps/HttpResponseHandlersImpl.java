@@ -38,6 +38,7 @@ import io.hyperfoil.core.data.LimitedPoolResource;
 import io.hyperfoil.core.data.Queue;
 import io.hyperfoil.core.handlers.ConditionalAction;
 import io.hyperfoil.core.handlers.ConditionalProcessor;
+import io.hyperfoil.core.handlers.json.JsonExtractor;
 import io.hyperfoil.core.steps.AwaitDelayStep;
 import io.hyperfoil.core.steps.PushQueueAction;
 import io.hyperfoil.core.steps.ScheduleDelayStep;
@@ -744,7 +745,7 @@ public class HttpResponseHandlersImpl implements HttpResponseHandlers, Serializa
          return new HttpResponseHandlersImpl(
                toArray(statusHandlers, StatusHandler.Builder::build, StatusHandler[]::new),
                toArray(headerHandlers, HeaderHandler.Builder::build, HeaderHandler[]::new),
-               toArray(bodyHandlers, b -> b.build(true), Processor[]::new),
+               toArray(JsonExtractor.merge(bodyHandlers), b -> b.build(true), Processor[]::new),
                toArray(completionHandlers, Action.Builder::build, Action[]::new),
                toArray(rawBytesHandlers, RawBytesHandler.Builder::build, RawBytesHandler[]::new));
       }
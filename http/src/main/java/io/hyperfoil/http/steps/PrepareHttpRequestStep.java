@@ -9,6 +9,7 @@ import io.hyperfoil.api.session.ResourceUtilizer;
 import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.statistics.StatisticsHandle;
 import io.hyperfoil.core.metric.MetricSelector;
 import io.hyperfoil.core.steps.StatisticsStep;
 import io.hyperfoil.function.SerializableFunction;
@@ -23,6 +24,7 @@ public class PrepareHttpRequestStep extends StatisticsStep implements ResourceUt
    private static final Logger log = LogManager.getLogger(PrepareHttpRequestStep.class);
 
    final HttpRequestContext.Key contextKey;
+   final StatisticsHandle.Key statisticsKey = new StatisticsHandle.Key();
    final SerializableFunction<Session, HttpMethod> method;
    final SerializableFunction<Session, String> endpoint;
    final SerializableFunction<Session, String> authority;
@@ -84,7 +86,7 @@ public class PrepareHttpRequestStep extends StatisticsStep implements ResourceUt
          request.authority = connectionPool.clientPool().authority();
          String metric = destinations.hasSingleDestination() ? metricSelector.apply(null, request.path)
                : metricSelector.apply(request.authority, request.path);
-         Statistics statistics = session.statistics(id(), metric);
+         Statistics statistics = session.getResource(statisticsKey).get(session, metric);
          request.start(connectionPool, handler, session.currentSequence(), statistics, metric);
          connectionPool.acquire(false, context);
       } catch (Throwable t) {
@@ -139,5 +141,6 @@ public class PrepareHttpRequestStep extends StatisticsStep implements ResourceUt
    @Override
    public void reserve(Session session) {
       session.declareResource(contextKey, HttpRequestContext::new);
+      session.declareSingletonResource(statisticsKey, new StatisticsHandle(id()));
    }
 }
@@ -14,6 +14,7 @@ import io.hyperfoil.core.steps.StatisticsStep;
 import io.hyperfoil.function.SerializableBiConsumer;
 import io.hyperfoil.function.SerializableBiFunction;
 import io.hyperfoil.http.api.HttpRequest;
+import io.hyperfoil.http.api.HttpRequestTemplate;
 import io.hyperfoil.http.api.HttpRequestWriter;
 import io.netty.buffer.ByteBuf;
 
@@ -24,6 +25,9 @@ public class SendHttpRequestStep extends StatisticsStep implements SLA.Provider
    final HttpRequestContext.Key contextKey;
    final SerializableBiFunction<Session, Connection, ByteBuf> bodyGenerator;
    final SerializableBiConsumer<Session, HttpRequestWriter>[] headerAppenders;
+   // Compiled from headerAppenders
+   @Visitor.Ignore
+   private final HttpRequestTemplate template;
    @Visitor.Ignore
    private final boolean injectHostHeader;
    final long timeout;
@@ -38,6 +42,7 @@ public class SendHttpRequestStep extends StatisticsStep implements SLA.Provider
       this.contextKey = contextKey;
       this.bodyGenerator = bodyGenerator;
       this.headerAppenders = headerAppenders;
+      this.template = new HttpRequestTemplate(headerAppenders);
       this.injectHostHeader = injectHostHeader;
       this.timeout = timeout;
       this.sla = sla;
@@ -65,7 +70,7 @@ public class SendHttpRequestStep extends StatisticsStep implements SLA.Provider
          RequestEvent.fire(request.startTimestampMillis(), request.startTimestampNanos(), request.path);
       }
 
-      request.send(context.connection, headerAppenders, injectHostHeader, bodyGenerator);
+      request.sendTemplate(context.connection, template, injectHostHeader, bodyGenerator);
       // We don't need the context anymore and we need to reset it (in case the step is repeated).
       context.reset();
       request.statistics().incrementRequests(request.startTimestampMillis());
@@ -77,7 +82,6 @@ public class SendHttpRequestStep extends StatisticsStep implements SLA.Provider
       }
       // Set up timeout only after successful request
       if (timeout > 0) {
-         // TODO alloc!
          request.setTimeout(timeout, TimeUnit.MILLISECONDS);
       } else {
          long timeout = request.connection().config().requestTimeout();
@@ -0,0 +1,34 @@
+package io.hyperfoil.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class HttpCacheStatsTest {
+   @Test
+   public void testFootprintOver2GiB() {
+      HttpCacheStats stats = new HttpCacheStats();
+      // default cache limit is 1 MiB per session
+      int sessions = 3000;
+      for (int i = 0; i < sessions; ++i) {
+         stats.update(1, 1 << 20);
+      }
+      assertThat(stats.records()).isEqualTo(sessions);
+      assertThat(stats.bytes()).isEqualTo((long) sessions << 20);
+
+      Map<String, int[]> reported = new HashMap<>();
+      stats.visitConnectionStats((authority, tag, min, max) -> reported.put(tag, new int[] { min, max }));
+      assertThat(reported.get("cache footprint (kB)")).containsExactly(0, sessions << 10);
+
+      for (int i = 0; i < sessions; ++i) {
+         stats.update(-1, -(1 << 20));
+      }
+      assertThat(stats.bytes()).isZero();
+      reported.clear();
+      stats.visitConnectionStats((authority, tag, min, max) -> reported.put(tag, new int[] { min, max }));
+      assertThat(reported.get("cache footprint (kB)")).containsExactly(0, sessions << 10);
+   }
+}
@@ -193,6 +193,39 @@ public class HttpCacheTest extends VertxBaseTest {
       test(ctx, context, true);
    }
 
+   @Test
+   public void testRevalidateHttp2(VertxTestContext ctx) {
+      var checkpoint = ctx.checkpoint();
+      Context context = new Context();
+
+      context.requests.add(() -> doRequest(context, GET_TEST, null));
+      context.serverQueue.add(req -> req.response()
+            .putHeader(HttpHeaderNames.ETAG, "\"foo\"").putHeader(HttpHeaderNames.CACHE_CONTROL, "no-cache").end());
+      context.handlers.add(req -> {
+         assertEquals(1, context.serverRequests.get());
+         assertCacheHits(ctx, req, 0);
+      });
+
+      // The record must be validated with the server
+      context.requests.add(() -> doRequest(context, GET_TEST, null));
+      context.serverQueue.add(req -> {
+         if (req.version() != io.vertx.core.http.HttpVersion.HTTP_2) {
+            ctx.failNow("HTTP/2 required");
+         } else if (req.getHeader(HttpHeaderNames.IF_NONE_MATCH) == null) {
+            ctx.failNow("Missing validation header");
+         }
+         req.response().setStatusCode(304).end();
+      });
+      context.handlers.add(req -> {
+         assertEquals(2, context.serverRequests.get());
+         assertTrue(context.serverQueue.isEmpty());
+         assertCacheHits(ctx, req, 0);
+         checkpoint.flag();
+      });
+
+      test(ctx, context, true, true);
+   }
+
    @Test
    public void testWithoutCache(VertxTestContext ctx) {
       // applies the same test logic of #testSimpleRequest but with cache disabled
@@ -259,8 +292,18 @@ public class HttpCacheTest extends VertxBaseTest {
    }
 
    private void test(VertxTestContext ctx, Context context, boolean cacheEnabled) {
+      test(ctx, context, cacheEnabled, false);
+   }
+
+   private void test(VertxTestContext ctx, Context context, boolean cacheEnabled, boolean http2) {
       assert !context.requests.isEmpty();
+      context.http2 = http2;
       vertx.createHttpServer().requestHandler(req -> {
+         if (http2 && "/".equals(req.path())) {
+            // H2C upgrade request sent when the connection is opened
+            req.response().end();
+            return;
+         }
          Consumer<HttpServerRequest> handler = context.serverQueue.poll();
          if (handler == null) {
             ctx.failNow("No handler for request.");
@@ -279,6 +322,10 @@ public class HttpCacheTest extends VertxBaseTest {
             cleanup.add(server::close);
             try {
                HttpBuilder builder = HttpBuilder.forTesting().host("localhost").port(server.actualPort());
+               if (http2) {
+                  // cleartext HTTP/2 with upgrade
+                  builder.allowHttp1x(false);
+               }
                HttpClientPool client = HttpClientPoolImpl.forTesting(builder.build(true), 1);
                client.start(result -> {
                   if (result.failed()) {
@@ -310,7 +357,12 @@ public class HttpCacheTest extends VertxBaseTest {
                   if (command == null) {
                      return;
                   }
-                  command.run();
+                  if (context.http2) {
+                     // HTTP/2 completes the request from within the response handling so we cannot send another one here
+                     context.pool.next().executor().execute(command);
+                  } else {
+                     command.run();
+                  }
                }
             })
             .build();
@@ -331,5 +383,6 @@ public class HttpCacheTest extends VertxBaseTest {
       Queue<Consumer<HttpRequest>> handlers = new LinkedList<>();
       AtomicInteger serverRequests = new AtomicInteger();
       Queue<Consumer<HttpServerRequest>> serverQueue = new LinkedList<>();
+      boolean http2;
    }
 }
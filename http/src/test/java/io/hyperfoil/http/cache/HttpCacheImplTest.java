@@ -0,0 +1,96 @@
+package io.hyperfoil.http.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import io.hyperfoil.core.test.TestClock;
+import io.hyperfoil.http.HttpCacheImpl;
+import io.hyperfoil.http.HttpCacheStats;
+import io.hyperfoil.http.api.HttpMethod;
+import io.hyperfoil.http.api.HttpRequest;
+
+public class HttpCacheImplTest {
+   private final TestClock clock = new TestClock();
+   private final HttpRequest request = new HttpRequest(null, true);
+
+   @Test
+   public void testEvictLeastRecentlyUsed() {
+      HttpCacheStats stats = new HttpCacheStats();
+      HttpCacheImpl cache = new HttpCacheImpl(clock, 2, Long.MAX_VALUE, stats);
+      store(cache, "/a", 0);
+      store(cache, "/b", 0);
+      assertTrue(isCached(cache, "/a"));
+      // /b is the least recently used now
+      store(cache, "/c", 0);
+      assertEquals(2, cache.size());
+      assertTrue(isCached(cache, "/a"));
+      assertFalse(isCached(cache, "/b"));
+      assertTrue(isCached(cache, "/c"));
+      assertEquals(2, stats.records());
+      assertEquals(cache.footprint(), stats.bytes());
+
+      cache.clear();
+      assertEquals(0, cache.size());
+      assertEquals(0, cache.footprint());
+      assertEquals(0, stats.records());
+      assertEquals(0, stats.bytes());
+   }
+
+   @Test
+   public void testEvictExpired() {
+      HttpCacheImpl cache = new HttpCacheImpl(clock, 3, Long.MAX_VALUE, null);
+      store(cache, "/a", 0);
+      store(cache, "/b", 1);
+      store(cache, "/c", 0);
+      clock.advance(2000);
+      store(cache, "/d", 0);
+      assertEquals(3, cache.size());
+      assertTrue(isCached(cache, "/a"));
+      assertFalse(isCached(cache, "/b"));
+      assertTrue(isCached(cache, "/c"));
+      assertTrue(isCached(cache, "/d"));
+   }
+
+   @Test
+   public void testFootprintLimit() {
+      HttpCacheImpl cache = new HttpCacheImpl(clock, Integer.MAX_VALUE, Long.MAX_VALUE, null);
+      store(cache, "/a", 0);
+      long single = cache.footprint();
+      assertTrue(single > 0);
+
+      cache = new HttpCacheImpl(clock, Integer.MAX_VALUE, 3 * single, null);
+      for (int i = 0; i < 10; ++i) {
+         store(cache, "/" + (char) ('a' + i), 0);
+      }
+      assertEquals(3, cache.size());
+      assertEquals(3 * single, cache.footprint());
+      assertTrue(isCached(cache, "/j"));
+      assertFalse(isCached(cache, "/a"));
+
+      cache.invalidate("localhost:8080", "/j");
+      assertEquals(2, cache.size());
+      assertEquals(2 * single, cache.footprint());
+   }
+
+   private void store(HttpCacheImpl cache, String path, int maxAge) {
+      prepare(path);
+      request.cacheControl.responseMaxAge = maxAge;
+      cache.tryStore(request);
+   }
+
+   private boolean isCached(HttpCacheImpl cache, String path) {
+      prepare(path);
+      cache.beforeRequestHeaders(request);
+      return cache.isCached(request, null);
+   }
+
+   private void prepare(String path) {
+      request.cacheControl.reset();
+      request.method = HttpMethod.GET;
+      request.authority = "localhost:8080";
+      request.path = path;
+   }
+}
@@ -0,0 +1,112 @@
+package io.hyperfoil.http.connection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http2.DefaultHttp2HeadersDecoder;
+import io.netty.handler.codec.http2.DefaultHttp2HeadersEncoder;
+import io.netty.handler.codec.http2.Http2ConnectionHandler;
+import io.netty.handler.codec.http2.Http2ConnectionHandlerBuilder;
+import io.netty.handler.codec.http2.Http2EventAdapter;
+import io.netty.handler.codec.http2.Http2Exception;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.util.AsciiString;
+
+public class FlatHttp2HeadersTest {
+   @Test
+   public void testReusedHeadersEncode() throws Http2Exception {
+      DefaultHttp2HeadersEncoder encoder = new DefaultHttp2HeadersEncoder();
+      DefaultHttp2HeadersDecoder decoder = new DefaultHttp2HeadersDecoder();
+      FlatHttp2Headers headers = new FlatHttp2Headers();
+
+      headers.path("/foo").method("GET").scheme("http").authority("localhost:8080");
+      headers.add("X-Foo", AsciiString.of("bar"));
+      headers.add("content-length", "42");
+      Http2Headers decoded = roundTrip(encoder, decoder, headers);
+      assertEquals(6, decoded.size());
+      assertEquals("GET", decoded.method().toString());
+      assertEquals("/foo", decoded.path().toString());
+      assertEquals("bar", decoded.get("x-foo").toString());
+      assertEquals("42", decoded.get("content-length").toString());
+
+      // second request uses the HPACK dynamic table entries added by the first one
+      headers.clear();
+      assertEquals(0, headers.size());
+      headers.method("POST").scheme("http").path("/bar").authority("localhost:8080");
+      headers.add("x-foo", "bar");
+      decoded = roundTrip(encoder, decoder, headers);
+      assertEquals(5, decoded.size());
+      assertEquals("POST", decoded.method().toString());
+      assertEquals("/bar", decoded.path().toString());
+      assertEquals("bar", decoded.get("x-foo").toString());
+      assertNull(decoded.get("content-length"));
+   }
+
+   @Test
+   public void testEncoderUsesSupportedCalls() throws Exception {
+      FlatHttp2Headers headers = new FlatHttp2Headers();
+      headers.method("GET").scheme("http").path("/foo").authority("localhost:8080");
+      headers.add("x-foo", "bar");
+      headers.add("content-length", "0");
+
+      // Record all calls the connection encoder makes on the headers
+      List<Method> calls = new ArrayList<>();
+      Http2Headers recording = (Http2Headers) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] { Http2Headers.class }, (proxy, method, args) -> {
+               calls.add(method);
+               try {
+                  return method.invoke(headers, args);
+               } catch (InvocationTargetException e) {
+                  throw e.getCause();
+               }
+            });
+
+      Http2ConnectionHandler handler = new Http2ConnectionHandlerBuilder().server(false)
+            .frameListener(new Http2EventAdapter()).build();
+      EmbeddedChannel channel = new EmbeddedChannel(handler);
+      try {
+         ChannelHandlerContext ctx = channel.pipeline().context(handler);
+         ChannelFuture future = handler.encoder().writeHeaders(ctx, 3, recording, 0, true, channel.newPromise());
+         channel.flush();
+         assertTrue(future.isSuccess(), () -> String.valueOf(future.cause()));
+      } finally {
+         channel.finishAndReleaseAll();
+      }
+
+      assertTrue(calls.stream().anyMatch(m -> m.getName().equals("iterator")));
+      for (Method method : calls) {
+         try {
+            // anything not declared in FlatHttp2Headers comes from EmptyHeaders
+            FlatHttp2Headers.class.getDeclaredMethod(method.getName(), method.getParameterTypes());
+         } catch (NoSuchMethodException e) {
+            fail("Encoder called unsupported " + method);
+         }
+      }
+   }
+
+   private Http2Headers roundTrip(DefaultHttp2HeadersEncoder encoder, DefaultHttp2HeadersDecoder decoder,
+         FlatHttp2Headers headers) throws Http2Exception {
+      ByteBuf buf = Unpooled.buffer();
+      try {
+         encoder.encodeHeaders(1, headers, buf);
+         return decoder.decodeHeaders(1, buf);
+      } finally {
+         buf.release();
+      }
+   }
+}
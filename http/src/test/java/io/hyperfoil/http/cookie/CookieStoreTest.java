@@ -10,6 +10,7 @@ import io.hyperfoil.http.BaseMockConnection;
 import io.hyperfoil.http.api.HttpConnection;
 import io.hyperfoil.http.api.HttpRequest;
 import io.hyperfoil.http.api.HttpRequestWriter;
+import io.netty.util.AsciiString;
 
 public class CookieStoreTest {
    @Test
@@ -146,10 +147,47 @@ public class CookieStoreTest {
       }
    }
 
+   @Test
+   public void testJoinedCookies() {
+      CookieStore store = new CookieStore();
+      store.setCookie("hyperfoil.io", "/", "foo=bar; path=/");
+      store.setCookie("hyperfoil.io", "/goo/", "goo=gar; path=/goo");
+
+      MockWriter writer1 = new MockWriter("hyperfoil.io", "/goo/x");
+      store.appendCookies(writer1);
+      assertThat(writer1.values).hasSize(1);
+      assertThat(writer1.values.get(0)).isEqualTo("foo=bar; goo=gar");
+
+      // the header is joined only when the jar or matching cookies change
+      MockWriter writer2 = new MockWriter("hyperfoil.io", "/goo/y");
+      store.appendCookies(writer2);
+      assertThat(writer2.rawValues.get(0)).isSameAs(writer1.rawValues.get(0));
+
+      MockWriter writer3 = new MockWriter("hyperfoil.io", "/x");
+      store.appendCookies(writer3);
+      assertThat(writer3.values.get(0)).isEqualTo("foo=bar");
+
+      store.setCookie("hyperfoil.io", "/", "foo=baz; path=/");
+      MockWriter writer4 = new MockWriter("hyperfoil.io", "/goo/x");
+      store.appendCookies(writer4);
+      assertThat(writer4.values.get(0)).isEqualTo("foo=baz; goo=gar");
+
+      store.setCookie("hyperfoil.io", "/", "foo=baz; path=/; max-age=0");
+      MockWriter writer5 = new MockWriter("hyperfoil.io", "/goo/x");
+      store.appendCookies(writer5);
+      assertThat(writer5.values.get(0)).isEqualTo("goo=gar");
+
+      // values that were already sent can be still referenced (e.g. by HPACK encoder) and must not change
+      assertThat(AsciiString.contentEquals(writer1.rawValues.get(0), "foo=bar; goo=gar")).isTrue();
+      assertThat(AsciiString.contentEquals(writer3.rawValues.get(0), "foo=bar")).isTrue();
+      assertThat(AsciiString.contentEquals(writer4.rawValues.get(0), "foo=baz; goo=gar")).isTrue();
+   }
+
    private static class MockWriter implements HttpRequestWriter {
       final String host;
       final String path;
-      final ArrayList<CharSequence> values = new ArrayList<>();
+      final ArrayList<String> values = new ArrayList<>();
+      final ArrayList<CharSequence> rawValues = new ArrayList<>();
 
       private MockWriter(String host, String path) {
          this.host = host;
@@ -175,7 +213,9 @@ public class CookieStoreTest {
 
       @Override
       public void putHeader(CharSequence header, CharSequence value) {
-         values.add(value);
+         // AsciiString.toString() would cache the string and hide later changes of the underlying array
+         values.add(new StringBuilder(value).toString());
+         rawValues.add(value);
       }
    }
 
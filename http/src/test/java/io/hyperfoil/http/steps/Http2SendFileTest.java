@@ -0,0 +1,19 @@
+package io.hyperfoil.http.steps;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.hyperfoil.http.config.HttpBuilder;
+import io.vertx.junit5.VertxExtension;
+
+@ExtendWith(VertxExtension.class)
+public class Http2SendFileTest extends SendFileTest {
+   @Override
+   protected boolean useHttps() {
+      return true;
+   }
+
+   @Override
+   protected void initHttp(HttpBuilder http) {
+      http.allowHttp1x(false);
+   }
+}
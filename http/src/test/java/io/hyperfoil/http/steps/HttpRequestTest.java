@@ -46,6 +46,14 @@ public class HttpRequestTest extends BaseHttpScenarioTest {
          String s = ctx.request().getParam("s");
          ctx.response().setStatusCode(Integer.parseInt(s)).end();
       });
+      router.get("/headers").handler(ctx -> {
+         boolean matches = "static1".equals(ctx.request().getHeader("x-a"))
+               && "bar".equals(ctx.request().getHeader("x-b"))
+               && "static2".equals(ctx.request().getHeader("x-c"))
+               && "static3".equals(ctx.request().getHeader("x-d"))
+               && "x y".equals(ctx.request().getParam("a"));
+         ctx.response().setStatusCode(matches ? 200 : 412).end();
+      });
       router.get("/test").handler(ctx -> {
          ctx.response().putHeader("x-foo", "5");
          String expectHeader = ctx.request().getParam("expectHeader");
@@ -231,4 +239,30 @@ public class HttpRequestTest extends BaseHttpScenarioTest {
       assertThat(HttpStats.get(stats.get("testFromVar")).status_2xx).isEqualTo(1);
       assertThat(HttpStats.get(stats.get("testPattern")).status_2xx).isEqualTo(1);
    }
+
+   @Test
+   public void testStaticAndDynamicHeaders() {
+      // static headers are compiled into shared segments between the dynamic ones
+      // @formatter:off
+      scenario()
+            .initialSequence("test")
+               .step(SC).action(new SetAction.Builder()
+                  .var("foo")
+                  .value("bar"))
+               .step(SC).httpRequest(HttpMethod.GET)
+                  .path("/headers?a=x y")
+                  .headers()
+                     .header("x-a", "static1")
+                     .withKey("x-b")
+                        .fromVar("foo")
+                     .end()
+                     .header("x-c", "static2")
+                     .header("x-d", "static3")
+                  .endHeaders()
+               .endStep()
+            .endSequence();
+      // @formatter:on
+      Map<String, StatisticsSnapshot> stats = runScenario();
+      assertThat(HttpStats.get(stats.get("test")).status_2xx).isEqualTo(1);
+   }
 }
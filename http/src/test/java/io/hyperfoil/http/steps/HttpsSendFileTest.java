@@ -0,0 +1,20 @@
+package io.hyperfoil.http.steps;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.hyperfoil.http.config.HttpBuilder;
+import io.vertx.junit5.VertxExtension;
+
+@ExtendWith(VertxExtension.class)
+public class HttpsSendFileTest extends SendFileTest {
+   @Override
+   protected boolean useHttps() {
+      return true;
+   }
+
+   @Override
+   protected void initHttp(HttpBuilder http) {
+      super.initHttp(http);
+      http.allowHttp2(false);
+   }
+}
@@ -0,0 +1,79 @@
+package io.hyperfoil.http.steps;
+
+import static io.hyperfoil.http.steps.HttpStepCatalog.SC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.http.BaseHttpScenarioTest;
+import io.hyperfoil.http.api.FileBodyGenerator;
+import io.hyperfoil.http.api.HttpMethod;
+import io.hyperfoil.http.config.HttpBuilder;
+import io.hyperfoil.http.statistics.HttpStats;
+import io.vertx.ext.web.handler.BodyHandler;
+import io.vertx.junit5.VertxExtension;
+
+/**
+ * Plaintext HTTP 1.x sends the file using FileRegion; subclasses cover the chunked transfer.
+ */
+@ExtendWith(VertxExtension.class)
+public class SendFileTest extends BaseHttpScenarioTest {
+   // spans multiple chunks when it is not sent using FileRegion
+   private final byte[] content = new byte[FileBodyGenerator.CHUNK_SIZE * 3 + 17];
+
+   @Override
+   protected void initRouter() {
+      ThreadLocalRandom.current().nextBytes(content);
+      router.route().handler(BodyHandler.create());
+      router.post("/file").handler(ctx -> {
+         boolean matches = Arrays.equals(content, ctx.body().buffer().getBytes());
+         ctx.response().setStatusCode(matches ? 200 : 412).end();
+      });
+      router.post("/test").handler(ctx -> {
+         ctx.response().setStatusCode("bar".equals(ctx.body().asString()) ? 200 : 412).end();
+      });
+   }
+
+   @Override
+   protected void initHttp(HttpBuilder http) {
+      // bodies of pipelined requests must not interleave with the file
+      http.pipeliningLimit(4);
+   }
+
+   @Test
+   public void testSendFile() throws IOException {
+      Path file = Files.createTempFile("hyperfoil-body", ".bin");
+      try {
+         Files.write(file, content);
+         // @formatter:off
+         scenario(5)
+               .initialSequence("file")
+                  .step(SC).httpRequest(HttpMethod.POST)
+                     .path("/file")
+                     .body().sendFile(file.toString()).endBody()
+                  .endStep()
+               .endSequence()
+               .initialSequence("text")
+                  .step(SC).httpRequest(HttpMethod.POST)
+                     .path("/test")
+                     .body().text("bar").endBody()
+                  .endStep()
+               .endSequence();
+         // @formatter:on
+         Map<String, StatisticsSnapshot> stats = runScenario();
+         assertThat(HttpStats.get(stats.get("file")).status_2xx).isEqualTo(5);
+         assertThat(HttpStats.get(stats.get("text")).status_2xx).isEqualTo(5);
+      } finally {
+         Files.deleteIfExists(file);
+      }
+   }
+}